@@ -5,7 +5,7 @@ import environment.*;
  * The Assignment class models an assignment instruction by storing
  * a specific variable and the expression being assigned to it.
  * @author Aditya Ramanathan
- * @version 4/1/24
+ * @version 4/1/24, register variables, $gp globals 10/19/26
  */
 public class Assignment extends Statement
 {
@@ -33,6 +33,15 @@ public class Assignment extends Statement
         return var;
     }
 
+    /**
+     * Retrieves the expression being assigned to the variable.
+     * @return the expression.
+     */
+    public Expression getExpression()
+    {
+        return exp;
+    }
+
     /**
      * Sets the variable to the expression in the environment.
      * @param env the environment containing the variables needed to perform the
@@ -47,18 +56,25 @@ public class Assignment extends Statement
     /**
      * Compiles the Assignment object by compiling the expression and assigning
      * the value in that expression to the local variable or global variable.
+     * A variable kept in an $s register receives the value directly.
      * @param e the emitter used to emit the MIPS instructions.
      */
     public void compile(Emitter e)
     {
+        String reg = e.getRegister(var);
+        if(reg != null)
+        {
+            exp.compile(e, reg, 0);
+            return;
+        }
         exp.compile(e);
         if(e.isLocalVariable(var))
         {
-            e.emit("sw $v0 " + e.getOffset(var) + "($sp)");
+            e.emit(Opcode.SW, "$v0", MipsInstruction.address(e.getOffset(var), "$sp"));
         }
         else
         {
-            e.emit("sw $v0 " + var);
+            e.emit(Opcode.SW, "$v0", e.getGlobalAddress(var));
         }
     }
 }
@@ -0,0 +1,189 @@
+package ast;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An AstRewriter walks a Program and builds a copy of it, one node at a time.
+ * On its own it produces an identical copy. Tools that change the tree extend
+ * it and override the rewrite method for the kind of node they care about,
+ * calling the method of this class to rewrite the children. Rewritten
+ * statements and conditions keep the line numbers of the originals. Nodes that
+ * this class does not know about are returned unchanged.
+ *
+ * Usage:
+ * Program copy = new AstRewriter().rewriteProgram(program);
+ *
+ * @author Aditya Ramanathan
+ * @version 10/19/26
+ */
+public class AstRewriter
+{
+    private ProcedureDeclaration currProc;
+
+    /**
+     * Rewrites every procedure and the main statement of a program.
+     * @param program the program to rewrite.
+     * @return the rewritten program.
+     */
+    public Program rewriteProgram(Program program)
+    {
+        List<ProcedureDeclaration> decs = new ArrayList<ProcedureDeclaration>();
+        for(ProcedureDeclaration dec: program.getProcedureDeclarations())
+        {
+            decs.add(rewriteProcedure(dec));
+        }
+        Statement st = rewriteStatement(program.getStatement());
+        return new Program(decs, st, new ArrayList<String>(program.getVariables()));
+    }
+
+    /**
+     * Rewrites the statement(s) of a procedure. While the body is being
+     * rewritten, getProcedureContext() returns the procedure.
+     * @param dec the procedure to rewrite.
+     * @return the rewritten procedure.
+     */
+    public ProcedureDeclaration rewriteProcedure(ProcedureDeclaration dec)
+    {
+        ProcedureDeclaration outer = currProc;
+        currProc = dec;
+        try
+        {
+            ProcedureDeclaration copy = new ProcedureDeclaration(dec.getName(),
+                    rewriteStatement(dec.getStatement()),
+                    new ArrayList<String>(dec.getParms()),
+                    new ArrayList<String>(dec.getLocalVariables()));
+            copy.setLine(dec.getLine());
+            return copy;
+        }
+        finally
+        {
+            currProc = outer;
+        }
+    }
+
+    /**
+     * Retrieves the procedure whose body is being rewritten.
+     * @return the procedure, or null while the main statement is being rewritten.
+     */
+    protected ProcedureDeclaration getProcedureContext()
+    {
+        return currProc;
+    }
+
+    /**
+     * Rewrites a statement and everything below it.
+     * @param st the statement to rewrite.
+     * @return the rewritten statement.
+     */
+    public Statement rewriteStatement(Statement st)
+    {
+        Statement copy;
+        if(st instanceof Block)
+        {
+            List<Statement> stmts = new ArrayList<Statement>();
+            for(Statement child: ((Block) st).getStatements())
+            {
+                stmts.add(rewriteStatement(child));
+            }
+            copy = new Block(stmts);
+        }
+        else if(st instanceof Assignment)
+        {
+            Assignment assignment = (Assignment) st;
+            copy = new Assignment(assignment.getVarName(),
+                    rewriteExpression(assignment.getExpression()));
+        }
+        else if(st instanceof Writeln)
+        {
+            copy = new Writeln(rewriteExpression(((Writeln) st).getExpression()));
+        }
+        else if(st instanceof Readln)
+        {
+            copy = new Readln(((Readln) st).getVarName());
+        }
+        else if(st instanceof If)
+        {
+            If ifSt = (If) st;
+            Condition cond = rewriteCondition(ifSt.getCondition());
+            Statement then = rewriteStatement(ifSt.getStatement());
+            if(ifSt.getElseStatement() == null)
+            {
+                copy = new If(cond, then);
+            }
+            else
+            {
+                copy = new If(cond, then, rewriteStatement(ifSt.getElseStatement()));
+            }
+        }
+        else if(st instanceof While)
+        {
+            While loop = (While) st;
+            copy = new While(rewriteCondition(loop.getCondition()),
+                    rewriteStatement(loop.getStatement()));
+        }
+        else
+        {
+            return st;
+        }
+        copy.setLine(st.getLine());
+        return copy;
+    }
+
+    /**
+     * Rewrites a condition and both of its expressions.
+     * @param cond the condition to rewrite.
+     * @return the rewritten condition.
+     */
+    public Condition rewriteCondition(Condition cond)
+    {
+        Condition copy = new Condition(rewriteExpression(cond.getLeft()), cond.getRelop(),
+                rewriteExpression(cond.getRight()));
+        copy.setLine(cond.getLine());
+        return copy;
+    }
+
+    /**
+     * Rewrites an expression and everything below it.
+     * @param exp the expression to rewrite.
+     * @return the rewritten expression.
+     */
+    public Expression rewriteExpression(Expression exp)
+    {
+        if(exp instanceof BinOp)
+        {
+            BinOp binOp = (BinOp) exp;
+            return new BinOp(binOp.getOp(), rewriteExpression(binOp.getExp1()),
+                    rewriteExpression(binOp.getExp2()));
+        }
+        else if(exp instanceof ProcedureCall)
+        {
+            ProcedureCall call = (ProcedureCall) exp;
+            List<Expression> args = new ArrayList<Expression>();
+            for(Expression arg: call.getArgs())
+            {
+                args.add(rewriteExpression(arg));
+            }
+            return new ProcedureCall(call.getName(), args);
+        }
+        else if(exp instanceof Intrinsic)
+        {
+            Intrinsic intrinsic = (Intrinsic) exp;
+            List<Expression> args = new ArrayList<Expression>();
+            for(Expression arg: intrinsic.getArgs())
+            {
+                args.add(rewriteExpression(arg));
+            }
+            return new Intrinsic(intrinsic.getName(), args);
+        }
+        else if(exp instanceof Number)
+        {
+            return new Number(((Number) exp).getValue());
+        }
+        else if(exp instanceof Variable)
+        {
+            return new Variable(((Variable) exp).getName());
+        }
+        return exp;
+    }
+}
@@ -0,0 +1,135 @@
+package ast;
+
+/**
+ * An AstWalker visits every node of a Program without changing anything. It
+ * is the read only counterpart of the AstRewriter: analyses extend it and
+ * override the visit method for the kind of node they care about, calling the
+ * method of this class to visit the children.
+ *
+ * Usage:
+ * new AstWalker().walkProgram(program);
+ *
+ * @author Aditya Ramanathan
+ * @version 10/19/26
+ */
+public class AstWalker
+{
+    private ProcedureDeclaration currProc;
+
+    /**
+     * Visits every procedure and then the main statement of a program.
+     * @param program the program to visit.
+     */
+    public void walkProgram(Program program)
+    {
+        for(ProcedureDeclaration dec: program.getProcedureDeclarations())
+        {
+            visitProcedure(dec);
+        }
+        visitStatement(program.getStatement());
+    }
+
+    /**
+     * Visits the statement(s) of a procedure. While the body is being visited,
+     * getProcedureContext() returns the procedure.
+     * @param dec the procedure to visit.
+     */
+    public void visitProcedure(ProcedureDeclaration dec)
+    {
+        ProcedureDeclaration outer = currProc;
+        currProc = dec;
+        try
+        {
+            visitStatement(dec.getStatement());
+        }
+        finally
+        {
+            currProc = outer;
+        }
+    }
+
+    /**
+     * Retrieves the procedure whose body is being visited.
+     * @return the procedure, or null while the main statement is being visited.
+     */
+    protected ProcedureDeclaration getProcedureContext()
+    {
+        return currProc;
+    }
+
+    /**
+     * Visits a statement and everything below it.
+     * @param st the statement to visit.
+     */
+    public void visitStatement(Statement st)
+    {
+        if(st instanceof Block)
+        {
+            for(Statement child: ((Block) st).getStatements())
+            {
+                visitStatement(child);
+            }
+        }
+        else if(st instanceof Assignment)
+        {
+            visitExpression(((Assignment) st).getExpression());
+        }
+        else if(st instanceof Writeln)
+        {
+            visitExpression(((Writeln) st).getExpression());
+        }
+        else if(st instanceof If)
+        {
+            If ifSt = (If) st;
+            visitCondition(ifSt.getCondition());
+            visitStatement(ifSt.getStatement());
+            if(ifSt.getElseStatement() != null)
+            {
+                visitStatement(ifSt.getElseStatement());
+            }
+        }
+        else if(st instanceof While)
+        {
+            While loop = (While) st;
+            visitCondition(loop.getCondition());
+            visitStatement(loop.getStatement());
+        }
+    }
+
+    /**
+     * Visits both expressions of a condition.
+     * @param cond the condition to visit.
+     */
+    public void visitCondition(Condition cond)
+    {
+        visitExpression(cond.getLeft());
+        visitExpression(cond.getRight());
+    }
+
+    /**
+     * Visits an expression and everything below it.
+     * @param exp the expression to visit.
+     */
+    public void visitExpression(Expression exp)
+    {
+        if(exp instanceof BinOp)
+        {
+            visitExpression(((BinOp) exp).getExp1());
+            visitExpression(((BinOp) exp).getExp2());
+        }
+        else if(exp instanceof ProcedureCall)
+        {
+            for(Expression arg: ((ProcedureCall) exp).getArgs())
+            {
+                visitExpression(arg);
+            }
+        }
+        else if(exp instanceof Intrinsic)
+        {
+            for(Expression arg: ((Intrinsic) exp).getArgs())
+            {
+                visitExpression(arg);
+            }
+        }
+    }
+}
@@ -6,13 +6,14 @@ import environment.*;
  * containing two expressions and an operaton that needs to be done on
  * them. (exp1 op exp2) is the result of the execution.
  * @author Aditya Ramanathan
- * @version 4/1/24
+ * @version 4/1/24, strength reduction for constant operands, register evaluation, instruction selection 10/19/26
  */
 public class BinOp extends Expression
 {
     private String op;
     private Expression exp1;
     private Expression exp2;
+    private int need; // the Sethi-Ullman number, 0 until it is found
 
     /**
      * Creates a BinOp object with the operator and the two expressions. The
@@ -28,6 +29,33 @@ public class BinOp extends Expression
         this.exp2 = exp2;
     }
 
+    /**
+     * Retrieves the operator.
+     * @return the operator, one of "+", "-", "*", "/", "%".
+     */
+    public String getOp()
+    {
+        return op;
+    }
+
+    /**
+     * Retrieves the first expression.
+     * @return the expression on the left of the operator.
+     */
+    public Expression getExp1()
+    {
+        return exp1;
+    }
+
+    /**
+     * Retrieves the second expression.
+     * @return the expression on the right of the operator.
+     */
+    public Expression getExp2()
+    {
+        return exp2;
+    }
+
     /**
      * Performs the operation on the two expressions. In order to do so, it
      * evaluates the sub components of the tree contained within the two expressions,
@@ -37,63 +65,164 @@ public class BinOp extends Expression
      * @return the value obtained after the operation is performed.
      */
     public int eval(Environment env)
+    {
+        return apply(exp1.eval(env), exp2.eval(env));
+    }
+
+    /**
+     * Performs the operation on two values that have already been evaluated,
+     * with the 32 bit wrap around of Java ints.
+     * @param value1 the value of the first expression.
+     * @param value2 the value of the second expression.
+     * @return value1 op value2.
+     * @throws ArithmeticException if the operation divides by zero.
+     */
+    public int apply(int value1, int value2)
     {
         if(op.equals("+"))
         {
-            return exp1.eval(env) + exp2.eval(env);
+            return value1 + value2;
         }
         else if(op.equals("-"))
         {
-            return exp1.eval(env) - exp2.eval(env);
+            return value1 - value2;
         }
         else if(op.equals("*"))
         {
-            return exp1.eval(env) * exp2.eval(env);
+            return value1 * value2;
         }
         else if(op.equals("/"))
         {
-            return exp1.eval(env) / exp2.eval(env);
+            return value1 / value2;
         }
         else
         {
-            return exp1.eval(env) % exp2.eval(env);
+            return value1 % value2;
+        }
+    }
+
+    /**
+     * Finds the immediate that adds the value of a constant operand with
+     * addiu, if the operation is "+" or "-" and it fits in 16 bits.
+     * @return the immediate, or null if the operation needs both operands in
+     * registers.
+     */
+    private Integer getImmediate()
+    {
+        Integer immediate = null;
+        if(op.equals("+") && exp2 instanceof Number)
+        {
+            immediate = ((Number) exp2).getValue();
+        }
+        else if(op.equals("+") && exp1 instanceof Number)
+        {
+            immediate = ((Number) exp1).getValue();
         }
+        else if(op.equals("-") && exp2 instanceof Number && ((Number) exp2).getValue() != Integer.MIN_VALUE)
+        {
+            immediate = -((Number) exp2).getValue();
+        }
+        if(immediate == null || immediate < Short.MIN_VALUE || immediate > Short.MAX_VALUE)
+        {
+            return null;
+        }
+        return immediate;
     }
 
     /**
-     * Compiles the BinOp object by compiling the first expression, pushing
-     * it to the stack, compiling the second, popping the first from the stack
-     * into another register and putting the final value in $v0.
+     * Retrieves the Sethi-Ullman number of the operation, which is found the
+     * first time it is needed. An operation by a constant that is compiled
+     * without the stack, or with an immediate, needs only the registers of
+     * its other operand.
+     * @return the number of registers needed to evaluate the operation.
+     */
+    public int getRegisterNeed()
+    {
+        if(need == 0)
+        {
+            if(getImmediate() != null)
+            {
+                need = (exp2 instanceof Number ? exp1 : exp2).getRegisterNeed();
+            }
+            else if(!op.equals("+") && !op.equals("-") && exp2 instanceof Number)
+            {
+                need = exp1.getRegisterNeed();
+            }
+            else if(op.equals("*") && exp1 instanceof Number)
+            {
+                need = exp2.getRegisterNeed();
+            }
+            else
+            {
+                need = combineNeeds(exp1.getRegisterNeed(), exp2.getRegisterNeed());
+            }
+        }
+        return need;
+    }
+
+    /**
+     * Compiles the BinOp object by evaluating both expressions into registers,
+     * the one that needs more registers first, and putting the final value
+     * in the register. Adding or subtracting a constant that fits in 16 bits
+     * is one addiu. Multiplying, dividing or taking the remainder by a
+     * constant uses only the register of the other expression and the shift
+     * sequences of the emitter where they apply. Operands that are already in
+     * registers are read where they are.
      * @param e the emitter used to emit the MIPS instructions.
+     * @param dest the register that receives the value.
+     * @param free the index of the first free register of the pool.
      */
-    public void compile(Emitter e)
+    public void compile(Emitter e, String dest, int free)
     {
-        exp1.compile(e);
-        e.emitPush("$v0");
-        exp2.compile(e);
-        e.emitPop("$t0");
+        Integer immediate = getImmediate();
+        if(immediate != null)
+        {
+            Expression other = exp2 instanceof Number ? exp1 : exp2;
+            e.emit(Opcode.ADDIU, dest, compileSource(e, other, dest, free), immediate);
+            return;
+        }
+        if(!op.equals("+") && !op.equals("-") && exp2 instanceof Number)
+        {
+            String source = compileSource(e, exp1, dest, free);
+            int constant = ((Number) exp2).getValue();
+            if(op.equals("*"))
+            {
+                e.emitMultiply(dest, source, constant, "$v1");
+            }
+            else
+            {
+                e.emitDivide(dest, source, constant, "$v1", op.equals("%"));
+            }
+            return;
+        }
+        if(op.equals("*") && exp1 instanceof Number)
+        {
+            e.emitMultiply(dest, compileSource(e, exp2, dest, free), ((Number) exp1).getValue(), "$v1");
+            return;
+        }
+        String[] regs = compileSources(e, exp1, exp2, free);
         if(op.equals("+"))
         {
-            e.emit("addu $v0 $v0 $t0");
+            e.emit(Opcode.ADDU, dest, regs[0], regs[1]);
         }
         else if(op.equals("-"))
         {
-            e.emit("subu $v0 $t0 $v0");
+            e.emit(Opcode.SUBU, dest, regs[0], regs[1]);
         }
         else if(op.equals("*"))
         {
-            e.emit("mult $t0 $v0");
-            e.emit("mflo $v0");
+            e.emit(Opcode.MULT, regs[0], regs[1]);
+            e.emit(Opcode.MFLO, dest);
         }
         else if(op.equals("/"))
         {
-            e.emit("div $t0 $v0");
-            e.emit("mflo $v0");
+            e.emit(Opcode.DIV, regs[0], regs[1]);
+            e.emit(Opcode.MFLO, dest);
         }
         else if(op.equals("%"))
         {
-            e.emit("div $t0 $v0");
-            e.emit("mfhi $v0");
+            e.emit(Opcode.DIV, regs[0], regs[1]);
+            e.emit(Opcode.MFHI, dest);
         }
     }
 }
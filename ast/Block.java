@@ -33,7 +33,8 @@ public class Block extends Statement
     }
 
     /**
-     * Executes each individual statement in the list of statements.
+     * Executes each individual statement in the list of statements, recording
+     * the line of each one on the shadow stack as it starts.
      * @param env the environment containing the variables needed to perform the
      * operation and evaulate the expressions.
      * @postcondition the statement(s) has(ve) been executed and any variables
@@ -41,8 +42,10 @@ public class Block extends Statement
      */
     public void exec(Environment env)
     {
+        ShadowStack stack = env.getShadowStack();
         for(Statement st: stmts)
         {
+            stack.setLine(st.getLine());
             st.exec(env);
         }
     }
@@ -6,13 +6,14 @@ import environment.*;
  * that follows a "IF" or "WHILE" token in order to determine whether a
  * line(s) of code should be executed.
  * @author Aditya Ramamanthan
- * @version 4/10/24
+ * @version 4/10/24, compileTrue, register evaluation, instruction selection 10/19/26
  */
 public class Condition
 {
     private Expression left;
     private String relop;
     private Expression right;
+    private int line;
 
     /**
      * Instantiates a Condition object with the left expression, the right
@@ -28,6 +29,53 @@ public class Condition
         this.relop = relop;
     }
 
+    /**
+     * Retrieves the expression on the left side of the operator.
+     * @return the left expression.
+     */
+    public Expression getLeft()
+    {
+        return left;
+    }
+
+    /**
+     * Retrieves the comparison operator.
+     * @return the relop, one of ">", "<", ">=", "<=", "=", "<>".
+     */
+    public String getRelop()
+    {
+        return relop;
+    }
+
+    /**
+     * Retrieves the expression on the right side of the operator.
+     * @return the right expression.
+     */
+    public Expression getRight()
+    {
+        return right;
+    }
+
+    /**
+     * Retrieves the line of the source program on which this condition starts.
+     * @return the line number, or 0 if it is not known.
+     */
+    public int getLine()
+    {
+        return line;
+    }
+
+    /**
+     * Records the line of the source program on which this condition starts.
+     * The parser calls this once, right after creating the condition.
+     * @param line the line number.
+     * @postcondition getLine() returns the line number.
+     */
+    public void setLine(int line)
+    {
+        this.line = line;
+    }
+
     /**
      * Evaluates the expression and determines whether the "IF" statement
      * should be executed or the "WHILE" loop should be executed.
@@ -36,68 +84,182 @@ public class Condition
      * @return true if the condition is true, false if the condition is false.
      */
     public boolean eval(Environment env)
+    {
+        return test(left.eval(env), right.eval(env));
+    }
+
+    /**
+     * Compares two values that have already been evaluated.
+     * @param value1 the value of the left expression.
+     * @param value2 the value of the right expression.
+     * @return true if value1 relop value2 holds.
+     */
+    public boolean test(int value1, int value2)
     {
         if(relop.equals(">"))
         {
-            return left.eval(env) > right.eval(env);
+            return value1 > value2;
         }
         else if(relop.equals("<"))
         {
-            return left.eval(env) < right.eval(env);
+            return value1 < value2;
         }
         else if(relop.equals("<="))
         {
-            return left.eval(env) <= right.eval(env);
+            return value1 <= value2;
         }
         else if(relop.equals(">="))
         {
-            return left.eval(env) >= right.eval(env);
+            return value1 >= value2;
         }
         else if(relop.equals("="))
         {
-            return left.eval(env) == right.eval(env);
+            return value1 == value2;
         }
         else
         {
-            return left.eval(env) != right.eval(env);
+            return value1 != value2;
         }
     }
 
     /**
-     * Compiles the Condition object by compiling the left statement and
-     * using the stack to have $v0 open to compile the right statement. Then
-     * it produces the correct statement in MIPS based on the operator.
+     * Compiles the Condition object into a branch to the label that is taken
+     * when the condition is false.
      * @param e the emitter used to emit the MIPS instructions.
+     * @param label the label to branch to if the condition is false.
      */
     public void compile(Emitter e, String label)
     {
-        left.compile(e);
-        e.emitPush("$v0");
-        right.compile(e);
-        e.emitPop("$t0");
-        if(relop.equals(">"))
+        compileBranch(e, negate(relop), label);
+    }
+
+    /**
+     * Compiles the Condition like compile, but branches to the label when
+     * the condition is true instead of when it is false.
+     * @param e the emitter used to emit the MIPS instructions.
+     * @param label the label to branch to if the condition is true.
+     */
+    public void compileTrue(Emitter e, String label)
+    {
+        compileBranch(e, relop, label);
+    }
+
+    /**
+     * Emits a branch that is taken when a comparison of the two expressions
+     * holds. A comparison with 0 evaluates only the other expression and
+     * uses one of the branches that compare a register with zero. An order
+     * comparison with another constant that fits in 16 bits is an slti into
+     * $v1 and a branch on $v1. Otherwise both expressions are evaluated into
+     * registers, without the stack unless they need more registers than the
+     * pool has, and compared by a branch on two registers.
+     * @param e the emitter used to emit the MIPS instructions.
+     * @param comparison the comparison, one of the relops.
+     * @param label the label to branch to if the comparison holds.
+     */
+    private void compileBranch(Emitter e, String comparison, String label)
+    {
+        Expression first = left;
+        Expression second = right;
+        if(first instanceof Number && !(second instanceof Number))
         {
-            e.emit("ble $t0 $v0 " + label);
+            first = right;
+            second = left;
+            comparison = mirror(comparison);
         }
-        else if(relop.equals("<"))
+        if(second instanceof Number)
         {
-            e.emit("bge $t0 $v0 " + label);
+            int constant = ((Number) second).getValue();
+            if(constant == 0)
+            {
+                String reg = Expression.compileSource(e, first, e.getTemporary(0), 0);
+                e.emit(zeroBranch(comparison), reg, label);
+                return;
+            }
+            // a <= k is a < k + 1, and a > k is not a < k + 1
+            boolean below = comparison.equals("<") || comparison.equals("<=");
+            boolean inclusive = comparison.equals("<=") || comparison.equals(">");
+            long bound = (long) constant + (inclusive ? 1 : 0);
+            if(!comparison.equals("=") && !comparison.equals("<>")
+                    && bound >= Short.MIN_VALUE && bound <= Short.MAX_VALUE)
+            {
+                String reg = Expression.compileSource(e, first, e.getTemporary(0), 0);
+                e.emit(Opcode.SLTI, "$v1", reg, (int) bound);
+                e.emit(below ? Opcode.BNEZ : Opcode.BEQZ, "$v1", label);
+                return;
+            }
         }
-        else if(relop.equals("<="))
+        String[] regs = Expression.compileSources(e, first, second, 0);
+        e.emit(branch(comparison), regs[0], regs[1], label);
+    }
+
+    /**
+     * Finds the comparison that holds exactly when another one does not.
+     * @param comparison one of the relops.
+     * @return the negated relop.
+     */
+    private static String negate(String comparison)
+    {
+        switch(comparison)
         {
-            e.emit("bgt $t0 $v0 " + label);
+            case ">": return "<=";
+            case "<": return ">=";
+            case "<=": return ">";
+            case ">=": return "<";
+            case "=": return "<>";
+            default: return "=";
         }
-        else if(relop.equals(">="))
+    }
+
+    /**
+     * Finds the comparison that holds when the operands are swapped.
+     * @param comparison one of the relops.
+     * @return the mirrored relop.
+     */
+    private static String mirror(String comparison)
+    {
+        switch(comparison)
         {
-            e.emit("ble $t0 $v0 " + label);
+            case ">": return "<";
+            case "<": return ">";
+            case ">=": return "<=";
+            case "<=": return ">=";
+            default: return comparison;
         }
-        else if(relop.equals("="))
+    }
+
+    /**
+     * Finds the branch that compares two registers.
+     * @param comparison one of the relops.
+     * @return the branch taken when the comparison holds.
+     */
+    private static Opcode branch(String comparison)
+    {
+        switch(comparison)
         {
-            e.emit("bne $t0 $v0 " + label);
+            case ">": return Opcode.BGT;
+            case "<": return Opcode.BLT;
+            case ">=": return Opcode.BGE;
+            case "<=": return Opcode.BLE;
+            case "=": return Opcode.BEQ;
+            default: return Opcode.BNE;
         }
-        else
+    }
+
+    /**
+     * Finds the branch that compares a register with zero.
+     * @param comparison one of the relops.
+     * @return the branch taken when the register relop 0 holds.
+     */
+    private static Opcode zeroBranch(String comparison)
+    {
+        switch(comparison)
         {
-            e.emit("beq $t0 $v0 " + label);
+            case ">": return Opcode.BGTZ;
+            case "<": return Opcode.BLTZ;
+            case ">=": return Opcode.BGEZ;
+            case "<=": return Opcode.BLEZ;
+            case "=": return Opcode.BEQZ;
+            default: return Opcode.BNEZ;
         }
     }
 }
@@ -1,24 +1,64 @@
 package ast;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * The class that handles the production of instructions that have been
  * converted from Pascal to MIPS.
  *
+ * The code is not written as it is emitted. It is kept as a list of
+ * MipsInstructions, which passes may read and change until close() is
+ * called, and close() writes all of it at once: a file through one large
+ * buffer and its channel, or a writer in large pieces. Before it is
+ * written, a PeepholeOptimizer removes the redundant instructions.
+ *
+ * Global variables are laid out by emitData, one word after another, and
+ * main points $gp at the first of them with emitGlobalPointer, so that each
+ * is loaded or stored with a single instruction at an offset from $gp
+ * instead of the two an address from a label takes.
+ *
  * Usage:
  * Emitter e = new Emitter(<filename>);
  *
  * @author Anu Datar, Aditya Ramanathan
- * @version 5/24/24
+ * @version 5/24/24, optimizing code generator added 10/19/26
  */
 public class Emitter
 {
-	private PrintWriter out;
+	public static final int BUFFER_SIZE = 1 << 20;
+	public static final MipsInstruction.Address STACK_TOP = MipsInstruction.address("$sp");
+	public static final int MAX_UNSIGNED_IMMEDIATE = 0xFFFF;
+	public static final int GLOBAL_AREA_SIZE = 1 << 15; // bytes reachable from $gp by a 16 bit offset
+	private static final String[] TEMPORARIES = {"$t0", "$t1", "$t2", "$t3", "$t4",
+			"$t5", "$t6", "$t7", "$t8", "$t9"};
+	private static final String LINE_SEPARATOR = System.lineSeparator();
+
+	private List<MipsInstruction> code;
+	private FileChannel channel;
+	private Writer writer;
+	private boolean closed;
 	private static int label;
-	private ProcedureDeclaration currProc;
+	private FrameLayout frame; // of the current procedure
 	private int numElementsInStack;
+	private int frameBase; // numElementsInStack when the current procedure was entered
+	private int instructionCount;
+	private ExecutionProfile profile;
+	private PeepholeOptimizer peephole;
+	private List<String> globals;
+	private Map<String, Integer> globalOffsets; // from $gp, for the globals that fit in the area
+	private MipsInstruction globalPointer; // the la that sets $gp, until a global is addressed from it
 
 	/**
 	 * creates an emitter for writing to a new file with given name.
@@ -26,9 +66,14 @@ public class Emitter
 	 */
 	public Emitter(String outputFileName)
 	{
+		code = new ArrayList<MipsInstruction>();
+		peephole = new PeepholeOptimizer();
+		globals = new ArrayList<String>();
+		globalOffsets = new HashMap<String, Integer>();
 		try
 		{
-			out = new PrintWriter(new FileWriter(outputFileName), true);
+			channel = FileChannel.open(Paths.get(outputFileName), StandardOpenOption.CREATE,
+					StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
 		}
 		catch(IOException e)
 		{
@@ -37,22 +82,343 @@ public class Emitter
 	}
 
 	/**
-	 * prints one line of code to file (with non-labels indented).
-	 * @param code the line of code to be printed.
+	 * creates an emitter for writing to the given writer, such as a
+	 * StringWriter, or Writer.nullWriter() when only the instruction count
+	 * is wanted.
+	 * @param writer the writer the code is written to.
+	 */
+	public Emitter(Writer writer)
+	{
+		code = new ArrayList<MipsInstruction>();
+		peephole = new PeepholeOptimizer();
+		globals = new ArrayList<String>();
+		globalOffsets = new HashMap<String, Integer>();
+		this.writer = writer;
+	}
+
+	/**
+	 * adds one line of code (with non-labels indented when written).
+	 * The line is read into a MipsInstruction, and lines that are neither
+	 * labels nor directives are counted as instructions.
+	 * @param code the line of code to be added.
 	 */
 	public void emit(String code)
 	{
-		if (!code.endsWith(":"))
-			code = "\t" + code;
-		out.println(code);
+		add(MipsInstruction.parse(code));
+	}
+
+	/**
+	 * adds one instruction, without building its text.
+	 * @param opcode the operation.
+	 * @param operands the registers and labels as Strings, the immediates
+	 * as Integers and the memory operands as MipsInstruction.Addresses.
+	 */
+	public void emit(Opcode opcode, Object... operands)
+	{
+		add(new MipsInstruction(opcode, operands));
+	}
+
+	/**
+	 * adds a label.
+	 * @param name the name of the label, without the colon.
+	 */
+	public void emitLabel(String name)
+	{
+		add(MipsInstruction.label(name));
+	}
+
+	/**
+	 * adds the data section: the newline string that WRITELN prints and a
+	 * word for every global variable, in order, so that the first
+	 * GLOBAL_AREA_SIZE bytes of them can be addressed from $gp.
+	 * @param names the names of the global variables.
+	 */
+	public void emitData(List<String> names)
+	{
+		emit(".data");
+		emit("nl: .asciiz \"\\n\"");
+		for (String name : names)
+		{
+			if (globals.size() * 4 < GLOBAL_AREA_SIZE)
+				globalOffsets.putIfAbsent(name, globals.size() * 4);
+			globals.add(name);
+			emit(name + ": .word 0");
+		}
+	}
+
+	/**
+	 * points $gp at the first global variable. Should be emitted at the
+	 * start of main; no other code changes $gp. The instruction is left out
+	 * when the code is written if no global variable is addressed from $gp.
+	 */
+	public void emitGlobalPointer()
+	{
+		if (!globals.isEmpty())
+		{
+			globalPointer = new MipsInstruction(Opcode.LA, "$gp", globals.get(0));
+			add(globalPointer);
+		}
+	}
+
+	/**
+	 * Finds the memory operand of a global variable.
+	 * @param name the name of the variable.
+	 * @return its offset from $gp if emitData laid it out within reach of
+	 * $gp, otherwise its label.
+	 */
+	public Object getGlobalAddress(String name)
+	{
+		Integer offset = globalOffsets.get(name);
+		if (offset == null)
+			return name;
+		globalPointer = null;
+		return offset == 0 ? MipsInstruction.address("$gp") : MipsInstruction.address(offset, "$gp");
+	}
+
+	/**
+	 * adds a line of code to the list, counting it if it is an instruction.
+	 * @param inst the line of code.
+	 */
+	private void add(MipsInstruction inst)
+	{
+		if (inst.isInstruction())
+			instructionCount++;
+		code.add(inst);
+	}
+
+	/**
+	 * Returns the code emitted so far, which may be changed before the
+	 * emitter is closed.
+	 * @return the list of lines of code, in order.
+	 */
+	public List<MipsInstruction> getInstructions()
+	{
+		return code;
+	}
+
+	/**
+	 * Sets the optimizer that rewrites the code when the emitter is closed.
+	 * @param peephole the optimizer, or null to write the code as emitted.
+	 */
+	public void setPeepholeOptimizer(PeepholeOptimizer peephole)
+	{
+		this.peephole = peephole;
+	}
+
+	/**
+	 * Returns the optimizer that rewrites the code when the emitter is
+	 * closed, which reports what it removed.
+	 * @return the optimizer, or null if the code is written as emitted.
+	 */
+	public PeepholeOptimizer getPeepholeOptimizer()
+	{
+		return peephole;
 	}
 
 	/**
-	 * closes the file. Should be called after all calls to emit.
+	 * optimizes and writes the code and closes the file. Should be called
+	 * after all calls to emit; later calls do nothing.
 	 */
 	public void close()
 	{
-		out.close();
+		if (closed)
+			return;
+		closed = true;
+		if (globalPointer != null && code.remove(globalPointer))
+			instructionCount--;
+		if (peephole != null)
+			instructionCount -= peephole.optimize(code);
+		try
+		{
+			StringBuilder text = new StringBuilder(BUFFER_SIZE + 256);
+			CharsetEncoder encoder = Charset.defaultCharset().newEncoder()
+					.onMalformedInput(CodingErrorAction.REPLACE)
+					.onUnmappableCharacter(CodingErrorAction.REPLACE);
+			ByteBuffer bytes = channel == null ? null : ByteBuffer.allocateDirect(BUFFER_SIZE);
+			for (MipsInstruction inst: code)
+			{
+				inst.appendTo(text);
+				text.append(LINE_SEPARATOR);
+				if (text.length() >= BUFFER_SIZE)
+					write(text, encoder, bytes, false);
+			}
+			write(text, encoder, bytes, true);
+		}
+		catch(IOException e)
+		{
+			throw new RuntimeException(e);
+		}
+		finally
+		{
+			try
+			{
+				if (channel != null)
+					channel.close();
+				else
+					writer.close();
+			}
+			catch(IOException e)
+			{
+				throw new RuntimeException(e);
+			}
+		}
+	}
+
+	/**
+	 * writes the text rendered so far to the file or the writer.
+	 * @param text the text, from which what was written is removed.
+	 * @param encoder the encoder of the characters of a file.
+	 * @param bytes the buffer of the file, or null for a writer.
+	 * @param last true if no text follows.
+	 * @throws IOException if the text cannot be written.
+	 */
+	private void write(StringBuilder text, CharsetEncoder encoder, ByteBuffer bytes, boolean last)
+			throws IOException
+	{
+		if (bytes == null)
+		{
+			writer.append(text);
+			text.setLength(0);
+			return;
+		}
+		CharBuffer chars = CharBuffer.wrap(text);
+		while (encoder.encode(chars, bytes, last).isOverflow())
+			drain(bytes);
+		if (last)
+		{
+			while (encoder.flush(bytes).isOverflow())
+				drain(bytes);
+		}
+		drain(bytes);
+		text.delete(0, chars.position());
+	}
+
+	/**
+	 * writes the bytes in the buffer of the file and empties it.
+	 * @param bytes the buffer.
+	 * @throws IOException if the bytes cannot be written.
+	 */
+	private void drain(ByteBuffer bytes) throws IOException
+	{
+		bytes.flip();
+		while (bytes.hasRemaining())
+			channel.write(bytes);
+		bytes.clear();
+	}
+
+	/**
+	 * Returns the number of instructions emitted so far, or written once
+	 * the emitter is closed.
+	 * @return the number of lines that are not labels or directives.
+	 */
+	public int getInstructionCount()
+	{
+		return instructionCount;
+	}
+
+	/**
+	 * Emits code that multiplies a register by a constant. Multiplying by
+	 * 0, 1, -1, a power of two, or one more or less than a power of two is
+	 * done with moves, shifts, adds and subtracts, which are much faster
+	 * than mult; other constants use mul.
+	 * @param dest the register that receives the product.
+	 * @param src the register to multiply, which may be dest.
+	 * @param constant the constant to multiply by.
+	 * @param scratch a register that may be overwritten, other than dest and src.
+	 */
+	public void emitMultiply(String dest, String src, int constant, String scratch)
+	{
+		if (constant == 0)
+			emit(Opcode.MOVE, dest, "$0");
+		else if (constant == 1)
+		{
+			if (!dest.equals(src))
+				emit(Opcode.MOVE, dest, src);
+		}
+		else if (constant == -1)
+			emit(Opcode.SUBU, dest, "$0", src);
+		else if (Integer.bitCount(constant) == 1)
+			emit(Opcode.SLL, dest, src, Integer.numberOfTrailingZeros(constant));
+		else if (constant != Integer.MIN_VALUE && Integer.bitCount(-constant) == 1)
+		{
+			emit(Opcode.SLL, dest, src, Integer.numberOfTrailingZeros(-constant));
+			emit(Opcode.SUBU, dest, "$0", dest);
+		}
+		else if (constant > 0 && Integer.bitCount(constant - 1) == 1)
+		{
+			emit(Opcode.SLL, scratch, src, Integer.numberOfTrailingZeros(constant - 1));
+			emit(Opcode.ADDU, dest, scratch, src);
+		}
+		else if (constant > 0 && Integer.bitCount(constant + 1) == 1)
+		{
+			emit(Opcode.SLL, scratch, src, Integer.numberOfTrailingZeros(constant + 1));
+			emit(Opcode.SUBU, dest, scratch, src);
+		}
+		else
+			emit(Opcode.MUL, dest, src, constant);
+	}
+
+	/**
+	 * Emits code that divides a register by a constant, or finds the
+	 * remainder, rounding toward zero like div. Dividing by 1, -1 or a
+	 * power of two (or its negation) is done with shifts: a negative
+	 * dividend is first moved up by the divisor minus one, taken from its
+	 * sign bits, so that the arithmetic shift rounds toward zero instead of
+	 * down. The remainder is the moved dividend masked with andi, moved back,
+	 * or for divisors above 2^16 the dividend minus the quotient shifted back.
+	 * Other constants, including 0, use div.
+	 * @param dest the register that receives the result.
+	 * @param src the register holding the dividend, which may be dest.
+	 * @param constant the divisor.
+	 * @param scratch a register that may be overwritten, other than dest and src.
+	 * @param remainder true for the remainder (mod), false for the quotient.
+	 */
+	public void emitDivide(String dest, String src, int constant, String scratch, boolean remainder)
+	{
+		int divisor = Math.abs(constant);
+		if (constant == Integer.MIN_VALUE || constant == 0 || Integer.bitCount(divisor) != 1)
+		{
+			emit(Opcode.LI, scratch, constant);
+			emit(Opcode.DIV, src, scratch);
+			emit(remainder ? Opcode.MFHI : Opcode.MFLO, dest);
+			return;
+		}
+		int shift = Integer.numberOfTrailingZeros(divisor);
+		if (shift == 0)
+		{
+			if (remainder)
+				emit(Opcode.MOVE, dest, "$0");
+			else
+				emitMultiply(dest, src, constant, scratch);
+			return;
+		}
+		if (shift == 1)
+			emit(Opcode.SRL, scratch, src, 31);
+		else
+		{
+			emit(Opcode.SRA, scratch, src, 31);
+			emit(Opcode.SRL, scratch, scratch, 32 - shift);
+		}
+		if (remainder && divisor - 1 <= MAX_UNSIGNED_IMMEDIATE)
+		{
+			emit(Opcode.ADDU, dest, src, scratch);
+			emit(Opcode.ANDI, dest, dest, divisor - 1);
+			emit(Opcode.SUBU, dest, dest, scratch);
+			return;
+		}
+		emit(Opcode.ADDU, scratch, src, scratch);
+		if (remainder)
+		{
+			emit(Opcode.SRA, scratch, scratch, shift);
+			emit(Opcode.SLL, scratch, scratch, shift);
+			emit(Opcode.SUBU, dest, src, scratch);
+		}
+		else
+		{
+			emit(Opcode.SRA, dest, scratch, shift);
+			if (constant < 0)
+				emit(Opcode.SUBU, dest, "$0", dest);
+		}
 	}
 
 	/**
@@ -62,8 +428,8 @@ public class Emitter
 	 */
 	public void emitPush(String reg)
 	{
-		emit("subu $sp $sp 4");
-		emit("sw " + reg + " ($sp)");
+		emit(Opcode.SUBU, "$sp", "$sp", 4);
+		emit(Opcode.SW, reg, STACK_TOP);
 		numElementsInStack++;
 	}
 
@@ -74,11 +440,31 @@ public class Emitter
 	 */
 	public void emitPop(String reg)
 	{
-		emit("lw " + reg + " ($sp)");
-		emit("addu $sp $sp 4");
+		emit(Opcode.LW, reg, STACK_TOP);
+		emit(Opcode.ADDU, "$sp", "$sp", 4);
 		numElementsInStack--;
 	}
 
+	/**
+	 * Returns a register of the pool that expressions are evaluated in.
+	 * @param index the index of the register, from 0.
+	 * @return the register, $t0 to $t9.
+	 */
+	public String getTemporary(int index)
+	{
+		return TEMPORARIES[index];
+	}
+
+	/**
+	 * Returns the number of registers of the pool that expressions are
+	 * evaluated in.
+	 * @return the number of registers.
+	 */
+	public int getTemporaryCount()
+	{
+		return TEMPORARIES.length;
+	}
+
 	/**
 	 * Returns the next number label id.
 	 * @return the next number from the previous time this method
@@ -91,22 +477,42 @@ public class Emitter
 	}
 
 	/**
-	 * Remembers proc as the current procedure context.
+	 * Sets the profile that guides the layout of the code.
+	 * @param profile the profile, or null to compile without one.
+	 */
+	public void setProfile(ExecutionProfile profile)
+	{
+		this.profile = profile;
+	}
+
+	/**
+	 * Returns the profile that guides the layout of the code.
+	 * @return the profile, or null if there is none.
+	 */
+	public ExecutionProfile getProfile()
+	{
+		return profile;
+	}
+
+	/**
+	 * Remembers proc as the current procedure context. Should be called
+	 * on entry to the procedure, before anything is pushed.
 	 * @param proc the procedure to remember as the current procedure
 	 * context.
 	 */
 	public void setProcedureContext(ProcedureDeclaration proc)
 	{
-		currProc = proc;
+		frame = proc.getFrameLayout();
+		frameBase = numElementsInStack;
 	}
 
 	/**
 	 * Clears the current procedure context.
-	 * @postcondition currProc is null.
+	 * @postcondition there is no current procedure.
 	 */
 	public void clearProcedureContext()
 	{
-		currProc = null;
+		frame = null;
 	}
 
 	/**
@@ -116,46 +522,37 @@ public class Emitter
 	 */
 	public boolean isLocalVariable(String varName)
 	{
-		if(currProc == null)
-		{
-			return false;
-		}
-		if(varName.equals(currProc.getName()))
-		{
-			return true;
-		}
-		for(String var: currProc.getLocalVariables())
-		{
-			if(var.equals(varName))
-			{
-				return true;
-			}
-		}
-		return false;
+		return frame != null && frame.isLocal(varName);
+	}
+
+	/**
+	 * Retrieves the register a variable of the current procedure is kept in.
+	 * @param varName the name of the variable.
+	 * @return the $s register the RegisterAllocator gave the variable, or
+	 * null if it is kept in the stack or is a global variable.
+	 */
+	public String getRegister(String varName)
+	{
+		return frame == null ? null : frame.getRegister(varName);
 	}
 
 	/**
 	 * Determines the offset from $sp for a specific local variable.
+	 * The frame of a procedure holds, from the top of the stack down:
+	 * the values pushed while evaluating, the local variables that are not
+	 * kept in registers in reverse order, the return variable, the saved
+	 * $s registers, $ra as pushed by the procedure and by the caller, and
+	 * the arguments in reverse order. The index of each slot comes from
+	 * the FrameLayout of the procedure, so the offset takes constant time.
 	 * @param localVarName the name of the local varable for which
 	 * the location in the stack is wanted.
 	 * @precondition localVarName is the name of a variable that is
-	 * local to the procedure currently being compiled.
+	 * local to the procedure currently being compiled and is not kept in
+	 * a register.
 	 * @return the offest for the specific local variable.
 	 */
 	public int getOffset(String localVarName)
 	{
-		List<String> localVars = currProc.getLocalVariables();
-		int stackSize = (localVars.size() + numElementsInStack) * 4;
-		int indexMatch = 0;
-
-		for(int i = 0; i < localVars.size(); i++)
-		{
-			if(localVarName.equals(localVars.get(i)))
-			{
-				indexMatch = i;
-				break;
-			}
-		}
-		return stackSize - (indexMatch * 4);
+		return (numElementsInStack - frameBase - frame.getIndex(localVarName)) * 4;
 	}
 }
@@ -0,0 +1,285 @@
+package ast;
+
+import java.io.*;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * An ExecutionProfile records what the interpreter saw while running a
+ * program, so that the compiler can optimize for it: how many times every
+ * procedure call site ran, how often the condition of every If was true, and
+ * how many iterations every While ran each time it was entered.
+ *
+ * The interpreter does not record profiles itself: the Profiler counts the
+ * runs of an instrumented copy of the program, and getExecutionProfile() of
+ * the Profiler turns its counters into an ExecutionProfile of the original
+ * program. A profile can be saved to a file and loaded again to compile the
+ * program later.
+ *
+ * Entries are keyed by node IDs such as "countUp/If#2", the second If in the
+ * procedure countUp, "(main)/While#1", or "(main)/max()#3", the third call to
+ * max in the main block of code. IDs only count nodes of the same kind in the
+ * same procedure, so a profile still fits a program after edits to other
+ * procedures or to other kinds of statements. Before a node can be recorded or
+ * looked up, the program it belongs to must be attached, which finds the ID of
+ * every node.
+ *
+ * Usage:
+ * Profiler profiler = new Profiler();
+ * profiler.instrument(program).exec(new Environment(null));
+ * ExecutionProfile profile = profiler.getExecutionProfile();
+ * profile.save(new File("program.profile"));
+ * program.compile(new Emitter("program.asm"), ExecutionProfile.load(new File("program.profile")));
+ *
+ * @author Aditya Ramanathan
+ * @version 10/19/26
+ */
+public class ExecutionProfile
+{
+    public static final String MAIN = "(main)";
+
+    private final Map<String, long[]> counters; // by ID, in the order of the source
+    private final Map<Object, long[]> nodes;    // the counters of the attached program's nodes
+
+    /**
+     * Creates an empty profile.
+     */
+    public ExecutionProfile()
+    {
+        counters = new LinkedHashMap<String, long[]>();
+        nodes = new IdentityHashMap<Object, long[]>();
+    }
+
+    /**
+     * Reads a profile written by save().
+     * @param file the profile file.
+     * @return the profile.
+     * @throws IOException if the file cannot be read.
+     * @throws IllegalArgumentException if a line of the file is not an entry.
+     */
+    public static ExecutionProfile load(File file) throws IOException
+    {
+        ExecutionProfile profile = new ExecutionProfile();
+        try(BufferedReader in = new BufferedReader(new FileReader(file)))
+        {
+            String line;
+            while((line = in.readLine()) != null)
+            {
+                line = line.trim();
+                if(line.isEmpty() || line.startsWith("#"))
+                {
+                    continue;
+                }
+                String[] fields = line.split("\\s+");
+                if(fields.length != 3)
+                {
+                    throw new IllegalArgumentException("Bad profile entry: " + line);
+                }
+                try
+                {
+                    profile.counters.put(fields[0], new long[] {Long.parseLong(fields[1]),
+                            Long.parseLong(fields[2])});
+                }
+                catch(NumberFormatException e)
+                {
+                    throw new IllegalArgumentException("Bad profile entry: " + line);
+                }
+            }
+        }
+        return profile;
+    }
+
+    /**
+     * Writes the profile, one entry per line: the ID, then the two counters. For
+     * a call they are the number of calls and 0, for an If the number of times
+     * the condition was true and false, and for a While the number of times the
+     * loop was entered and the number of iterations.
+     * @param file the file to write.
+     * @throws IOException if the file cannot be written.
+     */
+    public void save(File file) throws IOException
+    {
+        try(PrintWriter out = new PrintWriter(new FileWriter(file)))
+        {
+            out.println("# node ID, then calls and 0, true and false, or entries and iterations");
+            for(Map.Entry<String, long[]> entry: counters.entrySet())
+            {
+                out.println(entry.getKey() + " " + entry.getValue()[0] + " "
+                        + entry.getValue()[1]);
+            }
+        }
+    }
+
+    /**
+     * Finds the ID of every If, While and procedure call of a program, so that
+     * they can be recorded and looked up. Nodes of the program that are not in
+     * the profile yet get counters that start at 0.
+     * @param program the program.
+     * @postcondition the nodes of the program are the ones the profile records.
+     */
+    public void attach(Program program)
+    {
+        nodes.clear();
+        for(ProcedureDeclaration dec: program.getProcedureDeclarations())
+        {
+            new Numberer(dec.getName()).visitStatement(dec.getStatement());
+        }
+        new Numberer(MAIN).visitStatement(program.getStatement());
+    }
+
+    /**
+     * Adds calls of a call site.
+     * @param call the call site, in the attached program.
+     * @param calls the number of times it ran.
+     */
+    public void record(ProcedureCall call, long calls)
+    {
+        long[] counter = nodes.get(call);
+        if(counter != null)
+        {
+            counter[0] += calls;
+        }
+    }
+
+    /**
+     * Adds outcomes of the condition of an If.
+     * @param st the If, in the attached program.
+     * @param trueCount the number of times the condition was true.
+     * @param falseCount the number of times the condition was false.
+     */
+    public void record(If st, long trueCount, long falseCount)
+    {
+        long[] counter = nodes.get(st);
+        if(counter != null)
+        {
+            counter[0] += trueCount;
+            counter[1] += falseCount;
+        }
+    }
+
+    /**
+     * Adds runs of a While.
+     * @param loop the While, in the attached program.
+     * @param entries the number of times the loop was entered.
+     * @param iterations the number of times the body ran in all.
+     */
+    public void record(While loop, long entries, long iterations)
+    {
+        long[] counter = nodes.get(loop);
+        if(counter != null)
+        {
+            counter[0] += entries;
+            counter[1] += iterations;
+        }
+    }
+
+    /**
+     * Retrieves how many times a call site ran.
+     * @param call the call site, in the attached program.
+     * @return the number of calls, or -1 if the profile has no calls recorded
+     * for it.
+     */
+    public long getCalls(ProcedureCall call)
+    {
+        long[] counter = nodes.get(call);
+        return counter == null || counter[0] == 0 ? -1 : counter[0];
+    }
+
+    /**
+     * Retrieves how likely the condition of an If is to be true.
+     * @param st the If, in the attached program.
+     * @return the fraction of the times it ran that the condition was true, or
+     * -1 if the If never ran.
+     */
+    public double getTakenProbability(If st)
+    {
+        long[] counter = nodes.get(st);
+        if(counter == null || counter[0] + counter[1] == 0)
+        {
+            return -1;
+        }
+        return (double) counter[0] / (counter[0] + counter[1]);
+    }
+
+    /**
+     * Retrieves how many iterations a While runs each time it is entered.
+     * @param loop the While, in the attached program.
+     * @return the average number of iterations, or -1 if the loop was never
+     * entered.
+     */
+    public double getTripCount(While loop)
+    {
+        long[] counter = nodes.get(loop);
+        if(counter == null || counter[0] == 0)
+        {
+            return -1;
+        }
+        return (double) counter[1] / counter[0];
+    }
+
+    /**
+     * Numbers the If, While and call nodes of one procedure or the main block
+     * of code, in the order of the source.
+     */
+    private class Numberer extends AstWalker
+    {
+        private final String scope;
+        private final Map<String, Integer> ordinals;
+
+        /**
+         * Creates a numberer.
+         * @param scope the name of the procedure, or MAIN.
+         */
+        Numberer(String scope)
+        {
+            this.scope = scope;
+            ordinals = new LinkedHashMap<String, Integer>();
+        }
+
+        /**
+         * Numbers an If or While, then the nodes inside it.
+         * @param st the statement.
+         */
+        public void visitStatement(Statement st)
+        {
+            if(st instanceof If || st instanceof While)
+            {
+                number(st, st.getClass().getSimpleName());
+            }
+            super.visitStatement(st);
+        }
+
+        /**
+         * Numbers a call, then the calls in its arguments.
+         * @param exp the expression.
+         */
+        public void visitExpression(Expression exp)
+        {
+            if(exp instanceof ProcedureCall)
+            {
+                number(exp, ((ProcedureCall) exp).getName() + "()");
+            }
+            super.visitExpression(exp);
+        }
+
+        /**
+         * Gives a node the next ID of its kind and finds its counters.
+         * @param node the node.
+         * @param kind "If", "While", or the name of the called procedure and "()".
+         */
+        private void number(Object node, String kind)
+        {
+            int ordinal = ordinals.getOrDefault(kind, 0) + 1;
+            ordinals.put(kind, ordinal);
+            String id = scope + "/" + kind + "#" + ordinal;
+            long[] counter = counters.get(id);
+            if(counter == null)
+            {
+                counter = new long[2];
+                counters.put(id, counter);
+            }
+            nodes.put(node, counter);
+        }
+    }
+}
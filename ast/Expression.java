@@ -5,11 +5,25 @@ import environment.*;
  * The Expression class is an abstract class to represent all forms of
  * expressions such as BinOp which can perform an operation on two statements,
  * Number, and Variable.
+ *
+ * Expressions are compiled into registers. Each expression is labeled with
+ * its Sethi-Ullman number, the number of registers of the Emitter's pool it
+ * needs to be evaluated without using the stack, and of the two operands of
+ * an operation the one that needs more registers is evaluated first, so that
+ * the other can be evaluated while its value is held. Only when both need
+ * more registers than are left is the first value pushed to the stack.
+ * A procedure call uses the registers of the pool itself, so it is never
+ * evaluated while another value is held in one, and expressions with calls
+ * are evaluated in the order of the source. A value that is already in a
+ * register, such as a variable kept in an $s register or the constant 0 in
+ * $0, is read where it is by the operations that only read their operands.
  * @author Aditya Ramanathan
- * @version 3/22/24
+ * @version 3/22/24, register evaluation, instruction selection 10/19/26
  */
 public abstract class Expression
 {
+    public static final int CALL_NEED = Integer.MAX_VALUE;
+
     /**
      * Evaluates an expression correctly. This is used for the Interpreter.
      * @param env the environment containing all the variables needed to
@@ -20,10 +34,167 @@ public abstract class Expression
 
     /**
      * Takes in an Emitter and uses it to emit the sequence of MIPS
-     * instructions corresponding to the AST component. This is used
-     * for the Compiler.
+     * instructions corresponding to the AST component, leaving the value
+     * in $v0. This is used for the Compiler.
      * @param e the emitter being used to produce the sequence of
      * MIPS instructions.
      */
-    public abstract void compile(Emitter e);
+    public void compile(Emitter e)
+    {
+        compile(e, "$v0", 0);
+    }
+
+    /**
+     * Emits the instructions that put the value of the expression in a
+     * register.
+     * @param e the emitter being used to produce the sequence of
+     * MIPS instructions.
+     * @param dest the register that receives the value: either the register
+     * of the pool at free, or one outside the pool.
+     * @param free the index of the first register of the Emitter's pool that
+     * may be used; the registers before it hold values that are still needed.
+     * $v1 may be used as scratch, and so may $v0 if it is not dest.
+     */
+    public abstract void compile(Emitter e, String dest, int free);
+
+    /**
+     * Retrieves the register that already holds the value of the expression,
+     * which may be read but not changed.
+     * @param e the emitter, which knows the registers of the variables.
+     * @return the register, or null if the expression has to be evaluated.
+     */
+    public String getRegister(Emitter e)
+    {
+        return null;
+    }
+
+    /**
+     * Retrieves the Sethi-Ullman number of the expression.
+     * @return the number of registers of the pool needed to evaluate it
+     * without the stack, or CALL_NEED if it calls a procedure.
+     */
+    public int getRegisterNeed()
+    {
+        return 1;
+    }
+
+    /**
+     * Finds the Sethi-Ullman number of an operation on two values.
+     * @param need1 the number of the first operand.
+     * @param need2 the number of the second operand.
+     * @return one more than the numbers if they are equal, otherwise the
+     * larger one, or CALL_NEED if either operand calls a procedure.
+     */
+    static int combineNeeds(int need1, int need2)
+    {
+        if(need1 == CALL_NEED || need2 == CALL_NEED)
+        {
+            return CALL_NEED;
+        }
+        return need1 == need2 ? need1 + 1 : Math.max(need1, need2);
+    }
+
+    /**
+     * Evaluates the two operands of an operation into registers. The operand
+     * that needs more registers is evaluated first into the first free
+     * register, and the other into the next one. If both need more registers
+     * than are left, or the second one calls a procedure, the first is
+     * evaluated, pushed while the second is evaluated, and popped into the
+     * next register, or into $v1 if there is none.
+     * @param e the emitter.
+     * @param first the first operand.
+     * @param second the second operand.
+     * @param free the index of the first free register of the pool.
+     * @return the registers holding the values of first and second, in that
+     * order; they may be changed by the caller.
+     */
+    static String[] compileOperands(Emitter e, Expression first, Expression second, int free)
+    {
+        return compileOperands(e, first, second, free, false);
+    }
+
+    /**
+     * Evaluates the two operands of an operation that only reads them, like
+     * compileOperands, except that an operand whose value is already in a
+     * register is not copied. The other operand may be evaluated into the
+     * first free register without changing it, since a procedure call cannot
+     * change a local variable of its caller.
+     * @param e the emitter.
+     * @param first the first operand.
+     * @param second the second operand.
+     * @param free the index of the first free register of the pool.
+     * @return the registers holding the values of first and second, in that
+     * order; they may only be read.
+     */
+    static String[] compileSources(Emitter e, Expression first, Expression second, int free)
+    {
+        return compileOperands(e, first, second, free, true);
+    }
+
+    /**
+     * Evaluates an operand of an operation that only reads it.
+     * @param e the emitter.
+     * @param exp the operand.
+     * @param dest the register to evaluate it into if it is not in one.
+     * @param free the index of the first free register of the pool.
+     * @return the register holding its value, which may only be read.
+     */
+    static String compileSource(Emitter e, Expression exp, String dest, int free)
+    {
+        String reg = exp.getRegister(e);
+        if(reg == null)
+        {
+            exp.compile(e, dest, free);
+            return dest;
+        }
+        return reg;
+    }
+
+    /**
+     * Evaluates the two operands of an operation into registers.
+     * @param e the emitter.
+     * @param first the first operand.
+     * @param second the second operand.
+     * @param free the index of the first free register of the pool.
+     * @param shared true to use the registers that already hold values.
+     * @return the registers holding the values of first and second.
+     */
+    private static String[] compileOperands(Emitter e, Expression first, Expression second,
+            int free, boolean shared)
+    {
+        String reg1 = shared ? first.getRegister(e) : null;
+        String reg2 = shared ? second.getRegister(e) : null;
+        if(reg1 != null)
+        {
+            return new String[] {reg1, compileSource(e, second, e.getTemporary(free), free)};
+        }
+        if(reg2 != null)
+        {
+            return new String[] {compileSource(e, first, e.getTemporary(free), free), reg2};
+        }
+        int left = e.getTemporaryCount() - free;
+        int need1 = first.getRegisterNeed();
+        int need2 = second.getRegisterNeed();
+        String reg = e.getTemporary(free);
+        if(need1 >= need2 && need2 < left)
+        {
+            String next = e.getTemporary(free + 1);
+            first.compile(e, reg, free);
+            second.compile(e, next, free + 1);
+            return new String[] {reg, next};
+        }
+        if(need2 > need1 && need1 < left && need2 != CALL_NEED)
+        {
+            String next = e.getTemporary(free + 1);
+            second.compile(e, reg, free);
+            first.compile(e, next, free + 1);
+            return new String[] {next, reg};
+        }
+        String other = left > 1 ? e.getTemporary(free + 1) : "$v1";
+        first.compile(e, reg, free);
+        e.emitPush(reg);
+        second.compile(e, reg, free);
+        e.emitPop(other);
+        return new String[] {other, reg};
+    }
 }
@@ -0,0 +1,207 @@
+package ast;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A FrameLayout is the symbol table of a procedure for the code generator.
+ * It classifies every name the procedure declares once, as a parameter, the
+ * return variable or a local variable; any other name is a global variable.
+ * The RegisterAllocator then keeps some of them in the registers $s0-$s7, and
+ * the others get a fixed index in the frame. The index of a slot is the
+ * number of values the procedure has pushed when the slot is at the top of
+ * the stack:
+ *     parameter i of n     i - n (the caller pushed them, then $ra at 0)
+ *     $ra                  1
+ *     saved register j     2 + j (the $s registers the procedure uses)
+ *     return variable      the next index, if it is not in a register
+ *     local variable       the next indices, for those not in registers
+ * so a slot is found (depth - index) * 4 bytes above $sp, where depth is the
+ * number of values pushed since the procedure was entered. A parameter hides
+ * the return variable and local variables with the same name, and the first
+ * of two locals with the same name is the one that is used.
+ *
+ * Usage:
+ * FrameLayout layout = procedure.getFrameLayout();
+ * String reg = layout.getRegister("count");
+ * int offset = (depth - layout.getIndex("count")) * 4;
+ *
+ * @author Aditya Ramanathan
+ * @version 10/19/26
+ */
+public class FrameLayout
+{
+    /**
+     * What a name refers to in a procedure.
+     */
+    public enum Kind
+    {
+        GLOBAL, PARAMETER, RETURN, LOCAL
+    }
+
+    public static final int RETURN_ADDRESS_INDEX = 1;
+
+    private final Map<String, Kind> kinds;
+    private final Map<String, String> registers;
+    private final Map<String, Integer> indices;
+    private final List<String> savedRegisters;
+    private final int slotCount;
+    private boolean returnSlot;
+
+    /**
+     * Lays out the frame of a procedure.
+     * @param proc the procedure.
+     */
+    public FrameLayout(ProcedureDeclaration proc)
+    {
+        kinds = new HashMap<String, Kind>();
+        indices = new HashMap<String, Integer>();
+        List<String> parms = proc.getParms();
+        for(String parm: parms)
+        {
+            declare(parm, Kind.PARAMETER);
+        }
+        declare(proc.getName(), Kind.RETURN);
+        List<String> locals = new ArrayList<String>();
+        for(String var: proc.getLocalVariables())
+        {
+            if(kinds.get(var) != Kind.PARAMETER)
+            {
+                declare(var, Kind.LOCAL);
+                locals.add(var);
+            }
+        }
+
+        registers = RegisterAllocator.allocate(proc, this);
+        savedRegisters = new ArrayList<String>();
+        for(String reg: RegisterAllocator.REGISTERS)
+        {
+            if(registers.containsValue(reg))
+            {
+                savedRegisters.add(reg);
+            }
+        }
+
+        for(int i = 0; i < parms.size(); i++)
+        {
+            indices.putIfAbsent(parms.get(i), i - parms.size());
+        }
+        int next = RETURN_ADDRESS_INDEX + 1 + savedRegisters.size();
+        int first = next;
+        if(getKind(proc.getName()) != Kind.RETURN || !registers.containsKey(proc.getName()))
+        {
+            returnSlot = true;
+            indices.putIfAbsent(proc.getName(), next++);
+        }
+        for(String var: locals)
+        {
+            if(!registers.containsKey(var))
+            {
+                indices.putIfAbsent(var, next++);
+            }
+        }
+        slotCount = next - first;
+    }
+
+    /**
+     * Classifies a name, unless it already has a kind.
+     * @param name the name.
+     * @param kind what the name refers to.
+     */
+    private void declare(String name, Kind kind)
+    {
+        kinds.putIfAbsent(name, kind);
+    }
+
+    /**
+     * Classifies a name.
+     * @param name the name of a variable.
+     * @return what the name refers to in the procedure.
+     */
+    public Kind getKind(String name)
+    {
+        Kind kind = kinds.get(name);
+        return kind == null ? Kind.GLOBAL : kind;
+    }
+
+    /**
+     * Retrieves the names the procedure declares.
+     * @return the parameters, the return variable and the local variables.
+     */
+    public Set<String> getNames()
+    {
+        return Collections.unmodifiableSet(kinds.keySet());
+    }
+
+    /**
+     * Determines whether a name belongs to the procedure.
+     * @param name the name of a variable.
+     * @return true for a parameter, the return variable or a local variable.
+     */
+    public boolean isLocal(String name)
+    {
+        return kinds.containsKey(name);
+    }
+
+    /**
+     * Retrieves the register a variable is kept in.
+     * @param name the name of a variable.
+     * @return the register, or null if the variable is kept in the frame or
+     * is a global variable.
+     */
+    public String getRegister(String name)
+    {
+        return registers.get(name);
+    }
+
+    /**
+     * Retrieves the index of the slot of a name.
+     * @param name the name of a variable that has a slot.
+     * @return the index of the slot.
+     * @throws IllegalArgumentException if the name is a global variable or is
+     * kept in a register.
+     */
+    public int getIndex(String name)
+    {
+        Integer index = indices.get(name);
+        if(index == null)
+        {
+            throw new IllegalArgumentException(name + " is not in the frame of the procedure");
+        }
+        return index;
+    }
+
+    /**
+     * Retrieves the $s registers the procedure uses, which it saves after $ra.
+     * @return the registers, in the order they are pushed.
+     */
+    public List<String> getSavedRegisters()
+    {
+        return savedRegisters;
+    }
+
+    /**
+     * Determines whether the return variable has a slot, which is pushed
+     * before the slots of the local variables.
+     * @return true if the return variable is not kept in a register.
+     */
+    public boolean hasReturnSlot()
+    {
+        return returnSlot;
+    }
+
+    /**
+     * Retrieves the number of slots the procedure pushes after the saved
+     * registers, for the return variable and the local variables that are not
+     * kept in registers.
+     * @return the number of slots.
+     */
+    public int getSlotCount()
+    {
+        return slotCount;
+    }
+}
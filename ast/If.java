@@ -6,7 +6,7 @@ import environment.*;
  * the statement to be executed if the condition is true, and the else statement
  * that is executed if the condition is false.
  * @author Aditya Ramanathan
- * @version 4/10/24
+ * @version 4/10/24, profile-guided layout 10/19/26
  */
 public class If extends Statement
 {
@@ -42,6 +42,33 @@ public class If extends Statement
         hasElse = true;
     }
 
+    /**
+     * Retrieves the condition of the If statement.
+     * @return the condition.
+     */
+    public Condition getCondition()
+    {
+        return cond;
+    }
+
+    /**
+     * Retrieves the statement executed when the condition is true.
+     * @return the statement in the IF clause.
+     */
+    public Statement getStatement()
+    {
+        return st;
+    }
+
+    /**
+     * Retrieves the statement executed when the condition is false.
+     * @return the statement in the ELSE clause, or null if there is none.
+     */
+    public Statement getElseStatement()
+    {
+        return elseSt;
+    }
+
     /**
      * Evaluates the condition whether it be the statement in the IF clause
      * or the statement in the ELSE clause.
@@ -74,18 +101,30 @@ public class If extends Statement
 
     /**
      * Compiles the If Statement by producing the corresponding MIPS
-     * instructions.
+     * instructions. If the emitter has a profile in which the condition was
+     * more often false, the ELSE statement is placed first so that it falls
+     * through and the IF statement is branched to.
      * @param e the emitter used to emit the MIPS instructions.
      */
     public void compile(Emitter e)
     {
         int label = e.nextLabelID();
-        if(hasElse)
+        ExecutionProfile profile = e.getProfile();
+        if(hasElse && profile != null && profile.getTakenProbability(this) >= 0
+                && profile.getTakenProbability(this) < 0.5)
+        {
+            cond.compileTrue(e, "then" + label);
+            elseSt.compile(e);
+            e.emit(Opcode.J, "endif" + label);
+            e.emitLabel("then" + label);
+            st.compile(e);
+        }
+        else if(hasElse)
         {
             cond.compile(e, "else" + label);
             st.compile(e);
-            e.emit("j endif" + label);
-            e.emit("else" + label + ":");
+            e.emit(Opcode.J, "endif" + label);
+            e.emitLabel("else" + label);
             elseSt.compile(e);
         }
         else
@@ -93,6 +132,6 @@ public class If extends Statement
             cond.compile(e, "endif" + label);
             st.compile(e);
         }
-        e.emit("endif" + label + ":");
+        e.emitLabel("endif" + label);
     }
 }
@@ -0,0 +1,241 @@
+package ast;
+import environment.*;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * An Intrinsic is a call to one of the procedures built into the language:
+ *     ABS(x)     the absolute value of x
+ *     SQR(x)     x * x
+ *     ODD(x)     1 if x is odd, 0 if it is even
+ *     MIN(x, y)  the smaller of x and y
+ *     MAX(x, y)  the larger of x and y
+ * Intrinsics are evaluated directly, without a new Environment, and compile
+ * to a few instructions without branches instead of a call. Their names may be
+ * written in any case. A procedure the program declares with the same name
+ * takes precedence, so calls are only turned into intrinsics by resolve(),
+ * once the whole program has been parsed.
+ * @author Aditya Ramanathan
+ * @version 10/19/26
+ */
+public class Intrinsic extends Expression
+{
+    private String name;
+    private List<Expression> args;
+
+    /**
+     * Creates an intrinsic call.
+     * @param name the name of the intrinsic, in upper case.
+     * @param args the arguments.
+     */
+    public Intrinsic(String name, List<Expression> args)
+    {
+        this.name = name;
+        this.args = args;
+    }
+
+    /**
+     * Retrieves the name of the intrinsic.
+     * @return the name, in upper case.
+     */
+    public String getName()
+    {
+        return name;
+    }
+
+    /**
+     * Retrieves the arguments of the call.
+     * @return the arguments.
+     */
+    public List<Expression> getArgs()
+    {
+        return args;
+    }
+
+    /**
+     * Determines whether a call is to an intrinsic.
+     * @param name the name of the procedure called.
+     * @param argCount the number of arguments.
+     * @return the name of the intrinsic in upper case, or null if there is no
+     * intrinsic with the name that takes that many arguments.
+     */
+    public static String find(String name, int argCount)
+    {
+        String upper = name.toUpperCase(Locale.ROOT);
+        if(upper.equals("ABS") || upper.equals("SQR") || upper.equals("ODD"))
+        {
+            return argCount == 1 ? upper : null;
+        }
+        if(upper.equals("MIN") || upper.equals("MAX"))
+        {
+            return argCount == 2 ? upper : null;
+        }
+        return null;
+    }
+
+    /**
+     * Turns the calls of a program to intrinsics into Intrinsic nodes, except
+     * for calls to procedures that the program declares.
+     * @param program the parsed program.
+     * @return the program with the intrinsics resolved, or the program itself
+     * if it calls none.
+     */
+    public static Program resolve(Program program)
+    {
+        Set<String> declared = new HashSet<String>();
+        for(ProcedureDeclaration dec: program.getProcedureDeclarations())
+        {
+            declared.add(dec.getName());
+        }
+        boolean[] found = new boolean[1];
+        new AstWalker()
+        {
+            public void visitExpression(Expression exp)
+            {
+                if(exp instanceof ProcedureCall)
+                {
+                    ProcedureCall call = (ProcedureCall) exp;
+                    found[0] |= !declared.contains(call.getName())
+                            && find(call.getName(), call.getArgs().size()) != null;
+                }
+                super.visitExpression(exp);
+            }
+        }.walkProgram(program);
+        if(!found[0])
+        {
+            return program;
+        }
+        return new AstRewriter()
+        {
+            public Expression rewriteExpression(Expression exp)
+            {
+                Expression copy = super.rewriteExpression(exp);
+                if(copy instanceof ProcedureCall && !declared.contains(((ProcedureCall) copy).getName()))
+                {
+                    ProcedureCall call = (ProcedureCall) copy;
+                    String intrinsic = find(call.getName(), call.getArgs().size());
+                    if(intrinsic != null)
+                    {
+                        return new Intrinsic(intrinsic, call.getArgs());
+                    }
+                }
+                return copy;
+            }
+        }.rewriteProgram(program);
+    }
+
+    /**
+     * Computes the value of an intrinsic.
+     * @param name the name of the intrinsic, in upper case.
+     * @param values the values of the arguments.
+     * @return the value, with the 32 bit wrap around of Java ints and MIPS.
+     */
+    public static int apply(String name, int[] values)
+    {
+        if(name.equals("ABS"))
+        {
+            return values[0] < 0 ? -values[0] : values[0];
+        }
+        else if(name.equals("SQR"))
+        {
+            return values[0] * values[0];
+        }
+        else if(name.equals("ODD"))
+        {
+            return values[0] & 1;
+        }
+        else if(name.equals("MIN"))
+        {
+            return Math.min(values[0], values[1]);
+        }
+        return Math.max(values[0], values[1]);
+    }
+
+    /**
+     * Evaluates the arguments, from left to right, and applies the intrinsic.
+     * @param env the environment containing the variables needed to evaluate
+     * the arguments.
+     * @return the value of the intrinsic.
+     */
+    public int eval(Environment env)
+    {
+        int[] values = new int[args.size()];
+        for(int i = 0; i < values.length; i++)
+        {
+            values[i] = args.get(i).eval(env);
+        }
+        return apply(name, values);
+    }
+
+    /**
+     * Retrieves the Sethi-Ullman number of the intrinsic.
+     * @return the number of its argument, or of an operation on its two
+     * arguments.
+     */
+    public int getRegisterNeed()
+    {
+        if(args.size() == 1)
+        {
+            return args.get(0).getRegisterNeed();
+        }
+        return combineNeeds(args.get(0).getRegisterNeed(), args.get(1).getRegisterNeed());
+    }
+
+    /**
+     * Compiles the intrinsic inline, leaving its value in the register. ABS
+     * uses the sign of the value as a mask, and MIN and MAX compare the
+     * arguments with slt and pick one with movn or movz.
+     * @param e the emitter used to emit the MIPS instructions.
+     * @param dest the register that receives the value.
+     * @param free the index of the first free register of the pool.
+     */
+    public void compile(Emitter e, String dest, int free)
+    {
+        if(args.size() == 2)
+        {
+            String[] regs = compileOperands(e, args.get(0), args.get(1), free);
+            boolean result = dest.equals(regs[0]) || dest.equals(regs[1]);
+            String picked = !result ? dest : !regs[0].equals("$v1") ? "$v1" : "$v0";
+            if(name.equals("MIN"))
+            {
+                e.emit(Opcode.SLT, picked, regs[0], regs[1]);
+            }
+            else
+            {
+                e.emit(Opcode.SLT, picked, regs[1], regs[0]);
+            }
+            if(dest.equals(regs[0]))
+            {
+                e.emit(Opcode.MOVZ, dest, regs[1], picked);
+            }
+            else
+            {
+                e.emit(Opcode.MOVN, regs[1], regs[0], picked);
+                if(!result)
+                {
+                    e.emit(Opcode.MOVE, dest, regs[1]);
+                }
+            }
+            return;
+        }
+        args.get(0).compile(e, dest, free);
+        if(name.equals("ABS"))
+        {
+            e.emit(Opcode.SRA, "$v1", dest, 31);
+            e.emit(Opcode.XOR, dest, dest, "$v1");
+            e.emit(Opcode.SUBU, dest, dest, "$v1");
+        }
+        else if(name.equals("SQR"))
+        {
+            e.emit(Opcode.MULT, dest, dest);
+            e.emit(Opcode.MFLO, dest);
+        }
+        else
+        {
+            e.emit(Opcode.ANDI, dest, dest, 1);
+        }
+    }
+}
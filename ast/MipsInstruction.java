@@ -0,0 +1,351 @@
+package ast;
+
+/**
+ * A MipsInstruction is one line of the code an Emitter writes: a label, a
+ * directive such as ".data" or "nl: .asciiz ...", or an instruction made of an
+ * Opcode and its operands. An operand is a register or a label, as a String
+ * ("$v0", "endif3"), an immediate, as an Integer, or an Address in memory.
+ * A line of text that does not have this form, such as one with an opcode the
+ * enum does not know, is kept as its text and written back unchanged.
+ *
+ * Usage:
+ * MipsInstruction inst = new MipsInstruction(Opcode.LW, "$v0", MipsInstruction.address(8, "$sp"));
+ * inst.toString() is "\tlw $v0 8($sp)".
+ *
+ * @author Aditya Ramanathan
+ * @version 10/19/26
+ */
+public class MipsInstruction
+{
+    private final Opcode opcode;
+    private final Object[] operands;
+    private final String text;   // the label, the directive or the unparsed line
+    private final boolean label;
+
+    /**
+     * Creates an instruction.
+     * @param opcode the operation.
+     * @param operands the registers and labels as Strings, the immediates as
+     * Integers and the memory operands as Addresses.
+     */
+    public MipsInstruction(Opcode opcode, Object... operands)
+    {
+        this(opcode, operands, null, false);
+    }
+
+    /**
+     * Creates a line of code.
+     * @param opcode the operation, or null for a label or a line kept as text.
+     * @param operands the operands of the operation.
+     * @param text the label or the text of the line.
+     * @param label true for a label.
+     */
+    private MipsInstruction(Opcode opcode, Object[] operands, String text, boolean label)
+    {
+        this.opcode = opcode;
+        this.operands = operands;
+        this.text = text;
+        this.label = label;
+    }
+
+    /**
+     * Creates a label.
+     * @param name the name of the label, without the colon.
+     * @return the label.
+     */
+    public static MipsInstruction label(String name)
+    {
+        return new MipsInstruction(null, null, name, true);
+    }
+
+    /**
+     * Creates a memory operand with an offset from a register.
+     * @param offset the offset, in bytes.
+     * @param base the register holding the address.
+     * @return the operand, written as "offset(base)".
+     */
+    public static Address address(int offset, String base)
+    {
+        return new Address(offset, base);
+    }
+
+    /**
+     * Creates a memory operand without an offset.
+     * @param base the register holding the address.
+     * @return the operand, written as "(base)".
+     */
+    public static Address address(String base)
+    {
+        return new Address(null, base);
+    }
+
+    /**
+     * Reads a line of code as Emitter.emit() receives it. Lines that end
+     * with a colon are labels; lines that contain a colon elsewhere or start
+     * with a period are directives; other lines are instructions if their
+     * first word is a known opcode and their words are separated by single
+     * spaces, and are otherwise kept as text.
+     * @param code the line, without indentation.
+     * @return the line of code, which is written back exactly as code.
+     */
+    public static MipsInstruction parse(String code)
+    {
+        if(code.endsWith(":"))
+        {
+            return label(code.substring(0, code.length() - 1));
+        }
+        if(code.indexOf(':') >= 0 || code.startsWith("."))
+        {
+            return new MipsInstruction(null, null, code, false);
+        }
+        String[] words = code.split(" ", -1);
+        Opcode opcode = Opcode.forMnemonic(words[0]);
+        if(opcode == null)
+        {
+            return new MipsInstruction(null, null, code, false);
+        }
+        Object[] operands = new Object[words.length - 1];
+        for(int i = 0; i < operands.length; i++)
+        {
+            String word = words[i + 1];
+            if(word.isEmpty() || word.indexOf('\t') >= 0)
+            {
+                return new MipsInstruction(null, null, code, false);
+            }
+            operands[i] = parseOperand(word);
+        }
+        return new MipsInstruction(opcode, operands);
+    }
+
+    /**
+     * Reads one operand of an instruction.
+     * @param word the operand as it is written.
+     * @return an Integer or an Address if the operand is written the way they
+     * are, otherwise the word itself.
+     */
+    private static Object parseOperand(String word)
+    {
+        if(word.startsWith("$"))
+        {
+            return word;
+        }
+        int open = word.indexOf('(');
+        if(open >= 0 && word.endsWith(")") && word.charAt(open + 1) == '$')
+        {
+            String base = word.substring(open + 1, word.length() - 1);
+            if(open == 0)
+            {
+                return new Address(null, base);
+            }
+            Integer offset = parseInteger(word.substring(0, open));
+            return offset == null ? word : new Address(offset, base);
+        }
+        Integer immediate = parseInteger(word);
+        return immediate == null ? word : immediate;
+    }
+
+    /**
+     * Reads an integer that is written the way Integer.toString() writes it.
+     * @param word the word.
+     * @return the integer, or null if the word is not written that way.
+     */
+    private static Integer parseInteger(String word)
+    {
+        int start = word.startsWith("-") ? 1 : 0;
+        if(word.length() == start || word.length() > start + 10)
+        {
+            return null;
+        }
+        for(int i = start; i < word.length(); i++)
+        {
+            if(word.charAt(i) < '0' || word.charAt(i) > '9')
+            {
+                return null;
+            }
+        }
+        long value = Long.parseLong(word);
+        if(value != (int) value || !Long.toString(value).equals(word))
+        {
+            return null;
+        }
+        return (int) value;
+    }
+
+    /**
+     * Retrieves the opcode.
+     * @return the opcode, or null for a label, a directive or a line kept as text.
+     */
+    public Opcode getOpcode()
+    {
+        return opcode;
+    }
+
+    /**
+     * Retrieves the number of operands.
+     * @return the number of operands, or 0 if there is no opcode.
+     */
+    public int getOperandCount()
+    {
+        return operands == null ? 0 : operands.length;
+    }
+
+    /**
+     * Retrieves an operand.
+     * @param index the index of the operand, from 0.
+     * @return a String for a register or a label, an Integer for an immediate,
+     * or an Address.
+     */
+    public Object getOperand(int index)
+    {
+        return operands[index];
+    }
+
+    /**
+     * Determines whether the line is a label.
+     * @return true for a label.
+     */
+    public boolean isLabel()
+    {
+        return label;
+    }
+
+    /**
+     * Retrieves the name of a label.
+     * @return the name without the colon, or null if the line is not a label.
+     */
+    public String getLabel()
+    {
+        return label ? text : null;
+    }
+
+    /**
+     * Determines whether the line is a directive, which the assembler does not
+     * turn into an instruction.
+     * @return true for a directive.
+     */
+    public boolean isDirective()
+    {
+        return opcode == null && !label && (text.startsWith(".") || text.indexOf(':') >= 0);
+    }
+
+    /**
+     * Determines whether the line is an instruction: neither a label nor a
+     * directive.
+     * @return true for an instruction, even one kept as text.
+     */
+    public boolean isInstruction()
+    {
+        return !label && !isDirective();
+    }
+
+    /**
+     * Writes the line, with every line other than a label indented by a tab
+     * and the operands separated by single spaces.
+     * @param out the builder the line is appended to, without a line separator.
+     */
+    public void appendTo(StringBuilder out)
+    {
+        if(label)
+        {
+            out.append(text).append(':');
+            return;
+        }
+        out.append('\t');
+        if(opcode == null)
+        {
+            out.append(text);
+            return;
+        }
+        out.append(opcode.getMnemonic());
+        for(Object operand: operands)
+        {
+            out.append(' ');
+            if(operand instanceof Integer)
+            {
+                out.append(((Integer) operand).intValue());
+            }
+            else
+            {
+                out.append(operand);
+            }
+        }
+    }
+
+    /**
+     * Writes the line.
+     * @return the line as it appears in the assembly file.
+     */
+    public String toString()
+    {
+        StringBuilder out = new StringBuilder();
+        appendTo(out);
+        return out.toString();
+    }
+
+    /**
+     * An Address is a memory operand: a register, and an offset from it that
+     * may be left out.
+     */
+    public static class Address
+    {
+        private final Integer offset;
+        private final String base;
+
+        /**
+         * Creates an address.
+         * @param offset the offset in bytes, or null if it is left out.
+         * @param base the register.
+         */
+        Address(Integer offset, String base)
+        {
+            this.offset = offset;
+            this.base = base;
+        }
+
+        /**
+         * Retrieves the offset.
+         * @return the offset in bytes, 0 if it is left out.
+         */
+        public int getOffset()
+        {
+            return offset == null ? 0 : offset;
+        }
+
+        /**
+         * Retrieves the register.
+         * @return the register holding the address.
+         */
+        public String getBase()
+        {
+            return base;
+        }
+
+        /**
+         * Determines whether two addresses are written the same.
+         * @param other the other object.
+         * @return true if it is an address with the same offset and register.
+         */
+        public boolean equals(Object other)
+        {
+            return other instanceof Address && toString().equals(other.toString());
+        }
+
+        /**
+         * Computes a hash code consistent with equals.
+         * @return the hash code of the written address.
+         */
+        public int hashCode()
+        {
+            return toString().hashCode();
+        }
+
+        /**
+         * Writes the address.
+         * @return "offset(base)", or "(base)" if the offset is left out.
+         */
+        public String toString()
+        {
+            return (offset == null ? "" : offset.toString()) + "(" + base + ")";
+        }
+    }
+}
@@ -5,7 +5,7 @@ import environment.*;
  * The Number class stores the value of a number encountered when parsing
  * through the stream of tokens.
  * @author Aditya Ramanathan
- * @version 4/1/24
+ * @version 4/1/24, instruction selection 10/19/26
  */
 public class Number extends Expression
 {
@@ -43,13 +43,25 @@ public class Number extends Expression
         return value;
     }
 
+    /**
+     * Retrieves the register that always holds the number, if there is one.
+     * @param e the emitter, not used.
+     * @return $0 if the number is 0, otherwise null.
+     */
+    public String getRegister(Emitter e)
+    {
+        return value == 0 ? "$0" : null;
+    }
+
     /**
      * Compiles the number by producing the corresponding MIPS instructions
-     * using the emitter, which is just loading the value into the register $v0.
+     * using the emitter, which is just loading the value into the register.
      * @param e the emitter used to emit the MIPS instructions.
+     * @param dest the register that receives the value.
+     * @param free the index of the first free register of the pool, not used.
      */
-    public void compile(Emitter e)
+    public void compile(Emitter e, String dest, int free)
     {
-        e.emit("li $v0 " + value);
+        e.emit(Opcode.LI, dest, value);
     }
 }
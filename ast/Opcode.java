@@ -0,0 +1,70 @@
+package ast;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * An Opcode is the operation of a MIPS instruction, including the pseudo
+ * instructions of the assembler such as li, la, move and the branches that
+ * compare two registers. The mnemonic of an opcode is its name in lower case.
+ * @author Aditya Ramanathan
+ * @version 10/19/26
+ */
+public enum Opcode
+{
+    ADDU, ADDIU, SUBU, NEGU, MUL, MULT, DIV, MFLO, MFHI,
+    AND, ANDI, OR, ORI, XOR, XORI, NOR, SLL, SRL, SRA, SLT, SLTI, SLTU,
+    MOVN, MOVZ, MOVE, LI, LA, LUI, LW, SW,
+    J, JAL, JR, BEQ, BNE, BLT, BLE, BGT, BGE, BEQZ, BNEZ, BLTZ, BLEZ, BGTZ, BGEZ,
+    SYSCALL, NOP;
+
+    private static final Map<String, Opcode> BY_MNEMONIC = new HashMap<String, Opcode>();
+
+    static
+    {
+        for(Opcode opcode: values())
+        {
+            BY_MNEMONIC.put(opcode.mnemonic, opcode);
+        }
+    }
+
+    private final String mnemonic;
+
+    /**
+     * Creates an opcode whose mnemonic is its name in lower case.
+     */
+    Opcode()
+    {
+        mnemonic = name().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Retrieves the mnemonic of the opcode, as it is written in assembly.
+     * @return the mnemonic, such as "addu".
+     */
+    public String getMnemonic()
+    {
+        return mnemonic;
+    }
+
+    /**
+     * Determines whether the opcode is a branch or a jump, so that the
+     * instruction may not fall through to the next one.
+     * @return true for j, jal, jr and the branches.
+     */
+    public boolean isJump()
+    {
+        return compareTo(J) >= 0 && compareTo(BGEZ) <= 0;
+    }
+
+    /**
+     * Finds the opcode with a mnemonic.
+     * @param mnemonic the mnemonic, in lower case.
+     * @return the opcode, or null if there is none with the mnemonic.
+     */
+    public static Opcode forMnemonic(String mnemonic)
+    {
+        return BY_MNEMONIC.get(mnemonic);
+    }
+}
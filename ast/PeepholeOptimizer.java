@@ -0,0 +1,997 @@
+package ast;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The PeepholeOptimizer rewrites short sequences of the MIPS code an Emitter
+ * holds before it is written. Each entry of its table of patterns looks at
+ * the instruction at one position and the few after it, and replaces them
+ * with fewer instructions that do the same:
+ *     push and pop       a push of a register and the pop that takes it back
+ *                        off the stack become one move
+ *     store and load     a load of the word just stored becomes a move
+ *     load and store     a store of the word just loaded is removed
+ *     redundant constant an li or la of the value the register already holds
+ *                        is removed
+ *     forwarded copy     an instruction whose result is only moved to another
+ *                        register writes that register instead
+ *     dead write         an instruction without side effects whose result is
+ *                        never read is removed
+ *     self move          a move of a register to itself is removed
+ *     jump to next       a jump or branch to the label right after it is removed
+ *     stack adjustment   changes of $sp around loads and stores from the
+ *                        stack become one
+ * The table is applied at every position until none of the patterns changes
+ * anything. Each pass leaves the lines it removes as null and compacts the
+ * list once at its end, and every pattern looks at most a few hundred lines
+ * away, so a pass takes time linear in the length of the code. The code is final when the optimizer runs, so every $sp offset
+ * was already computed by Emitter.getOffset for the stack as it was; when a
+ * pattern removes or moves a change of $sp, it tracks the depth of the stack
+ * over the instructions in between and corrects their offsets. A register is
+ * dead if every path from the instruction, followed through jumps and
+ * branches for a limited number of instructions, writes it before reading
+ * it. A call writes every register the procedure called may change; the
+ * registers it saves are treated as live, like every register at the end of
+ * the code, and after jr only $v0, $sp, $ra and the $s registers are live.
+ *
+ * Usage:
+ * PeepholeOptimizer peephole = new PeepholeOptimizer();
+ * peephole.optimize(e.getInstructions());
+ * System.out.println(peephole.getReport());
+ *
+ * @author Aditya Ramanathan
+ * @version 10/19/26
+ */
+public class PeepholeOptimizer
+{
+    private static final String SP = "$sp";
+    private static final int LIVENESS_LIMIT = 64;
+    private static final int SCAN_LIMIT = 256;
+    private static final Set<String> LIVE_AT_RETURN = new HashSet<String>(Arrays.asList("$v0",
+            SP, "$ra", "$s0", "$s1", "$s2", "$s3", "$s4", "$s5", "$s6", "$s7", "$gp", "$fp"));
+    private static final List<String> SYSCALL_READS = Arrays.asList("$v0", "$a0", "$a1", "$a2");
+    private static final List<String> HI_LO = Arrays.asList("$hi", "$lo");
+
+    private final List<Pattern> patterns;
+    private final Map<String, Integer> reductions;
+    private List<MipsInstruction> code;
+    private Map<String, Integer> labels;
+    private int removed;
+    private int before;
+    private int after;
+
+    /**
+     * Creates an optimizer with the table of patterns.
+     */
+    public PeepholeOptimizer()
+    {
+        patterns = Arrays.asList(
+                new Pattern("push and pop", this::pushAndPop),
+                new Pattern("store and load", this::storeAndLoad),
+                new Pattern("load and store", this::loadAndStore),
+                new Pattern("redundant constant", this::redundantConstant),
+                new Pattern("forwarded copy", this::forwardedCopy),
+                new Pattern("dead write", this::deadWrite),
+                new Pattern("self move", this::selfMove),
+                new Pattern("jump to next", this::jumpToNext),
+                new Pattern("stack adjustment", this::stackAdjustment));
+        reductions = new LinkedHashMap<String, Integer>();
+        for(Pattern pattern: patterns)
+        {
+            reductions.put(pattern.name, 0);
+        }
+    }
+
+    /**
+     * Applies the patterns to the code until none of them changes anything.
+     * @param code the lines of code, which are changed in place.
+     * @return the number of instructions removed.
+     */
+    public int optimize(List<MipsInstruction> code)
+    {
+        this.code = code;
+        int count = countInstructions();
+        before += count;
+        boolean changed = true;
+        while(changed)
+        {
+            changed = false;
+            labels = null;
+            for(int i = 0; i < code.size(); i++)
+            {
+                boolean again = true;
+                while(again)
+                {
+                    again = false;
+                    for(Pattern pattern: patterns)
+                    {
+                        int removedBefore = removed;
+                        if(code.get(i) != null && pattern.rewrite.apply(i))
+                        {
+                            reductions.merge(pattern.name, removed - removedBefore, Integer::sum);
+                            again = true;
+                            changed = true;
+                        }
+                    }
+                }
+            }
+            code.removeIf(inst -> inst == null);
+        }
+        int result = count - countInstructions();
+        after += count - result;
+        this.code = null;
+        labels = null;
+        return result;
+    }
+
+    /**
+     * Counts the instructions of the code.
+     * @return the number of lines that are not labels or directives.
+     */
+    private int countInstructions()
+    {
+        int count = 0;
+        for(MipsInstruction inst: code)
+        {
+            if(inst.isInstruction())
+            {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Removes the instruction at a position. It is left as null until the
+     * end of the pass, so that positions do not change during a pass.
+     * @param i the position.
+     */
+    private void remove(int i)
+    {
+        code.set(i, null);
+        removed++;
+    }
+
+    /**
+     * Finds the next line that was not removed.
+     * @param i a position.
+     * @return the position of the first line after it that was not removed,
+     * or the size of the code if there is none.
+     */
+    private int next(int i)
+    {
+        i++;
+        while(i < code.size() && code.get(i) == null)
+        {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Finds the position of a label, looking up every label of the code the
+     * first time it is needed in a pass.
+     * @param name the name of the label.
+     * @return the position, or null if there is no such label.
+     */
+    private Integer findLabel(Object name)
+    {
+        if(labels == null)
+        {
+            labels = new HashMap<String, Integer>();
+            for(int i = 0; i < code.size(); i++)
+            {
+                if(code.get(i) != null && code.get(i).isLabel())
+                {
+                    labels.put(code.get(i).getLabel(), i);
+                }
+            }
+        }
+        return labels.get(name);
+    }
+
+    /**
+     * Retrieves the number of instructions each pattern removed.
+     * @return the name of every pattern and the instructions it removed, in
+     * the order of the table.
+     */
+    public Map<String, Integer> getReductions()
+    {
+        return reductions;
+    }
+
+    /**
+     * Describes what the optimizer did.
+     * @return a line such as "peephole: 380 -> 301 instructions (push and
+     * pop 24, dead write 12, ...)", listing the patterns that removed
+     * instructions, if any did.
+     */
+    public String getReport()
+    {
+        String report = "peephole: " + before + " -> " + after + " instructions";
+        String separator = " (";
+        for(Map.Entry<String, Integer> entry: reductions.entrySet())
+        {
+            if(entry.getValue() != 0)
+            {
+                report += separator + entry.getKey() + " " + entry.getValue();
+                separator = ", ";
+            }
+        }
+        return separator.equals(", ") ? report + ")" : report;
+    }
+
+    /**
+     * Replaces "subu $sp $sp 4, sw r ($sp), ..., lw d ($sp), addu $sp $sp 4"
+     * with "..., move d r" when r is not written in between and the
+     * instructions in between do not read the pushed word, and removes a
+     * push whose word is dropped by "addu $sp $sp 4" without being read.
+     * Offsets of words that were on the stack before the push shrink by 4.
+     * @param i the position of the subu.
+     * @return true if the code was changed.
+     */
+    private boolean pushAndPop(int i)
+    {
+        int store = next(i);
+        if(!isAdjustment(i, -4) || !isStackAccess(store, Opcode.SW, 0))
+        {
+            return false;
+        }
+        String reg = (String) code.get(store).getOperand(0);
+        List<Integer> older = new ArrayList<Integer>();
+        int depth = 0;
+        int steps = 0;
+        for(int j = next(store); j < code.size() && steps < SCAN_LIMIT; j = next(j), steps++)
+        {
+            MipsInstruction inst = code.get(j);
+            if(!isPlain(inst))
+            {
+                return false;
+            }
+            boolean popped = isStackAccess(j, Opcode.LW, 0) && isAdjustment(next(j), 4);
+            if(depth == 0 && (popped || isAdjustment(j, 4)))
+            {
+                String dest = popped ? (String) inst.getOperand(0) : reg;
+                if(popped)
+                {
+                    remove(next(j));
+                }
+                if(dest.equals(reg))
+                {
+                    remove(j);
+                }
+                else
+                {
+                    code.set(j, new MipsInstruction(Opcode.MOVE, dest, reg));
+                }
+                for(int k: older)
+                {
+                    code.set(k, moveOffsets(code.get(k), -4));
+                }
+                remove(i);
+                remove(store);
+                return true;
+            }
+            if(writes(inst).contains(reg))
+            {
+                return false;
+            }
+            Integer change = adjustment(j);
+            if(change != null)
+            {
+                depth -= change;
+                if(depth < 0)
+                {
+                    return false;
+                }
+                continue;
+            }
+            if(readsStackPointer(inst))
+            {
+                return false;
+            }
+            MipsInstruction.Address address = stackAddress(inst);
+            if(address != null)
+            {
+                if(address.getOffset() == depth)
+                {
+                    return false;
+                }
+                if(address.getOffset() > depth)
+                {
+                    older.add(j);
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Replaces "sw r a, lw d a" with "sw r a, move d r", or removes the lw if
+     * d is r.
+     * @param i the position of the sw.
+     * @return true if the code was changed.
+     */
+    private boolean storeAndLoad(int i)
+    {
+        int j = next(i);
+        if(!is(i, Opcode.SW) || !is(j, Opcode.LW))
+        {
+            return false;
+        }
+        MipsInstruction store = code.get(i);
+        MipsInstruction load = code.get(j);
+        if(!store.getOperand(1).equals(load.getOperand(1)))
+        {
+            return false;
+        }
+        String reg = (String) store.getOperand(0);
+        String dest = (String) load.getOperand(0);
+        if(dest.equals(reg))
+        {
+            remove(j);
+        }
+        else
+        {
+            code.set(j, new MipsInstruction(Opcode.MOVE, dest, reg));
+        }
+        return true;
+    }
+
+    /**
+     * Removes the sw of "lw r a, sw r a", unless r is the base of a.
+     * @param i the position of the lw.
+     * @return true if the code was changed.
+     */
+    private boolean loadAndStore(int i)
+    {
+        int j = next(i);
+        if(!is(i, Opcode.LW) || !is(j, Opcode.SW))
+        {
+            return false;
+        }
+        MipsInstruction load = code.get(i);
+        MipsInstruction store = code.get(j);
+        Object address = load.getOperand(1);
+        if(!load.getOperand(0).equals(store.getOperand(0)) || !address.equals(store.getOperand(1))
+                || (address instanceof MipsInstruction.Address
+                && ((MipsInstruction.Address) address).getBase().equals(load.getOperand(0))))
+        {
+            return false;
+        }
+        remove(j);
+        return true;
+    }
+
+    /**
+     * Removes an li or la of the value its register already holds, because
+     * an earlier li or la of the same value was not followed by a label or a
+     * call, or by anything else that writes the register.
+     * @param i the position of the li or la.
+     * @return true if the code was changed.
+     */
+    private boolean redundantConstant(int i)
+    {
+        if(!is(i, Opcode.LI) && !is(i, Opcode.LA))
+        {
+            return false;
+        }
+        MipsInstruction inst = code.get(i);
+        String reg = (String) inst.getOperand(0);
+        int steps = 0;
+        for(int j = i - 1; j >= 0 && steps < LIVENESS_LIMIT; j--, steps++)
+        {
+            MipsInstruction earlier = code.get(j);
+            if(earlier == null)
+            {
+                continue;
+            }
+            if(!isPlain(earlier) && earlier.getOpcode() != Opcode.SYSCALL)
+            {
+                return false;
+            }
+            if(writes(earlier).contains(reg))
+            {
+                if(earlier.getOpcode() != inst.getOpcode()
+                        || !earlier.getOperand(1).equals(inst.getOperand(1)))
+                {
+                    return false;
+                }
+                remove(i);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Replaces "op r ..., move d r" with "op d ..." when r is dead after the
+     * move and op only writes r.
+     * @param i the position of the instruction before the move.
+     * @return true if the code was changed.
+     */
+    private boolean forwardedCopy(int i)
+    {
+        int j = next(i);
+        if(!hasNoSideEffects(i) || !is(j, Opcode.MOVE))
+        {
+            return false;
+        }
+        MipsInstruction inst = code.get(i);
+        MipsInstruction move = code.get(j);
+        String reg = (String) inst.getOperand(0);
+        String dest = (String) move.getOperand(0);
+        if(!move.getOperand(1).equals(reg) || dest.equals(reg) || dest.equals(SP)
+                || !isDead(reg, j + 1))
+        {
+            return false;
+        }
+        Object[] operands = operands(inst);
+        operands[0] = dest;
+        code.set(i, new MipsInstruction(inst.getOpcode(), operands));
+        remove(j);
+        return true;
+    }
+
+    /**
+     * Removes an instruction without side effects whose result is dead.
+     * @param i the position of the instruction.
+     * @return true if the code was changed.
+     */
+    private boolean deadWrite(int i)
+    {
+        if(!hasNoSideEffects(i) || !isDead((String) code.get(i).getOperand(0), i + 1))
+        {
+            return false;
+        }
+        remove(i);
+        return true;
+    }
+
+    /**
+     * Removes "move r r".
+     * @param i the position of the move.
+     * @return true if the code was changed.
+     */
+    private boolean selfMove(int i)
+    {
+        if(!is(i, Opcode.MOVE) || !code.get(i).getOperand(0).equals(code.get(i).getOperand(1)))
+        {
+            return false;
+        }
+        remove(i);
+        return true;
+    }
+
+    /**
+     * Removes a jump or branch to a label that directly follows it, with only
+     * labels in between.
+     * @param i the position of the jump or branch.
+     * @return true if the code was changed.
+     */
+    private boolean jumpToNext(int i)
+    {
+        MipsInstruction inst = code.get(i);
+        Opcode opcode = inst.getOpcode();
+        if(opcode == null || !opcode.isJump() || opcode == Opcode.JAL || opcode == Opcode.JR)
+        {
+            return false;
+        }
+        Object target = inst.getOperand(inst.getOperandCount() - 1);
+        for(int j = next(i); j < code.size() && code.get(j).isLabel(); j = next(j))
+        {
+            if(code.get(j).getLabel().equals(target))
+            {
+                remove(i);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Combines a sequence of changes of $sp with only loads, stores and
+     * instructions that do not use $sp in between into one, which comes before
+     * them if it makes room on the stack and after them if it frees it, so
+     * that no word below $sp is used. The offsets of the loads and stores
+     * change by the changes of $sp they are moved across. If that would use a
+     * word below $sp, fewer changes are combined.
+     * @param i the position of the first change of $sp.
+     * @return true if the code was changed.
+     */
+    private boolean stackAdjustment(int i)
+    {
+        if(adjustment(i) == null)
+        {
+            return false;
+        }
+        List<Integer> run = new ArrayList<Integer>();
+        List<Integer> changes = new ArrayList<Integer>();
+        List<Integer> runLengths = new ArrayList<Integer>();
+        changes.add(i);
+        for(int j = next(i); j < code.size() && run.size() < SCAN_LIMIT; j = next(j))
+        {
+            MipsInstruction inst = code.get(j);
+            if(adjustment(j) != null)
+            {
+                changes.add(j);
+                runLengths.add(run.size());
+            }
+            else if(!isPlain(inst) || readsStackPointer(inst) || writes(inst).contains(SP))
+            {
+                break;
+            }
+            else
+            {
+                run.add(j);
+            }
+        }
+        for(int last = changes.size() - 1; last > 0; last--)
+        {
+            if(combine(changes.subList(0, last + 1), run.subList(0, runLengths.get(last - 1))))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Replaces changes of $sp by one if no load or store in between would
+     * use a word below $sp.
+     * @param changes the positions of the changes, in order.
+     * @param run the positions of the instructions in between, in order.
+     * @return true if the code was changed.
+     */
+    private boolean combine(List<Integer> changes, List<Integer> run)
+    {
+        int total = 0;
+        for(int k: changes)
+        {
+            total += adjustment(k);
+        }
+        int base = Math.min(total, 0);
+        int[] shifts = new int[run.size()];
+        int change = 0;
+        int next = 0;
+        for(int r = 0; r < run.size(); r++)
+        {
+            while(changes.get(next) < run.get(r))
+            {
+                change += adjustment(changes.get(next++));
+            }
+            shifts[r] = change - base;
+            MipsInstruction.Address address = stackAddress(code.get(run.get(r)));
+            if(address != null && address.getOffset() + shifts[r] < 0)
+            {
+                return false;
+            }
+        }
+        for(int r = 0; r < run.size(); r++)
+        {
+            code.set(run.get(r), moveOffsets(code.get(run.get(r)), shifts[r]));
+        }
+        int first = changes.get(0);
+        int last = changes.get(changes.size() - 1);
+        for(int k: changes)
+        {
+            remove(k);
+        }
+        if(total < 0)
+        {
+            code.set(first, new MipsInstruction(Opcode.SUBU, SP, SP, -total));
+            removed--;
+        }
+        else if(total > 0)
+        {
+            code.set(last, new MipsInstruction(Opcode.ADDU, SP, SP, total));
+            removed--;
+        }
+        return true;
+    }
+
+    /**
+     * Determines whether a register is dead at a position: every path from it
+     * writes the register before reading it.
+     * @param reg the register.
+     * @param start the position.
+     * @return true if the register is dead, false if it may be read.
+     */
+    private boolean isDead(String reg, int start)
+    {
+        if(reg.equals(SP) || reg.equals("$0") || reg.equals("$ra"))
+        {
+            return false;
+        }
+        List<Integer> paths = null;
+        Set<Integer> targets = null;
+        int i = start;
+        int steps = 0;
+        while(true)
+        {
+            if(i >= code.size() || ++steps > LIVENESS_LIMIT)
+            {
+                return false;
+            }
+            MipsInstruction inst = code.get(i);
+            Opcode opcode = inst == null ? Opcode.NOP : inst.getOpcode();
+            boolean end = false;
+            if(inst != null && (inst.isLabel() || inst.isDirective()))
+            {
+                opcode = Opcode.NOP;
+            }
+            else if(opcode == null)
+            {
+                return false;
+            }
+            else if(opcode == Opcode.JAL)
+            {
+                if(isPreservedByCalls(reg))
+                {
+                    return false;
+                }
+                end = true;
+            }
+            else if(opcode == Opcode.JR)
+            {
+                if(LIVE_AT_RETURN.contains(reg))
+                {
+                    return false;
+                }
+                end = true;
+            }
+            else if(opcode != Opcode.NOP && reads(inst).contains(reg))
+            {
+                return false;
+            }
+            else if(opcode != Opcode.NOP && writes(inst).contains(reg))
+            {
+                end = true;
+            }
+            else if(opcode.isJump())
+            {
+                Integer target = findLabel(inst.getOperand(inst.getOperandCount() - 1));
+                if(target == null)
+                {
+                    return false;
+                }
+                if(targets == null)
+                {
+                    targets = new HashSet<Integer>();
+                    paths = new ArrayList<Integer>();
+                }
+                if(targets.add(target))
+                {
+                    paths.add(target);
+                }
+                end = opcode == Opcode.J;
+            }
+            i++;
+            if(end)
+            {
+                if(paths == null || paths.isEmpty())
+                {
+                    break;
+                }
+                i = paths.remove(paths.size() - 1);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Determines whether a register keeps its value across a call, as the
+     * procedure called saves it.
+     * @param reg the register.
+     * @return true for $sp, $gp, $fp and the $s registers; false for $ra and
+     * the registers that hold the return value, arguments and temporaries.
+     */
+    private static boolean isPreservedByCalls(String reg)
+    {
+        return reg.startsWith("$s") || reg.equals("$gp") || reg.equals("$fp");
+    }
+
+    /**
+     * Determines whether the line at a position is an instruction with an
+     * opcode.
+     * @param i the position, which may be past the end or removed.
+     * @param opcode the opcode.
+     * @return true if the line has the opcode.
+     */
+    private boolean is(int i, Opcode opcode)
+    {
+        return i < code.size() && code.get(i) != null && code.get(i).getOpcode() == opcode;
+    }
+
+    /**
+     * Determines whether the line at a position only writes its first
+     * operand, a register other than $sp, with no other effect.
+     * @param i the position.
+     * @return true for arithmetic, li, la, lui, move, lw, mflo and mfhi.
+     */
+    private boolean hasNoSideEffects(int i)
+    {
+        MipsInstruction inst = code.get(i);
+        Opcode opcode = inst.getOpcode();
+        if(opcode == null || opcode.isJump() || inst.getOperandCount() == 0
+                || !(inst.getOperand(0) instanceof String) || inst.getOperand(0).equals(SP))
+        {
+            return false;
+        }
+        switch(opcode)
+        {
+            case SW:
+            case MOVN:
+            case MOVZ:
+            case MULT:
+            case SYSCALL:
+            case NOP:
+                return false;
+            case DIV:
+                return inst.getOperandCount() == 3;
+            default:
+                return true;
+        }
+    }
+
+    /**
+     * Determines whether a line is an instruction that falls through to the
+     * next one and whose registers are known: not a label, directive, jump,
+     * branch, call, syscall or line kept as text.
+     * @param inst the line.
+     * @return true for such an instruction.
+     */
+    private static boolean isPlain(MipsInstruction inst)
+    {
+        Opcode opcode = inst.getOpcode();
+        return opcode != null && !opcode.isJump() && opcode != Opcode.SYSCALL;
+    }
+
+    /**
+     * Finds the change of $sp made by the line at a position.
+     * @param i the position, which may be past the end or removed.
+     * @return the change in bytes for "addu $sp $sp n" and "subu $sp $sp n"
+     * (negative for subu), or null for any other line.
+     */
+    private Integer adjustment(int i)
+    {
+        if(i >= code.size() || code.get(i) == null)
+        {
+            return null;
+        }
+        MipsInstruction inst = code.get(i);
+        Opcode opcode = inst.getOpcode();
+        if((opcode != Opcode.ADDU && opcode != Opcode.SUBU) || inst.getOperandCount() != 3
+                || !SP.equals(inst.getOperand(0)) || !SP.equals(inst.getOperand(1))
+                || !(inst.getOperand(2) instanceof Integer))
+        {
+            return null;
+        }
+        int amount = (Integer) inst.getOperand(2);
+        return opcode == Opcode.ADDU ? amount : -amount;
+    }
+
+    /**
+     * Determines whether the line at a position changes $sp by an amount.
+     * @param i the position, which may be past the end.
+     * @param amount the change in bytes, negative for subu.
+     * @return true for such an addu or subu.
+     */
+    private boolean isAdjustment(int i, int amount)
+    {
+        Integer change = adjustment(i);
+        return change != null && change == amount;
+    }
+
+    /**
+     * Determines whether the line at a position loads or stores a register
+     * at an offset from $sp.
+     * @param i the position, which may be past the end.
+     * @param opcode LW or SW.
+     * @param offset the offset.
+     * @return true for such a load or store of a register other than $sp.
+     */
+    private boolean isStackAccess(int i, Opcode opcode, int offset)
+    {
+        if(!is(i, opcode) || SP.equals(code.get(i).getOperand(0)))
+        {
+            return false;
+        }
+        MipsInstruction.Address address = stackAddress(code.get(i));
+        return address != null && address.getOffset() == offset;
+    }
+
+    /**
+     * Finds the memory operand of a line if it is an offset from $sp.
+     * @param inst the line.
+     * @return the address, or null if the line has no address based on $sp.
+     */
+    private static MipsInstruction.Address stackAddress(MipsInstruction inst)
+    {
+        for(int k = 0; k < inst.getOperandCount(); k++)
+        {
+            Object operand = inst.getOperand(k);
+            if(operand instanceof MipsInstruction.Address
+                    && ((MipsInstruction.Address) operand).getBase().equals(SP))
+            {
+                return (MipsInstruction.Address) operand;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Determines whether a line uses $sp other than as the base of an address.
+     * @param inst the line.
+     * @return true if $sp is one of its register operands.
+     */
+    private static boolean readsStackPointer(MipsInstruction inst)
+    {
+        for(int k = 0; k < inst.getOperandCount(); k++)
+        {
+            if(SP.equals(inst.getOperand(k)))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Copies a line with its offset from $sp changed.
+     * @param inst the line.
+     * @param change the change of the offset, in bytes.
+     * @return the line with the new offset, or the line itself if it has no
+     * address based on $sp.
+     */
+    private static MipsInstruction moveOffsets(MipsInstruction inst, int change)
+    {
+        Object[] operands = operands(inst);
+        boolean moved = false;
+        for(int k = 0; k < operands.length; k++)
+        {
+            if(operands[k] instanceof MipsInstruction.Address
+                    && ((MipsInstruction.Address) operands[k]).getBase().equals(SP))
+            {
+                int offset = ((MipsInstruction.Address) operands[k]).getOffset() + change;
+                operands[k] = offset == 0 ? MipsInstruction.address(SP) : MipsInstruction.address(offset, SP);
+                moved = true;
+            }
+        }
+        return moved && change != 0 ? new MipsInstruction(inst.getOpcode(), operands) : inst;
+    }
+
+    /**
+     * Copies the operands of a line.
+     * @param inst the line.
+     * @return a new array with its operands.
+     */
+    private static Object[] operands(MipsInstruction inst)
+    {
+        Object[] operands = new Object[inst.getOperandCount()];
+        for(int k = 0; k < operands.length; k++)
+        {
+            operands[k] = inst.getOperand(k);
+        }
+        return operands;
+    }
+
+    /**
+     * Finds the registers an instruction reads.
+     * @param inst the instruction, which has an opcode.
+     * @return the registers, including the bases of addresses, $hi and $lo
+     * for mflo and mfhi, and the registers of the arguments of a syscall.
+     */
+    private static List<String> reads(MipsInstruction inst)
+    {
+        Opcode opcode = inst.getOpcode();
+        List<String> regs = new ArrayList<String>();
+        if(opcode == Opcode.SYSCALL)
+        {
+            return SYSCALL_READS;
+        }
+        if(opcode == Opcode.MFLO || opcode == Opcode.MFHI)
+        {
+            return HI_LO;
+        }
+        int first = writesFirstOperand(inst) && opcode != Opcode.MOVN && opcode != Opcode.MOVZ ? 1 : 0;
+        for(int k = first; k < inst.getOperandCount(); k++)
+        {
+            Object operand = inst.getOperand(k);
+            if(operand instanceof MipsInstruction.Address)
+            {
+                regs.add(((MipsInstruction.Address) operand).getBase());
+            }
+            else if(operand instanceof String && ((String) operand).startsWith("$"))
+            {
+                regs.add((String) operand);
+            }
+        }
+        return regs;
+    }
+
+    /**
+     * Finds the registers an instruction writes.
+     * @param inst the instruction, which has an opcode.
+     * @return the registers, $hi and $lo for mult and div, and $v0 for a
+     * syscall, which may read an integer into it.
+     */
+    private static List<String> writes(MipsInstruction inst)
+    {
+        Opcode opcode = inst.getOpcode();
+        if(opcode == Opcode.SYSCALL)
+        {
+            return Arrays.asList("$v0");
+        }
+        if(opcode == Opcode.JAL)
+        {
+            return Arrays.asList("$ra");
+        }
+        if(opcode == Opcode.MULT || (opcode == Opcode.DIV && inst.getOperandCount() == 2))
+        {
+            return HI_LO;
+        }
+        if(writesFirstOperand(inst))
+        {
+            return Arrays.asList((String) inst.getOperand(0));
+        }
+        return new ArrayList<String>();
+    }
+
+    /**
+     * Determines whether the first operand of an instruction is the register
+     * it writes.
+     * @param inst the instruction, which has an opcode.
+     * @return false for stores, jumps, branches, mult, div with two operands,
+     * syscall and nop.
+     */
+    private static boolean writesFirstOperand(MipsInstruction inst)
+    {
+        Opcode opcode = inst.getOpcode();
+        return !opcode.isJump() && opcode != Opcode.SW && opcode != Opcode.MULT
+                && opcode != Opcode.SYSCALL && opcode != Opcode.NOP
+                && !(opcode == Opcode.DIV && inst.getOperandCount() == 2)
+                && inst.getOperandCount() > 0 && inst.getOperand(0) instanceof String;
+    }
+
+    /**
+     * A Pattern is one entry of the table: a name for the report and the
+     * rewrite that tries it at a position.
+     */
+    private static class Pattern
+    {
+        private final String name;
+        private final Rewrite rewrite;
+
+        /**
+         * Creates an entry of the table.
+         * @param name the name of the pattern.
+         * @param rewrite the rewrite.
+         */
+        Pattern(String name, Rewrite rewrite)
+        {
+            this.name = name;
+            this.rewrite = rewrite;
+        }
+    }
+
+    /**
+     * A Rewrite tries a pattern at a position of the code.
+     */
+    private interface Rewrite
+    {
+        /**
+         * Replaces the instructions at a position if they match the pattern.
+         * @param i the position.
+         * @return true if the code was changed.
+         */
+        boolean apply(int i);
+    }
+}
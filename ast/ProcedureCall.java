@@ -8,7 +8,7 @@ import java.util.List;
  * during the program. The respective ProcedureDeclaration can then be found in
  * the environment and the procedure can be executed.
  * @author Aditya Ramanathan
- * @version 4/13/24
+ * @version 4/13/24, safepoint added 10/19/26
  */
 public class ProcedureCall extends Expression
 {
@@ -49,13 +49,20 @@ public class ProcedureCall extends Expression
     /**
      * Evaluates the procedure call. It creates the child environment for the
      * procedure, and computes the values of the parameters using the
-     * procedureDeclaration.
+     * procedureDeclaration. The call is recorded on the shadow stack while
+     * the procedure runs so that sampling profilers can see it, and the safepoint
+     * of the program, if it has one, is polled before the call.
      * @param env the environment containing the variables needed to perform the
      * operation and evaulate the expressions.
      * @return the value obtained after the code within the procedure is executed.
      */
     public int eval(Environment env)
     {
+        Safepoint safepoint = env.getSafepoint();
+        if(safepoint != null)
+        {
+            safepoint.poll();
+        }
         Environment child = new Environment(env);
         ProcedureDeclaration procedureDec = env.getProcedure(name);
         List<String> parms = procedureDec.getParms();
@@ -64,16 +71,41 @@ public class ProcedureCall extends Expression
             child.declareVariable(parms.get(i), args.get(i).eval(env));
         }
         child.declareVariable(name, 0);
-        procedureDec.getStatement().exec(child);
+        ShadowStack stack = env.getShadowStack();
+        stack.push(name);
+        stack.setLine(procedureDec.getStatement().getLine());
+        try
+        {
+            procedureDec.getStatement().exec(child);
+        }
+        finally
+        {
+            stack.pop();
+        }
         return child.getVariable(name);
     }
 
+    /**
+     * Retrieves the Sethi-Ullman number of the call. The called procedure
+     * uses the registers of the pool, so no other value may be held in one
+     * while the call is evaluated.
+     * @return CALL_NEED.
+     */
+    public int getRegisterNeed()
+    {
+        return CALL_NEED;
+    }
+
     /**
      * Compiles the Procedure Call by producing the corresponding MIPS
-     * instructions.
+     * instructions. The procedure returns its value in $v0, from which it
+     * is moved to the register.
      * @param e the emitter used to emit the MIPS instructions.
+     * @param dest the register that receives the value.
+     * @param free the index of the first free register of the pool, which is
+     * 0 since a call is never evaluated while other values are held.
      */
-    public void compile(Emitter e)
+    public void compile(Emitter e, String dest, int free)
     {
         for(int i = 0; i < args.size(); i++)
         {
@@ -81,11 +113,15 @@ public class ProcedureCall extends Expression
             e.emitPush("$v0");
         }
         e.emitPush("$ra");
-        e.emit("jal proc" + name);
+        e.emit(Opcode.JAL, "proc" + name);
         e.emitPop("$ra");
         for(int i = 0; i < args.size(); i++)
         {
             e.emitPop("$t0");
         }
+        if(!dest.equals("$v0"))
+        {
+            e.emit(Opcode.MOVE, dest, "$v0");
+        }
     }
 }
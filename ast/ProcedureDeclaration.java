@@ -1,13 +1,15 @@
 package ast;
 import environment.*;
 
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * A ProcedureDeclaration stores the name, parameters, local variables
  * and statement(s) of the procedure.
  * @author Aditya Ramanathan
- * @version 4/13/24
+ * @version 4/13/24, frame slots only for locals and the return variable, frame layout, register variables 10/19/26
  */
 public class ProcedureDeclaration extends Statement
 {
@@ -15,6 +17,7 @@ public class ProcedureDeclaration extends Statement
     private Statement st;
     private List<String> parms;
     private List<String> localVariables; // includes the parameters
+    private FrameLayout layout;
 
     /**
      * Constructs a ProcedureDeclaration object with a specified name of
@@ -59,6 +62,20 @@ public class ProcedureDeclaration extends Statement
         return localVariables;
     }
 
+    /**
+     * Retrieves the layout of the frame of the procedure, which is found the
+     * first time it is needed.
+     * @return the symbol table of the procedure for the code generator.
+     */
+    public FrameLayout getFrameLayout()
+    {
+        if(layout == null)
+        {
+            layout = new FrameLayout(this);
+        }
+        return layout;
+    }
+
     /**
      * Retrieves the statement(s) of the procedure.
      * @return the statement(s) of the procedure.
@@ -82,25 +99,64 @@ public class ProcedureDeclaration extends Statement
 
     /**
      * Compiles the procedure declaration by producing the corresponding
-     * MIPS instructions.
+     * MIPS instructions. The arguments stay where the caller pushed them, so
+     * only the return variable and the local variables get new stack slots,
+     * unless the RegisterAllocator keeps them in $s registers. The procedure
+     * saves the $s registers it uses after $ra and restores them before it
+     * returns, loads the parameters kept in registers and clears the other
+     * registers, since variables start at 0. The value of the return
+     * variable is left in $v0.
      * @param e the emitter used to emit the MIPS instructions.
      */
     public void compile(Emitter e)
     {
-        e.emit("proc" + name + ":");
-        e.emitPush("$ra");
+        FrameLayout frame = getFrameLayout();
+        e.emitLabel("proc" + name);
         e.setProcedureContext(this);
-        for(int i = 0; i < localVariables.size(); i++)
+        e.emitPush("$ra");
+        List<String> saved = frame.getSavedRegisters();
+        for(String reg: saved)
+        {
+            e.emitPush(reg);
+        }
+        int slots = frame.getSlotCount();
+        for(int i = 0; i < slots; i++)
         {
-            e.emitPush("$0");
+            e.emitPush("$0"); // the return variable, then the local variables
+        }
+        Set<String> cleared = new LinkedHashSet<String>(saved);
+        for(String parm: parms)
+        {
+            String reg = frame.getRegister(parm);
+            if(reg != null && cleared.remove(reg))
+            {
+                e.emit(Opcode.LW, reg, MipsInstruction.address(e.getOffset(parm), "$sp"));
+            }
+        }
+        for(String reg: cleared)
+        {
+            e.emit(Opcode.MOVE, reg, "$0");
         }
         st.compile(e);
-        for(int i = 0; i < localVariables.size(); i++)
+        int locals = frame.hasReturnSlot() ? slots - 1 : slots;
+        for(int i = 0; i < locals; i++)
         {
             e.emitPop("$t0");
         }
+        if(frame.hasReturnSlot())
+        {
+            e.emitPop("$v0");
+        }
+        else
+        {
+            e.emit(Opcode.MOVE, "$v0", frame.getRegister(name));
+        }
+        for(int i = saved.size() - 1; i >= 0; i--)
+        {
+            e.emitPop(saved.get(i));
+        }
         e.emitPop("$ra");
-        e.emit("jr $ra");
+        e.emit(Opcode.JR, "$ra");
         e.clearProcedureContext();
     }
 }
@@ -1,20 +1,27 @@
 package ast;
 import environment.*;
 
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * The Program class keeps track of the main body of code, all the procedures
  * declared in the program, and the global variables. As the program is parsed,
  * this information is collected and stored for later use during execution.
+ * A Program is never changed once it has been created, so one parsed Program
+ * can be executed by many threads at once as long as each execution uses its
+ * own global Environment.
  * @author Aditya Ramanathan
- * @version 4/13/24
+ * @version 4/13/24, made immutable, profile-guided layout, $gp globals 10/19/26
  */
 public class Program
 {
-    private List<ProcedureDeclaration> procedureDecs;
-    private List<String> vars;
-    private Statement st;
+    private final List<ProcedureDeclaration> procedureDecs;
+    private final List<String> vars;
+    private final Statement st;
+    private final Map<String, ProcedureDeclaration> procedures;
 
     /**
      * Creates a Program with all the procedures and the statements in the main
@@ -25,9 +32,53 @@ public class Program
      */
     public Program(List<ProcedureDeclaration> procedureDecs, Statement st, List<String> vars)
     {
-        this.procedureDecs = procedureDecs;
+        this.procedureDecs = Collections.unmodifiableList(procedureDecs);
         this.st = st;
-        this.vars = vars;
+        this.vars = Collections.unmodifiableList(vars);
+
+        Map<String, ProcedureDeclaration> table = new HashMap<String, ProcedureDeclaration>();
+        for(ProcedureDeclaration dec: procedureDecs)
+        {
+            table.put(dec.getName(), dec);
+        }
+        procedures = Collections.unmodifiableMap(table);
+    }
+
+    /**
+     * Retrieves the procedures declared in the program.
+     * @return the list of procedure declarations.
+     */
+    public List<ProcedureDeclaration> getProcedureDeclarations()
+    {
+        return procedureDecs;
+    }
+
+    /**
+     * Retrieves the global variables of the program.
+     * @return the names of the global variables.
+     */
+    public List<String> getVariables()
+    {
+        return vars;
+    }
+
+    /**
+     * Retrieves the statement(s) in the main block of code.
+     * @return the main statement.
+     */
+    public Statement getStatement()
+    {
+        return st;
+    }
+
+    /**
+     * Retrieves the procedure declared with the given name.
+     * @param name the name of the procedure.
+     * @return the procedure declaration, or null if there is none.
+     */
+    public ProcedureDeclaration getProcedure(String name)
+    {
+        return procedures.get(name);
     }
 
     /**
@@ -35,40 +86,44 @@ public class Program
      * to the terminal.
      * @param env the environment containing all the variables
      * needed to execute the statement.
-     * @postcondition the procedures were all declared in the environment and
-     * the program was executed.
+     * The procedures are made visible through the table shared by every
+     * execution of this Program rather than being copied into the environment.
+     * @postcondition the procedures were all declared in the environment,
+     * the program was executed and all of its output was flushed.
      */
     public void exec(Environment env)
     {
-        for(ProcedureDeclaration dec: procedureDecs)
+        env.setProcedures(procedures);
+        try
+        {
+            st.exec(env);
+        }
+        finally
         {
-            dec.exec(env);
+            env.getOutput().flush();
         }
-        st.exec(env);
     }
 
     /**
      * Compiles the program by first compiling the variables, the program itself,
      * and lastly the procedures and produces the corresponding MIPS instructions
-     * for each of these.
+     * for each of these. main starts by pointing $gp at the variables.
      * @param e the emitter used to emit the MIPS instructions.
      */
     public void compile(Emitter e)
     {
-        e.emit(".data");
-        e.emit("nl: .asciiz \"\\n\"");
-
-        for(String var: vars)
+        if(e.getProfile() != null)
         {
-            e.emit(var + ": .word 0");
+            e.getProfile().attach(this);
         }
-
+        e.emitData(vars);
         e.emit(".text");
         e.emit(".globl main");
-        e.emit("main:");
+        e.emitLabel("main");
+        e.emitGlobalPointer();
         st.compile(e);
-        e.emit("li $v0 10");
-        e.emit("syscall");
+        e.emit(Opcode.LI, "$v0", 10);
+        e.emit(Opcode.SYSCALL);
 
         for(ProcedureDeclaration dec: procedureDecs)
         {
@@ -76,4 +131,17 @@ public class Program
         }
         e.close();
     }
+
+    /**
+     * Compiles the program using a profile of its execution to lay out the
+     * code, so that the more likely statement of every If and ELSE falls through.
+     * @param e the emitter used to emit the MIPS instructions.
+     * @param profile the profile, which may have been recorded by an earlier
+     * version of the program.
+     */
+    public void compile(Emitter e, ExecutionProfile profile)
+    {
+        e.setProfile(profile);
+        compile(e);
+    }
 }
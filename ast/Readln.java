@@ -5,7 +5,7 @@ import environment.*;
  * The Readln class allows a variable to be assigned to a value inputted by
  * the user.
  * @author Aditya Ramanathan
- * @version 4/12/24
+ * @version 4/12/24, output flushed before reading, shared input reader, value stored when compiled, register variables 10/19/26
  */
 public class Readln extends Statement
 {
@@ -20,29 +20,53 @@ public class Readln extends Statement
         this.var = var;
     }
 
+    /**
+     * Retrieves the name of the variable that is read into.
+     * @return the variable name.
+     */
+    public String getVarName()
+    {
+        return var;
+    }
+
     /**
      * Assignes the variable to the value inputted by the user. It prompts
-     * the user to input a value into the terminal.
+     * the user to input a value into the terminal. The value is read through
+     * the input reader shared by the whole program, after giving the output
+     * sink a chance to show any pending output.
      * @param env the environment containing the variables needed to perform the
      * operation and evaulate the expressions.
      * @postcondition the environment contains the variable set to its new value.
      */
     public void exec(Environment env)
     {
-        java.util.Scanner scTemp = new java.util.Scanner(System.in);
-        int value = scTemp.nextInt();
-        scTemp.close();
-        env.setVariable(var, value);
+        env.getOutput().beforeRead();
+        env.setVariable(var, env.getInput().readInt());
     }
 
     /**
      * Compiles the Readln statement by producing the corresponding MIPS
-     * instructions using the emitter.
+     * instructions using the emitter: the integer read by the syscall is
+     * stored in the local or global variable, or copied to the register of
+     * the variable, like an Assignment.
      * @param e the emitter used to emit the MIPS instructions.
      */
     public void compile(Emitter e)
     {
-        e.emit("li $v0 5");
-        e.emit("syscall");
+        e.emit(Opcode.LI, "$v0", 5);
+        e.emit(Opcode.SYSCALL);
+        String reg = e.getRegister(var);
+        if(reg != null)
+        {
+            e.emit(Opcode.MOVE, reg, "$v0");
+        }
+        else if(e.isLocalVariable(var))
+        {
+            e.emit(Opcode.SW, "$v0", MipsInstruction.address(e.getOffset(var), "$sp"));
+        }
+        else
+        {
+            e.emit(Opcode.SW, "$v0", e.getGlobalAddress(var));
+        }
     }
 }
@@ -0,0 +1,259 @@
+package ast;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The RegisterAllocator keeps the parameters, the return variable and the
+ * local variables of a procedure in the registers $s0-$s7 by linear scan.
+ *
+ * The references of the procedure's body are numbered in the order of the
+ * source, and each variable is live from its first reference to its last.
+ * A variable is live from the entry of the procedure instead if it is a
+ * parameter or if it may be read before it is assigned, which is the case
+ * unless its first reference is an assignment or READLN that is not inside
+ * an IF or WHILE; the return variable is live to the end. A variable used
+ * inside a WHILE is live for the whole loop, since the loop may use its value
+ * from the previous iteration. Variables whose live ranges do not overlap may
+ * share a register. When more than eight are live at once, the ones with the
+ * smallest weight stay in the frame; every reference weighs 1, times 8 for
+ * each loop it is in. A variable that weighs less than 4 stays in the frame
+ * too, since saving and restoring a register would cost more than it saves.
+ *
+ * Procedures whose bodies contain statements the allocator does not know,
+ * such as those added by a profiler, keep every variable in the frame.
+ *
+ * Usage, by a FrameLayout once it has classified the names of the procedure:
+ * Map<String, String> registers = RegisterAllocator.allocate(procedure, this);
+ *
+ * @author Aditya Ramanathan
+ * @version 10/19/26
+ */
+public class RegisterAllocator extends AstWalker
+{
+    public static final String[] REGISTERS = {"$s0", "$s1", "$s2", "$s3", "$s4",
+            "$s5", "$s6", "$s7"};
+    private static final int LOOP_WEIGHT = 8;
+    private static final int MAX_WEIGHT_DEPTH = 5;
+    private static final int MIN_WEIGHT = 4;
+
+    private final Set<String> names;
+    private final Map<String, Interval> intervals;
+    private final List<int[]> loops;
+    private int position;
+    private int nesting;
+    private int loopDepth;
+    private boolean unknown;
+
+    /**
+     * Creates an allocator for the names of a procedure.
+     * @param names the names that may be kept in registers.
+     */
+    private RegisterAllocator(Set<String> names)
+    {
+        this.names = names;
+        intervals = new LinkedHashMap<String, Interval>();
+        loops = new ArrayList<int[]>();
+        position = 1;
+    }
+
+    /**
+     * Allocates registers to the variables of a procedure.
+     * @param proc the procedure.
+     * @param layout the symbol table of the procedure, which tells which names
+     * are its parameters, return variable and local variables.
+     * @return the register of every variable that gets one.
+     */
+    public static Map<String, String> allocate(ProcedureDeclaration proc, FrameLayout layout)
+    {
+        RegisterAllocator allocator = new RegisterAllocator(layout.getNames());
+        allocator.visitStatement(proc.getStatement());
+        if(allocator.unknown)
+        {
+            return new HashMap<String, String>();
+        }
+        return allocator.scan(layout);
+    }
+
+    /**
+     * Numbers the references of a statement, noting the loops and which
+     * first references are assignments.
+     * @param st the statement.
+     */
+    public void visitStatement(Statement st)
+    {
+        if(st instanceof Block || st instanceof Writeln)
+        {
+            super.visitStatement(st);
+        }
+        else if(st instanceof Assignment)
+        {
+            super.visitStatement(st);
+            reference(((Assignment) st).getVarName(), true);
+        }
+        else if(st instanceof Readln)
+        {
+            reference(((Readln) st).getVarName(), true);
+        }
+        else if(st instanceof If || st instanceof While)
+        {
+            int start = position;
+            boolean loop = st instanceof While;
+            nesting++;
+            loopDepth += loop ? 1 : 0;
+            super.visitStatement(st);
+            loopDepth -= loop ? 1 : 0;
+            nesting--;
+            if(loop)
+            {
+                loops.add(new int[] {start, position});
+            }
+        }
+        else
+        {
+            unknown = true;
+        }
+    }
+
+    /**
+     * Numbers the references of an expression.
+     * @param exp the expression.
+     */
+    public void visitExpression(Expression exp)
+    {
+        if(exp instanceof Variable)
+        {
+            reference(((Variable) exp).getName(), false);
+        }
+        super.visitExpression(exp);
+    }
+
+    /**
+     * Records a reference to a variable.
+     * @param name the name of the variable.
+     * @param write true if the reference assigns the variable.
+     */
+    private void reference(String name, boolean write)
+    {
+        if(!names.contains(name))
+        {
+            return;
+        }
+        Interval interval = intervals.get(name);
+        if(interval == null)
+        {
+            interval = new Interval(name, position, write && nesting == 0);
+            intervals.put(name, interval);
+        }
+        interval.end = position;
+        interval.weight += (long) Math.pow(LOOP_WEIGHT, Math.min(loopDepth, MAX_WEIGHT_DEPTH));
+        position++;
+    }
+
+    /**
+     * Extends the live ranges and assigns the registers.
+     * @param layout the symbol table of the procedure.
+     * @return the register of every variable that gets one.
+     */
+    private Map<String, String> scan(FrameLayout layout)
+    {
+        List<Interval> sorted = new ArrayList<Interval>();
+        for(Interval interval: intervals.values())
+        {
+            FrameLayout.Kind kind = layout.getKind(interval.name);
+            if(kind == FrameLayout.Kind.PARAMETER || !interval.defined)
+            {
+                interval.start = 0;
+            }
+            if(kind == FrameLayout.Kind.RETURN)
+            {
+                interval.end = Integer.MAX_VALUE;
+            }
+            boolean changed = true;
+            while(changed)
+            {
+                changed = false;
+                for(int[] loop: loops)
+                {
+                    if(interval.start <= loop[1] && interval.end >= loop[0]
+                            && (interval.start > loop[0] || interval.end < loop[1]))
+                    {
+                        interval.start = Math.min(interval.start, loop[0]);
+                        interval.end = Math.max(interval.end, loop[1]);
+                        changed = true;
+                    }
+                }
+            }
+            if(interval.weight >= MIN_WEIGHT)
+            {
+                sorted.add(interval);
+            }
+        }
+        sorted.sort((a, b) -> Integer.compare(a.start, b.start));
+
+        Map<String, String> registers = new HashMap<String, String>();
+        List<Interval> active = new ArrayList<Interval>();
+        List<String> free = new ArrayList<String>(List.of(REGISTERS));
+        for(Interval interval: sorted)
+        {
+            for(int i = active.size() - 1; i >= 0; i--)
+            {
+                if(active.get(i).end < interval.start)
+                {
+                    free.add(0, registers.get(active.get(i).name));
+                    active.remove(i);
+                }
+            }
+            if(free.isEmpty())
+            {
+                Interval lightest = interval;
+                for(Interval other: active)
+                {
+                    if(other.weight < lightest.weight)
+                    {
+                        lightest = other;
+                    }
+                }
+                if(lightest == interval)
+                {
+                    continue;
+                }
+                free.add(registers.remove(lightest.name));
+                active.remove(lightest);
+            }
+            registers.put(interval.name, free.remove(0));
+            active.add(interval);
+        }
+        return registers;
+    }
+
+    /**
+     * The live range of a variable, from its first reference to its last.
+     */
+    private static class Interval
+    {
+        private final String name;
+        private final boolean defined; // the first reference is an assignment at the top level
+        private int start;
+        private int end;
+        private long weight;
+
+        /**
+         * Creates the live range of a variable at its first reference.
+         * @param name the name of the variable.
+         * @param start the position of the first reference.
+         * @param defined true if the first reference is an assignment that is
+         * not inside an IF or WHILE.
+         */
+        Interval(String name, int start, boolean defined)
+        {
+            this.name = name;
+            this.start = start;
+            this.defined = defined;
+        }
+    }
+}
@@ -10,6 +10,8 @@ import environment.*;
  */
 public abstract class Statement
 {
+    private int line;
+
     /**
      * The exec method executs the statement. This is used for the
      * Interpreter.
@@ -28,4 +30,24 @@ public abstract class Statement
      * MIPS instructions.
      */
     public abstract void compile(Emitter e);
+
+    /**
+     * Retrieves the line of the source program on which this statement starts.
+     * @return the line number, or 0 if it is not known.
+     */
+    public int getLine()
+    {
+        return line;
+    }
+
+    /**
+     * Records the line of the source program on which this statement starts.
+     * The parser calls this once, right after creating the statement.
+     * @param line the line number.
+     * @postcondition getLine() returns the line number.
+     */
+    public void setLine(int line)
+    {
+        this.line = line;
+    }
 }
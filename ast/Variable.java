@@ -5,7 +5,7 @@ import environment.*;
  * The Variable class stores the name of a variable defined in the program.
  * The value of the variable is accessed through the environment class.
  * @author Aditya Ramanathan
- * @version 4/10/24
+ * @version 4/10/24, register variables, instruction selection 10/19/26
  */
 public class Variable extends Expression
 {
@@ -43,21 +43,39 @@ public class Variable extends Expression
         return env.getVariable(name);
     }
 
+    /**
+     * Retrieves the register the variable is kept in.
+     * @param e the emitter, which knows the registers of the variables.
+     * @return the $s register of the variable, or null if it is in memory.
+     */
+    public String getRegister(Emitter e)
+    {
+        return e.getRegister(name);
+    }
+
     /**
      * Compiles the variable object by loading the value associated with
-     * the variable's address in the register $v0 in the MIPS program.
+     * the variable's address in the register in the MIPS program, from $sp for
+     * a local variable and from $gp for a global one, or by copying it from
+     * the $s register the variable is kept in.
      * @param e the emitter used to emit the MIPS instructions.
+     * @param dest the register that receives the value.
+     * @param free the index of the first free register of the pool, not used.
      */
-    public void compile(Emitter e)
+    public void compile(Emitter e, String dest, int free)
     {
-        if(e.isLocalVariable(name))
+        String reg = e.getRegister(name);
+        if(reg != null)
+        {
+            e.emit(Opcode.MOVE, dest, reg);
+        }
+        else if(e.isLocalVariable(name))
         {
-            e.emit("lw $v0 " + e.getOffset(name) + "($sp)");
+            e.emit(Opcode.LW, dest, MipsInstruction.address(e.getOffset(name), "$sp"));
         }
         else
         {
-            e.emit("la $t0 " + name);
-            e.emit("lw $v0 ($t0)");
+            e.emit(Opcode.LW, dest, e.getGlobalAddress(name));
         }
     }
 }
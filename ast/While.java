@@ -5,10 +5,13 @@ import environment.*;
  * The While class stores the various parts of an While loop: the condition and
  * the statement(s) till the condition is not met anymore.
  * @author Aditya Ramanathan
- * @version 4/10/24
+ * @version 4/10/24, safepoint added, unrolling 10/19/26
  */
 public class While extends Statement
 {
+    public static final int UNROLL_TRIPS = 8;
+    public static final int UNROLL_NODES = 24;
+
     private Condition cond;
     private Statement st;
 
@@ -25,31 +28,103 @@ public class While extends Statement
     }
 
     /**
-     * Executes the statement(s) till the conditon is no longer met.
+     * Retrieves the condition to enter the while loop.
+     * @return the condition.
+     */
+    public Condition getCondition()
+    {
+        return cond;
+    }
+
+    /**
+     * Retrieves the statement(s) in the body of the loop.
+     * @return the body of the loop.
+     */
+    public Statement getStatement()
+    {
+        return st;
+    }
+
+    /**
+     * Executes the statement(s) till the conditon is no longer met. Every
+     * iteration polls the safepoint of the program, if it has one.
      * @param env the environment containing all the variables needed to
      * evaluate the expression.
      * @postcondition the statement(s) have been run some number of times.
      */
     public void exec(Environment env)
     {
+        Safepoint safepoint = env.getSafepoint();
         while(cond.eval(env))
         {
             st.exec(env);
+            if(safepoint != null)
+            {
+                safepoint.poll();
+            }
         }
     }
 
     /**
      * Compiles the While loop by producing the corresponding MIPS
-     * instructions using the emitter.
+     * instructions using the emitter. If the emitter has a profile in which
+     * the loop ran many iterations each time, and the loop is small and has no
+     * loops inside it, the body is unrolled: it is compiled two or four times,
+     * each copy after its own test of the condition, so that only one jump back
+     * is made for every two or four iterations.
      * @param e the emitter used to emit the MIPS instructions.
      */
     public void compile(Emitter e)
     {
         int label = e.nextLabelID();
-        e.emit("while" + label + ":");
-        cond.compile(e, "endwhile" + label);
-        st.compile(e);
-        e.emit("j while" + label);
-        e.emit("endwhile" + label + ":");
+        int copies = 1;
+        ExecutionProfile profile = e.getProfile();
+        if(profile != null && isSmallInnerLoop())
+        {
+            double trips = profile.getTripCount(this);
+            if(trips >= UNROLL_TRIPS * 2)
+            {
+                copies = 4;
+            }
+            else if(trips >= UNROLL_TRIPS)
+            {
+                copies = 2;
+            }
+        }
+        e.emitLabel("while" + label);
+        for(int i = 0; i < copies; i++)
+        {
+            cond.compile(e, "endwhile" + label);
+            st.compile(e);
+        }
+        e.emit(Opcode.J, "while" + label);
+        e.emitLabel("endwhile" + label);
+    }
+
+    /**
+     * Determines whether the loop may be unrolled, which is when its body has
+     * no loops and at most UNROLL_NODES statements and expressions.
+     * @return true if the loop is small and innermost.
+     */
+    private boolean isSmallInnerLoop()
+    {
+        int[] nodes = new int[1];
+        boolean[] nested = new boolean[1];
+        new AstWalker()
+        {
+            public void visitStatement(Statement st)
+            {
+                nodes[0]++;
+                nested[0] |= st instanceof While;
+                super.visitStatement(st);
+            }
+
+            public void visitExpression(Expression exp)
+            {
+                nodes[0]++;
+                super.visitExpression(exp);
+            }
+        }.visitStatement(st);
+        return !nested[0] && nodes[0] <= UNROLL_NODES;
     }
 }
@@ -22,14 +22,24 @@ public class Writeln extends Statement
     }
 
     /**
-     * Evaluates and prints the expression.
+     * Retrieves the expression that is printed.
+     * @return the expression.
+     */
+    public Expression getExpression()
+    {
+        return exp;
+    }
+
+    /**
+     * Evaluates and prints the expression through the output sink of the
+     * environment.
      * @param env the environment containing the variables needed to perform the
      * operation and evaulate the expressions.
      * @postcondition the value of the expression has been printed.
      */
     public void exec(Environment env)
     {
-        System.out.println(exp.eval(env));
+        env.getOutput().println(exp.eval(env));
     }
 
     /**
@@ -40,11 +50,11 @@ public class Writeln extends Statement
     public void compile(Emitter e)
     {
         exp.compile(e);
-        e.emit("move $a0 $v0");
-        e.emit("li $v0 1");
-        e.emit("syscall");
-        e.emit("la $a0 nl");
-        e.emit("li $v0 4");
-        e.emit("syscall");
+        e.emit(Opcode.MOVE, "$a0", "$v0");
+        e.emit(Opcode.LI, "$v0", 1);
+        e.emit(Opcode.SYSCALL);
+        e.emit(Opcode.LA, "$a0", "nl");
+        e.emit(Opcode.LI, "$v0", 4);
+        e.emit(Opcode.SYSCALL);
     }
 }
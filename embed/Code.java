@@ -0,0 +1,364 @@
+package embed;
+
+/**
+ * Code is the compiled form of expressions, conditions and statements used by
+ * the embedding API. Every variable has already been resolved to a slot of an
+ * int array frame, and every operator to its own class, so evaluating code
+ * does no map lookups, no string comparisons and no allocation. Code never
+ * changes after it is built, which makes it safe to evaluate from many threads
+ * at once; everything that changes during evaluation lives in the frames.
+ * @author Aditya Ramanathan
+ * @version 10/19/26
+ */
+final class Code
+{
+    /**
+     * Code cannot be instantiated; it only groups the kinds of code.
+     */
+    private Code()
+    {
+    }
+
+    /**
+     * Compiled code for an expression.
+     */
+    abstract static class Expr
+    {
+        /**
+         * Evaluates the expression.
+         * @param frame the slots of the current call.
+         * @param frames the frames of the current thread, used by procedure calls.
+         * @return the value of the expression.
+         */
+        abstract int eval(int[] frame, Frames frames);
+    }
+
+    /**
+     * Compiled code for a condition.
+     */
+    abstract static class Test
+    {
+        /**
+         * Evaluates the condition.
+         * @param frame the slots of the current call.
+         * @param frames the frames of the current thread.
+         * @return true if the condition holds.
+         */
+        abstract boolean test(int[] frame, Frames frames);
+    }
+
+    /**
+     * Compiled code for a statement.
+     */
+    abstract static class Step
+    {
+        /**
+         * Executes the statement.
+         * @param frame the slots of the current call.
+         * @param frames the frames of the current thread.
+         */
+        abstract void run(int[] frame, Frames frames);
+    }
+
+    /**
+     * A constant.
+     */
+    static final class Const extends Expr
+    {
+        private final int value;
+
+        Const(int value)
+        {
+            this.value = value;
+        }
+
+        int eval(int[] frame, Frames frames)
+        {
+            return value;
+        }
+    }
+
+    /**
+     * A parameter, local variable or return variable.
+     */
+    static final class Slot extends Expr
+    {
+        private final int index;
+
+        Slot(int index)
+        {
+            this.index = index;
+        }
+
+        int eval(int[] frame, Frames frames)
+        {
+            return frame[index];
+        }
+    }
+
+    /**
+     * exp1 + exp2
+     */
+    static final class Add extends Expr
+    {
+        private final Expr exp1;
+        private final Expr exp2;
+
+        Add(Expr exp1, Expr exp2)
+        {
+            this.exp1 = exp1;
+            this.exp2 = exp2;
+        }
+
+        int eval(int[] frame, Frames frames)
+        {
+            return exp1.eval(frame, frames) + exp2.eval(frame, frames);
+        }
+    }
+
+    /**
+     * exp1 - exp2
+     */
+    static final class Sub extends Expr
+    {
+        private final Expr exp1;
+        private final Expr exp2;
+
+        Sub(Expr exp1, Expr exp2)
+        {
+            this.exp1 = exp1;
+            this.exp2 = exp2;
+        }
+
+        int eval(int[] frame, Frames frames)
+        {
+            return exp1.eval(frame, frames) - exp2.eval(frame, frames);
+        }
+    }
+
+    /**
+     * exp1 * exp2
+     */
+    static final class Mul extends Expr
+    {
+        private final Expr exp1;
+        private final Expr exp2;
+
+        Mul(Expr exp1, Expr exp2)
+        {
+            this.exp1 = exp1;
+            this.exp2 = exp2;
+        }
+
+        int eval(int[] frame, Frames frames)
+        {
+            return exp1.eval(frame, frames) * exp2.eval(frame, frames);
+        }
+    }
+
+    /**
+     * exp1 / exp2
+     */
+    static final class Div extends Expr
+    {
+        private final Expr exp1;
+        private final Expr exp2;
+
+        Div(Expr exp1, Expr exp2)
+        {
+            this.exp1 = exp1;
+            this.exp2 = exp2;
+        }
+
+        int eval(int[] frame, Frames frames)
+        {
+            return exp1.eval(frame, frames) / exp2.eval(frame, frames);
+        }
+    }
+
+    /**
+     * exp1 mod exp2
+     */
+    static final class Mod extends Expr
+    {
+        private final Expr exp1;
+        private final Expr exp2;
+
+        Mod(Expr exp1, Expr exp2)
+        {
+            this.exp1 = exp1;
+            this.exp2 = exp2;
+        }
+
+        int eval(int[] frame, Frames frames)
+        {
+            return exp1.eval(frame, frames) % exp2.eval(frame, frames);
+        }
+    }
+
+    /**
+     * A call to a compiled procedure. The arguments are evaluated in the frame
+     * of the caller and stored in the first slots of a fresh frame.
+     */
+    static final class Call extends Expr
+    {
+        private final CompiledProcedure proc;
+        private final Expr[] args;
+
+        Call(CompiledProcedure proc, Expr[] args)
+        {
+            this.proc = proc;
+            this.args = args;
+        }
+
+        int eval(int[] frame, Frames frames)
+        {
+            int[] callee = frames.push(proc.getFrameSize());
+            try
+            {
+                for(int i = 0; i < args.length; i++)
+                {
+                    callee[i] = args[i].eval(frame, frames);
+                }
+                proc.getBody().run(callee, frames);
+                return callee[proc.getReturnSlot()];
+            }
+            finally
+            {
+                frames.pop();
+            }
+        }
+    }
+
+    /**
+     * A comparison between two expressions.
+     */
+    static final class Compare extends Test
+    {
+        static final int GT = 0;
+        static final int LT = 1;
+        static final int GE = 2;
+        static final int LE = 3;
+        static final int EQ = 4;
+        static final int NE = 5;
+
+        private final Expr left;
+        private final int relop;
+        private final Expr right;
+
+        Compare(Expr left, int relop, Expr right)
+        {
+            this.left = left;
+            this.relop = relop;
+            this.right = right;
+        }
+
+        boolean test(int[] frame, Frames frames)
+        {
+            int a = left.eval(frame, frames);
+            int b = right.eval(frame, frames);
+            switch(relop)
+            {
+                case GT: return a > b;
+                case LT: return a < b;
+                case GE: return a >= b;
+                case LE: return a <= b;
+                case EQ: return a == b;
+                default: return a != b;
+            }
+        }
+    }
+
+    /**
+     * An assignment to a slot.
+     */
+    static final class Store extends Step
+    {
+        private final int index;
+        private final Expr exp;
+
+        Store(int index, Expr exp)
+        {
+            this.index = index;
+            this.exp = exp;
+        }
+
+        void run(int[] frame, Frames frames)
+        {
+            frame[index] = exp.eval(frame, frames);
+        }
+    }
+
+    /**
+     * A sequence of statements.
+     */
+    static final class Sequence extends Step
+    {
+        private final Step[] steps;
+
+        Sequence(Step[] steps)
+        {
+            this.steps = steps;
+        }
+
+        void run(int[] frame, Frames frames)
+        {
+            for(Step step: steps)
+            {
+                step.run(frame, frames);
+            }
+        }
+    }
+
+    /**
+     * An IF statement, with an empty Sequence when there is no ELSE.
+     */
+    static final class Branch extends Step
+    {
+        private final Test cond;
+        private final Step then;
+        private final Step otherwise;
+
+        Branch(Test cond, Step then, Step otherwise)
+        {
+            this.cond = cond;
+            this.then = then;
+            this.otherwise = otherwise;
+        }
+
+        void run(int[] frame, Frames frames)
+        {
+            if(cond.test(frame, frames))
+            {
+                then.run(frame, frames);
+            }
+            else
+            {
+                otherwise.run(frame, frames);
+            }
+        }
+    }
+
+    /**
+     * A WHILE loop.
+     */
+    static final class Loop extends Step
+    {
+        private final Test cond;
+        private final Step body;
+
+        Loop(Test cond, Step body)
+        {
+            this.cond = cond;
+            this.body = body;
+        }
+
+        void run(int[] frame, Frames frames)
+        {
+            while(cond.test(frame, frames))
+            {
+                body.run(frame, frames);
+            }
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package embed;
+
+/**
+ * A CompiledProcedure is a procedure of a Program translated into Code. Its
+ * frame has the parameters in the first slots, followed by the local variables
+ * and finally the return variable, which has the name of the procedure.
+ * @author Aditya Ramanathan
+ * @version 10/19/26
+ */
+final class CompiledProcedure
+{
+    private final String name;
+    private final String[] parms;
+    private final int frameSize;
+    private Code.Step body; // set once all procedures have frames, for recursion
+
+    /**
+     * Creates a procedure whose statement(s) have not been translated yet.
+     * @param name the name of the procedure.
+     * @param parms the names of the parameters.
+     * @param frameSize the number of slots in a frame, including the return slot.
+     */
+    CompiledProcedure(String name, String[] parms, int frameSize)
+    {
+        this.name = name;
+        this.parms = parms;
+        this.frameSize = frameSize;
+    }
+
+    /**
+     * Retrieves the name of the procedure.
+     * @return the name of the procedure.
+     */
+    String getName()
+    {
+        return name;
+    }
+
+    /**
+     * Retrieves the names of the parameters, in order.
+     * @return the parameter names.
+     */
+    String[] getParms()
+    {
+        return parms;
+    }
+
+    /**
+     * Retrieves the number of slots in a frame of this procedure.
+     * @return the frame size.
+     */
+    int getFrameSize()
+    {
+        return frameSize;
+    }
+
+    /**
+     * Retrieves the slot of the return variable.
+     * @return the return slot, which is the last slot of the frame.
+     */
+    int getReturnSlot()
+    {
+        return frameSize - 1;
+    }
+
+    /**
+     * Retrieves the translated statement(s) of the procedure.
+     * @return the body of the procedure.
+     */
+    Code.Step getBody()
+    {
+        return body;
+    }
+
+    /**
+     * Sets the translated statement(s) of the procedure.
+     * @param body the body of the procedure.
+     */
+    void setBody(Code.Step body)
+    {
+        this.body = body;
+    }
+}
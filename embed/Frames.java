@@ -0,0 +1,72 @@
+package embed;
+
+/**
+ * Frames holds the procedure frames of one thread that evaluates compiled
+ * code. A frame is an int array with one slot per parameter, local variable
+ * and return variable of a procedure. The arrays are kept per call depth and
+ * reused by later calls at the same depth, so once a thread has reached its
+ * deepest recursion, evaluating code no longer allocates anything.
+ * @author Aditya Ramanathan
+ * @version 10/19/26
+ */
+final class Frames
+{
+    private static final ThreadLocal<Frames> CURRENT = ThreadLocal.withInitial(Frames::new);
+
+    private int[][] frames;
+    private int depth;
+
+    /**
+     * Creates an empty set of frames.
+     */
+    private Frames()
+    {
+        frames = new int[16][];
+    }
+
+    /**
+     * Retrieves the frames of the current thread.
+     * @return the frames of the current thread.
+     */
+    static Frames current()
+    {
+        return CURRENT.get();
+    }
+
+    /**
+     * Reserves a zeroed frame for a new call.
+     * @param size the number of slots the procedure needs.
+     * @return the frame of the call.
+     * @postcondition the call depth is one greater.
+     */
+    int[] push(int size)
+    {
+        if(depth == frames.length)
+        {
+            int[][] bigger = new int[frames.length * 2][];
+            System.arraycopy(frames, 0, bigger, 0, frames.length);
+            frames = bigger;
+        }
+        int[] frame = frames[depth];
+        if(frame == null || frame.length < size)
+        {
+            frame = new int[Math.max(size, 4)];
+            frames[depth] = frame;
+        }
+        else
+        {
+            java.util.Arrays.fill(frame, 0, size, 0);
+        }
+        depth++;
+        return frame;
+    }
+
+    /**
+     * Releases the frame of the call that just returned.
+     * @postcondition the call depth is one less.
+     */
+    void pop()
+    {
+        depth--;
+    }
+}
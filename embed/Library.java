@@ -0,0 +1,155 @@
+package embed;
+import ast.*;
+import parser.*;
+import scanner.*;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A Library precompiles the procedures of a Program so that they can be called
+ * from Java, or from formulas, without going back through the parser or the
+ * interpreter. Every procedure that does no input or output and only uses its
+ * own parameters, local variables and return variable is compiled; the others
+ * are remembered with the reason they could not be, which is reported if they
+ * are used.
+ *
+ * A Library never changes once it has been built, so one Library and all the
+ * Formulas made from it can be shared by any number of threads.
+ *
+ * Usage:
+ * Library lib = new Library(parser.parseProgram());
+ * Formula max = lib.procedure("max");
+ * int bigger = max.eval(new int[] {5, 12});
+ * Formula f = lib.formula("max(a, b) * 2", "a", "b");
+ *
+ * @author Aditya Ramanathan
+ * @version 10/19/26
+ */
+public final class Library
+{
+    private final Map<String, CompiledProcedure> procedures;
+    private final Map<String, String> rejected;
+
+    /**
+     * Creates a library with no procedures.
+     */
+    public Library()
+    {
+        procedures = new HashMap<String, CompiledProcedure>();
+        rejected = new HashMap<String, String>();
+    }
+
+    /**
+     * Compiles the procedures of a program. The main block of code is ignored.
+     * @param program the program whose procedures are compiled.
+     */
+    public Library(Program program)
+    {
+        this();
+        Map<String, ProcedureDeclaration> decs = new LinkedHashMap<String, ProcedureDeclaration>();
+        Map<String, Map<String, Integer>> frames = new HashMap<String, Map<String, Integer>>();
+
+        // give every procedure a frame first so that bodies can call any of them
+        for(ProcedureDeclaration dec: program.getProcedureDeclarations())
+        {
+            Map<String, Integer> slots = new HashMap<String, Integer>();
+            List<String> parms = dec.getParms();
+            for(String parm: parms)
+            {
+                slots.put(parm, slots.size());
+            }
+            for(String local: dec.getLocalVariables())
+            {
+                if(!slots.containsKey(local))
+                {
+                    slots.put(local, slots.size());
+                }
+            }
+            slots.put(dec.getName(), slots.size());
+            decs.put(dec.getName(), dec);
+            frames.put(dec.getName(), slots);
+            procedures.put(dec.getName(), new CompiledProcedure(dec.getName(),
+                    parms.toArray(new String[0]), slots.size()));
+        }
+
+        // translate the bodies, dropping procedures that cannot be embedded
+        // until every remaining one only calls procedures that can
+        boolean changed = true;
+        while(changed)
+        {
+            changed = false;
+            for(ProcedureDeclaration dec: decs.values())
+            {
+                String name = dec.getName();
+                if(!procedures.containsKey(name))
+                {
+                    continue;
+                }
+                try
+                {
+                    Translator translator = new Translator(frames.get(name), procedures,
+                            "procedure " + name);
+                    procedures.get(name).setBody(translator.statement(dec.getStatement()));
+                }
+                catch(IllegalArgumentException e)
+                {
+                    procedures.remove(name);
+                    rejected.put(name, e.getMessage());
+                    changed = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates a handle for calling a procedure of the library. Its parameters
+     * are the parameters of the procedure, in order.
+     * @param name the name of the procedure.
+     * @return the handle for the procedure.
+     * @throws IllegalArgumentException if there is no such procedure, or it
+     * could not be compiled.
+     */
+    public Formula procedure(String name)
+    {
+        CompiledProcedure proc = procedures.get(name);
+        if(proc == null)
+        {
+            throw new IllegalArgumentException(rejected.containsKey(name)
+                    ? rejected.get(name) : "There is no procedure named " + name);
+        }
+        Code.Expr[] args = new Code.Expr[proc.getParms().length];
+        for(int i = 0; i < args.length; i++)
+        {
+            args[i] = new Code.Slot(i);
+        }
+        return new Formula(new Code.Call(proc, args), proc.getParms(), true);
+    }
+
+    /**
+     * Compiles an expression that may call the procedures of the library.
+     * @param expression the source of the expression, such as "a * b + 1".
+     * @param parameters the names used in the expression, in the order their
+     * values are passed to eval().
+     * @return the handle for the expression.
+     * @throws IllegalArgumentException if the expression uses a name that is not
+     * a parameter, calls a procedure that is not in the library, or is followed
+     * by more tokens.
+     */
+    public Formula formula(String expression, String... parameters)
+    {
+        Parser parser = new Parser(new Scanner(expression));
+        Expression exp = parser.parseWholeExpression();
+
+        Map<String, Integer> slots = new HashMap<String, Integer>();
+        for(String parameter: parameters)
+        {
+            slots.put(parameter, slots.size());
+        }
+        Translator translator = new Translator(slots, procedures, "formula " + expression);
+        Code.Expr code = translator.expression(exp);
+        return new Formula(code, parameters.clone(), !procedures.isEmpty());
+    }
+}
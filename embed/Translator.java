@@ -0,0 +1,196 @@
+package embed;
+import ast.*;
+import ast.Number;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A Translator turns the AST of an expression or of a procedure's statement(s)
+ * into Code. Each name is resolved to a slot of the frame once, here, instead
+ * of on every evaluation. Only code that is deterministic and has no effect
+ * outside its own frame can be translated: READLN, WRITELN and names that are
+ * not in the frame are rejected.
+ * @author Aditya Ramanathan
+ * @version 10/19/26
+ */
+final class Translator
+{
+    private final Map<String, Integer> slots;
+    private final Map<String, CompiledProcedure> procedures;
+    private final String where;
+
+    /**
+     * Creates a translator for one frame.
+     * @param slots the slot of every name in the frame.
+     * @param procedures the procedures that may be called.
+     * @param where a description of what is being translated, for error messages.
+     */
+    Translator(Map<String, Integer> slots, Map<String, CompiledProcedure> procedures, String where)
+    {
+        this.slots = slots;
+        this.procedures = procedures;
+        this.where = where;
+    }
+
+    /**
+     * Translates an expression.
+     * @param exp the expression to translate.
+     * @return the compiled expression.
+     * @throws IllegalArgumentException if the expression uses an unknown name
+     * or calls a procedure that could not be compiled.
+     */
+    Code.Expr expression(Expression exp)
+    {
+        if(exp instanceof Number)
+        {
+            return new Code.Const(((Number) exp).getValue());
+        }
+        if(exp instanceof Variable)
+        {
+            return new Code.Slot(slot(((Variable) exp).getName()));
+        }
+        if(exp instanceof BinOp)
+        {
+            BinOp binOp = (BinOp) exp;
+            Code.Expr exp1 = expression(binOp.getExp1());
+            Code.Expr exp2 = expression(binOp.getExp2());
+            String op = binOp.getOp();
+            if(op.equals("+"))
+            {
+                return new Code.Add(exp1, exp2);
+            }
+            else if(op.equals("-"))
+            {
+                return new Code.Sub(exp1, exp2);
+            }
+            else if(op.equals("*"))
+            {
+                return new Code.Mul(exp1, exp2);
+            }
+            else if(op.equals("/"))
+            {
+                return new Code.Div(exp1, exp2);
+            }
+            return new Code.Mod(exp1, exp2);
+        }
+        if(exp instanceof ProcedureCall)
+        {
+            ProcedureCall call = (ProcedureCall) exp;
+            CompiledProcedure proc = procedures.get(call.getName());
+            if(proc == null)
+            {
+                throw new IllegalArgumentException(where + " calls " + call.getName()
+                        + ", which is not a procedure that can be embedded");
+            }
+            List<Expression> args = call.getArgs();
+            if(args.size() != proc.getParms().length)
+            {
+                throw new IllegalArgumentException(where + " calls " + call.getName() + " with "
+                        + args.size() + " arguments instead of " + proc.getParms().length);
+            }
+            Code.Expr[] compiled = new Code.Expr[args.size()];
+            for(int i = 0; i < compiled.length; i++)
+            {
+                compiled[i] = expression(args.get(i));
+            }
+            return new Code.Call(proc, compiled);
+        }
+        throw new IllegalArgumentException(where + " uses an expression that cannot be embedded");
+    }
+
+    /**
+     * Translates a statement.
+     * @param st the statement to translate.
+     * @return the compiled statement.
+     * @throws IllegalArgumentException if the statement does input or output,
+     * or uses a name that is not in the frame.
+     */
+    Code.Step statement(Statement st)
+    {
+        if(st instanceof Block)
+        {
+            List<Statement> stmts = ((Block) st).getStatements();
+            Code.Step[] steps = new Code.Step[stmts.size()];
+            for(int i = 0; i < steps.length; i++)
+            {
+                steps[i] = statement(stmts.get(i));
+            }
+            return new Code.Sequence(steps);
+        }
+        if(st instanceof Assignment)
+        {
+            Assignment assignment = (Assignment) st;
+            return new Code.Store(slot(assignment.getVarName()),
+                    expression(assignment.getExpression()));
+        }
+        if(st instanceof If)
+        {
+            If ifSt = (If) st;
+            Code.Step otherwise = ifSt.getElseStatement() == null
+                    ? new Code.Sequence(new Code.Step[0]) : statement(ifSt.getElseStatement());
+            return new Code.Branch(condition(ifSt.getCondition()),
+                    statement(ifSt.getStatement()), otherwise);
+        }
+        if(st instanceof While)
+        {
+            While loop = (While) st;
+            return new Code.Loop(condition(loop.getCondition()), statement(loop.getStatement()));
+        }
+        throw new IllegalArgumentException(where + " does input or output on line "
+                + st.getLine() + ", so it cannot be embedded");
+    }
+
+    /**
+     * Translates a condition.
+     * @param cond the condition to translate.
+     * @return the compiled condition.
+     */
+    private Code.Test condition(Condition cond)
+    {
+        String relop = cond.getRelop();
+        int code;
+        if(relop.equals(">"))
+        {
+            code = Code.Compare.GT;
+        }
+        else if(relop.equals("<"))
+        {
+            code = Code.Compare.LT;
+        }
+        else if(relop.equals(">="))
+        {
+            code = Code.Compare.GE;
+        }
+        else if(relop.equals("<="))
+        {
+            code = Code.Compare.LE;
+        }
+        else if(relop.equals("="))
+        {
+            code = Code.Compare.EQ;
+        }
+        else
+        {
+            code = Code.Compare.NE;
+        }
+        return new Code.Compare(expression(cond.getLeft()), code, expression(cond.getRight()));
+    }
+
+    /**
+     * Resolves a name to its slot.
+     * @param name the name of a parameter, local variable or return variable.
+     * @return the slot of the name.
+     * @throws IllegalArgumentException if the name is not in the frame.
+     */
+    private int slot(String name)
+    {
+        Integer index = slots.get(name);
+        if(index == null)
+        {
+            throw new IllegalArgumentException(where + " uses " + name
+                    + ", which is not a parameter or local variable");
+        }
+        return index;
+    }
+}
@@ -12,17 +12,29 @@ import java.util.HashMap;
  * ProcedureDeclaration object containing the statements contained within
  * the procedure.
  *
+ * Every environment keeps a reference to the global environment of its
+ * execution, which holds the procedures and the input and output of the
+ * program. Separate executions of the same Program use separate global
+ * environments, so they can run at the same time on different threads.
+ *
  * Usage:
  * Environment env = new Environment(null);
  *
  * @author Aditya Ramanathan
- * @version 4/13/24
+ * @version 4/13/24, output sink, input reader, global reference, shadow stack and safepoint added, hasVariable 10/19/26
  */
 public class Environment
 {
     private Map<String, Integer> variables;
     private Map<String, ProcedureDeclaration> procedures; // null if not global environment
     private Environment parent;
+    private Environment global;
+    private boolean sharedProcedures; // true if procedures belongs to a Program
+    private OutputSink output; // only set in the global environment
+    private InputReader input;  // only set in the global environment
+    private Safepoint safepoint; // only set in the global environment
+    private ShadowStack shadowStack;
+    private int depth; // the number of environments above this one
 
     /**
      * Constructs an environment by instantiating the hashmaps that
@@ -33,8 +45,32 @@ public class Environment
     public Environment(Environment parent)
     {
         variables = new HashMap<String, Integer>();
-        procedures = new HashMap<String, ProcedureDeclaration>();
         this.parent = parent;
+        if(parent == null)
+        {
+            procedures = new HashMap<String, ProcedureDeclaration>();
+            global = this;
+            shadowStack = new ShadowStack();
+        }
+        else
+        {
+            global = parent.global;
+            shadowStack = parent.shadowStack;
+            depth = parent.depth + 1;
+        }
+    }
+
+    /**
+     * Constructs a child environment that records procedure calls on its own
+     * shadow stack. This is used when part of a program is evaluated on another
+     * thread, since a shadow stack may only be written by one thread.
+     * @param parent the parent environment to this.
+     * @param shadowStack the shadow stack for calls made from this environment.
+     */
+    public Environment(Environment parent, ShadowStack shadowStack)
+    {
+        this(parent);
+        this.shadowStack = shadowStack;
     }
 
     /**
@@ -95,6 +131,17 @@ public class Environment
         return 0;
     }
 
+    /**
+     * Determines whether a variable has been given a value in this environment
+     * itself, without looking at the parent environments.
+     * @param variable the name of the variable.
+     * @return true if this environment holds the variable.
+     */
+    public boolean hasVariable(String variable)
+    {
+        return variables.containsKey(variable);
+    }
+
     /**
      * Associates the given procedure name with the procedure declaration, which
      * contains the statements to be executed. The procedure name and declaration
@@ -106,14 +153,28 @@ public class Environment
      */
     public void setProcedure(String procedureName, ProcedureDeclaration procedureDec)
     {
-        Environment env = this;
-        while(env.parent != null)
+        Environment env = global;
+        if(env.sharedProcedures)
         {
-            env = env.parent;
+            env.procedures = new HashMap<String, ProcedureDeclaration>(env.procedures);
+            env.sharedProcedures = false;
         }
         env.procedures.put(procedureName, procedureDec);
     }
 
+    /**
+     * Makes all the procedures in the given table visible to the program without
+     * copying them. The table is not modified; if setProcedure is called later,
+     * the global environment switches to its own copy first.
+     * @param table the procedures of a program, keyed by name.
+     * @postcondition the global environment looks procedures up in the table.
+     */
+    public void setProcedures(Map<String, ProcedureDeclaration> table)
+    {
+        global.procedures = table;
+        global.sharedProcedures = true;
+    }
+
     /**
      * Retrieves the procedure declaration given the name of the procedure.
      * @param procedureName the name of the procedure.
@@ -121,12 +182,110 @@ public class Environment
      */
     public ProcedureDeclaration getProcedure(String procedureName)
     {
-        Environment env = this;
-        while(env.parent != null)
+        return global.procedures.get(procedureName);
+    }
+
+    /**
+     * Retrieves the sink that WRITELN prints to. The sink is only stored in the
+     * global environment, and a sink for System.out is created the first time
+     * it is needed if none was set.
+     * @return the output sink of the program.
+     */
+    public OutputSink getOutput()
+    {
+        Environment env = global;
+        if(env.output == null)
         {
-            env = env.parent;
+            env.output = new OutputSink(System.out);
         }
-        return env.procedures.get(procedureName);
+        return env.output;
+    }
+
+    /**
+     * Sets the sink that WRITELN prints to for the whole program.
+     * @param output the output sink to use.
+     * @postcondition the global environment stores the output sink.
+     */
+    public void setOutput(OutputSink output)
+    {
+        global.output = output;
+    }
+
+    /**
+     * Retrieves the reader that READLN reads from. Like the output sink, the
+     * reader is stored in the global environment. If none was set, the reader
+     * over System.in shared by the whole process is used.
+     * @return the input reader of the program.
+     */
+    public InputReader getInput()
+    {
+        Environment env = global;
+        if(env.input == null)
+        {
+            env.input = InputReader.standardInput();
+        }
+        return env.input;
+    }
+
+    /**
+     * Sets the reader that READLN reads from for the whole program.
+     * @param input the input reader to use.
+     * @postcondition the global environment stores the input reader.
+     */
+    public void setInput(InputReader input)
+    {
+        global.input = input;
+    }
+
+    /**
+     * Retrieves the safepoint that loops and procedure calls poll, which is
+     * stored in the global environment.
+     * @return the safepoint of the program, or null if nothing is scheduling it.
+     */
+    public Safepoint getSafepoint()
+    {
+        return global.safepoint;
+    }
+
+    /**
+     * Sets the safepoint that loops and procedure calls poll for the whole
+     * program.
+     * @param safepoint the safepoint to use, or null to run without one.
+     * @postcondition the global environment stores the safepoint.
+     */
+    public void setSafepoint(Safepoint safepoint)
+    {
+        global.safepoint = safepoint;
+    }
+
+    /**
+     * Retrieves the shadow stack of the active procedure calls, which is shared
+     * by every environment of one execution.
+     * @return the shadow stack.
+     */
+    public ShadowStack getShadowStack()
+    {
+        return shadowStack;
+    }
+
+    /**
+     * Retrieves how deeply this environment is nested, which is the number of
+     * procedure calls that are active when it is the current environment.
+     * @return 0 for the global environment, or one more than the parent's depth.
+     */
+    public int getDepth()
+    {
+        return depth;
+    }
+
+    /**
+     * Retrieves the global environment, which is the outermost parent of this
+     * environment.
+     * @return the global environment.
+     */
+    public Environment getGlobal()
+    {
+        return global;
     }
 
     /**
@@ -0,0 +1,202 @@
+package environment;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.InputMismatchException;
+import java.util.NoSuchElementException;
+
+/**
+ * An InputReader reads the integers consumed by READLN. A single reader is
+ * shared by every READLN of a program, so nothing read ahead into its buffer
+ * is ever lost, and the underlying stream is never closed by the interpreter.
+ * Integers are parsed directly from the bytes in the buffer, so no objects are
+ * created per value. The reader works either over an InputStream or over a file
+ * that is memory mapped one large window at a time.
+ *
+ * Usage:
+ * InputReader in = new InputReader(System.in);
+ * int value = in.readInt();
+ *
+ * @author Aditya Ramanathan
+ * @version 10/19/26
+ */
+public class InputReader
+{
+    public static final int DEFAULT_CAPACITY = 1 << 16;
+    private static final long WINDOW_SIZE = 1L << 26;
+
+    private static InputReader standardInput; // shared by every program of the process
+
+    private InputStream stream; // null if reading a mapped file
+    private FileChannel file;   // null if reading a stream
+    private long fileOffset;
+    private ByteBuffer buffer;
+    private long consumed;
+
+    /**
+     * Creates a reader over an input stream with the default buffer size.
+     * @param stream the stream to read integers from.
+     */
+    public InputReader(InputStream stream)
+    {
+        this.stream = stream;
+        buffer = ByteBuffer.allocate(DEFAULT_CAPACITY);
+        buffer.limit(0);
+    }
+
+    /**
+     * Creates a reader that memory maps the given file.
+     * @param inputFile the file to read integers from.
+     * @throws IOException if the file cannot be opened.
+     */
+    public InputReader(File inputFile) throws IOException
+    {
+        file = FileChannel.open(inputFile.toPath());
+        buffer = ByteBuffer.allocate(0);
+    }
+
+    /**
+     * Retrieves the reader over System.in, which is created the first time it is
+     * needed and then shared by every program run in this process. A program
+     * that runs after another therefore reads on from where the first stopped,
+     * even if the first read ahead into the buffer.
+     * @return the reader over System.in.
+     */
+    public static synchronized InputReader standardInput()
+    {
+        if(standardInput == null)
+        {
+            standardInput = new InputReader(System.in);
+        }
+        return standardInput;
+    }
+
+    /**
+     * Reads the next integer, skipping any whitespace in front of it. The value
+     * is accumulated as a negative number so that Integer.MIN_VALUE can be read.
+     * @return the integer that was read.
+     * @throws NoSuchElementException if the input is exhausted.
+     * @throws InputMismatchException if the next token is not an integer.
+     */
+    public int readInt()
+    {
+        int c = read();
+        while(c == ' ' || c == '\n' || c == '\t' || c == '\r')
+        {
+            c = read();
+        }
+        if(c == -1)
+        {
+            throw new NoSuchElementException("No more input to read");
+        }
+
+        boolean negative = c == '-';
+        if(negative || c == '+')
+        {
+            c = read();
+        }
+        if(c < '0' || c > '9')
+        {
+            throw new InputMismatchException("Expected an integer");
+        }
+
+        int value = 0;
+        while(c >= '0' && c <= '9')
+        {
+            int digit = c - '0';
+            if(value < (Integer.MIN_VALUE + digit) / 10)
+            {
+                throw new InputMismatchException("Integer out of range");
+            }
+            value = value * 10 - digit;
+            c = read();
+        }
+        if(c != -1 && c != ' ' && c != '\n' && c != '\t' && c != '\r')
+        {
+            throw new InputMismatchException("Expected an integer");
+        }
+
+        if(negative)
+        {
+            return value;
+        }
+        if(value == Integer.MIN_VALUE)
+        {
+            throw new InputMismatchException("Integer out of range");
+        }
+        return -value;
+    }
+
+    /**
+     * Retrieves the number of bytes consumed so far.
+     * @return the number of bytes consumed by readInt().
+     */
+    public long getBytesConsumed()
+    {
+        return consumed;
+    }
+
+    /**
+     * Releases the mapped file, if any. Streams are left open because they
+     * usually belong to the caller, as System.in does.
+     * @throws IOException if the file cannot be closed.
+     */
+    public void close() throws IOException
+    {
+        if(file != null)
+        {
+            file.close();
+        }
+    }
+
+    /**
+     * Reads the next byte from the buffer, refilling it when it runs out.
+     * @return the next byte, or -1 at the end of the input.
+     */
+    private int read()
+    {
+        if(!buffer.hasRemaining() && !refill())
+        {
+            return -1;
+        }
+        consumed++;
+        return buffer.get() & 0xFF;
+    }
+
+    /**
+     * Refills the buffer, either by reading from the stream or by mapping the
+     * next window of the file.
+     * @return true if there is more input, false at the end of the input.
+     */
+    private boolean refill()
+    {
+        try
+        {
+            if(stream != null)
+            {
+                int n = stream.read(buffer.array());
+                if(n <= 0)
+                {
+                    return false;
+                }
+                buffer.position(0);
+                buffer.limit(n);
+                return true;
+            }
+            long size = file.size();
+            if(fileOffset >= size)
+            {
+                return false;
+            }
+            long length = Math.min(WINDOW_SIZE, size - fileOffset);
+            buffer = file.map(FileChannel.MapMode.READ_ONLY, fileOffset, length);
+            fileOffset += length;
+            return true;
+        }
+        catch(IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
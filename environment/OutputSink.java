@@ -0,0 +1,313 @@
+package environment;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * An OutputSink is where the interpreter writes the values printed by WRITELN.
+ * Values are formatted straight into a direct byte buffer without creating a
+ * String for each one, and the buffer is only handed to the underlying stream
+ * according to the flush policy:
+ * 1. EXIT, nothing is written until flush() is called at the end of the program.
+ * 2. SIZE, the buffer is written every time it fills up.
+ * 3. READ, like SIZE, but the buffer is also written before every READLN so that
+ * any prompts are visible to the user.
+ * When the sink is asynchronous, full buffers are written by a background thread
+ * while the interpreter keeps filling a second buffer.
+ *
+ * Usage:
+ * OutputSink out = new OutputSink(System.out);
+ * out.println(42);
+ * out.flush();
+ *
+ * @author Aditya Ramanathan
+ * @version 10/19/26
+ */
+public class OutputSink
+{
+    /**
+     * The policy that decides when buffered output is handed to the stream.
+     */
+    public enum FlushPolicy
+    {
+        EXIT, SIZE, READ
+    }
+
+    public static final int DEFAULT_CAPACITY = 1 << 16;
+    private static final byte[] NEWLINE = System.lineSeparator().getBytes();
+    private static final int MAX_LINE = 11 + NEWLINE.length; // "-2147483648" and the newline
+
+    private OutputStream stream;
+    private WritableByteChannel channel;
+    private FlushPolicy policy;
+    private ByteBuffer buffer;
+    private byte[] digits;
+
+    // only used when the sink is asynchronous
+    private BlockingQueue<ByteBuffer> full;
+    private BlockingQueue<ByteBuffer> empty;
+    private Thread writer;
+    private int pending;
+    private IOException failure;
+
+    /**
+     * Creates a synchronous sink with the default capacity that writes to the
+     * given stream before every READLN and whenever the buffer is full.
+     * @param stream the stream that the output is written to.
+     */
+    public OutputSink(OutputStream stream)
+    {
+        this(stream, DEFAULT_CAPACITY, FlushPolicy.READ, false);
+    }
+
+    /**
+     * Creates a sink that writes to the given stream.
+     * @param stream the stream that the output is written to.
+     * @param capacity the size of the buffer in bytes.
+     * @param policy when the buffered output should be written to the stream.
+     * @param async true if full buffers should be written by a background thread.
+     */
+    public OutputSink(OutputStream stream, int capacity, FlushPolicy policy, boolean async)
+    {
+        this.stream = stream;
+        this.policy = policy;
+        channel = Channels.newChannel(stream);
+        buffer = ByteBuffer.allocateDirect(Math.max(capacity, MAX_LINE));
+        digits = new byte[MAX_LINE];
+        if(async)
+        {
+            full = new ArrayBlockingQueue<ByteBuffer>(1);
+            empty = new ArrayBlockingQueue<ByteBuffer>(1);
+            empty.add(ByteBuffer.allocateDirect(buffer.capacity()));
+            writer = new Thread(this::writeLoop, "OutputSink writer");
+            writer.setDaemon(true);
+            writer.start();
+        }
+    }
+
+    /**
+     * Retrieves the flush policy of this sink.
+     * @return the flush policy.
+     */
+    public FlushPolicy getPolicy()
+    {
+        return policy;
+    }
+
+    /**
+     * Writes the decimal representation of the value followed by a line separator.
+     * The digits are produced from the end of a scratch array so that no objects
+     * are allocated.
+     * @param value the value to print.
+     * @postcondition the value is in the buffer, or has been written to the stream.
+     */
+    public void println(int value)
+    {
+        int pos = MAX_LINE - NEWLINE.length;
+        System.arraycopy(NEWLINE, 0, digits, pos, NEWLINE.length);
+
+        // work with the negative value so that Integer.MIN_VALUE does not overflow
+        int n = value < 0 ? value : -value;
+        do
+        {
+            digits[--pos] = (byte) ('0' - n % 10);
+            n /= 10;
+        }
+        while(n != 0);
+        if(value < 0)
+        {
+            digits[--pos] = '-';
+        }
+
+        if(buffer.remaining() < MAX_LINE - pos)
+        {
+            if(policy == FlushPolicy.EXIT)
+            {
+                grow();
+            }
+            else
+            {
+                drain();
+            }
+        }
+        buffer.put(digits, pos, MAX_LINE - pos);
+    }
+
+    /**
+     * Called by READLN before it consumes input.
+     * @postcondition if the policy is READ, all output so far has been written.
+     */
+    public void beforeRead()
+    {
+        if(policy == FlushPolicy.READ)
+        {
+            flush();
+        }
+    }
+
+    /**
+     * Writes everything buffered so far to the stream and waits for the
+     * background writer, if there is one, to finish.
+     * @postcondition all output printed so far has reached the stream.
+     * @throws UncheckedIOException if the stream could not be written to.
+     */
+    public void flush()
+    {
+        drain();
+        if(writer != null)
+        {
+            synchronized(this)
+            {
+                while(pending > 0 && failure == null)
+                {
+                    try
+                    {
+                        wait();
+                    }
+                    catch(InterruptedException e)
+                    {
+                        Thread.currentThread().interrupt();
+                        break;
+                    }
+                }
+            }
+        }
+        try
+        {
+            checkFailure();
+            stream.flush();
+        }
+        catch(IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Flushes the sink and stops the background writer. The underlying stream
+     * is not closed.
+     * @postcondition all output has reached the stream and no thread is left running.
+     */
+    public void close()
+    {
+        flush();
+        if(writer != null)
+        {
+            writer.interrupt();
+            writer = null;
+        }
+    }
+
+    /**
+     * Hands the contents of the buffer to the stream, either directly or by
+     * swapping it with the spare buffer of the background writer.
+     * @postcondition the buffer is empty.
+     */
+    private void drain()
+    {
+        if(buffer.position() == 0)
+        {
+            return;
+        }
+        buffer.flip();
+        try
+        {
+            if(writer == null)
+            {
+                while(buffer.hasRemaining())
+                {
+                    channel.write(buffer);
+                }
+                buffer.clear();
+            }
+            else
+            {
+                checkFailure();
+                synchronized(this)
+                {
+                    pending++;
+                }
+                full.put(buffer);
+                buffer = empty.take();
+            }
+        }
+        catch(IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+        catch(InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while writing output", e);
+        }
+    }
+
+    /**
+     * Doubles the size of the buffer, keeping what has been printed so far.
+     * Only used by the EXIT policy, which never writes before the end.
+     * @postcondition the buffer has at least twice its old capacity.
+     */
+    private void grow()
+    {
+        ByteBuffer bigger = ByteBuffer.allocateDirect(buffer.capacity() * 2);
+        buffer.flip();
+        bigger.put(buffer);
+        buffer = bigger;
+    }
+
+    /**
+     * Rethrows the first error hit by the background writer.
+     * @throws IOException if the background writer failed.
+     */
+    private synchronized void checkFailure() throws IOException
+    {
+        if(failure != null)
+        {
+            throw failure;
+        }
+    }
+
+    /**
+     * The body of the background writer thread. It writes each full buffer it
+     * receives and gives it back as the spare buffer.
+     */
+    private void writeLoop()
+    {
+        try
+        {
+            while(true)
+            {
+                ByteBuffer next = full.take();
+                try
+                {
+                    while(next.hasRemaining())
+                    {
+                        channel.write(next);
+                    }
+                }
+                catch(IOException e)
+                {
+                    synchronized(this)
+                    {
+                        failure = e;
+                    }
+                }
+                next.clear();
+                empty.put(next);
+                synchronized(this)
+                {
+                    pending--;
+                    notifyAll();
+                }
+            }
+        }
+        catch(InterruptedException e)
+        {
+            // close() stops the writer once everything has been flushed
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package environment;
+
+/**
+ * A Safepoint is where a running program may be paused, or stopped, by
+ * whatever is running it. The interpreter polls the safepoint of its execution
+ * on every loop iteration and every procedure call; each poll counts one tick
+ * of work, and once a quantum of ticks has been used up, expired() decides
+ * what happens next. Polling only decrements a counter, so it costs almost
+ * nothing in hot loops.
+ *
+ * Only the thread that started the execution is paused. Polls from threads
+ * that evaluate part of the program in parallel count towards the quantum but
+ * never call expired().
+ *
+ * @author Aditya Ramanathan
+ * @version 10/19/26
+ */
+public abstract class Safepoint
+{
+    private int remaining;
+    private Thread owner;
+
+    /**
+     * Creates a safepoint for an execution that has not started yet.
+     * @param quantum the number of ticks before expired() is first called.
+     */
+    protected Safepoint(int quantum)
+    {
+        remaining = quantum;
+    }
+
+    /**
+     * Records the thread of the execution, the only one expired() is called on.
+     * @param owner the thread that runs the program.
+     */
+    public void setOwner(Thread owner)
+    {
+        this.owner = owner;
+    }
+
+    /**
+     * Counts one tick of work, and hands control to expired() if the quantum
+     * has been used up.
+     */
+    public final void poll()
+    {
+        if(--remaining <= 0)
+        {
+            remaining = Thread.currentThread() == owner ? expired() : 1;
+        }
+    }
+
+    /**
+     * Called on the thread of the execution each time a quantum has been used
+     * up. It may block to let other programs run, or throw to stop the program.
+     * @return the number of ticks in the next quantum.
+     */
+    protected abstract int expired();
+}
@@ -0,0 +1,128 @@
+package environment;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * A ShadowStack mirrors the procedure calls that are active in one execution of
+ * a program, together with the source line being executed in each of them. The
+ * interpreter keeps it up to date on every call and statement, which only costs
+ * a few plain stores, so it is always available. A sampling profiler running
+ * on another thread can then attach at any time and read it.
+ *
+ * Only the thread running the program writes to the stack. Readers on other
+ * threads use snapshot(), which sees a consistent depth but may see frames that
+ * are being replaced at that moment; this is acceptable for sampling.
+ *
+ * @author Aditya Ramanathan
+ * @version 10/19/26
+ */
+public class ShadowStack
+{
+    private static final VarHandle DEPTH;
+
+    static
+    {
+        try
+        {
+            DEPTH = MethodHandles.lookup().findVarHandle(ShadowStack.class, "depth", int.class);
+        }
+        catch(ReflectiveOperationException e)
+        {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private volatile String[] names;
+    private volatile int[] callLines; // the line of the caller when each frame was pushed
+    private int depth;
+    private int line;
+
+    /**
+     * Creates an empty shadow stack.
+     */
+    public ShadowStack()
+    {
+        names = new String[64];
+        callLines = new int[64];
+    }
+
+    /**
+     * Records that a procedure has been called from the current line.
+     * @param name the name of the procedure.
+     * @postcondition the procedure is the top frame of the stack.
+     */
+    public void push(String name)
+    {
+        int d = depth;
+        String[] n = names;
+        if(d == n.length)
+        {
+            grow();
+            n = names;
+        }
+        n[d] = name;
+        callLines[d] = line;
+        DEPTH.setRelease(this, d + 1);
+    }
+
+    /**
+     * Records that the procedure on top of the stack has returned, and restores
+     * the line of its caller.
+     * @postcondition the top frame has been removed.
+     */
+    public void pop()
+    {
+        int d = depth - 1;
+        line = callLines[d];
+        DEPTH.setRelease(this, d);
+    }
+
+    /**
+     * Records the line of the statement that is about to be executed.
+     * @param line the line number.
+     */
+    public void setLine(int line)
+    {
+        this.line = line;
+    }
+
+    /**
+     * Copies the stack into the given arrays, from the outermost frame to the
+     * innermost. lines[i] is the line being executed in frame i, where frame 0
+     * is the main block of code and frame i + 1 was called by frame i.
+     * @param frameNames receives the procedure names, with null for the main block.
+     * @param lines receives the lines being executed in each frame.
+     * @return the number of frames copied, including the main block.
+     */
+    public int snapshot(String[] frameNames, int[] lines)
+    {
+        int d = (int) DEPTH.getAcquire(this);
+        String[] n = names;
+        int[] c = callLines;
+        int count = Math.min(Math.min(d, n.length), Math.min(frameNames.length, lines.length) - 1);
+        count = Math.max(count, 0);
+        frameNames[0] = null;
+        for(int i = 0; i < count; i++)
+        {
+            frameNames[i + 1] = n[i];
+            lines[i] = c[i];
+        }
+        lines[count] = line;
+        return count + 1;
+    }
+
+    /**
+     * Doubles the size of the arrays holding the frames.
+     * @postcondition the arrays have room for twice as many frames.
+     */
+    private void grow()
+    {
+        String[] biggerNames = new String[names.length * 2];
+        int[] biggerLines = new int[callLines.length * 2];
+        System.arraycopy(names, 0, biggerNames, 0, names.length);
+        System.arraycopy(callLines, 0, biggerLines, 0, callLines.length);
+        callLines = biggerLines;
+        names = biggerNames;
+    }
+}
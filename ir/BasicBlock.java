@@ -0,0 +1,231 @@
+package ir;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * A BasicBlock is a list of instructions that always run one after another.
+ * Phi instructions come first and the last instruction is a terminator, which
+ * names the successors of the block. The predecessors are kept in a list whose
+ * order matches the operands of the phi instructions.
+ * @author Aditya Ramanathan
+ * @version 10/19/26
+ */
+public class BasicBlock
+{
+    private final int id;
+    private final List<Instruction> instructions;
+    private final List<BasicBlock> preds;
+
+    /**
+     * Creates an empty block. Blocks are created by Function.newBlock().
+     * @param id the number of the block, unique within its function.
+     */
+    BasicBlock(int id)
+    {
+        this.id = id;
+        instructions = new ArrayList<Instruction>();
+        preds = new ArrayList<BasicBlock>();
+    }
+
+    /**
+     * Retrieves the number of the block.
+     * @return the number of the block.
+     */
+    public int getId()
+    {
+        return id;
+    }
+
+    /**
+     * Retrieves the instructions of the block. The list may be changed, as
+     * long as the block of every added instruction is set with add or insert.
+     * @return the instructions.
+     */
+    public List<Instruction> getInstructions()
+    {
+        return instructions;
+    }
+
+    /**
+     * Retrieves the blocks that may run just before this one.
+     * @return the predecessors, in the order of the phi operands.
+     */
+    public List<BasicBlock> getPreds()
+    {
+        return preds;
+    }
+
+    /**
+     * Retrieves the blocks that may run just after this one.
+     * @return the targets of the terminator, or an empty list if the block
+     * has no terminator yet.
+     */
+    public List<BasicBlock> getSuccessors()
+    {
+        Instruction last = getTerminator();
+        return last == null ? Collections.<BasicBlock>emptyList() : last.getTargets();
+    }
+
+    /**
+     * Retrieves the instruction that ends the block.
+     * @return the terminator, or null if the block is not finished.
+     */
+    public Instruction getTerminator()
+    {
+        if(instructions.isEmpty())
+        {
+            return null;
+        }
+        Instruction last = instructions.get(instructions.size() - 1);
+        return last.isTerminator() ? last : null;
+    }
+
+    /**
+     * Adds an instruction to the end of the block. When the instruction is a
+     * jump or a branch, the block becomes a predecessor of its targets.
+     * @param inst the instruction.
+     * @return the instruction.
+     */
+    public Instruction add(Instruction inst)
+    {
+        inst.setBlock(this);
+        instructions.add(inst);
+        for(BasicBlock target: inst.getTargets())
+        {
+            target.preds.add(this);
+        }
+        return inst;
+    }
+
+    /**
+     * Inserts an instruction into the block at a position.
+     * @param index the position.
+     * @param inst the instruction, which must not be a terminator.
+     */
+    public void insert(int index, Instruction inst)
+    {
+        inst.setBlock(this);
+        instructions.add(index, inst);
+    }
+
+    /**
+     * Inserts an instruction just before the terminator of the block.
+     * @param inst the instruction, which must not be a terminator.
+     */
+    public void insertBeforeTerminator(Instruction inst)
+    {
+        insert(getTerminator() == null ? instructions.size() : instructions.size() - 1, inst);
+    }
+
+    /**
+     * Inserts a phi instruction after the other phi instructions of the block.
+     * @param phi the phi instruction.
+     */
+    public void insertPhi(PhiInstruction phi)
+    {
+        insert(getPhis().size(), phi);
+    }
+
+    /**
+     * Retrieves the phi instructions at the start of the block.
+     * @return a new list of the phi instructions.
+     */
+    public List<PhiInstruction> getPhis()
+    {
+        List<PhiInstruction> phis = new ArrayList<PhiInstruction>();
+        for(Instruction inst: instructions)
+        {
+            if(!(inst instanceof PhiInstruction))
+            {
+                break;
+            }
+            phis.add((PhiInstruction) inst);
+        }
+        return phis;
+    }
+
+    /**
+     * Replaces the terminator of the block. Targets that the old and the new
+     * terminator share keep their place in the predecessors of the target, so
+     * that their phi operands still line up; targets that are dropped lose the
+     * edge and their phi operands, and new targets gain the block as their last
+     * predecessor.
+     * @param terminator the new terminator.
+     */
+    public void setTerminator(Instruction terminator)
+    {
+        Instruction old = getTerminator();
+        List<BasicBlock> oldTargets = new ArrayList<BasicBlock>();
+        if(old != null)
+        {
+            instructions.remove(instructions.size() - 1);
+            oldTargets.addAll(old.getTargets());
+        }
+        List<BasicBlock> newTargets = terminator.getTargets();
+        for(BasicBlock target: new HashSet<BasicBlock>(oldTargets))
+        {
+            if(!newTargets.contains(target))
+            {
+                while(target.preds.contains(this))
+                {
+                    target.removePred(this);
+                }
+            }
+        }
+        terminator.setBlock(this);
+        instructions.add(terminator);
+        for(BasicBlock target: new HashSet<BasicBlock>(newTargets))
+        {
+            if(!oldTargets.contains(target))
+            {
+                target.preds.add(this);
+            }
+        }
+    }
+
+    /**
+     * Makes another block go to this one instead of a predecessor, keeping the
+     * place of the predecessor so that the phi operands still line up.
+     * @param oldPred the predecessor.
+     * @param newPred the block that goes to this one instead.
+     */
+    void replacePred(BasicBlock oldPred, BasicBlock newPred)
+    {
+        preds.set(preds.indexOf(oldPred), newPred);
+    }
+
+    /**
+     * Removes a predecessor and the matching operand of every phi instruction.
+     * @param pred the predecessor, which must no longer go to this block.
+     */
+    void removePred(BasicBlock pred)
+    {
+        int index = preds.indexOf(pred);
+        if(index < 0)
+        {
+            return;
+        }
+        preds.remove(index);
+        for(PhiInstruction phi: getPhis())
+        {
+            phi.getOperands().remove(index);
+        }
+    }
+
+    /**
+     * Writes the block.
+     * @return the number of the block and its instructions, one per line.
+     */
+    public String toString()
+    {
+        StringBuilder text = new StringBuilder("B" + id + ":");
+        for(Instruction inst: instructions)
+        {
+            text.append("\n    ").append(inst);
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,95 @@
+package ir;
+
+/**
+ * A BinaryInstruction applies one of the operators "+", "-", "*", "/" and "%"
+ * to two operands.
+ * @author Aditya Ramanathan
+ * @version 10/19/26
+ */
+public class BinaryInstruction extends Instruction
+{
+    private final String op;
+
+    /**
+     * Creates a binary instruction.
+     * @param dest the temp that receives the result.
+     * @param op the operator.
+     * @param left the first operand.
+     * @param right the second operand.
+     */
+    public BinaryInstruction(Temp dest, String op, Operand left, Operand right)
+    {
+        super(dest, left, right);
+        this.op = op;
+    }
+
+    /**
+     * Retrieves the operator.
+     * @return the operator.
+     */
+    public String getOp()
+    {
+        return op;
+    }
+
+    /**
+     * Determines whether the operator is commutative.
+     * @return true for "+" and "*".
+     */
+    public boolean isCommutative()
+    {
+        return op.equals("+") || op.equals("*");
+    }
+
+    /**
+     * Divisions are kept even when their result is unused, unless they divide
+     * by a constant other than 0, so that a division by zero is not lost.
+     * @return true if the instruction may divide by zero.
+     */
+    public boolean hasSideEffects()
+    {
+        if(!op.equals("/") && !op.equals("%"))
+        {
+            return false;
+        }
+        return !(getOperand(1) instanceof Constant) || ((Constant) getOperand(1)).getValue() == 0;
+    }
+
+    /**
+     * Computes the result of the operator for two known values, with the 32 bit
+     * wrap around of Java ints and MIPS.
+     * @param value1 the first value.
+     * @param value2 the second value.
+     * @return the result, or null if the operation divides by zero or divides
+     * the smallest int by -1, which are left for the program to do.
+     */
+    public Integer apply(int value1, int value2)
+    {
+        if(op.equals("+"))
+        {
+            return value1 + value2;
+        }
+        else if(op.equals("-"))
+        {
+            return value1 - value2;
+        }
+        else if(op.equals("*"))
+        {
+            return value1 * value2;
+        }
+        if(value2 == 0 || (value1 == Integer.MIN_VALUE && value2 == -1))
+        {
+            return null;
+        }
+        return op.equals("/") ? value1 / value2 : value1 % value2;
+    }
+
+    /**
+     * Writes the operation.
+     * @return the operands joined by the operator.
+     */
+    protected String describe()
+    {
+        return getOperand(0) + " " + op + " " + getOperand(1);
+    }
+}
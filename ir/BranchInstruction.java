@@ -0,0 +1,151 @@
+package ir;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A BranchInstruction ends a block by comparing two operands, going to one
+ * block if the comparison holds and to another if it does not.
+ * @author Aditya Ramanathan
+ * @version 10/19/26
+ */
+public class BranchInstruction extends Instruction
+{
+    private final String relop;
+    private BasicBlock ifTrue;
+    private BasicBlock ifFalse;
+
+    /**
+     * Creates a branch.
+     * @param relop the comparison, one of ">", "<", ">=", "<=", "=", "<>".
+     * @param left the first operand.
+     * @param right the second operand.
+     * @param ifTrue the block to go to if the comparison holds.
+     * @param ifFalse the block to go to if it does not.
+     */
+    public BranchInstruction(String relop, Operand left, Operand right,
+                             BasicBlock ifTrue, BasicBlock ifFalse)
+    {
+        super(null, left, right);
+        this.relop = relop;
+        this.ifTrue = ifTrue;
+        this.ifFalse = ifFalse;
+    }
+
+    /**
+     * Retrieves the comparison.
+     * @return the relop.
+     */
+    public String getRelop()
+    {
+        return relop;
+    }
+
+    /**
+     * Retrieves the block to go to if the comparison holds.
+     * @return the true target.
+     */
+    public BasicBlock getIfTrue()
+    {
+        return ifTrue;
+    }
+
+    /**
+     * Retrieves the block to go to if the comparison does not hold.
+     * @return the false target.
+     */
+    public BasicBlock getIfFalse()
+    {
+        return ifFalse;
+    }
+
+    /**
+     * Compares two known values.
+     * @param value1 the value of the first operand.
+     * @param value2 the value of the second operand.
+     * @return true if value1 relop value2 holds.
+     */
+    public boolean test(int value1, int value2)
+    {
+        switch(relop)
+        {
+            case ">": return value1 > value2;
+            case "<": return value1 < value2;
+            case ">=": return value1 >= value2;
+            case "<=": return value1 <= value2;
+            case "=": return value1 == value2;
+            default: return value1 != value2;
+        }
+    }
+
+    /**
+     * Finds the comparison that holds exactly when this one does not.
+     * @return the negated relop.
+     */
+    public String getNegatedRelop()
+    {
+        switch(relop)
+        {
+            case ">": return "<=";
+            case "<": return ">=";
+            case ">=": return "<";
+            case "<=": return ">";
+            case "=": return "<>";
+            default: return "=";
+        }
+    }
+
+    /**
+     * Retrieves both targets.
+     * @return the true target, then the false target.
+     */
+    public List<BasicBlock> getTargets()
+    {
+        return Arrays.asList(ifTrue, ifFalse);
+    }
+
+    /**
+     * Changes a target.
+     * @param oldTarget the target to replace.
+     * @param newTarget the block to go to instead.
+     */
+    public void replaceTarget(BasicBlock oldTarget, BasicBlock newTarget)
+    {
+        if(ifTrue == oldTarget)
+        {
+            ifTrue = newTarget;
+        }
+        if(ifFalse == oldTarget)
+        {
+            ifFalse = newTarget;
+        }
+    }
+
+    /**
+     * Branches end their block.
+     * @return true.
+     */
+    public boolean isTerminator()
+    {
+        return true;
+    }
+
+    /**
+     * Branches change where the program goes.
+     * @return true.
+     */
+    public boolean hasSideEffects()
+    {
+        return true;
+    }
+
+    /**
+     * Writes the operation.
+     * @return the comparison and both targets.
+     */
+    protected String describe()
+    {
+        return "if " + getOperand(0) + " " + relop + " " + getOperand(1)
+                + " goto B" + ifTrue.getId() + " else B" + ifFalse.getId();
+    }
+}
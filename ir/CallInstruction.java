@@ -0,0 +1,51 @@
+package ir;
+
+/**
+ * A CallInstruction calls a procedure with a list of arguments and receives
+ * its return value.
+ * @author Aditya Ramanathan
+ * @version 10/19/26
+ */
+public class CallInstruction extends Instruction
+{
+    private final String name;
+
+    /**
+     * Creates a call.
+     * @param dest the temp that receives the return value.
+     * @param name the name of the procedure.
+     * @param args the arguments, in order.
+     */
+    public CallInstruction(Temp dest, String name, Operand[] args)
+    {
+        super(dest, args);
+        this.name = name;
+    }
+
+    /**
+     * Retrieves the name of the procedure.
+     * @return the name of the procedure.
+     */
+    public String getName()
+    {
+        return name;
+    }
+
+    /**
+     * A procedure may print, read input or change global variables.
+     * @return true.
+     */
+    public boolean hasSideEffects()
+    {
+        return true;
+    }
+
+    /**
+     * Writes the operation.
+     * @return the call, such as "max(t1, 4)".
+     */
+    protected String describe()
+    {
+        return name + getOperands().toString().replace('[', '(').replace(']', ')');
+    }
+}
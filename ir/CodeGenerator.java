@@ -0,0 +1,789 @@
+package ir;
+import ast.Emitter;
+import ast.MipsInstruction;
+import ast.Opcode;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The CodeGenerator writes MIPS code for a program in the intermediate
+ * representation, after SSA destruction. The blocks of each function are laid
+ * out in reverse postorder, so that most jumps fall through to the next block,
+ * and the temps get registers by linear scan: each temp lives from its first
+ * definition to its last use, and a temp gets a register no other temp uses in
+ * that range. Temps that live across a call get one of $s0-$s7, which the
+ * called procedure saves, and the others one of $t0-$t7; when a copy moves a
+ * value from one temp to another, the destination gets the register of the
+ * source if it is free, so that the copy can be left out. The temps that do
+ * not get a register are kept in the stack frame, and $t8 and $t9 hold them
+ * and constants while they are used.
+ *
+ * A procedure keeps, from the top of its frame down, $ra (only if it calls
+ * procedures), the $s registers it uses and its temps that are kept in the
+ * frame. The caller stores the arguments below $sp, moves $sp below them and
+ * takes the return value from $v0. A procedure that calls nothing and needs
+ * no frame has neither a prologue nor an epilogue.
+ *
+ * Usage:
+ * new CodeGenerator(new Emitter("out.asm")).generate(ir);
+ *
+ * @author Aditya Ramanathan
+ * @version 10/19/26
+ */
+public class CodeGenerator
+{
+    private static final String[] TEMPORARIES =
+            {"$t0", "$t1", "$t2", "$t3", "$t4", "$t5", "$t6", "$t7"};
+    private static final String[] SAVED =
+            {"$s0", "$s1", "$s2", "$s3", "$s4", "$s5", "$s6", "$s7"};
+
+    private final Emitter e;
+    private Function function;
+    private String prefix;
+    private Map<Temp, String> registers;
+    private Map<Temp, Integer> slots;
+    private Set<Temp> used;
+    private List<String> savedRegisters;
+    private boolean savesReturnAddress;
+    private int frameSize;
+
+    /**
+     * Creates a code generator.
+     * @param e the emitter the code is written to.
+     */
+    public CodeGenerator(Emitter e)
+    {
+        this.e = e;
+    }
+
+    /**
+     * Writes the code of a program and closes the emitter.
+     * @param ir the program, with no phi instructions.
+     */
+    public void generate(IrProgram ir)
+    {
+        e.emitData(ir.getGlobals());
+        e.emit(".text");
+        e.emit(".globl main");
+        for(Function fn: ir.getFunctions())
+        {
+            generate(fn);
+        }
+        e.close();
+    }
+
+    /**
+     * Writes the code of one function.
+     * @param fn the function.
+     */
+    private void generate(Function fn)
+    {
+        function = fn;
+        prefix = fn.isMain() ? "main" : "proc" + fn.getName();
+        List<BasicBlock> layout = new Dominators(fn).getReversePostorder();
+        allocate(layout);
+
+        Set<BasicBlock> targets = new HashSet<BasicBlock>();
+        for(int i = 0; i < layout.size(); i++)
+        {
+            BasicBlock next = i + 1 < layout.size() ? layout.get(i + 1) : null;
+            Instruction last = layout.get(i).getTerminator();
+            if(last instanceof BranchInstruction && ((BranchInstruction) last).getIfTrue() == next)
+            {
+                targets.add(((BranchInstruction) last).getIfFalse());
+            }
+            else
+            {
+                for(BasicBlock target: last.getTargets())
+                {
+                    if(target != next || last instanceof BranchInstruction)
+                    {
+                        targets.add(target);
+                    }
+                }
+            }
+        }
+
+        e.emitLabel(prefix);
+        if(fn.isMain())
+        {
+            e.emitGlobalPointer();
+        }
+        if(frameSize > 0)
+        {
+            e.emit(Opcode.SUBU, "$sp", "$sp", frameSize);
+        }
+        if(savesReturnAddress)
+        {
+            e.emit(Opcode.SW, "$ra", frame(frameSize - 4));
+        }
+        for(int i = 0; i < savedRegisters.size(); i++)
+        {
+            e.emit(Opcode.SW, savedRegisters.get(i), frame(savedOffset(i)));
+        }
+        for(int i = 0; i < layout.size(); i++)
+        {
+            BasicBlock block = layout.get(i);
+            if(i > 0 && targets.contains(block))
+            {
+                e.emitLabel(label(block));
+            }
+            BasicBlock next = i + 1 < layout.size() ? layout.get(i + 1) : null;
+            for(Instruction inst: block.getInstructions())
+            {
+                generate(inst, next);
+            }
+        }
+    }
+
+    /**
+     * Finds the offset from $sp where a saved register is kept.
+     * @param index the position of the register among the saved registers.
+     * @return the offset.
+     */
+    private int savedOffset(int index)
+    {
+        return frameSize - (savesReturnAddress ? 8 : 4) - 4 * index;
+    }
+
+    /**
+     * Finds the label of a block.
+     * @param block the block.
+     * @return the label, made of the label of the function and the number of
+     * the block; the underscore keeps it apart from every variable name.
+     */
+    private String label(BasicBlock block)
+    {
+        return prefix + "_" + block.getId();
+    }
+
+    /**
+     * Gives every temp of the current function a register or a slot in the
+     * frame, and works out the frame.
+     * @param layout the blocks of the function in the order they are written.
+     */
+    private void allocate(List<BasicBlock> layout)
+    {
+        Liveness liveness = new Liveness(function);
+        Map<Temp, int[]> ranges = new HashMap<Temp, int[]>();
+        List<Integer> calls = new ArrayList<Integer>();
+        Map<Temp, Temp> hints = new HashMap<Temp, Temp>();
+        used = new HashSet<Temp>();
+        int position = 0;
+        for(BasicBlock block: layout)
+        {
+            int start = position;
+            for(Temp temp: liveness.getLiveIn(block))
+            {
+                extend(ranges, temp, start);
+            }
+            for(Instruction inst: block.getInstructions())
+            {
+                for(Operand operand: inst.getOperands())
+                {
+                    if(operand instanceof Temp)
+                    {
+                        extend(ranges, (Temp) operand, position);
+                        used.add((Temp) operand);
+                    }
+                }
+                if(inst.getDest() != null)
+                {
+                    extend(ranges, inst.getDest(), position);
+                }
+                if(inst instanceof CallInstruction)
+                {
+                    calls.add(position);
+                }
+                if(inst instanceof CopyInstruction && inst.getOperand(0) instanceof Temp)
+                {
+                    hints.put(inst.getDest(), (Temp) inst.getOperand(0));
+                    if(!hints.containsKey(inst.getOperand(0)))
+                    {
+                        hints.put((Temp) inst.getOperand(0), inst.getDest());
+                    }
+                }
+                position++;
+            }
+            for(Temp temp: liveness.getLiveOut(block))
+            {
+                extend(ranges, temp, position - 1);
+            }
+        }
+
+        List<Temp> temps = new ArrayList<Temp>(ranges.keySet());
+        Collections.sort(temps, (t1, t2) -> ranges.get(t1)[0] != ranges.get(t2)[0]
+                ? Integer.compare(ranges.get(t1)[0], ranges.get(t2)[0])
+                : Integer.compare(t1.getId(), t2.getId()));
+        registers = new HashMap<Temp, String>();
+        slots = new HashMap<Temp, Integer>();
+        LinkedList<String> freeTemporaries = new LinkedList<String>();
+        Collections.addAll(freeTemporaries, TEMPORARIES);
+        LinkedList<String> freeSaved = new LinkedList<String>();
+        Collections.addAll(freeSaved, SAVED);
+        List<Temp> active = new ArrayList<Temp>();
+        savedRegisters = new ArrayList<String>();
+        for(Temp temp: temps)
+        {
+            int[] range = ranges.get(temp);
+            for(Temp other: new ArrayList<Temp>(active))
+            {
+                if(ranges.get(other)[1] <= range[0])
+                {
+                    active.remove(other);
+                    String reg = registers.get(other);
+                    (reg.startsWith("$s") ? freeSaved : freeTemporaries).add(reg);
+                }
+            }
+            boolean crossesCall = false;
+            for(int call: calls)
+            {
+                crossesCall |= range[0] < call && call < range[1];
+            }
+            String reg = null;
+            Temp hint = hints.get(temp);
+            String hinted = hint == null ? null : registers.get(hint);
+            if(hinted != null && (freeSaved.contains(hinted)
+                    || (!crossesCall && freeTemporaries.contains(hinted))))
+            {
+                reg = hinted;
+            }
+            else if(!crossesCall && !freeTemporaries.isEmpty())
+            {
+                reg = freeTemporaries.getFirst();
+            }
+            else if(!freeSaved.isEmpty())
+            {
+                reg = freeSaved.getFirst();
+            }
+            if(reg == null)
+            {
+                slots.put(temp, slots.size() * 4);
+                continue;
+            }
+            freeSaved.remove(reg);
+            freeTemporaries.remove(reg);
+            registers.put(temp, reg);
+            active.add(temp);
+            if(reg.startsWith("$s") && !function.isMain() && !savedRegisters.contains(reg))
+            {
+                savedRegisters.add(reg);
+            }
+        }
+
+        savesReturnAddress = !function.isMain() && !calls.isEmpty();
+        frameSize = 4 * (slots.size() + savedRegisters.size() + (savesReturnAddress ? 1 : 0));
+    }
+
+    /**
+     * Makes the range of a temp include a position.
+     * @param ranges the first and last position of each temp.
+     * @param temp the temp.
+     * @param position the position of an instruction.
+     */
+    private static void extend(Map<Temp, int[]> ranges, Temp temp, int position)
+    {
+        int[] range = ranges.get(temp);
+        if(range == null)
+        {
+            ranges.put(temp, new int[] {position, position});
+        }
+        else
+        {
+            range[0] = Math.min(range[0], position);
+            range[1] = Math.max(range[1], position);
+        }
+    }
+
+    /**
+     * Writes the code of one instruction.
+     * @param inst the instruction.
+     * @param next the block written after the block of the instruction, or null.
+     */
+    private void generate(Instruction inst, BasicBlock next)
+    {
+        if(inst instanceof ParamInstruction)
+        {
+            int index = ((ParamInstruction) inst).getIndex();
+            int offset = frameSize + 4 * (function.getParamCount() - 1 - index);
+            e.emit(Opcode.LW, target(inst.getDest()), frame(offset));
+            store(inst.getDest());
+        }
+        else if(inst instanceof CopyInstruction)
+        {
+            Operand source = inst.getOperand(0);
+            if(source instanceof Constant)
+            {
+                e.emit(Opcode.LI, target(inst.getDest()), ((Constant) source).getValue());
+                store(inst.getDest());
+            }
+            else if(slots.containsKey(inst.getDest()))
+            {
+                e.emit(Opcode.SW, use(source, "$t8"), frame(slots.get(inst.getDest())));
+            }
+            else
+            {
+                String dest = registers.get(inst.getDest());
+                String reg = use(source, dest);
+                if(!reg.equals(dest))
+                {
+                    e.emit(Opcode.MOVE, dest, reg);
+                }
+            }
+        }
+        else if(inst instanceof BinaryInstruction)
+        {
+            generateBinary((BinaryInstruction) inst);
+        }
+        else if(inst instanceof IntrinsicInstruction)
+        {
+            generateIntrinsic((IntrinsicInstruction) inst);
+        }
+        else if(inst instanceof LoadInstruction)
+        {
+            e.emit(Opcode.LW, target(inst.getDest()), e.getGlobalAddress(((LoadInstruction) inst).getVarName()));
+            store(inst.getDest());
+        }
+        else if(inst instanceof StoreInstruction)
+        {
+            e.emit(Opcode.SW, use(inst.getOperand(0), "$t8"),
+                    e.getGlobalAddress(((StoreInstruction) inst).getVarName()));
+        }
+        else if(inst instanceof CallInstruction)
+        {
+            List<Operand> args = inst.getOperands();
+            for(int i = 0; i < args.size(); i++)
+            {
+                e.emit(Opcode.SW, use(args.get(i), "$t8"), frame(-4 * (i + 1)));
+            }
+            if(!args.isEmpty())
+            {
+                e.emit(Opcode.SUBU, "$sp", "$sp", 4 * args.size());
+            }
+            e.emit(Opcode.JAL, "proc" + ((CallInstruction) inst).getName());
+            if(!args.isEmpty())
+            {
+                e.emit(Opcode.ADDU, "$sp", "$sp", 4 * args.size());
+            }
+            result(inst.getDest());
+        }
+        else if(inst instanceof PrintInstruction)
+        {
+            Operand value = inst.getOperand(0);
+            if(value instanceof Constant)
+            {
+                e.emit(Opcode.LI, "$a0", ((Constant) value).getValue());
+            }
+            else
+            {
+                String reg = use(value, "$a0");
+                if(!reg.equals("$a0"))
+                {
+                    e.emit(Opcode.MOVE, "$a0", reg);
+                }
+            }
+            e.emit(Opcode.LI, "$v0", 1);
+            e.emit(Opcode.SYSCALL);
+            e.emit(Opcode.LA, "$a0", "nl");
+            e.emit(Opcode.LI, "$v0", 4);
+            e.emit(Opcode.SYSCALL);
+        }
+        else if(inst instanceof ReadInstruction)
+        {
+            e.emit(Opcode.LI, "$v0", 5);
+            e.emit(Opcode.SYSCALL);
+            result(inst.getDest());
+        }
+        else if(inst instanceof JumpInstruction)
+        {
+            if(((JumpInstruction) inst).getTarget() != next)
+            {
+                e.emit(Opcode.J, label(((JumpInstruction) inst).getTarget()));
+            }
+        }
+        else if(inst instanceof BranchInstruction)
+        {
+            generateBranch((BranchInstruction) inst, next);
+        }
+        else if(inst instanceof ReturnInstruction)
+        {
+            generateReturn((ReturnInstruction) inst);
+        }
+        else
+        {
+            throw new IllegalArgumentException("Cannot generate code for " + inst);
+        }
+    }
+
+    /**
+     * Writes the code of an arithmetic instruction. A constant second operand
+     * of "+" or "-" is written as an immediate, with addiu if it fits in 16
+     * bits; multiplying and dividing by a constant use the shift sequences of
+     * the emitter.
+     * @param inst the instruction.
+     */
+    private void generateBinary(BinaryInstruction inst)
+    {
+        Operand left = inst.getOperand(0);
+        Operand right = inst.getOperand(1);
+        if(left instanceof Constant && inst.isCommutative())
+        {
+            left = right;
+            right = inst.getOperand(0);
+        }
+        String dest = target(inst.getDest());
+        String op = inst.getOp();
+        if(right instanceof Constant && (op.equals("*") || op.equals("/") || op.equals("%")))
+        {
+            String source = use(left, "$t8");
+            int constant = ((Constant) right).getValue();
+            if(op.equals("*"))
+            {
+                e.emitMultiply(dest, source, constant, "$t9");
+            }
+            else
+            {
+                e.emitDivide(dest, source, constant, "$t9", op.equals("%"));
+            }
+        }
+        else if(op.equals("/") || op.equals("%"))
+        {
+            String dividend = use(left, "$t8");
+            e.emit(Opcode.DIV, dividend, use(right, "$t9"));
+            e.emit(op.equals("/") ? Opcode.MFLO : Opcode.MFHI, dest);
+        }
+        else if(right instanceof Constant && (op.equals("+") || op.equals("-"))
+                && isImmediate(op.equals("+") ? ((Constant) right).getValue() : -(long) ((Constant) right).getValue()))
+        {
+            int constant = ((Constant) right).getValue();
+            e.emit(Opcode.ADDIU, dest, use(left, "$t8"), op.equals("+") ? constant : -constant);
+        }
+        else
+        {
+            Opcode opcode = op.equals("+") ? Opcode.ADDU : op.equals("-") ? Opcode.SUBU : Opcode.MUL;
+            String first = use(left, "$t8");
+            e.emit(opcode, dest, first, operand(right, "$t9"));
+        }
+        store(inst.getDest());
+    }
+
+    /**
+     * Writes the code of an intrinsic without branches. ABS uses the sign of
+     * the value as a mask; MIN and MAX compare the operands into $v1 with slt
+     * and pick the first one with movn, or the second with movz when the
+     * result goes to the register of the first.
+     * @param inst the instruction.
+     */
+    private void generateIntrinsic(IntrinsicInstruction inst)
+    {
+        String name = inst.getName();
+        String dest = target(inst.getDest());
+        String first = use(inst.getOperand(0), "$t8");
+        if(name.equals("ABS"))
+        {
+            e.emit(Opcode.SRA, "$t9", first, 31);
+            e.emit(Opcode.XOR, dest, first, "$t9");
+            e.emit(Opcode.SUBU, dest, dest, "$t9");
+        }
+        else if(name.equals("SQR"))
+        {
+            e.emit(Opcode.MUL, dest, first, first);
+        }
+        else if(name.equals("ODD"))
+        {
+            e.emit(Opcode.ANDI, dest, first, 1);
+        }
+        else
+        {
+            String second = use(inst.getOperand(1), "$t9");
+            if(name.equals("MIN"))
+            {
+                e.emit(Opcode.SLT, "$v1", first, second);
+            }
+            else
+            {
+                e.emit(Opcode.SLT, "$v1", second, first);
+            }
+            if(dest.equals(first))
+            {
+                e.emit(Opcode.MOVZ, dest, second, "$v1");
+            }
+            else
+            {
+                if(!dest.equals(second))
+                {
+                    e.emit(Opcode.MOVE, dest, second);
+                }
+                e.emit(Opcode.MOVN, dest, first, "$v1");
+            }
+        }
+        store(inst.getDest());
+    }
+
+    /**
+     * Writes the code of a branch, leaving out the jump to the next block. A
+     * branch whose targets are the same block is written as a jump.
+     * @param branch the branch.
+     * @param next the block written next, or null.
+     */
+    private void generateBranch(BranchInstruction branch, BasicBlock next)
+    {
+        if(branch.getIfTrue() == branch.getIfFalse())
+        {
+            if(branch.getIfTrue() != next)
+            {
+                e.emit(Opcode.J, label(branch.getIfTrue()));
+            }
+            return;
+        }
+        Operand left = branch.getOperand(0);
+        Operand right = branch.getOperand(1);
+        String relop = branch.getRelop();
+        String negated = branch.getNegatedRelop();
+        if(left instanceof Constant)
+        {
+            left = right;
+            right = branch.getOperand(0);
+            relop = mirror(relop);
+            negated = mirror(negated);
+        }
+        String first = use(left, "$t8");
+        boolean zero = right instanceof Constant && ((Constant) right).getValue() == 0;
+        Object second = zero ? null : operand(right, "$t9");
+        if(branch.getIfTrue() == next)
+        {
+            emitBranch(negated, first, second, label(branch.getIfFalse()));
+            return;
+        }
+        emitBranch(relop, first, second, label(branch.getIfTrue()));
+        if(branch.getIfFalse() != next)
+        {
+            e.emit(Opcode.J, label(branch.getIfFalse()));
+        }
+    }
+
+    /**
+     * Writes a conditional branch.
+     * @param relop the comparison.
+     * @param first the register holding the first operand.
+     * @param second the register or immediate of the second operand, or null
+     * to compare with zero by one of the branches on a single register.
+     * @param target the label to branch to if the comparison holds.
+     */
+    private void emitBranch(String relop, String first, Object second, String target)
+    {
+        if(second == null)
+        {
+            e.emit(zeroOpcode(relop), first, target);
+        }
+        else
+        {
+            e.emit(opcode(relop), first, second, target);
+        }
+    }
+
+    /**
+     * Writes the end of the program, or the return from a procedure.
+     * @param ret the return.
+     */
+    private void generateReturn(ReturnInstruction ret)
+    {
+        if(function.isMain())
+        {
+            e.emit(Opcode.LI, "$v0", 10);
+            e.emit(Opcode.SYSCALL);
+            return;
+        }
+        Operand value = ret.getOperand(0);
+        if(value instanceof Constant)
+        {
+            e.emit(Opcode.LI, "$v0", ((Constant) value).getValue());
+        }
+        else
+        {
+            String reg = use(value, "$v0");
+            if(!reg.equals("$v0"))
+            {
+                e.emit(Opcode.MOVE, "$v0", reg);
+            }
+        }
+        for(int i = 0; i < savedRegisters.size(); i++)
+        {
+            e.emit(Opcode.LW, savedRegisters.get(i), frame(savedOffset(i)));
+        }
+        if(savesReturnAddress)
+        {
+            e.emit(Opcode.LW, "$ra", frame(frameSize - 4));
+        }
+        if(frameSize > 0)
+        {
+            e.emit(Opcode.ADDU, "$sp", "$sp", frameSize);
+        }
+        e.emit(Opcode.JR, "$ra");
+    }
+
+    /**
+     * Finds the branch instruction for a comparison.
+     * @param relop the comparison.
+     * @return the opcode of the branch taken when the comparison holds.
+     */
+    private static Opcode opcode(String relop)
+    {
+        switch(relop)
+        {
+            case ">": return Opcode.BGT;
+            case "<": return Opcode.BLT;
+            case ">=": return Opcode.BGE;
+            case "<=": return Opcode.BLE;
+            case "=": return Opcode.BEQ;
+            default: return Opcode.BNE;
+        }
+    }
+
+    /**
+     * Finds the branch instruction for a comparison with zero.
+     * @param relop the comparison.
+     * @return the opcode of the branch taken when the register relop 0 holds.
+     */
+    private static Opcode zeroOpcode(String relop)
+    {
+        switch(relop)
+        {
+            case ">": return Opcode.BGTZ;
+            case "<": return Opcode.BLTZ;
+            case ">=": return Opcode.BGEZ;
+            case "<=": return Opcode.BLEZ;
+            case "=": return Opcode.BEQZ;
+            default: return Opcode.BNEZ;
+        }
+    }
+
+    /**
+     * Finds the comparison that holds when the operands are swapped.
+     * @param relop the comparison.
+     * @return the mirrored comparison.
+     */
+    private static String mirror(String relop)
+    {
+        switch(relop)
+        {
+            case ">": return "<";
+            case "<": return ">";
+            case ">=": return "<=";
+            case "<=": return ">=";
+            default: return relop;
+        }
+    }
+
+    /**
+     * Makes the value of an operand available in a register.
+     * @param operand the operand.
+     * @param scratch the register to load it into if it is not in one.
+     * @return the register holding the value.
+     */
+    private String use(Operand operand, String scratch)
+    {
+        if(operand instanceof Constant)
+        {
+            if(((Constant) operand).getValue() == 0)
+            {
+                return "$0";
+            }
+            e.emit(Opcode.LI, scratch, ((Constant) operand).getValue());
+            return scratch;
+        }
+        String reg = registers.get(operand);
+        if(reg != null)
+        {
+            return reg;
+        }
+        e.emit(Opcode.LW, scratch, frame(slots.get(operand)));
+        return scratch;
+    }
+
+    /**
+     * Finds the second operand of an instruction that may take an immediate.
+     * @param operand the operand.
+     * @param scratch the register to load it into if it is not in one.
+     * @return the value of a constant, otherwise the register holding the value.
+     */
+    private Object operand(Operand operand, String scratch)
+    {
+        if(operand instanceof Constant)
+        {
+            return ((Constant) operand).getValue();
+        }
+        return use(operand, scratch);
+    }
+
+    /**
+     * Determines whether a value fits in the signed immediate of addiu.
+     * @param value the value.
+     * @return true if it fits in 16 bits.
+     */
+    private static boolean isImmediate(long value)
+    {
+        return value >= Short.MIN_VALUE && value <= Short.MAX_VALUE;
+    }
+
+    /**
+     * Finds the address of a slot of the frame.
+     * @param offset the offset of the slot from $sp.
+     * @return the address.
+     */
+    private static MipsInstruction.Address frame(int offset)
+    {
+        return MipsInstruction.address(offset, "$sp");
+    }
+
+    /**
+     * Finds the register an instruction should put the value of a temp in.
+     * @param temp the temp.
+     * @return its register, or $t8 if it is kept in the frame.
+     */
+    private String target(Temp temp)
+    {
+        String reg = registers.get(temp);
+        return reg == null ? "$t8" : reg;
+    }
+
+    /**
+     * Stores the value of a temp kept in the frame, after it has been put in $t8.
+     * @param temp the temp.
+     */
+    private void store(Temp temp)
+    {
+        if(slots.containsKey(temp))
+        {
+            e.emit(Opcode.SW, "$t8", frame(slots.get(temp)));
+        }
+    }
+
+    /**
+     * Moves the result of a call or a read from $v0 to its temp, unless the
+     * temp is never used.
+     * @param temp the temp.
+     */
+    private void result(Temp temp)
+    {
+        if(!used.contains(temp))
+        {
+            return;
+        }
+        if(slots.containsKey(temp))
+        {
+            e.emit(Opcode.SW, "$v0", frame(slots.get(temp)));
+        }
+        else
+        {
+            e.emit(Opcode.MOVE, registers.get(temp), "$v0");
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package ir;
+
+/**
+ * A Constant is an operand whose value is known when the program is compiled.
+ * Two constants with the same value are equal.
+ * @author Aditya Ramanathan
+ * @version 10/19/26
+ */
+public class Constant extends Operand
+{
+    private final int value;
+
+    /**
+     * Creates a constant.
+     * @param value the value of the constant.
+     */
+    public Constant(int value)
+    {
+        this.value = value;
+    }
+
+    /**
+     * Retrieves the value of the constant.
+     * @return the value.
+     */
+    public int getValue()
+    {
+        return value;
+    }
+
+    /**
+     * Determines whether another object is a constant with the same value.
+     * @param other the object to compare to.
+     * @return true if other is a constant with the same value.
+     */
+    public boolean equals(Object other)
+    {
+        return other instanceof Constant && ((Constant) other).value == value;
+    }
+
+    /**
+     * Computes a hash code consistent with equals.
+     * @return the value of the constant.
+     */
+    public int hashCode()
+    {
+        return value;
+    }
+
+    /**
+     * Writes the constant.
+     * @return the value of the constant.
+     */
+    public String toString()
+    {
+        return String.valueOf(value);
+    }
+}
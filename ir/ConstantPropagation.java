@@ -0,0 +1,180 @@
+package ir;
+
+import java.util.Iterator;
+
+/**
+ * ConstantPropagation computes the instructions whose operands are constants,
+ * replacing every use of their results by the constant, and applies the
+ * identities x + 0 = x, x - 0 = x, x * 1 = x, x / 1 = x, x * 0 = 0 and
+ * x - x = 0. A branch that compares two constants, or a temp with itself,
+ * becomes a jump, and the blocks that can no longer be reached are removed.
+ * Divisions by zero are left for the program to perform, as the
+ * ConstantFolder does.
+ * @author Aditya Ramanathan
+ * @version 10/19/26
+ */
+public class ConstantPropagation
+{
+    private int folded;
+    private int foldedBranches;
+
+    /**
+     * Propagates the constants of a function.
+     * @param function the function in SSA form.
+     * @return true if the function changed.
+     */
+    public boolean run(Function function)
+    {
+        boolean changed = false;
+        for(BasicBlock block: function.getBlocks())
+        {
+            Iterator<Instruction> it = block.getInstructions().iterator();
+            while(it.hasNext())
+            {
+                Instruction inst = it.next();
+                Operand value = null;
+                if(inst instanceof BinaryInstruction)
+                {
+                    value = simplify((BinaryInstruction) inst);
+                }
+                else if(inst instanceof IntrinsicInstruction)
+                {
+                    value = compute((IntrinsicInstruction) inst);
+                }
+                if(value != null)
+                {
+                    function.replaceUses(inst.getDest(), value);
+                    it.remove();
+                    folded++;
+                    changed = true;
+                }
+            }
+            Instruction last = block.getTerminator();
+            if(last instanceof BranchInstruction)
+            {
+                Boolean taken = decide((BranchInstruction) last);
+                if(taken != null)
+                {
+                    BranchInstruction branch = (BranchInstruction) last;
+                    block.setTerminator(new JumpInstruction(taken
+                            ? branch.getIfTrue() : branch.getIfFalse()));
+                    foldedBranches++;
+                    changed = true;
+                }
+            }
+        }
+        if(changed)
+        {
+            function.removeUnreachableBlocks();
+        }
+        return changed;
+    }
+
+    /**
+     * Retrieves the number of instructions computed or simplified away.
+     * @return the number of instructions folded.
+     */
+    public int getFolded()
+    {
+        return folded;
+    }
+
+    /**
+     * Retrieves the number of branches replaced by jumps.
+     * @return the number of branches folded.
+     */
+    public int getFoldedBranches()
+    {
+        return foldedBranches;
+    }
+
+    /**
+     * Computes an intrinsic whose operands are all constants.
+     * @param inst the instruction.
+     * @return the constant result, or null if an operand is not a constant.
+     */
+    private static Operand compute(IntrinsicInstruction inst)
+    {
+        int[] values = new int[inst.getOperands().size()];
+        for(int i = 0; i < values.length; i++)
+        {
+            if(!(inst.getOperand(i) instanceof Constant))
+            {
+                return null;
+            }
+            values[i] = ((Constant) inst.getOperand(i)).getValue();
+        }
+        return new Constant(inst.apply(values));
+    }
+
+    /**
+     * Simplifies a binary instruction.
+     * @param inst the instruction.
+     * @return the operand that always has the value of the instruction, or
+     * null if there is none.
+     */
+    private static Operand simplify(BinaryInstruction inst)
+    {
+        Operand left = inst.getOperand(0);
+        Operand right = inst.getOperand(1);
+        String op = inst.getOp();
+        if(left instanceof Constant && right instanceof Constant)
+        {
+            Integer value = inst.apply(((Constant) left).getValue(), ((Constant) right).getValue());
+            return value == null ? null : new Constant(value);
+        }
+        if(op.equals("+"))
+        {
+            return isConstant(left, 0) ? right : isConstant(right, 0) ? left : null;
+        }
+        if(op.equals("-"))
+        {
+            return isConstant(right, 0) ? left : left == right ? new Constant(0) : null;
+        }
+        if(op.equals("*"))
+        {
+            if(isConstant(left, 0) || isConstant(right, 0))
+            {
+                return new Constant(0);
+            }
+            return isConstant(left, 1) ? right : isConstant(right, 1) ? left : null;
+        }
+        if(op.equals("/"))
+        {
+            return isConstant(right, 1) ? left : null;
+        }
+        return null;
+    }
+
+    /**
+     * Decides which way a branch goes, if that is known.
+     * @param branch the branch.
+     * @return true or false if the comparison always holds or never does, or
+     * null if it depends on the run.
+     */
+    private static Boolean decide(BranchInstruction branch)
+    {
+        Operand left = branch.getOperand(0);
+        Operand right = branch.getOperand(1);
+        if(left instanceof Constant && right instanceof Constant)
+        {
+            return branch.test(((Constant) left).getValue(), ((Constant) right).getValue());
+        }
+        if(left == right)
+        {
+            return branch.test(0, 0);
+        }
+        return null;
+    }
+
+    /**
+     * Determines whether an operand is a particular constant.
+     * @param operand the operand.
+     * @param value the constant.
+     * @return true if the operand is a Constant with the value.
+     */
+    private static boolean isConstant(Operand operand, int value)
+    {
+        return operand instanceof Constant && ((Constant) operand).getValue() == value;
+    }
+}
@@ -0,0 +1,28 @@
+package ir;
+
+/**
+ * A CopyInstruction sets its destination to the value of one operand.
+ * @author Aditya Ramanathan
+ * @version 10/19/26
+ */
+public class CopyInstruction extends Instruction
+{
+    /**
+     * Creates a copy.
+     * @param dest the temp that receives the value.
+     * @param source the value to copy.
+     */
+    public CopyInstruction(Temp dest, Operand source)
+    {
+        super(dest, source);
+    }
+
+    /**
+     * Writes the operation.
+     * @return the source.
+     */
+    protected String describe()
+    {
+        return getOperand(0).toString();
+    }
+}
@@ -0,0 +1,83 @@
+package ir;
+
+import java.util.Iterator;
+
+/**
+ * CopyPropagation removes copies, replacing every use of the destination by
+ * the source, and removes phi instructions that always choose the same value
+ * (apart from their own destination, which a loop may pass back to them).
+ * @author Aditya Ramanathan
+ * @version 10/19/26
+ */
+public class CopyPropagation
+{
+    private int removed;
+
+    /**
+     * Propagates the copies of a function.
+     * @param function the function in SSA form.
+     * @return true if the function changed.
+     */
+    public boolean run(Function function)
+    {
+        boolean changed = false;
+        for(BasicBlock block: function.getBlocks())
+        {
+            Iterator<Instruction> it = block.getInstructions().iterator();
+            while(it.hasNext())
+            {
+                Instruction inst = it.next();
+                Operand value = null;
+                if(inst instanceof CopyInstruction)
+                {
+                    value = inst.getOperand(0);
+                }
+                else if(inst instanceof PhiInstruction)
+                {
+                    value = onlyValue((PhiInstruction) inst);
+                }
+                if(value != null && value != inst.getDest())
+                {
+                    it.remove();
+                    function.replaceUses(inst.getDest(), value);
+                    removed++;
+                    changed = true;
+                }
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Retrieves the number of copies and phi instructions removed.
+     * @return the number of instructions removed.
+     */
+    public int getRemoved()
+    {
+        return removed;
+    }
+
+    /**
+     * Finds the one value a phi instruction chooses.
+     * @param phi the phi instruction.
+     * @return the operand all operands other than the destination are equal
+     * to, or null if they differ or there are none.
+     */
+    private static Operand onlyValue(PhiInstruction phi)
+    {
+        Operand value = null;
+        for(Operand operand: phi.getOperands())
+        {
+            if(operand == phi.getDest() || operand.equals(value))
+            {
+                continue;
+            }
+            if(value != null)
+            {
+                return null;
+            }
+            value = operand;
+        }
+        return value;
+    }
+}
@@ -0,0 +1,82 @@
+package ir;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * DeadCodeElimination removes the instructions whose results are never used.
+ * Instructions with side effects are live, and so is every instruction that
+ * defines an operand of a live instruction; the rest are removed. Phi
+ * instructions that only feed each other around a loop are removed too.
+ * @author Aditya Ramanathan
+ * @version 10/19/26
+ */
+public class DeadCodeElimination
+{
+    private int removed;
+
+    /**
+     * Removes the dead instructions of a function.
+     * @param function the function in SSA form.
+     * @return true if the function changed.
+     */
+    public boolean run(Function function)
+    {
+        Map<Temp, Instruction> defs = new HashMap<Temp, Instruction>();
+        Set<Instruction> live = new HashSet<Instruction>();
+        LinkedList<Instruction> work = new LinkedList<Instruction>();
+        for(BasicBlock block: function.getBlocks())
+        {
+            for(Instruction inst: block.getInstructions())
+            {
+                if(inst.getDest() != null)
+                {
+                    defs.put(inst.getDest(), inst);
+                }
+                if(inst.hasSideEffects() && live.add(inst))
+                {
+                    work.add(inst);
+                }
+            }
+        }
+        while(!work.isEmpty())
+        {
+            for(Operand operand: work.removeFirst().getOperands())
+            {
+                Instruction def = defs.get(operand);
+                if(def != null && live.add(def))
+                {
+                    work.add(def);
+                }
+            }
+        }
+
+        int before = removed;
+        for(BasicBlock block: function.getBlocks())
+        {
+            Iterator<Instruction> it = block.getInstructions().iterator();
+            while(it.hasNext())
+            {
+                if(!live.contains(it.next()))
+                {
+                    it.remove();
+                    removed++;
+                }
+            }
+        }
+        return removed > before;
+    }
+
+    /**
+     * Retrieves the number of instructions removed.
+     * @return the number of dead instructions removed.
+     */
+    public int getRemoved()
+    {
+        return removed;
+    }
+}
@@ -0,0 +1,171 @@
+package ir;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Dominators finds the dominator tree of a function with the algorithm of
+ * Cooper, Harvey and Kennedy, "A Simple, Fast Dominance Algorithm". A block
+ * dominates another if every path from the entry to the other block goes
+ * through it; the immediate dominator of a block is the closest of its strict
+ * dominators. The blocks are also put in reverse postorder, which visits every
+ * block before the blocks it dominates and, for a WHILE loop, puts the
+ * statements of the loop just after its header.
+ * @author Aditya Ramanathan
+ * @version 10/19/26
+ */
+public class Dominators
+{
+    private final List<BasicBlock> order;
+    private final Map<BasicBlock, Integer> index;
+    private final Map<BasicBlock, BasicBlock> idoms;
+    private final Map<BasicBlock, List<BasicBlock>> children;
+
+    /**
+     * Computes the dominator tree of a function.
+     * @param function the function, whose blocks must all be reachable.
+     */
+    public Dominators(Function function)
+    {
+        order = new ArrayList<BasicBlock>();
+        postorder(function.getEntry(), new HashSet<BasicBlock>());
+        Collections.reverse(order);
+        index = new HashMap<BasicBlock, Integer>();
+        for(int i = 0; i < order.size(); i++)
+        {
+            index.put(order.get(i), i);
+        }
+
+        idoms = new HashMap<BasicBlock, BasicBlock>();
+        BasicBlock entry = function.getEntry();
+        idoms.put(entry, entry);
+        boolean changed = true;
+        while(changed)
+        {
+            changed = false;
+            for(BasicBlock block: order.subList(1, order.size()))
+            {
+                BasicBlock idom = null;
+                for(BasicBlock pred: block.getPreds())
+                {
+                    if(idoms.containsKey(pred))
+                    {
+                        idom = idom == null ? pred : intersect(pred, idom);
+                    }
+                }
+                if(idoms.get(block) != idom)
+                {
+                    idoms.put(block, idom);
+                    changed = true;
+                }
+            }
+        }
+
+        children = new HashMap<BasicBlock, List<BasicBlock>>();
+        for(BasicBlock block: order)
+        {
+            children.put(block, new ArrayList<BasicBlock>());
+        }
+        for(BasicBlock block: order.subList(1, order.size()))
+        {
+            children.get(idoms.get(block)).add(block);
+        }
+    }
+
+    /**
+     * Adds the blocks reached from a block to the order, each after all the
+     * blocks reached from it. The false target of a branch is visited first,
+     * so that its true target comes first in reverse postorder.
+     * @param block the block.
+     * @param visited the blocks already visited.
+     */
+    private void postorder(BasicBlock block, Set<BasicBlock> visited)
+    {
+        visited.add(block);
+        List<BasicBlock> succs = block.getSuccessors();
+        for(int i = succs.size() - 1; i >= 0; i--)
+        {
+            if(!visited.contains(succs.get(i)))
+            {
+                postorder(succs.get(i), visited);
+            }
+        }
+        order.add(block);
+    }
+
+    /**
+     * Finds the closest common dominator of two blocks.
+     * @param block1 a block with a known dominator.
+     * @param block2 another block with a known dominator.
+     * @return the closest block that dominates both.
+     */
+    private BasicBlock intersect(BasicBlock block1, BasicBlock block2)
+    {
+        while(block1 != block2)
+        {
+            while(index.get(block1) > index.get(block2))
+            {
+                block1 = idoms.get(block1);
+            }
+            while(index.get(block2) > index.get(block1))
+            {
+                block2 = idoms.get(block2);
+            }
+        }
+        return block1;
+    }
+
+    /**
+     * Retrieves the blocks in reverse postorder.
+     * @return the blocks, starting with the entry.
+     */
+    public List<BasicBlock> getReversePostorder()
+    {
+        return order;
+    }
+
+    /**
+     * Retrieves the immediate dominator of a block.
+     * @param block the block.
+     * @return the immediate dominator, or the block itself for the entry.
+     */
+    public BasicBlock getIdom(BasicBlock block)
+    {
+        return idoms.get(block);
+    }
+
+    /**
+     * Retrieves the blocks that a block immediately dominates.
+     * @param block the block.
+     * @return its children in the dominator tree.
+     */
+    public List<BasicBlock> getChildren(BasicBlock block)
+    {
+        return children.get(block);
+    }
+
+    /**
+     * Determines whether one block dominates another.
+     * @param dominator the block that may dominate.
+     * @param block the block that may be dominated.
+     * @return true if every path from the entry to block goes through dominator.
+     */
+    public boolean dominates(BasicBlock dominator, BasicBlock block)
+    {
+        while(block != dominator)
+        {
+            BasicBlock idom = idoms.get(block);
+            if(idom == block)
+            {
+                return false;
+            }
+            block = idom;
+        }
+        return true;
+    }
+}
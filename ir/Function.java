@@ -0,0 +1,222 @@
+package ir;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A Function is the control flow graph of one procedure, or of the main block
+ * of code. Its first block is the entry.
+ * @author Aditya Ramanathan
+ * @version 10/19/26
+ */
+public class Function
+{
+    private final String name;
+    private final int paramCount;
+    private final List<BasicBlock> blocks;
+    private int temps;
+    private int blockIds;
+
+    /**
+     * Creates a function with an empty entry block.
+     * @param name the name of the procedure, or null for the main block of code.
+     * @param paramCount the number of parameters.
+     */
+    public Function(String name, int paramCount)
+    {
+        this.name = name;
+        this.paramCount = paramCount;
+        blocks = new ArrayList<BasicBlock>();
+        newBlock();
+    }
+
+    /**
+     * Retrieves the name of the procedure.
+     * @return the name, or null for the main block of code.
+     */
+    public String getName()
+    {
+        return name;
+    }
+
+    /**
+     * Determines whether the function is the main block of code.
+     * @return true if the function has no name.
+     */
+    public boolean isMain()
+    {
+        return name == null;
+    }
+
+    /**
+     * Retrieves the number of parameters.
+     * @return the number of parameters.
+     */
+    public int getParamCount()
+    {
+        return paramCount;
+    }
+
+    /**
+     * Retrieves the blocks of the function. The entry block is first; the order
+     * of the others does not matter until code is generated.
+     * @return the blocks.
+     */
+    public List<BasicBlock> getBlocks()
+    {
+        return blocks;
+    }
+
+    /**
+     * Retrieves the block where the function starts.
+     * @return the entry block.
+     */
+    public BasicBlock getEntry()
+    {
+        return blocks.get(0);
+    }
+
+    /**
+     * Creates a new temp.
+     * @return a temp that no instruction defines yet.
+     */
+    public Temp newTemp()
+    {
+        return new Temp(temps++);
+    }
+
+    /**
+     * Retrieves the number of temps created so far.
+     * @return one more than the largest temp number.
+     */
+    public int getTempCount()
+    {
+        return temps;
+    }
+
+    /**
+     * Creates a new, empty block and adds it to the function.
+     * @return the block.
+     */
+    public BasicBlock newBlock()
+    {
+        BasicBlock block = new BasicBlock(blockIds++);
+        blocks.add(block);
+        return block;
+    }
+
+    /**
+     * Puts a new block on the edge between two blocks, so that code can be
+     * added that only runs when the program goes that way.
+     * @param pred the block at the start of the edge.
+     * @param succ the block at the end of the edge.
+     * @return the new block, which jumps to succ.
+     */
+    public BasicBlock splitEdge(BasicBlock pred, BasicBlock succ)
+    {
+        BasicBlock middle = newBlock();
+        middle.insert(0, new JumpInstruction(succ));
+        middle.getPreds().add(pred);
+        pred.getTerminator().replaceTarget(succ, middle);
+        succ.replacePred(pred, middle);
+        return middle;
+    }
+
+    /**
+     * Removes the blocks that cannot be reached from the entry, and their
+     * edges into the blocks that remain.
+     * @return true if any block was removed.
+     */
+    public boolean removeUnreachableBlocks()
+    {
+        Set<BasicBlock> reached = new HashSet<BasicBlock>();
+        LinkedList<BasicBlock> work = new LinkedList<BasicBlock>();
+        work.add(getEntry());
+        reached.add(getEntry());
+        while(!work.isEmpty())
+        {
+            for(BasicBlock succ: work.removeFirst().getSuccessors())
+            {
+                if(reached.add(succ))
+                {
+                    work.add(succ);
+                }
+            }
+        }
+        if(reached.size() == blocks.size())
+        {
+            return false;
+        }
+        for(BasicBlock block: new ArrayList<BasicBlock>(blocks))
+        {
+            if(!reached.contains(block))
+            {
+                for(BasicBlock succ: block.getSuccessors())
+                {
+                    succ.removePred(block);
+                }
+                blocks.remove(block);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Replaces every use of a temp by another operand.
+     * @param temp the temp.
+     * @param value the operand to use instead.
+     * @return the number of uses replaced.
+     */
+    public int replaceUses(Temp temp, Operand value)
+    {
+        int replaced = 0;
+        for(BasicBlock block: blocks)
+        {
+            for(Instruction inst: block.getInstructions())
+            {
+                List<Operand> operands = inst.getOperands();
+                for(int i = 0; i < operands.size(); i++)
+                {
+                    if(operands.get(i) == temp)
+                    {
+                        operands.set(i, value);
+                        replaced++;
+                    }
+                }
+            }
+        }
+        return replaced;
+    }
+
+    /**
+     * Counts the instructions of the function.
+     * @return the number of instructions in all blocks.
+     */
+    public int countInstructions()
+    {
+        int count = 0;
+        for(BasicBlock block: blocks)
+        {
+            count += block.getInstructions().size();
+        }
+        return count;
+    }
+
+    /**
+     * Writes the function.
+     * @return the name of the function and its blocks.
+     */
+    public String toString()
+    {
+        StringBuilder text = new StringBuilder(isMain() ? "main" : name);
+        text.append(":");
+        for(BasicBlock block: blocks)
+        {
+            text.append("\n").append(block);
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,142 @@
+package ir;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An Instruction is one operation of a BasicBlock. It may define a temp, its
+ * destination, and uses a list of operands. The last instruction of every
+ * block is a terminator (a jump, a branch or a return), which names the
+ * blocks that may run next.
+ * @author Aditya Ramanathan
+ * @version 10/19/26
+ */
+public abstract class Instruction
+{
+    private Temp dest;
+    private final List<Operand> operands;
+    private BasicBlock block;
+
+    /**
+     * Creates an instruction.
+     * @param dest the temp the instruction defines, or null if it defines none.
+     * @param operands the operands the instruction uses.
+     */
+    protected Instruction(Temp dest, Operand... operands)
+    {
+        this.dest = dest;
+        this.operands = new ArrayList<Operand>();
+        Collections.addAll(this.operands, operands);
+    }
+
+    /**
+     * Retrieves the temp the instruction defines.
+     * @return the destination, or null if the instruction defines no temp.
+     */
+    public Temp getDest()
+    {
+        return dest;
+    }
+
+    /**
+     * Changes the temp the instruction defines.
+     * @param dest the new destination.
+     */
+    void setDest(Temp dest)
+    {
+        this.dest = dest;
+    }
+
+    /**
+     * Retrieves the operands of the instruction. The list may be changed to
+     * replace operands.
+     * @return the operands.
+     */
+    public List<Operand> getOperands()
+    {
+        return operands;
+    }
+
+    /**
+     * Retrieves one operand.
+     * @param index the position of the operand.
+     * @return the operand.
+     */
+    public Operand getOperand(int index)
+    {
+        return operands.get(index);
+    }
+
+    /**
+     * Retrieves the block the instruction belongs to.
+     * @return the block.
+     */
+    public BasicBlock getBlock()
+    {
+        return block;
+    }
+
+    /**
+     * Records the block the instruction belongs to.
+     * @param block the block.
+     */
+    void setBlock(BasicBlock block)
+    {
+        this.block = block;
+    }
+
+    /**
+     * Determines whether the instruction does anything other than define its
+     * destination, so that it must be kept even if the destination is unused.
+     * @return true if the instruction has side effects.
+     */
+    public boolean hasSideEffects()
+    {
+        return false;
+    }
+
+    /**
+     * Retrieves the blocks that may run after this instruction, if it ends
+     * its block.
+     * @return the targets of the instruction, which is empty for instructions
+     * other than jumps and branches.
+     */
+    public List<BasicBlock> getTargets()
+    {
+        return Collections.emptyList();
+    }
+
+    /**
+     * Changes a target of the instruction.
+     * @param oldTarget the target to replace.
+     * @param newTarget the block to go to instead.
+     */
+    public void replaceTarget(BasicBlock oldTarget, BasicBlock newTarget)
+    {
+    }
+
+    /**
+     * Determines whether the instruction ends its block.
+     * @return true for jumps, branches and returns.
+     */
+    public boolean isTerminator()
+    {
+        return false;
+    }
+
+    /**
+     * Writes the instruction.
+     * @return the instruction in a readable form, such as "t3 = t1 + 4".
+     */
+    public String toString()
+    {
+        return (dest == null ? "" : dest + " = ") + describe();
+    }
+
+    /**
+     * Writes the part of the instruction after its destination.
+     * @return the operation and its operands.
+     */
+    protected abstract String describe();
+}
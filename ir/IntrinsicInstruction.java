@@ -0,0 +1,53 @@
+package ir;
+import ast.Intrinsic;
+
+/**
+ * An IntrinsicInstruction applies one of the intrinsics ABS, SQR, ODD, MIN
+ * and MAX to its operands. Unlike a call, it has no side effects.
+ * @author Aditya Ramanathan
+ * @version 10/19/26
+ */
+public class IntrinsicInstruction extends Instruction
+{
+    private final String name;
+
+    /**
+     * Creates an intrinsic instruction.
+     * @param dest the temp that receives the result.
+     * @param name the name of the intrinsic, in upper case.
+     * @param args the operands, in order.
+     */
+    public IntrinsicInstruction(Temp dest, String name, Operand[] args)
+    {
+        super(dest, args);
+        this.name = name;
+    }
+
+    /**
+     * Retrieves the name of the intrinsic.
+     * @return the name, in upper case.
+     */
+    public String getName()
+    {
+        return name;
+    }
+
+    /**
+     * Computes the result for known values.
+     * @param values the values of the operands.
+     * @return the result.
+     */
+    public int apply(int[] values)
+    {
+        return Intrinsic.apply(name, values);
+    }
+
+    /**
+     * Writes the operation.
+     * @return the intrinsic, such as "MAX(t1, 4)".
+     */
+    protected String describe()
+    {
+        return name + getOperands().toString().replace('[', '(').replace(']', ')');
+    }
+}
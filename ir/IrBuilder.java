@@ -0,0 +1,445 @@
+package ir;
+import ast.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The IrBuilder lowers a Program to the intermediate representation, building
+ * SSA form directly with the algorithm of Braun et al., "Simple and Efficient
+ * Construction of Static Single Assignment Form": every assignment defines a
+ * new value of its variable in the current block, and reading a variable looks
+ * for its value backwards through the predecessors, adding phi instructions
+ * where paths meet. Trivial phi instructions are left for CopyPropagation.
+ *
+ * The intermediate representation follows the compiled meaning of a program:
+ * a name in a procedure is its parameter, local variable or return variable,
+ * and otherwise the global variable of that name. Parameters, local variables
+ * and return variables are values in temps, starting at 0 like the stack slots
+ * of the compiled procedure. So are global variables that no procedure uses;
+ * the others stay in memory, are read with loads and written with stores.
+ *
+ * Usage:
+ * IrProgram ir = new IrBuilder().build(program);
+ *
+ * @author Aditya Ramanathan
+ * @version 10/19/26
+ */
+public class IrBuilder
+{
+    private Program program;
+    private Function function;
+    private BasicBlock block;
+    private Set<String> promoted;
+    private Map<String, Map<BasicBlock, Operand>> definitions;
+    private Map<BasicBlock, Map<String, PhiInstruction>> incompletePhis;
+    private Set<BasicBlock> sealed;
+
+    /**
+     * Lowers a program.
+     * @param program the program.
+     * @return the program in SSA form, with the main block of code first and
+     * then the procedures in the order they were declared.
+     * @throws IllegalArgumentException if the program calls a procedure that
+     * does not exist, or with the wrong number of arguments.
+     */
+    public IrProgram build(Program program)
+    {
+        this.program = program;
+        Set<String> free = new LinkedHashSet<String>();
+        for(ProcedureDeclaration dec: program.getProcedureDeclarations())
+        {
+            free.addAll(freeNames(dec));
+        }
+        Set<String> shared = new LinkedHashSet<String>(program.getVariables());
+        shared.retainAll(free);
+        shared.addAll(free);
+
+        List<Function> functions = new ArrayList<Function>();
+        Set<String> mainVars = new HashSet<String>(program.getVariables());
+        mainVars.addAll(names(program.getStatement()));
+        mainVars.removeAll(shared);
+        functions.add(buildFunction(null, new ArrayList<String>(), mainVars,
+                program.getStatement()));
+        for(ProcedureDeclaration dec: program.getProcedureDeclarations())
+        {
+            Set<String> locals = new HashSet<String>(dec.getLocalVariables());
+            locals.addAll(dec.getParms());
+            locals.add(dec.getName());
+            functions.add(buildFunction(dec.getName(), dec.getParms(), locals,
+                    dec.getStatement()));
+        }
+        return new IrProgram(functions, new ArrayList<String>(shared));
+    }
+
+    /**
+     * Lowers the main block of code or a procedure.
+     * @param name the name of the procedure, or null for the main block of code.
+     * @param parms the parameters.
+     * @param vars the variables kept in temps.
+     * @param body the statement(s) to lower.
+     * @return the function.
+     */
+    private Function buildFunction(String name, List<String> parms, Set<String> vars, Statement body)
+    {
+        function = new Function(name, parms.size());
+        promoted = vars;
+        definitions = new HashMap<String, Map<BasicBlock, Operand>>();
+        incompletePhis = new HashMap<BasicBlock, Map<String, PhiInstruction>>();
+        sealed = new HashSet<BasicBlock>();
+        block = function.getEntry();
+        sealed.add(block);
+        for(int i = 0; i < parms.size(); i++)
+        {
+            Temp parm = function.newTemp();
+            block.add(new ParamInstruction(parm, i));
+            writeVariable(parms.get(i), block, parm);
+        }
+        lower(body);
+        block.add(name == null ? new ReturnInstruction()
+                : new ReturnInstruction(readVariable(name, block)));
+        return function;
+    }
+
+    /**
+     * Lowers a statement into the current block, moving on to new blocks for
+     * IF and WHILE statements.
+     * @param st the statement.
+     */
+    private void lower(Statement st)
+    {
+        if(st instanceof Block)
+        {
+            for(Statement child: ((Block) st).getStatements())
+            {
+                lower(child);
+            }
+        }
+        else if(st instanceof Assignment)
+        {
+            Assignment assignment = (Assignment) st;
+            assign(assignment.getVarName(), lower(assignment.getExpression()));
+        }
+        else if(st instanceof Readln)
+        {
+            Temp value = function.newTemp();
+            block.add(new ReadInstruction(value));
+            assign(((Readln) st).getVarName(), value);
+        }
+        else if(st instanceof Writeln)
+        {
+            block.add(new PrintInstruction(lower(((Writeln) st).getExpression())));
+        }
+        else if(st instanceof If)
+        {
+            lowerIf((If) st);
+        }
+        else if(st instanceof While)
+        {
+            lowerWhile((While) st);
+        }
+        else
+        {
+            throw new IllegalArgumentException("Cannot lower " + st.getClass().getSimpleName());
+        }
+    }
+
+    /**
+     * Lowers an IF statement to a branch, the block(s) of its statements and
+     * the block where they meet.
+     * @param ifSt the statement.
+     */
+    private void lowerIf(If ifSt)
+    {
+        BasicBlock thenBlock = function.newBlock();
+        BasicBlock join = function.newBlock();
+        BasicBlock elseBlock = ifSt.getElseStatement() == null ? join : function.newBlock();
+        branch(ifSt.getCondition(), thenBlock, elseBlock);
+        seal(thenBlock);
+        block = thenBlock;
+        lower(ifSt.getStatement());
+        block.add(new JumpInstruction(join));
+        if(elseBlock != join)
+        {
+            seal(elseBlock);
+            block = elseBlock;
+            lower(ifSt.getElseStatement());
+            block.add(new JumpInstruction(join));
+        }
+        seal(join);
+        block = join;
+    }
+
+    /**
+     * Lowers a WHILE statement to a header that tests the condition, the
+     * block(s) of its statement, which go back to the header, and the block
+     * after the loop. The header is sealed once the statement has been
+     * lowered, since only then are all its predecessors known.
+     * @param loop the statement.
+     */
+    private void lowerWhile(While loop)
+    {
+        BasicBlock header = function.newBlock();
+        BasicBlock body = function.newBlock();
+        BasicBlock exit = function.newBlock();
+        block.add(new JumpInstruction(header));
+        block = header;
+        branch(loop.getCondition(), body, exit);
+        seal(body);
+        block = body;
+        lower(loop.getStatement());
+        block.add(new JumpInstruction(header));
+        seal(header);
+        seal(exit);
+        block = exit;
+    }
+
+    /**
+     * Ends the current block with the branch of a condition.
+     * @param cond the condition.
+     * @param ifTrue the block to go to if the condition holds.
+     * @param ifFalse the block to go to if it does not.
+     */
+    private void branch(Condition cond, BasicBlock ifTrue, BasicBlock ifFalse)
+    {
+        Operand left = lower(cond.getLeft());
+        Operand right = lower(cond.getRight());
+        block.add(new BranchInstruction(cond.getRelop(), left, right, ifTrue, ifFalse));
+    }
+
+    /**
+     * Lowers an expression into the current block.
+     * @param exp the expression.
+     * @return the operand holding its value.
+     */
+    private Operand lower(Expression exp)
+    {
+        if(exp instanceof ast.Number)
+        {
+            return new Constant(((ast.Number) exp).getValue());
+        }
+        if(exp instanceof Variable)
+        {
+            String name = ((Variable) exp).getName();
+            if(promoted.contains(name))
+            {
+                return readVariable(name, block);
+            }
+            Temp value = function.newTemp();
+            block.add(new LoadInstruction(value, name));
+            return value;
+        }
+        if(exp instanceof BinOp)
+        {
+            BinOp binOp = (BinOp) exp;
+            Operand left = lower(binOp.getExp1());
+            Operand right = lower(binOp.getExp2());
+            Temp value = function.newTemp();
+            block.add(new BinaryInstruction(value, binOp.getOp(), left, right));
+            return value;
+        }
+        if(exp instanceof ProcedureCall)
+        {
+            ProcedureCall call = (ProcedureCall) exp;
+            ProcedureDeclaration dec = program.getProcedure(call.getName());
+            if(dec == null)
+            {
+                throw new IllegalArgumentException("Procedure " + call.getName() + " is not declared");
+            }
+            if(dec.getParms().size() != call.getArgs().size())
+            {
+                throw new IllegalArgumentException("Procedure " + call.getName() + " takes "
+                        + dec.getParms().size() + " arguments, not " + call.getArgs().size());
+            }
+            Operand[] args = new Operand[call.getArgs().size()];
+            for(int i = 0; i < args.length; i++)
+            {
+                args[i] = lower(call.getArgs().get(i));
+            }
+            Temp value = function.newTemp();
+            block.add(new CallInstruction(value, call.getName(), args));
+            return value;
+        }
+        if(exp instanceof Intrinsic)
+        {
+            Intrinsic intrinsic = (Intrinsic) exp;
+            Operand[] args = new Operand[intrinsic.getArgs().size()];
+            for(int i = 0; i < args.length; i++)
+            {
+                args[i] = lower(intrinsic.getArgs().get(i));
+            }
+            Temp value = function.newTemp();
+            block.add(new IntrinsicInstruction(value, intrinsic.getName(), args));
+            return value;
+        }
+        throw new IllegalArgumentException("Cannot lower " + exp.getClass().getSimpleName());
+    }
+
+    /**
+     * Gives a variable a new value in the current block.
+     * @param var the name of the variable.
+     * @param value the new value.
+     */
+    private void assign(String var, Operand value)
+    {
+        if(promoted.contains(var))
+        {
+            writeVariable(var, block, value);
+        }
+        else
+        {
+            block.add(new StoreInstruction(var, value));
+        }
+    }
+
+    /**
+     * Records the value of a variable at the end of a block.
+     * @param var the name of the variable.
+     * @param at the block.
+     * @param value the value.
+     */
+    private void writeVariable(String var, BasicBlock at, Operand value)
+    {
+        Map<BasicBlock, Operand> defs = definitions.get(var);
+        if(defs == null)
+        {
+            defs = new HashMap<BasicBlock, Operand>();
+            definitions.put(var, defs);
+        }
+        defs.put(at, value);
+    }
+
+    /**
+     * Finds the value of a variable at the end of a block.
+     * @param var the name of the variable.
+     * @param at the block.
+     * @return the value, which is 0 if nothing has been assigned on the way
+     * from the entry.
+     */
+    private Operand readVariable(String var, BasicBlock at)
+    {
+        Map<BasicBlock, Operand> defs = definitions.get(var);
+        if(defs != null && defs.containsKey(at))
+        {
+            return defs.get(at);
+        }
+        Operand value;
+        if(at == function.getEntry())
+        {
+            value = new Constant(0);
+        }
+        else if(!sealed.contains(at))
+        {
+            PhiInstruction phi = new PhiInstruction(function.newTemp());
+            at.insertPhi(phi);
+            Map<String, PhiInstruction> phis = incompletePhis.get(at);
+            if(phis == null)
+            {
+                phis = new HashMap<String, PhiInstruction>();
+                incompletePhis.put(at, phis);
+            }
+            phis.put(var, phi);
+            value = phi.getDest();
+        }
+        else if(at.getPreds().size() == 1)
+        {
+            value = readVariable(var, at.getPreds().get(0));
+        }
+        else
+        {
+            PhiInstruction phi = new PhiInstruction(function.newTemp());
+            at.insertPhi(phi);
+            writeVariable(var, at, phi.getDest());
+            addPhiOperands(var, phi);
+            value = phi.getDest();
+        }
+        writeVariable(var, at, value);
+        return value;
+    }
+
+    /**
+     * Gives a phi instruction the value of its variable from each predecessor.
+     * @param var the name of the variable.
+     * @param phi the phi instruction.
+     */
+    private void addPhiOperands(String var, PhiInstruction phi)
+    {
+        for(BasicBlock pred: phi.getBlock().getPreds())
+        {
+            phi.getOperands().add(readVariable(var, pred));
+        }
+    }
+
+    /**
+     * Marks a block as having all its predecessors, and completes the phi
+     * instructions added to it before then.
+     * @param at the block.
+     */
+    private void seal(BasicBlock at)
+    {
+        Map<String, PhiInstruction> phis = incompletePhis.remove(at);
+        if(phis != null)
+        {
+            for(Map.Entry<String, PhiInstruction> entry: phis.entrySet())
+            {
+                addPhiOperands(entry.getKey(), entry.getValue());
+            }
+        }
+        sealed.add(at);
+    }
+
+    /**
+     * Finds the names a procedure uses that are not its own parameters, local
+     * variables or return variable.
+     * @param dec the procedure.
+     * @return the names of the global variables the procedure uses.
+     */
+    private static Set<String> freeNames(ProcedureDeclaration dec)
+    {
+        Set<String> free = names(dec.getStatement());
+        free.remove(dec.getName());
+        free.removeAll(dec.getLocalVariables());
+        free.removeAll(dec.getParms());
+        return free;
+    }
+
+    /**
+     * Finds the variables a statement reads or writes.
+     * @param st the statement.
+     * @return the names of the variables, in the order they appear.
+     */
+    private static Set<String> names(Statement st)
+    {
+        Set<String> names = new LinkedHashSet<String>();
+        new AstWalker()
+        {
+            public void visitStatement(Statement st)
+            {
+                if(st instanceof Assignment)
+                {
+                    names.add(((Assignment) st).getVarName());
+                }
+                else if(st instanceof Readln)
+                {
+                    names.add(((Readln) st).getVarName());
+                }
+                super.visitStatement(st);
+            }
+
+            public void visitExpression(Expression exp)
+            {
+                if(exp instanceof Variable)
+                {
+                    names.add(((Variable) exp).getName());
+                }
+                super.visitExpression(exp);
+            }
+        }.visitStatement(st);
+        return names;
+    }
+}
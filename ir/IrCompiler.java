@@ -0,0 +1,78 @@
+package ir;
+import ast.*;
+
+/**
+ * The IrCompiler compiles a Program through the intermediate representation:
+ * it lowers the program to SSA form, optimizes it, takes it out of SSA form
+ * and generates MIPS code with registers for the values, instead of the
+ * stack machine code of Program.compile.
+ *
+ * Usage:
+ * IrCompiler compiler = new IrCompiler();
+ * compiler.compile(program, new Emitter("out.asm"));
+ * System.out.println(compiler.getReport());
+ *
+ * @author Aditya Ramanathan
+ * @version 10/19/26
+ */
+public class IrCompiler
+{
+    private final IrOptimizer optimizer;
+    private final SsaDestruction destruction;
+    private int lowered;
+    private int optimized;
+
+    /**
+     * Creates a compiler.
+     */
+    public IrCompiler()
+    {
+        optimizer = new IrOptimizer();
+        destruction = new SsaDestruction();
+    }
+
+    /**
+     * Lowers and optimizes a program.
+     * @param program the program.
+     * @return the optimized program in SSA form.
+     * @throws IllegalArgumentException if the program calls a procedure that
+     * does not exist, or with the wrong number of arguments.
+     */
+    public IrProgram optimize(Program program)
+    {
+        IrProgram ir = new IrBuilder().build(program);
+        lowered = ir.countInstructions();
+        optimizer.optimize(ir);
+        optimized = ir.countInstructions();
+        return ir;
+    }
+
+    /**
+     * Compiles a program and closes the emitter.
+     * @param program the program.
+     * @param e the emitter the MIPS code is written to.
+     * @throws IllegalArgumentException if the program calls a procedure that
+     * does not exist, or with the wrong number of arguments.
+     */
+    public void compile(Program program, Emitter e)
+    {
+        IrProgram ir = optimize(program);
+        for(Function function: ir.getFunctions())
+        {
+            destruction.destroy(function);
+        }
+        new CodeGenerator(e).generate(ir);
+    }
+
+    /**
+     * Describes what the compiler did.
+     * @return the number of instructions before and after optimization and
+     * what each pass did.
+     */
+    public String getReport()
+    {
+        return "SSA: " + lowered + " -> " + optimized + " instructions, "
+                + optimizer.getReport() + ", " + destruction.getCoalesced()
+                + " temps coalesced, " + destruction.getCopies() + " copies added";
+    }
+}
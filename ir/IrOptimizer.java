@@ -0,0 +1,76 @@
+package ir;
+
+/**
+ * The IrOptimizer runs the SSA passes on every function of a program until
+ * none of them changes anything: ConstantPropagation, CopyPropagation,
+ * ValueNumbering and DeadCodeElimination. Each pass can expose work for the
+ * others; a folded branch removes a path into a phi instruction, which then
+ * becomes a copy, whose propagation makes two operations equal, and so on.
+ *
+ * Usage:
+ * IrOptimizer optimizer = new IrOptimizer();
+ * optimizer.optimize(ir);
+ * System.out.println(optimizer.getReport());
+ *
+ * @author Aditya Ramanathan
+ * @version 10/19/26
+ */
+public class IrOptimizer
+{
+    private final ConstantPropagation constants;
+    private final CopyPropagation copies;
+    private final ValueNumbering values;
+    private final DeadCodeElimination dead;
+
+    /**
+     * Creates an optimizer.
+     */
+    public IrOptimizer()
+    {
+        constants = new ConstantPropagation();
+        copies = new CopyPropagation();
+        values = new ValueNumbering();
+        dead = new DeadCodeElimination();
+    }
+
+    /**
+     * Optimizes every function of a program.
+     * @param ir the program in SSA form, which is changed.
+     */
+    public void optimize(IrProgram ir)
+    {
+        for(Function function: ir.getFunctions())
+        {
+            optimize(function);
+        }
+    }
+
+    /**
+     * Optimizes a function.
+     * @param function the function in SSA form, which is changed.
+     */
+    public void optimize(Function function)
+    {
+        function.removeUnreachableBlocks();
+        boolean changed = true;
+        while(changed)
+        {
+            changed = constants.run(function);
+            changed |= copies.run(function);
+            changed |= values.run(function);
+            changed |= dead.run(function);
+        }
+    }
+
+    /**
+     * Describes what the passes have done so far.
+     * @return the number of instructions each pass removed.
+     */
+    public String getReport()
+    {
+        return "folded " + constants.getFolded() + " instructions and "
+                + constants.getFoldedBranches() + " branches, propagated "
+                + copies.getRemoved() + " copies, numbered away " + values.getRemoved()
+                + " instructions, removed " + dead.getRemoved() + " dead instructions";
+    }
+}
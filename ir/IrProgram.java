@@ -0,0 +1,92 @@
+package ir;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An IrProgram is a whole program in the intermediate representation: the
+ * function for the main block of code, one function per procedure, and the
+ * global variables that are kept in memory.
+ * @author Aditya Ramanathan
+ * @version 10/19/26
+ */
+public class IrProgram
+{
+    private final List<Function> functions;
+    private final List<String> globals;
+
+    /**
+     * Creates a program.
+     * @param functions the functions, starting with the main block of code.
+     * @param globals the names of the global variables kept in memory.
+     */
+    public IrProgram(List<Function> functions, List<String> globals)
+    {
+        this.functions = functions;
+        this.globals = globals;
+    }
+
+    /**
+     * Retrieves the functions.
+     * @return the functions, starting with the main block of code.
+     */
+    public List<Function> getFunctions()
+    {
+        return functions;
+    }
+
+    /**
+     * Retrieves the function for the main block of code.
+     * @return the main function.
+     */
+    public Function getMain()
+    {
+        return functions.get(0);
+    }
+
+    /**
+     * Retrieves the procedures.
+     * @return the functions other than main.
+     */
+    public List<Function> getProcedures()
+    {
+        return new ArrayList<Function>(functions.subList(1, functions.size()));
+    }
+
+    /**
+     * Retrieves the global variables kept in memory.
+     * @return the names of the variables.
+     */
+    public List<String> getGlobals()
+    {
+        return globals;
+    }
+
+    /**
+     * Counts the instructions of the program.
+     * @return the number of instructions in all functions.
+     */
+    public int countInstructions()
+    {
+        int count = 0;
+        for(Function function: functions)
+        {
+            count += function.countInstructions();
+        }
+        return count;
+    }
+
+    /**
+     * Writes the program.
+     * @return the globals and every function.
+     */
+    public String toString()
+    {
+        StringBuilder text = new StringBuilder("globals " + globals);
+        for(Function function: functions)
+        {
+            text.append("\n").append(function);
+        }
+        return text.toString();
+    }
+}
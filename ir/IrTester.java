@@ -0,0 +1,56 @@
+package ir;
+import scanner.*;
+import parser.*;
+import environment.*;
+import ast.*;
+
+import java.io.*;
+
+/**
+ * Tests the compiler that goes through the intermediate representation. For
+ * each test program, this runs the program, compiles it both with
+ * Program.compile and through the intermediate representation, and prints the
+ * number of MIPS instructions each wrote. Both asm files should print the
+ * same as the program in MARS.
+ * @author Aditya Ramanathan
+ * @version 10/19/26
+ */
+public class IrTester
+{
+    /**
+     * Main Tester Method for the intermediate representation.
+     * @param str the arguments passed to the main method.
+     * @throws FileNotFoundException if a test file is not found.
+     */
+    public static void main(String[] str) throws FileNotFoundException
+    {
+        test("ParserTest.txt", "ir.asm");
+        test("ParserTestAdvanced.txt", "irAdvanced.asm");
+        test("OptimizerTest.txt", "irTest.asm");
+    }
+
+    /**
+     * Runs and compiles one test program.
+     * @param fileName the name of the file with the program.
+     * @param asmFileName the name of the asm file to write.
+     * @throws FileNotFoundException if the test file is not found.
+     */
+    private static void test(String fileName, String asmFileName) throws FileNotFoundException
+    {
+        System.out.println(fileName);
+        Parser parser = new Parser(new Scanner(new FileInputStream(new File(fileName))));
+        Program program = parser.parseProgram();
+        program.exec(new Environment(null));
+
+        Emitter stack = new Emitter(Writer.nullWriter());
+        program.compile(stack);
+        IrCompiler compiler = new IrCompiler();
+        Emitter registers = new Emitter(asmFileName);
+        compiler.compile(program, registers);
+        System.out.println(compiler.getReport());
+        System.out.println("MIPS instructions: " + stack.getInstructionCount() + " -> "
+                + registers.getInstructionCount());
+        System.out.println(registers.getPeepholeOptimizer().getReport());
+        System.out.println();
+    }
+}
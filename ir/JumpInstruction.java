@@ -0,0 +1,82 @@
+package ir;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A JumpInstruction ends a block by always going to the same block.
+ * @author Aditya Ramanathan
+ * @version 10/19/26
+ */
+public class JumpInstruction extends Instruction
+{
+    private BasicBlock target;
+
+    /**
+     * Creates a jump.
+     * @param target the block to go to.
+     */
+    public JumpInstruction(BasicBlock target)
+    {
+        super(null);
+        this.target = target;
+    }
+
+    /**
+     * Retrieves the block to go to.
+     * @return the target.
+     */
+    public BasicBlock getTarget()
+    {
+        return target;
+    }
+
+    /**
+     * Retrieves the block to go to.
+     * @return a list with the target.
+     */
+    public List<BasicBlock> getTargets()
+    {
+        return Collections.singletonList(target);
+    }
+
+    /**
+     * Changes the block to go to.
+     * @param oldTarget the current target.
+     * @param newTarget the new target.
+     */
+    public void replaceTarget(BasicBlock oldTarget, BasicBlock newTarget)
+    {
+        if(target == oldTarget)
+        {
+            target = newTarget;
+        }
+    }
+
+    /**
+     * Jumps end their block.
+     * @return true.
+     */
+    public boolean isTerminator()
+    {
+        return true;
+    }
+
+    /**
+     * Jumps change where the program goes.
+     * @return true.
+     */
+    public boolean hasSideEffects()
+    {
+        return true;
+    }
+
+    /**
+     * Writes the operation.
+     * @return "jump" and the target.
+     */
+    protected String describe()
+    {
+        return "jump B" + target.getId();
+    }
+}
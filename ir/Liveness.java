@@ -0,0 +1,122 @@
+package ir;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Liveness finds the temps that are live at the start and at the end of every
+ * block of a function: those whose current value may still be used. An operand
+ * of a phi instruction is used at the end of the matching predecessor, not in
+ * the block of the phi instruction, and the destinations of the phi
+ * instructions are defined at the start of their block.
+ * @author Aditya Ramanathan
+ * @version 10/19/26
+ */
+public class Liveness
+{
+    private final Map<BasicBlock, Set<Temp>> liveIn;
+    private final Map<BasicBlock, Set<Temp>> liveOut;
+
+    /**
+     * Computes the live temps of a function.
+     * @param function the function.
+     */
+    public Liveness(Function function)
+    {
+        List<BasicBlock> blocks = function.getBlocks();
+        Map<BasicBlock, Set<Temp>> uses = new HashMap<BasicBlock, Set<Temp>>();
+        Map<BasicBlock, Set<Temp>> defs = new HashMap<BasicBlock, Set<Temp>>();
+        Map<BasicBlock, Set<Temp>> phiUses = new HashMap<BasicBlock, Set<Temp>>();
+        liveIn = new HashMap<BasicBlock, Set<Temp>>();
+        liveOut = new HashMap<BasicBlock, Set<Temp>>();
+        for(BasicBlock block: blocks)
+        {
+            uses.put(block, new HashSet<Temp>());
+            defs.put(block, new HashSet<Temp>());
+            phiUses.put(block, new HashSet<Temp>());
+            liveIn.put(block, new HashSet<Temp>());
+            liveOut.put(block, new HashSet<Temp>());
+        }
+        for(BasicBlock block: blocks)
+        {
+            Set<Temp> use = uses.get(block);
+            Set<Temp> def = defs.get(block);
+            for(Instruction inst: block.getInstructions())
+            {
+                if(inst instanceof PhiInstruction)
+                {
+                    for(int i = 0; i < inst.getOperands().size(); i++)
+                    {
+                        if(inst.getOperand(i) instanceof Temp)
+                        {
+                            phiUses.get(block.getPreds().get(i)).add((Temp) inst.getOperand(i));
+                        }
+                    }
+                }
+                else
+                {
+                    for(Operand operand: inst.getOperands())
+                    {
+                        if(operand instanceof Temp && !def.contains(operand))
+                        {
+                            use.add((Temp) operand);
+                        }
+                    }
+                }
+                if(inst.getDest() != null)
+                {
+                    def.add(inst.getDest());
+                }
+            }
+        }
+
+        boolean changed = true;
+        while(changed)
+        {
+            changed = false;
+            for(int i = blocks.size() - 1; i >= 0; i--)
+            {
+                BasicBlock block = blocks.get(i);
+                Set<Temp> out = new HashSet<Temp>(phiUses.get(block));
+                for(BasicBlock succ: block.getSuccessors())
+                {
+                    out.addAll(liveIn.get(succ));
+                }
+                Set<Temp> in = new HashSet<Temp>(out);
+                in.removeAll(defs.get(block));
+                in.addAll(uses.get(block));
+                if(!out.equals(liveOut.get(block)) || !in.equals(liveIn.get(block)))
+                {
+                    liveOut.put(block, out);
+                    liveIn.put(block, in);
+                    changed = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * Retrieves the temps live at the start of a block, not counting the
+     * destinations of its phi instructions.
+     * @param block the block.
+     * @return the live temps.
+     */
+    public Set<Temp> getLiveIn(BasicBlock block)
+    {
+        return liveIn.get(block);
+    }
+
+    /**
+     * Retrieves the temps live at the end of a block, including the operands
+     * that phi instructions of its successors take from it.
+     * @param block the block.
+     * @return the live temps.
+     */
+    public Set<Temp> getLiveOut(BasicBlock block)
+    {
+        return liveOut.get(block);
+    }
+}
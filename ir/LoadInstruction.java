@@ -0,0 +1,41 @@
+package ir;
+
+/**
+ * A LoadInstruction reads a variable that is kept in memory, because a
+ * procedure call may read or change it.
+ * @author Aditya Ramanathan
+ * @version 10/19/26
+ */
+public class LoadInstruction extends Instruction
+{
+    private final String var;
+
+    /**
+     * Creates a load.
+     * @param dest the temp that receives the value.
+     * @param var the name of the global variable.
+     */
+    public LoadInstruction(Temp dest, String var)
+    {
+        super(dest);
+        this.var = var;
+    }
+
+    /**
+     * Retrieves the name of the variable.
+     * @return the name of the variable.
+     */
+    public String getVarName()
+    {
+        return var;
+    }
+
+    /**
+     * Writes the operation.
+     * @return the name of the variable, in brackets.
+     */
+    protected String describe()
+    {
+        return "[" + var + "]";
+    }
+}
@@ -0,0 +1,12 @@
+package ir;
+
+/**
+ * An Operand is a value used by an instruction of the intermediate
+ * representation: either a Constant or a Temp holding the result of another
+ * instruction.
+ * @author Aditya Ramanathan
+ * @version 10/19/26
+ */
+public abstract class Operand
+{
+}
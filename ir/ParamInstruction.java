@@ -0,0 +1,41 @@
+package ir;
+
+/**
+ * A ParamInstruction receives the value of one argument of a procedure. The
+ * parameters are received in the entry block of the procedure.
+ * @author Aditya Ramanathan
+ * @version 10/19/26
+ */
+public class ParamInstruction extends Instruction
+{
+    private final int index;
+
+    /**
+     * Creates a parameter.
+     * @param dest the temp that receives the argument.
+     * @param index the position of the parameter.
+     */
+    public ParamInstruction(Temp dest, int index)
+    {
+        super(dest);
+        this.index = index;
+    }
+
+    /**
+     * Retrieves the position of the parameter.
+     * @return the position of the parameter, starting at 0.
+     */
+    public int getIndex()
+    {
+        return index;
+    }
+
+    /**
+     * Writes the operation.
+     * @return "param" and the position.
+     */
+    protected String describe()
+    {
+        return "param " + index;
+    }
+}
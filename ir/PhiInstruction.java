@@ -0,0 +1,30 @@
+package ir;
+
+/**
+ * A PhiInstruction chooses between values depending on which block ran before
+ * its own. It has one operand for each predecessor of its block, in the same
+ * order as BasicBlock.getPreds(). Phi instructions come before the other
+ * instructions of a block, and are removed by SSA destruction.
+ * @author Aditya Ramanathan
+ * @version 10/19/26
+ */
+public class PhiInstruction extends Instruction
+{
+    /**
+     * Creates a phi instruction with no operands yet.
+     * @param dest the temp that receives the chosen value.
+     */
+    public PhiInstruction(Temp dest)
+    {
+        super(dest);
+    }
+
+    /**
+     * Writes the operation.
+     * @return "phi" and the operands.
+     */
+    protected String describe()
+    {
+        return "phi" + getOperands().toString().replace('[', '(').replace(']', ')');
+    }
+}
@@ -0,0 +1,36 @@
+package ir;
+
+/**
+ * A PrintInstruction prints a value on its own line, as WRITELN does.
+ * @author Aditya Ramanathan
+ * @version 10/19/26
+ */
+public class PrintInstruction extends Instruction
+{
+    /**
+     * Creates a print.
+     * @param value the value to print.
+     */
+    public PrintInstruction(Operand value)
+    {
+        super(null, value);
+    }
+
+    /**
+     * Printing is output.
+     * @return true.
+     */
+    public boolean hasSideEffects()
+    {
+        return true;
+    }
+
+    /**
+     * Writes the operation.
+     * @return "print" and the value.
+     */
+    protected String describe()
+    {
+        return "print " + getOperand(0);
+    }
+}
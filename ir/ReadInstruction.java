@@ -0,0 +1,36 @@
+package ir;
+
+/**
+ * A ReadInstruction reads an integer from the input, as READLN does.
+ * @author Aditya Ramanathan
+ * @version 10/19/26
+ */
+public class ReadInstruction extends Instruction
+{
+    /**
+     * Creates a read.
+     * @param dest the temp that receives the value.
+     */
+    public ReadInstruction(Temp dest)
+    {
+        super(dest);
+    }
+
+    /**
+     * Reading consumes input, so it is kept even if the value is unused.
+     * @return true.
+     */
+    public boolean hasSideEffects()
+    {
+        return true;
+    }
+
+    /**
+     * Writes the operation.
+     * @return "read".
+     */
+    protected String describe()
+    {
+        return "read";
+    }
+}
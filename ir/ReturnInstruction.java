@@ -0,0 +1,55 @@
+package ir;
+
+/**
+ * A ReturnInstruction ends a procedure, giving the value of its return
+ * variable to the caller, or ends the program when it is in the main block
+ * of code.
+ * @author Aditya Ramanathan
+ * @version 10/19/26
+ */
+public class ReturnInstruction extends Instruction
+{
+    /**
+     * Creates a return from a procedure.
+     * @param value the value returned.
+     */
+    public ReturnInstruction(Operand value)
+    {
+        super(null, value);
+    }
+
+    /**
+     * Creates the end of the program.
+     */
+    public ReturnInstruction()
+    {
+        super(null);
+    }
+
+    /**
+     * Returns end their block.
+     * @return true.
+     */
+    public boolean isTerminator()
+    {
+        return true;
+    }
+
+    /**
+     * Returns change where the program goes.
+     * @return true.
+     */
+    public boolean hasSideEffects()
+    {
+        return true;
+    }
+
+    /**
+     * Writes the operation.
+     * @return "return" and the value, if there is one.
+     */
+    protected String describe()
+    {
+        return getOperands().isEmpty() ? "exit" : "return " + getOperand(0);
+    }
+}
@@ -0,0 +1,373 @@
+package ir;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * SsaDestruction replaces the phi instructions of a function by copies, so
+ * that code can be generated for it. First, every edge from a block with
+ * several successors into a block with phi instructions gets a block of its
+ * own, where the copies for that edge can go. Then each phi instruction and
+ * its operands are merged into one temp wherever their values are never live
+ * at the same time, which is the usual case for a variable changed in a loop
+ * or an IF statement, so that no copy is needed at all. The operands that are
+ * left are copied at the end of the predecessors; all the copies of an edge
+ * happen at once, so when two phi instructions swap values a spare temp is
+ * used to break the cycle.
+ * @author Aditya Ramanathan
+ * @version 10/19/26
+ */
+public class SsaDestruction
+{
+    private int copies;
+    private int coalesced;
+
+    /**
+     * Takes a function out of SSA form.
+     * @param function the function in SSA form, with no unreachable blocks.
+     * @postcondition the function has no phi instructions.
+     */
+    public void destroy(Function function)
+    {
+        splitEdges(function);
+        Map<Temp, Temp> classes = coalesce(function);
+        for(BasicBlock block: function.getBlocks())
+        {
+            for(Instruction inst: block.getInstructions())
+            {
+                if(inst.getDest() != null)
+                {
+                    inst.setDest(find(classes, inst.getDest()));
+                }
+                List<Operand> operands = inst.getOperands();
+                for(int i = 0; i < operands.size(); i++)
+                {
+                    if(operands.get(i) instanceof Temp)
+                    {
+                        operands.set(i, find(classes, (Temp) operands.get(i)));
+                    }
+                }
+            }
+        }
+        for(BasicBlock block: new ArrayList<BasicBlock>(function.getBlocks()))
+        {
+            List<PhiInstruction> phis = block.getPhis();
+            if(phis.isEmpty())
+            {
+                continue;
+            }
+            for(int i = 0; i < block.getPreds().size(); i++)
+            {
+                List<Temp> dests = new ArrayList<Temp>();
+                List<Operand> sources = new ArrayList<Operand>();
+                for(PhiInstruction phi: phis)
+                {
+                    if(phi.getOperand(i) != phi.getDest())
+                    {
+                        dests.add(phi.getDest());
+                        sources.add(phi.getOperand(i));
+                    }
+                }
+                sequentialize(function, block.getPreds().get(i), dests, sources);
+            }
+            block.getInstructions().removeAll(phis);
+        }
+        removeEmptyBlocks(function);
+    }
+
+    /**
+     * Removes the blocks that only jump to another block, such as edge blocks
+     * that did not need any copies, by sending their predecessors straight to
+     * the block they jump to.
+     * @param function the function, with no phi instructions.
+     */
+    private static void removeEmptyBlocks(Function function)
+    {
+        for(BasicBlock block: new ArrayList<BasicBlock>(function.getBlocks()))
+        {
+            List<Instruction> insts = block.getInstructions();
+            if(block == function.getEntry() || insts.size() != 1
+                    || !(insts.get(0) instanceof JumpInstruction))
+            {
+                continue;
+            }
+            BasicBlock target = ((JumpInstruction) insts.get(0)).getTarget();
+            if(target == block)
+            {
+                continue;
+            }
+            target.getPreds().remove(block);
+            for(BasicBlock pred: block.getPreds())
+            {
+                pred.getTerminator().replaceTarget(block, target);
+                target.getPreds().add(pred);
+            }
+            function.getBlocks().remove(block);
+        }
+    }
+
+    /**
+     * Retrieves the number of copies added.
+     * @return the number of copies added in place of phi instructions.
+     */
+    public int getCopies()
+    {
+        return copies;
+    }
+
+    /**
+     * Retrieves the number of temps merged into the temp of a phi instruction.
+     * @return the number of temps merged.
+     */
+    public int getCoalesced()
+    {
+        return coalesced;
+    }
+
+    /**
+     * Splits the edges from blocks that branch into blocks with phi instructions.
+     * @param function the function.
+     */
+    private static void splitEdges(Function function)
+    {
+        for(BasicBlock block: new ArrayList<BasicBlock>(function.getBlocks()))
+        {
+            if(block.getPhis().isEmpty())
+            {
+                continue;
+            }
+            for(BasicBlock pred: new ArrayList<BasicBlock>(block.getPreds()))
+            {
+                if(pred.getSuccessors().size() > 1)
+                {
+                    function.splitEdge(pred, block);
+                }
+            }
+        }
+    }
+
+    /**
+     * Merges the destination of each phi instruction with those of its operands
+     * that never live at the same time as it.
+     * @param function the function.
+     * @return the temp each merged temp was merged into.
+     */
+    private Map<Temp, Temp> coalesce(Function function)
+    {
+        Map<Temp, Set<Temp>> interference = interference(function);
+        Map<Temp, Temp> classes = new HashMap<Temp, Temp>();
+        Map<Temp, Set<Temp>> members = new HashMap<Temp, Set<Temp>>();
+        for(BasicBlock block: function.getBlocks())
+        {
+            for(PhiInstruction phi: block.getPhis())
+            {
+                for(Operand operand: phi.getOperands())
+                {
+                    if(!(operand instanceof Temp))
+                    {
+                        continue;
+                    }
+                    Temp root1 = find(classes, phi.getDest());
+                    Temp root2 = find(classes, (Temp) operand);
+                    if(root1 == root2)
+                    {
+                        continue;
+                    }
+                    Set<Temp> class1 = members(members, root1);
+                    Set<Temp> class2 = members(members, root2);
+                    if(interferes(interference, class1, class2))
+                    {
+                        continue;
+                    }
+                    classes.put(root2, root1);
+                    class1.addAll(class2);
+                    members.remove(root2);
+                    coalesced++;
+                }
+            }
+        }
+        return classes;
+    }
+
+    /**
+     * Finds which temps are live at the same time, from the definition of
+     * each temp and the temps live there.
+     * @param function the function in SSA form.
+     * @return the temps each temp is live at the same time as.
+     */
+    private static Map<Temp, Set<Temp>> interference(Function function)
+    {
+        Liveness liveness = new Liveness(function);
+        Map<Temp, Set<Temp>> interference = new HashMap<Temp, Set<Temp>>();
+        for(BasicBlock block: function.getBlocks())
+        {
+            Set<Temp> live = new HashSet<Temp>(liveness.getLiveOut(block));
+            List<Instruction> insts = block.getInstructions();
+            for(int i = insts.size() - 1; i >= 0; i--)
+            {
+                Instruction inst = insts.get(i);
+                if(inst instanceof PhiInstruction)
+                {
+                    break;
+                }
+                if(inst.getDest() != null)
+                {
+                    live.remove(inst.getDest());
+                    interfere(interference, inst.getDest(), live);
+                }
+                for(Operand operand: inst.getOperands())
+                {
+                    if(operand instanceof Temp)
+                    {
+                        live.add((Temp) operand);
+                    }
+                }
+            }
+            for(PhiInstruction phi: block.getPhis())
+            {
+                live.add(phi.getDest());
+            }
+            for(PhiInstruction phi: block.getPhis())
+            {
+                interfere(interference, phi.getDest(), live);
+            }
+        }
+        return interference;
+    }
+
+    /**
+     * Records that a temp is live at the same time as others.
+     * @param interference the temps each temp is live at the same time as.
+     * @param temp the temp.
+     * @param live the temps live where temp is defined.
+     */
+    private static void interfere(Map<Temp, Set<Temp>> interference, Temp temp, Set<Temp> live)
+    {
+        for(Temp other: live)
+        {
+            if(other != temp)
+            {
+                neighbors(interference, temp).add(other);
+                neighbors(interference, other).add(temp);
+            }
+        }
+    }
+
+    /**
+     * Determines whether any temp of one class is live at the same time as
+     * any temp of another.
+     * @param interference the temps each temp is live at the same time as.
+     * @param class1 the first class.
+     * @param class2 the second class.
+     * @return true if the classes cannot be merged.
+     */
+    private static boolean interferes(Map<Temp, Set<Temp>> interference,
+                                      Set<Temp> class1, Set<Temp> class2)
+    {
+        for(Temp temp: class1)
+        {
+            for(Temp other: neighbors(interference, temp))
+            {
+                if(class2.contains(other))
+                {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Retrieves the temps a temp is live at the same time as.
+     * @param interference the temps each temp is live at the same time as.
+     * @param temp the temp.
+     * @return the set of neighbors, created if there is none yet.
+     */
+    private static Set<Temp> neighbors(Map<Temp, Set<Temp>> interference, Temp temp)
+    {
+        Set<Temp> set = interference.get(temp);
+        if(set == null)
+        {
+            set = new HashSet<Temp>();
+            interference.put(temp, set);
+        }
+        return set;
+    }
+
+    /**
+     * Retrieves the temps merged into a temp.
+     * @param members the members of each class, by the temp it is merged into.
+     * @param root the temp the class is merged into.
+     * @return the members, created with the root alone if there is none yet.
+     */
+    private static Set<Temp> members(Map<Temp, Set<Temp>> members, Temp root)
+    {
+        Set<Temp> set = members.get(root);
+        if(set == null)
+        {
+            set = new HashSet<Temp>();
+            set.add(root);
+            members.put(root, set);
+        }
+        return set;
+    }
+
+    /**
+     * Finds the temp a temp has been merged into.
+     * @param classes the temp each merged temp was merged into.
+     * @param temp the temp.
+     * @return the temp that stands for the whole class.
+     */
+    private static Temp find(Map<Temp, Temp> classes, Temp temp)
+    {
+        while(classes.containsKey(temp))
+        {
+            temp = classes.get(temp);
+        }
+        return temp;
+    }
+
+    /**
+     * Adds copies to the end of a block that together set each destination to
+     * its source as if all of them happened at once.
+     * @param function the function.
+     * @param block the block.
+     * @param dests the temps to set, all different.
+     * @param sources the values to set them to.
+     */
+    private void sequentialize(Function function, BasicBlock block, List<Temp> dests, List<Operand> sources)
+    {
+        while(!dests.isEmpty())
+        {
+            int ready = -1;
+            for(int i = 0; i < dests.size() && ready < 0; i++)
+            {
+                if(!sources.contains(dests.get(i)))
+                {
+                    ready = i;
+                }
+            }
+            if(ready < 0)
+            {
+                Temp spare = function.newTemp();
+                Temp saved = dests.get(0);
+                block.insertBeforeTerminator(new CopyInstruction(spare, saved));
+                copies++;
+                for(int i = 0; i < sources.size(); i++)
+                {
+                    if(sources.get(i) == saved)
+                    {
+                        sources.set(i, spare);
+                    }
+                }
+                continue;
+            }
+            block.insertBeforeTerminator(new CopyInstruction(dests.remove(ready), sources.remove(ready)));
+            copies++;
+        }
+    }
+}
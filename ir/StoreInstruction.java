@@ -0,0 +1,49 @@
+package ir;
+
+/**
+ * A StoreInstruction writes a variable that is kept in memory.
+ * @author Aditya Ramanathan
+ * @version 10/19/26
+ */
+public class StoreInstruction extends Instruction
+{
+    private final String var;
+
+    /**
+     * Creates a store.
+     * @param var the name of the global variable.
+     * @param value the value to store.
+     */
+    public StoreInstruction(String var, Operand value)
+    {
+        super(null, value);
+        this.var = var;
+    }
+
+    /**
+     * Retrieves the name of the variable.
+     * @return the name of the variable.
+     */
+    public String getVarName()
+    {
+        return var;
+    }
+
+    /**
+     * Stores always change memory.
+     * @return true.
+     */
+    public boolean hasSideEffects()
+    {
+        return true;
+    }
+
+    /**
+     * Writes the operation.
+     * @return the variable and the value stored in it.
+     */
+    protected String describe()
+    {
+        return "[" + var + "] = " + getOperand(0);
+    }
+}
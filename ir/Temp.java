@@ -0,0 +1,41 @@
+package ir;
+
+/**
+ * A Temp is a virtual register. While a function is in SSA form, each temp is
+ * defined by exactly one instruction; after SSA destruction the copies that
+ * replace phi instructions may define a temp more than once. Temps are only
+ * equal to themselves.
+ * @author Aditya Ramanathan
+ * @version 10/19/26
+ */
+public class Temp extends Operand
+{
+    private final int id;
+
+    /**
+     * Creates a temp. Temps are created by Function.newTemp().
+     * @param id the number of the temp, unique within its function.
+     */
+    Temp(int id)
+    {
+        this.id = id;
+    }
+
+    /**
+     * Retrieves the number of the temp.
+     * @return the number of the temp.
+     */
+    public int getId()
+    {
+        return id;
+    }
+
+    /**
+     * Writes the temp.
+     * @return "t" followed by the number of the temp.
+     */
+    public String toString()
+    {
+        return "t" + id;
+    }
+}
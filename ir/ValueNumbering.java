@@ -0,0 +1,108 @@
+package ir;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ValueNumbering removes instructions that compute a value already computed by
+ * an instruction that dominates them (global common subexpression
+ * elimination). It walks the dominator tree with a table of the operations
+ * seen on the way from the entry: an operation found in the table is replaced
+ * by the temp that already holds its value. The operands of "+" and "*" are
+ * put in a fixed order first, so that a + b and b + a are found to be equal.
+ * Only operations without side effects are numbered; loads are not, since a
+ * store or a call between two loads may change the variable.
+ * @author Aditya Ramanathan
+ * @version 10/19/26
+ */
+public class ValueNumbering
+{
+    private int removed;
+
+    /**
+     * Numbers the values of a function.
+     * @param function the function in SSA form, with no unreachable blocks.
+     * @return true if the function changed.
+     */
+    public boolean run(Function function)
+    {
+        int before = removed;
+        Dominators doms = new Dominators(function);
+        number(function, doms, function.getEntry(), new HashMap<String, Temp>());
+        return removed > before;
+    }
+
+    /**
+     * Retrieves the number of instructions removed.
+     * @return the number of redundant instructions removed.
+     */
+    public int getRemoved()
+    {
+        return removed;
+    }
+
+    /**
+     * Numbers the values of a block and then of the blocks it dominates.
+     * @param function the function.
+     * @param doms the dominator tree.
+     * @param block the block.
+     * @param table the operations computed by the dominators of the block.
+     * @postcondition table is the same as before the call.
+     */
+    private void number(Function function, Dominators doms, BasicBlock block, Map<String, Temp> table)
+    {
+        List<String> added = new ArrayList<String>();
+        Iterator<Instruction> it = block.getInstructions().iterator();
+        while(it.hasNext())
+        {
+            Instruction inst = it.next();
+            if(!(inst instanceof BinaryInstruction) || inst.hasSideEffects())
+            {
+                continue;
+            }
+            String key = key((BinaryInstruction) inst);
+            Temp known = table.get(key);
+            if(known != null)
+            {
+                it.remove();
+                function.replaceUses(inst.getDest(), known);
+                removed++;
+            }
+            else
+            {
+                table.put(key, inst.getDest());
+                added.add(key);
+            }
+        }
+        for(BasicBlock child: doms.getChildren(block))
+        {
+            number(function, doms, child, table);
+        }
+        for(String key: added)
+        {
+            table.remove(key);
+        }
+    }
+
+    /**
+     * Writes an operation so that equal operations have equal keys.
+     * @param inst the instruction.
+     * @return the operator and the operands, in a fixed order if the operator
+     * is commutative.
+     */
+    private static String key(BinaryInstruction inst)
+    {
+        String left = inst.getOperand(0).toString();
+        String right = inst.getOperand(1).toString();
+        if(inst.isCommutative() && left.compareTo(right) > 0)
+        {
+            String swap = left;
+            left = right;
+            right = swap;
+        }
+        return left + " " + inst.getOp() + " " + right;
+    }
+}
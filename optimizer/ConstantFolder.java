@@ -0,0 +1,431 @@
+package optimizer;
+import ast.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The ConstantFolder simplifies the expressions and conditions of a program
+ * before it is executed or compiled. It computes operations whose operands are
+ * both constants, applies identities such as x + 0 = x and x * 1 = x, removes
+ * double negations (the parser turns every unary minus into a multiplication
+ * by -1), computes intrinsics such as MAX whose arguments are all constants,
+ * and replaces IF and WHILE statements whose conditions compare two
+ * constants by the statement(s) that would run.
+ *
+ * Arithmetic wraps around at 32 bits, just like Java ints and the MIPS addu,
+ * subu and mult instructions, so folding never changes a result. Divisions by
+ * zero, and the division of the smallest int by -1, are left for the program
+ * to perform. An operand is only dropped (as in x * 0 = 0) when evaluating it
+ * could not call a procedure or divide by zero.
+ *
+ * Usage:
+ * ConstantFolder folder = new ConstantFolder();
+ * Program folded = folder.fold(program);
+ *
+ * @author Aditya Ramanathan
+ * @version 10/19/26
+ */
+public class ConstantFolder extends AstRewriter
+{
+    private int foldedExpressions;
+    private int foldedBranches;
+
+    /**
+     * Folds every procedure and the main statement of a program.
+     * @param program the program to fold.
+     * @return the folded program; the original is not changed.
+     */
+    public Program fold(Program program)
+    {
+        return rewriteProgram(program);
+    }
+
+    /**
+     * Retrieves the number of operations that were computed or simplified away.
+     * @return the number of expressions folded.
+     */
+    public int getFoldedExpressions()
+    {
+        return foldedExpressions;
+    }
+
+    /**
+     * Retrieves the number of IF and WHILE statements whose conditions were
+     * constant, and which were replaced by the statement(s) that would run.
+     * @return the number of branches folded.
+     */
+    public int getFoldedBranches()
+    {
+        return foldedBranches;
+    }
+
+    /**
+     * Folds a statement. IF and WHILE statements with constant conditions are
+     * replaced, and blocks nested directly in blocks are merged into them.
+     * @param st the statement to fold.
+     * @return the folded statement.
+     */
+    public Statement rewriteStatement(Statement st)
+    {
+        Statement folded;
+        if(st instanceof If)
+        {
+            If ifSt = (If) st;
+            Condition cond = rewriteCondition(ifSt.getCondition());
+            Boolean value = valueOf(cond);
+            if(value == null)
+            {
+                Statement then = rewriteStatement(ifSt.getStatement());
+                if(ifSt.getElseStatement() == null)
+                {
+                    folded = new If(cond, then);
+                }
+                else
+                {
+                    folded = new If(cond, then, rewriteStatement(ifSt.getElseStatement()));
+                }
+            }
+            else
+            {
+                foldedBranches++;
+                if(value)
+                {
+                    return rewriteStatement(ifSt.getStatement());
+                }
+                if(ifSt.getElseStatement() != null)
+                {
+                    return rewriteStatement(ifSt.getElseStatement());
+                }
+                folded = new Block(new ArrayList<Statement>());
+            }
+        }
+        else if(st instanceof While)
+        {
+            While loop = (While) st;
+            Condition cond = rewriteCondition(loop.getCondition());
+            Boolean value = valueOf(cond);
+            if(value == null || value)
+            {
+                folded = new While(cond, rewriteStatement(loop.getStatement()));
+            }
+            else
+            {
+                foldedBranches++;
+                folded = new Block(new ArrayList<Statement>());
+            }
+        }
+        else if(st instanceof Block)
+        {
+            List<Statement> stmts = new ArrayList<Statement>();
+            for(Statement child: ((Block) st).getStatements())
+            {
+                Statement foldedChild = rewriteStatement(child);
+                if(foldedChild instanceof Block)
+                {
+                    stmts.addAll(((Block) foldedChild).getStatements());
+                }
+                else
+                {
+                    stmts.add(foldedChild);
+                }
+            }
+            folded = new Block(stmts);
+        }
+        else
+        {
+            return super.rewriteStatement(st);
+        }
+        folded.setLine(st.getLine());
+        return folded;
+    }
+
+    /**
+     * Folds an expression, starting with its operands.
+     * @param exp the expression to fold.
+     * @return the folded expression.
+     */
+    public Expression rewriteExpression(Expression exp)
+    {
+        if(exp instanceof Intrinsic)
+        {
+            return foldIntrinsic((Intrinsic) super.rewriteExpression(exp));
+        }
+        if(!(exp instanceof BinOp))
+        {
+            return super.rewriteExpression(exp);
+        }
+        BinOp binOp = (BinOp) exp;
+        Expression exp1 = rewriteExpression(binOp.getExp1());
+        Expression exp2 = rewriteExpression(binOp.getExp2());
+        Expression folded = simplify(binOp.getOp(), exp1, exp2);
+        if(folded == null)
+        {
+            return new BinOp(binOp.getOp(), exp1, exp2);
+        }
+        foldedExpressions++;
+        return folded;
+    }
+
+    /**
+     * Computes an intrinsic whose arguments have already been folded.
+     * @param intrinsic the intrinsic.
+     * @return its value, if every argument is a constant, or the intrinsic.
+     */
+    private Expression foldIntrinsic(Intrinsic intrinsic)
+    {
+        int[] values = new int[intrinsic.getArgs().size()];
+        for(int i = 0; i < values.length; i++)
+        {
+            Expression arg = intrinsic.getArgs().get(i);
+            if(!(arg instanceof ast.Number))
+            {
+                return intrinsic;
+            }
+            values[i] = ((ast.Number) arg).getValue();
+        }
+        foldedExpressions++;
+        return new ast.Number(Intrinsic.apply(intrinsic.getName(), values));
+    }
+
+    /**
+     * Simplifies one operation whose operands have already been folded.
+     * @param op the operator, one of "+", "-", "*", "/" and "%".
+     * @param exp1 the folded first operand.
+     * @param exp2 the folded second operand.
+     * @return the simplified expression, or null if it cannot be simplified.
+     */
+    private Expression simplify(String op, Expression exp1, Expression exp2)
+    {
+        if(exp1 instanceof ast.Number && exp2 instanceof ast.Number)
+        {
+            int value1 = ((ast.Number) exp1).getValue();
+            int value2 = ((ast.Number) exp2).getValue();
+            if((op.equals("/") || op.equals("%"))
+                    && (value2 == 0 || (value1 == Integer.MIN_VALUE && value2 == -1)))
+            {
+                return null;
+            }
+            return new ast.Number(new BinOp(op, exp1, exp2).apply(value1, value2));
+        }
+        if(op.equals("+"))
+        {
+            if(isConstant(exp1, 0))
+            {
+                return exp2;
+            }
+            if(isConstant(exp2, 0))
+            {
+                return exp1;
+            }
+            if(negated(exp2) != null)
+            {
+                return new BinOp("-", exp1, negated(exp2));
+            }
+            if(exp1 instanceof ast.Number)
+            {
+                return addConstant(exp2, ((ast.Number) exp1).getValue());
+            }
+            if(exp2 instanceof ast.Number)
+            {
+                return addConstant(exp1, ((ast.Number) exp2).getValue());
+            }
+        }
+        else if(op.equals("-"))
+        {
+            if(isConstant(exp2, 0))
+            {
+                return exp1;
+            }
+            if(negated(exp2) != null)
+            {
+                return new BinOp("+", exp1, negated(exp2));
+            }
+        }
+        else if(op.equals("*"))
+        {
+            if(isConstant(exp1, 1))
+            {
+                return exp2;
+            }
+            if(isConstant(exp2, 1))
+            {
+                return exp1;
+            }
+            if((isConstant(exp1, 0) && canDrop(exp2)) || (isConstant(exp2, 0) && canDrop(exp1)))
+            {
+                return new ast.Number(0);
+            }
+            if(isConstant(exp1, -1))
+            {
+                return negate(exp2);
+            }
+            if(isConstant(exp2, -1))
+            {
+                return negate(exp1);
+            }
+        }
+        else if(op.equals("/"))
+        {
+            if(isConstant(exp2, 1))
+            {
+                return exp1;
+            }
+        }
+        else if(op.equals("%"))
+        {
+            if((isConstant(exp2, 1) || isConstant(exp2, -1)) && canDrop(exp1))
+            {
+                return new ast.Number(0);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Adds a constant to an expression that is itself the sum of an expression
+     * and a constant, so that the two constants become one.
+     * @param exp the expression the constant is added to.
+     * @param value the constant.
+     * @return the simplified sum, or null if exp does not add a constant.
+     */
+    private Expression addConstant(Expression exp, int value)
+    {
+        if(!(exp instanceof BinOp) || !((BinOp) exp).getOp().equals("+"))
+        {
+            return null;
+        }
+        BinOp sum = (BinOp) exp;
+        Expression rest;
+        int constant;
+        if(sum.getExp1() instanceof ast.Number)
+        {
+            rest = sum.getExp2();
+            constant = ((ast.Number) sum.getExp1()).getValue();
+        }
+        else if(sum.getExp2() instanceof ast.Number)
+        {
+            rest = sum.getExp1();
+            constant = ((ast.Number) sum.getExp2()).getValue();
+        }
+        else
+        {
+            return null;
+        }
+        ast.Number total = new ast.Number(constant + value);
+        Expression simplified = simplify("+", rest, total);
+        return simplified == null ? new BinOp("+", rest, total) : simplified;
+    }
+
+    /**
+     * Negates an expression, removing a negation or folding the sign into a
+     * constant factor where possible.
+     * @param exp the folded expression to negate.
+     * @return an expression whose value is -exp, or null if the negation cannot
+     * be simplified.
+     */
+    private Expression negate(Expression exp)
+    {
+        if(negated(exp) != null)
+        {
+            return negated(exp);
+        }
+        if(exp instanceof BinOp && ((BinOp) exp).getOp().equals("*"))
+        {
+            BinOp product = (BinOp) exp;
+            if(product.getExp1() instanceof ast.Number)
+            {
+                return new BinOp("*", new ast.Number(-((ast.Number) product.getExp1()).getValue()),
+                        product.getExp2());
+            }
+            if(product.getExp2() instanceof ast.Number)
+            {
+                return new BinOp("*", product.getExp1(),
+                        new ast.Number(-((ast.Number) product.getExp2()).getValue()));
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Finds the expression that a negation negates.
+     * @param exp the expression to look at.
+     * @return x if exp is -1 * x or x * -1, or null otherwise.
+     */
+    private static Expression negated(Expression exp)
+    {
+        if(!(exp instanceof BinOp) || !((BinOp) exp).getOp().equals("*"))
+        {
+            return null;
+        }
+        BinOp product = (BinOp) exp;
+        if(isConstant(product.getExp1(), -1))
+        {
+            return product.getExp2();
+        }
+        if(isConstant(product.getExp2(), -1))
+        {
+            return product.getExp1();
+        }
+        return null;
+    }
+
+    /**
+     * Determines whether an expression is a particular constant.
+     * @param exp the expression.
+     * @param value the constant.
+     * @return true if exp is a Number with the value.
+     */
+    private static boolean isConstant(Expression exp, int value)
+    {
+        return exp instanceof ast.Number && ((ast.Number) exp).getValue() == value;
+    }
+
+    /**
+     * Determines whether an expression could be left out without changing what
+     * the program does, which is when it calls no procedures and does not divide.
+     * Intrinsics are like operators, since they cannot fail.
+     * @param exp the expression.
+     * @return true if evaluating exp has no effect other than its value.
+     */
+    static boolean canDrop(Expression exp)
+    {
+        if(exp instanceof ast.Number || exp instanceof Variable)
+        {
+            return true;
+        }
+        if(exp instanceof BinOp)
+        {
+            BinOp binOp = (BinOp) exp;
+            return !binOp.getOp().equals("/") && !binOp.getOp().equals("%")
+                    && canDrop(binOp.getExp1()) && canDrop(binOp.getExp2());
+        }
+        if(exp instanceof Intrinsic)
+        {
+            for(Expression arg: ((Intrinsic) exp).getArgs())
+            {
+                if(!canDrop(arg))
+                {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Finds the value of a condition that compares two constants.
+     * @param cond the folded condition.
+     * @return the value of the condition, or null if it is not constant.
+     */
+    private static Boolean valueOf(Condition cond)
+    {
+        if(cond.getLeft() instanceof ast.Number && cond.getRight() instanceof ast.Number)
+        {
+            return cond.test(((ast.Number) cond.getLeft()).getValue(),
+                    ((ast.Number) cond.getRight()).getValue());
+        }
+        return null;
+    }
+}
@@ -0,0 +1,368 @@
+package optimizer;
+import ast.*;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The DeadCodeEliminator removes the parts of a program that can never affect
+ * what it prints: procedures that cannot be called from the main block of code,
+ * assignments whose values are never read, and the variables that are then no
+ * longer used. Fewer procedures and variables mean less code to compile and
+ * smaller stack frames.
+ *
+ * Procedures are found by following calls from the main block of code. A
+ * variable is read if an expression anywhere in the remaining code uses its
+ * name; the interpreter looks names up through the environments of the active
+ * calls, so a procedure may read a variable of its caller, and names are the
+ * only safe way to tell variables apart. Return variables are always read,
+ * by the caller. An assignment to a variable that is never read is removed if
+ * its expression calls no procedure and does not divide. So is an assignment
+ * that is certainly overwritten, later in the same block, before the variable
+ * could be read or any procedure called. READLN statements are never removed,
+ * since they consume input. Removing code can make more code dead, so the
+ * analysis is repeated until nothing changes.
+ *
+ * Usage:
+ * DeadCodeEliminator eliminator = new DeadCodeEliminator();
+ * Program smaller = eliminator.eliminate(program);
+ *
+ * @author Aditya Ramanathan
+ * @version 10/19/26
+ */
+public class DeadCodeEliminator
+{
+    private int removedProcedures;
+    private int removedAssignments;
+    private int removedVariables;
+
+    /**
+     * Removes the dead procedures, assignments and variables of a program.
+     * @param program the program to shrink.
+     * @return the program without dead code; the original is not changed.
+     */
+    public Program eliminate(Program program)
+    {
+        boolean changed = true;
+        while(changed)
+        {
+            Program reachable = removeUnreachable(program);
+            Set<String> read = readNames(reachable);
+            Sweeper sweeper = new Sweeper(read);
+            Program swept = sweeper.rewriteProgram(reachable);
+            Program trimmed = removeUnusedVariables(swept, read);
+            changed = sweeper.removed > 0;
+            removedAssignments += sweeper.removed;
+            program = trimmed;
+        }
+        return program;
+    }
+
+    /**
+     * Retrieves the number of procedures removed because they cannot be called.
+     * @return the number of procedures removed.
+     */
+    public int getRemovedProcedures()
+    {
+        return removedProcedures;
+    }
+
+    /**
+     * Retrieves the number of assignments removed because their values are
+     * never read.
+     * @return the number of assignments removed.
+     */
+    public int getRemovedAssignments()
+    {
+        return removedAssignments;
+    }
+
+    /**
+     * Retrieves the number of global and local variables removed.
+     * @return the number of variables removed.
+     */
+    public int getRemovedVariables()
+    {
+        return removedVariables;
+    }
+
+    /**
+     * Removes the procedures that cannot be reached by following calls from
+     * the main block of code.
+     * @param program the program.
+     * @return the program with only the reachable procedures, in their order.
+     */
+    private Program removeUnreachable(Program program)
+    {
+        Set<String> reachable = new HashSet<String>();
+        LinkedList<String> work = new LinkedList<String>();
+        work.addAll(callees(program.getStatement()));
+        while(!work.isEmpty())
+        {
+            String name = work.removeFirst();
+            ProcedureDeclaration dec = program.getProcedure(name);
+            if(dec != null && reachable.add(name))
+            {
+                work.addAll(callees(dec.getStatement()));
+            }
+        }
+
+        List<ProcedureDeclaration> decs = new ArrayList<ProcedureDeclaration>();
+        for(ProcedureDeclaration dec: program.getProcedureDeclarations())
+        {
+            if(reachable.contains(dec.getName()))
+            {
+                decs.add(dec);
+            }
+        }
+        if(decs.size() == program.getProcedureDeclarations().size())
+        {
+            return program;
+        }
+        removedProcedures += program.getProcedureDeclarations().size() - decs.size();
+        return new Program(decs, program.getStatement(), program.getVariables());
+    }
+
+    /**
+     * Finds the names of the procedures that a statement calls directly.
+     * @param st the statement.
+     * @return the names of the procedures called.
+     */
+    private static List<String> callees(Statement st)
+    {
+        List<String> names = new ArrayList<String>();
+        new AstWalker()
+        {
+            public void visitExpression(Expression exp)
+            {
+                if(exp instanceof ProcedureCall)
+                {
+                    names.add(((ProcedureCall) exp).getName());
+                }
+                super.visitExpression(exp);
+            }
+        }.visitStatement(st);
+        return names;
+    }
+
+    /**
+     * Finds every name that the program reads.
+     * @param program the program.
+     * @return the names used by expressions, and the names of the procedures.
+     */
+    private static Set<String> readNames(Program program)
+    {
+        Set<String> read = new HashSet<String>();
+        for(ProcedureDeclaration dec: program.getProcedureDeclarations())
+        {
+            read.add(dec.getName());
+        }
+        new AstWalker()
+        {
+            public void visitExpression(Expression exp)
+            {
+                if(exp instanceof Variable)
+                {
+                    read.add(((Variable) exp).getName());
+                }
+                super.visitExpression(exp);
+            }
+        }.walkProgram(program);
+        return read;
+    }
+
+    /**
+     * Removes the global and local variables that are neither read nor written
+     * any more. Parameters are kept, since the callers pass them.
+     * @param program the program.
+     * @param read the names that the program reads.
+     * @return the program without the unused variables.
+     */
+    private Program removeUnusedVariables(Program program, Set<String> read)
+    {
+        Set<String> used = new HashSet<String>(read);
+        new AstWalker()
+        {
+            public void visitStatement(Statement st)
+            {
+                if(st instanceof Assignment)
+                {
+                    used.add(((Assignment) st).getVarName());
+                }
+                else if(st instanceof Readln)
+                {
+                    used.add(((Readln) st).getVarName());
+                }
+                super.visitStatement(st);
+            }
+        }.walkProgram(program);
+
+        List<ProcedureDeclaration> decs = new ArrayList<ProcedureDeclaration>();
+        for(ProcedureDeclaration dec: program.getProcedureDeclarations())
+        {
+            List<String> locals = new ArrayList<String>();
+            for(String var: dec.getLocalVariables())
+            {
+                if(used.contains(var) || dec.getParms().contains(var))
+                {
+                    locals.add(var);
+                }
+            }
+            if(locals.size() == dec.getLocalVariables().size())
+            {
+                decs.add(dec);
+            }
+            else
+            {
+                removedVariables += dec.getLocalVariables().size() - locals.size();
+                ProcedureDeclaration copy = new ProcedureDeclaration(dec.getName(),
+                        dec.getStatement(), dec.getParms(), locals);
+                copy.setLine(dec.getLine());
+                decs.add(copy);
+            }
+        }
+
+        List<String> vars = new ArrayList<String>();
+        for(String var: program.getVariables())
+        {
+            if(used.contains(var))
+            {
+                vars.add(var);
+            }
+        }
+        removedVariables += program.getVariables().size() - vars.size();
+        return new Program(decs, program.getStatement(), vars);
+    }
+
+    /**
+     * Determines whether a statement could read a variable or call a
+     * procedure. Assigning to the variable does not count as reading it.
+     * @param st the statement.
+     * @param var the name of the variable.
+     * @return true if the statement calls a procedure or uses the name in an
+     * expression.
+     */
+    private static boolean mayRead(Statement st, String var)
+    {
+        boolean[] reads = new boolean[1];
+        new AstWalker()
+        {
+            public void visitExpression(Expression exp)
+            {
+                if(exp instanceof ProcedureCall
+                        || (exp instanceof Variable && ((Variable) exp).getName().equals(var)))
+                {
+                    reads[0] = true;
+                }
+                super.visitExpression(exp);
+            }
+        }.visitStatement(st);
+        return reads[0];
+    }
+
+    /**
+     * Copies a program without the assignments whose values are never read.
+     */
+    private static class Sweeper extends AstRewriter
+    {
+        private final Set<String> read;
+        private int removed;
+
+        /**
+         * Creates a sweeper.
+         * @param read the names that the program reads.
+         */
+        Sweeper(Set<String> read)
+        {
+            this.read = read;
+        }
+
+        /**
+         * Removes dead assignments from a block, and replaces a dead assignment
+         * that is not in a block by an empty block.
+         * @param st the statement to sweep.
+         * @return the swept statement.
+         */
+        public Statement rewriteStatement(Statement st)
+        {
+            if(st instanceof Assignment && isDead((Assignment) st))
+            {
+                removed++;
+                Block empty = new Block(new ArrayList<Statement>());
+                empty.setLine(st.getLine());
+                return empty;
+            }
+            if(!(st instanceof Block))
+            {
+                return super.rewriteStatement(st);
+            }
+
+            List<Statement> stmts = ((Block) st).getStatements();
+            List<Statement> kept = new ArrayList<Statement>();
+            for(int i = 0; i < stmts.size(); i++)
+            {
+                Statement child = stmts.get(i);
+                if(child instanceof Assignment && isOverwritten(stmts, i))
+                {
+                    removed++;
+                }
+                else if(child instanceof Assignment && isDead((Assignment) child))
+                {
+                    removed++;
+                }
+                else
+                {
+                    kept.add(rewriteStatement(child));
+                }
+            }
+            Block block = new Block(kept);
+            block.setLine(st.getLine());
+            return block;
+        }
+
+        /**
+         * Determines whether an assignment stores a value that is never read.
+         * @param assignment the assignment.
+         * @return true if the variable is never read and the expression can be
+         * left out.
+         */
+        private boolean isDead(Assignment assignment)
+        {
+            return !read.contains(assignment.getVarName())
+                    && ConstantFolder.canDrop(assignment.getExpression());
+        }
+
+        /**
+         * Determines whether the assignment at an index of a block is certainly
+         * overwritten by a later assignment of the block before it is read.
+         * @param stmts the statements of the block.
+         * @param index the index of an assignment that can be left out.
+         * @return true if the value of the assignment can never be read.
+         */
+        private boolean isOverwritten(List<Statement> stmts, int index)
+        {
+            Assignment assignment = (Assignment) stmts.get(index);
+            String var = assignment.getVarName();
+            if(!ConstantFolder.canDrop(assignment.getExpression()))
+            {
+                return false;
+            }
+            for(int j = index + 1; j < stmts.size(); j++)
+            {
+                Statement later = stmts.get(j);
+                if(mayRead(later, var))
+                {
+                    return false;
+                }
+                if(later instanceof Assignment && ((Assignment) later).getVarName().equals(var))
+                {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
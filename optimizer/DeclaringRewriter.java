@@ -0,0 +1,79 @@
+package optimizer;
+import ast.*;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * A DeclaringRewriter is an AstRewriter for the passes that add new variables
+ * to a program, such as the Inliner and the loop optimizations. A variable
+ * declared while the main block of code is rewritten becomes a global
+ * variable, and one declared while a procedure is rewritten becomes a local
+ * variable of that procedure.
+ * @author Aditya Ramanathan
+ * @version 10/19/26
+ */
+public abstract class DeclaringRewriter extends AstRewriter
+{
+    private List<String> newVariables; // for the procedure or main block being rewritten
+
+    /**
+     * Rewrites the program, declaring the new global variables of the main
+     * block of code.
+     * @param program the program.
+     * @return the rewritten program.
+     */
+    public Program rewriteProgram(Program program)
+    {
+        List<ProcedureDeclaration> decs = new ArrayList<ProcedureDeclaration>();
+        for(ProcedureDeclaration dec: program.getProcedureDeclarations())
+        {
+            decs.add(rewriteProcedure(dec));
+        }
+        newVariables = new ArrayList<String>(program.getVariables());
+        Statement st = rewriteStatement(program.getStatement());
+        return new Program(decs, st, newVariables);
+    }
+
+    /**
+     * Rewrites a procedure, declaring its new local variables.
+     * @param dec the procedure.
+     * @return the rewritten procedure.
+     */
+    public ProcedureDeclaration rewriteProcedure(ProcedureDeclaration dec)
+    {
+        newVariables = new ArrayList<String>(dec.getLocalVariables());
+        ProcedureDeclaration copy = super.rewriteProcedure(dec);
+        if(newVariables.size() == dec.getLocalVariables().size())
+        {
+            return copy;
+        }
+        ProcedureDeclaration withLocals = new ProcedureDeclaration(copy.getName(),
+                copy.getStatement(), copy.getParms(), newVariables);
+        withLocals.setLine(copy.getLine());
+        return withLocals;
+    }
+
+    /**
+     * Declares new variables in the procedure or main block being rewritten.
+     * @param names the names of the variables.
+     * @postcondition the variables are declared when the procedure or the
+     * program is rebuilt.
+     */
+    protected void declare(Collection<String> names)
+    {
+        newVariables.addAll(names);
+    }
+
+    /**
+     * Declares a new variable in the procedure or main block being rewritten.
+     * @param name the name of the variable.
+     * @postcondition the variable is declared when the procedure or the
+     * program is rebuilt.
+     */
+    protected void declare(String name)
+    {
+        newVariables.add(name);
+    }
+}
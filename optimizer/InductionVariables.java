@@ -0,0 +1,309 @@
+package optimizer;
+import ast.*;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * InductionVariables replaces multiplications of a loop counter by a constant
+ * or an invariant variable with additions. A counter (a basic induction
+ * variable) is a variable that a WHILE loop changes only by one statement
+ * i := i + c, i := c + i or i := i - c, with c a constant, at the top level
+ * of the loop. Every product i * k in the loop then gets a new variable that
+ * is set to i * k before the loop and moved on by c * k right after the
+ * counter is, so that it equals i * k everywhere in the loop:
+ *     WHILE i < n DO BEGIN sum := sum + i * 4; i := i + 1; END;
+ * becomes
+ *     induction_1 := i * 4;
+ *     WHILE i < n DO BEGIN sum := sum + induction_1; i := i + 1;
+ *         induction_1 := induction_1 + 4; END;
+ * Arithmetic wraps around at 32 bits, so the sums always equal the products.
+ * When k is a variable, it must not change in the loop and the step must be
+ * 1 or -1, so that the new variable moves by k. The variables that may change
+ * are found by LoopEffects; a counter that a called procedure may assign is
+ * not a counter. The new variables are named like those of the
+ * LoopInvariantMotion and declared in the same way.
+ *
+ * Usage:
+ * InductionVariables induction = new InductionVariables();
+ * Program reduced = induction.reduce(program);
+ *
+ * @author Aditya Ramanathan
+ * @version 10/19/26
+ */
+public class InductionVariables extends DeclaringRewriter
+{
+    private LoopEffects effects;
+    private int reduced;
+
+    /**
+     * Replaces the products of counters in every loop of a program.
+     * @param program the program.
+     * @return the program with the products replaced; the original is not changed.
+     */
+    public Program reduce(Program program)
+    {
+        effects = new LoopEffects(program);
+        return rewriteProgram(program);
+    }
+
+    /**
+     * Retrieves the number of products of counters replaced by new variables.
+     * @return the number of induction variables added.
+     */
+    public int getReduced()
+    {
+        return reduced;
+    }
+
+    /**
+     * Replaces the products of the counters of a WHILE loop, after those of
+     * the loops inside it.
+     * @param st the statement.
+     * @return the rewritten statement, which for a loop with products of
+     * counters is a block that sets the new variables and then runs the loop.
+     */
+    public Statement rewriteStatement(Statement st)
+    {
+        Statement copy = super.rewriteStatement(st);
+        if(!(copy instanceof While) || effects.reenters((While) copy, getProcedureContext()))
+        {
+            return copy;
+        }
+        While loop = (While) copy;
+        Set<String> variant = effects.variant(loop);
+        List<Statement> stmts = new ArrayList<Statement>();
+        if(loop.getStatement() instanceof Block)
+        {
+            stmts.addAll(((Block) loop.getStatement()).getStatements());
+        }
+        else
+        {
+            stmts.add(loop.getStatement());
+        }
+
+        List<Statement> before = new ArrayList<Statement>();
+        Condition cond = loop.getCondition();
+        for(int index = 0; index < stmts.size(); index++)
+        {
+            Integer step = step(stmts.get(index));
+            if(step == null)
+            {
+                continue;
+            }
+            String counter = ((Assignment) stmts.get(index)).getVarName();
+            if(assignments(loop.getStatement(), counter) == 1
+                    && !effects.callWrites(loop).contains(counter))
+            {
+                Replacer replacer = new Replacer(counter, step, variant);
+                cond = replacer.rewriteCondition(cond);
+                for(int j = 0; j < stmts.size(); j++)
+                {
+                    if(j != index)
+                    {
+                        stmts.set(j, replacer.rewriteStatement(stmts.get(j)));
+                    }
+                }
+                int inserted = 0;
+                for(Map.Entry<String, Expression> entry: replacer.factors.entrySet())
+                {
+                    String var = replacer.temps.get(entry.getKey());
+                    before.add(at(new Assignment(var, new BinOp("*", new Variable(counter),
+                            entry.getValue())), st.getLine()));
+                    Expression increment = entry.getValue() instanceof ast.Number
+                            ? new ast.Number(step * ((ast.Number) entry.getValue()).getValue())
+                            : entry.getValue();
+                    String op = entry.getValue() instanceof ast.Number || step > 0 ? "+" : "-";
+                    inserted++;
+                    stmts.add(index + inserted, at(new Assignment(var,
+                            new BinOp(op, new Variable(var), increment)), st.getLine()));
+                }
+                index += inserted;
+            }
+        }
+        if(before.isEmpty())
+        {
+            return copy;
+        }
+        Block body = new Block(stmts);
+        body.setLine(loop.getStatement().getLine());
+        before.add(at(new While(cond, body), st.getLine()));
+        return at(new Block(before), st.getLine());
+    }
+
+    /**
+     * Finds how much a statement changes a counter.
+     * @param st the statement.
+     * @return c for i := i + c or i := c + i, -c for i := i - c, or null if
+     * the statement is not of those forms.
+     */
+    private static Integer step(Statement st)
+    {
+        if(!(st instanceof Assignment) || !(((Assignment) st).getExpression() instanceof BinOp))
+        {
+            return null;
+        }
+        String var = ((Assignment) st).getVarName();
+        BinOp binOp = (BinOp) ((Assignment) st).getExpression();
+        if(binOp.getOp().equals("+") && isVariable(binOp.getExp1(), var)
+                && binOp.getExp2() instanceof ast.Number)
+        {
+            return ((ast.Number) binOp.getExp2()).getValue();
+        }
+        if(binOp.getOp().equals("+") && isVariable(binOp.getExp2(), var)
+                && binOp.getExp1() instanceof ast.Number)
+        {
+            return ((ast.Number) binOp.getExp1()).getValue();
+        }
+        if(binOp.getOp().equals("-") && isVariable(binOp.getExp1(), var)
+                && binOp.getExp2() instanceof ast.Number)
+        {
+            return -((ast.Number) binOp.getExp2()).getValue();
+        }
+        return null;
+    }
+
+    /**
+     * Counts the statements in a loop that assign a variable or read it with
+     * READLN.
+     * @param st the statement(s) of the loop.
+     * @param var the name of the variable.
+     * @return the number of statements that change var.
+     */
+    private static int assignments(Statement st, String var)
+    {
+        int[] count = new int[1];
+        new AstWalker()
+        {
+            public void visitStatement(Statement st)
+            {
+                if((st instanceof Assignment && ((Assignment) st).getVarName().equals(var))
+                        || (st instanceof Readln && ((Readln) st).getVarName().equals(var)))
+                {
+                    count[0]++;
+                }
+                super.visitStatement(st);
+            }
+        }.visitStatement(st);
+        return count[0];
+    }
+
+    /**
+     * Determines whether an expression is a particular variable.
+     * @param exp the expression.
+     * @param var the name of the variable.
+     * @return true if exp is a Variable with the name.
+     */
+    private static boolean isVariable(Expression exp, String var)
+    {
+        return exp instanceof Variable && ((Variable) exp).getName().equals(var);
+    }
+
+    /**
+     * Sets the line of a new statement.
+     * @param st the statement.
+     * @param line the line.
+     * @return the statement.
+     */
+    private static Statement at(Statement st, int line)
+    {
+        st.setLine(line);
+        return st;
+    }
+
+    /**
+     * Replaces the products of one counter by new variables.
+     */
+    private class Replacer extends AstRewriter
+    {
+        private final String counter;
+        private final int step;
+        private final Set<String> variant;
+        private final Map<String, String> temps;
+        private final Map<String, Expression> factors;
+
+        /**
+         * Creates a replacer.
+         * @param counter the name of the counter.
+         * @param step how much the counter changes on each iteration.
+         * @param variant the variables that may change while the loop runs.
+         */
+        Replacer(String counter, int step, Set<String> variant)
+        {
+            this.counter = counter;
+            this.step = step;
+            this.variant = variant;
+            temps = new LinkedHashMap<String, String>();
+            factors = new LinkedHashMap<String, Expression>();
+        }
+
+        /**
+         * Replaces a product of the counter and a constant or invariant
+         * variable by the variable that holds its value.
+         * @param exp the expression.
+         * @return the rewritten expression.
+         */
+        public Expression rewriteExpression(Expression exp)
+        {
+            Expression factor = factor(exp);
+            if(factor == null)
+            {
+                return super.rewriteExpression(exp);
+            }
+            String key = factor instanceof ast.Number
+                    ? String.valueOf(((ast.Number) factor).getValue()) : ((Variable) factor).getName();
+            String temp = temps.get(key);
+            if(temp == null)
+            {
+                reduced++;
+                temp = "induction_" + reduced;
+                temps.put(key, temp);
+                factors.put(key, factor);
+                declare(temp);
+            }
+            return new Variable(temp);
+        }
+
+        /**
+         * Finds what an expression multiplies the counter by.
+         * @param exp the expression.
+         * @return k if exp is counter * k or k * counter, where k is a constant
+         * or, when the step is 1 or -1, a variable that does not change in the
+         * loop; null otherwise.
+         */
+        private Expression factor(Expression exp)
+        {
+            if(!(exp instanceof BinOp) || !((BinOp) exp).getOp().equals("*"))
+            {
+                return null;
+            }
+            BinOp product = (BinOp) exp;
+            Expression other;
+            if(isVariable(product.getExp1(), counter))
+            {
+                other = product.getExp2();
+            }
+            else if(isVariable(product.getExp2(), counter))
+            {
+                other = product.getExp1();
+            }
+            else
+            {
+                return null;
+            }
+            if(other instanceof ast.Number)
+            {
+                return new ast.Number(((ast.Number) other).getValue());
+            }
+            if(other instanceof Variable && (step == 1 || step == -1)
+                    && !variant.contains(((Variable) other).getName()))
+            {
+                return new Variable(((Variable) other).getName());
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,457 @@
+package optimizer;
+import ast.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The Inliner replaces calls to small procedures by the statement(s) of the
+ * procedure, which saves the cost of the call: a new Environment in the
+ * interpreter, and the pushes, the jal and the stack frame in the compiled code.
+ *
+ * A procedure is inlined when its body calls no procedures, so it cannot be
+ * recursive, and has at most as many nodes as the size budget. Only calls that
+ * are the whole expression of an assignment or a WRITELN are inlined:
+ *     x := max(a, b);
+ * becomes
+ *     max_1_x := a; max_1_y := b; max_1_max := 0;
+ *     (the body of max, using the new names)
+ *     x := max_1_max;
+ * The parameters, local variables and return variable of the procedure get
+ * new names, which cannot clash with any name in the source because the
+ * scanner does not allow underscores. They become global variables when the
+ * call is in the main block of code, and local variables of the calling
+ * procedure otherwise. Local variables start at 0, like the stack slots of
+ * the compiled procedure. A call in a procedure is not inlined when one of its
+ * arguments calls a procedure, since that call could run the procedure again
+ * and overwrite the new variables of the outer run before they are read.
+ *
+ * Any other name in the body refers to whatever the caller sees by that name,
+ * both before and after inlining, except when the call is in a procedure that
+ * has a parameter or local variable with that name. Those calls are not
+ * inlined. Inlining a procedure can make its caller small enough and free of
+ * calls, so inlining is repeated until nothing changes.
+ *
+ * With an ExecutionProfile of the program, the budget depends on how often
+ * each call ran: calls that ran at least HOT_CALLS times may inline procedures
+ * HOT_FACTOR times the size, and calls that never ran are not inlined, since
+ * that would only make the program bigger.
+ *
+ * Usage:
+ * Inliner inliner = new Inliner(Inliner.DEFAULT_BUDGET);
+ * Program inlined = inliner.inline(program);
+ * System.out.println(inliner.getInlinedSites());
+ *
+ * @author Aditya Ramanathan
+ * @version 10/19/26
+ */
+public class Inliner extends DeclaringRewriter
+{
+    public static final int DEFAULT_BUDGET = 16;
+    public static final int HOT_CALLS = 10;
+    public static final int HOT_FACTOR = 4;
+
+    private final int budget;
+    private final ExecutionProfile profile;
+    private final Map<Expression, Expression> origins; // the call of the profiled program each copy came from
+    private final List<String> inlinedSites;
+    private Program program;
+    private Set<String> candidates;
+    private int sites;
+
+    /**
+     * Creates an inliner.
+     * @param budget the largest number of nodes in the body of a procedure that
+     * may be inlined.
+     */
+    public Inliner(int budget)
+    {
+        this(budget, null);
+    }
+
+    /**
+     * Creates an inliner that uses a profile of the program to decide which
+     * calls to inline.
+     * @param budget the largest number of nodes in the body of a procedure that
+     * may be inlined at a call that is not hot.
+     * @param profile the profile, or null to treat every call alike.
+     */
+    public Inliner(int budget, ExecutionProfile profile)
+    {
+        this.budget = budget;
+        this.profile = profile;
+        origins = new IdentityHashMap<Expression, Expression>();
+        inlinedSites = new ArrayList<String>();
+    }
+
+    /**
+     * Inlines the calls to small procedures until none are left. Procedures
+     * that are no longer called are not removed; the DeadCodeEliminator does that.
+     * @param program the program.
+     * @return the program with the calls inlined; the original is not changed.
+     */
+    public Program inline(Program program)
+    {
+        if(profile != null)
+        {
+            profile.attach(program);
+        }
+        int largest = profile == null ? budget : budget * HOT_FACTOR;
+        int before = -1;
+        while(sites != before)
+        {
+            before = sites;
+            this.program = program;
+            candidates = new HashSet<String>();
+            for(ProcedureDeclaration dec: program.getProcedureDeclarations())
+            {
+                if(!callsProcedures(dec.getStatement())
+                        && Metrics.countNodes(dec.getStatement()) <= largest)
+                {
+                    candidates.add(dec.getName());
+                }
+            }
+            if(candidates.isEmpty())
+            {
+                break;
+            }
+            program = rewriteProgram(program);
+        }
+        return program;
+    }
+
+    /**
+     * Retrieves a description of every call that was inlined, such as
+     * "line 35: max into main".
+     * @return the inlined calls, in the order they were inlined.
+     */
+    public List<String> getInlinedSites()
+    {
+        return inlinedSites;
+    }
+
+    /**
+     * Inlines the call of an assignment or WRITELN, if it can be inlined.
+     * @param st the statement.
+     * @return the rewritten statement.
+     */
+    public Statement rewriteStatement(Statement st)
+    {
+        if(st instanceof Assignment && canInline(((Assignment) st).getExpression()))
+        {
+            Assignment assignment = (Assignment) st;
+            return inline((ProcedureCall) assignment.getExpression(), st.getLine(),
+                    result -> new Assignment(assignment.getVarName(), result));
+        }
+        if(st instanceof Writeln && canInline(((Writeln) st).getExpression()))
+        {
+            return inline((ProcedureCall) ((Writeln) st).getExpression(), st.getLine(),
+                    result -> new Writeln(result));
+        }
+        return super.rewriteStatement(st);
+    }
+
+    /**
+     * Copies an expression, remembering which profiled call a copied call
+     * came from.
+     * @param exp the expression.
+     * @return the copy.
+     */
+    public Expression rewriteExpression(Expression exp)
+    {
+        Expression copy = super.rewriteExpression(exp);
+        if(exp instanceof ProcedureCall)
+        {
+            origins.put(copy, origins.getOrDefault(exp, exp));
+        }
+        return copy;
+    }
+
+    /**
+     * Determines whether an expression is a call that can be inlined where it is.
+     * @param exp the expression.
+     * @return true if exp calls a small enough procedure whose free names do
+     * not clash with the names of the procedure being rewritten.
+     */
+    private boolean canInline(Expression exp)
+    {
+        if(!(exp instanceof ProcedureCall) || !candidates.contains(((ProcedureCall) exp).getName()))
+        {
+            return false;
+        }
+        ProcedureDeclaration callee = program.getProcedure(((ProcedureCall) exp).getName());
+        if(Metrics.countNodes(callee.getStatement()) > budgetFor((ProcedureCall) exp))
+        {
+            return false;
+        }
+        ProcedureDeclaration caller = getProcedureContext();
+        if(caller == null)
+        {
+            return true;
+        }
+        for(Expression arg: ((ProcedureCall) exp).getArgs())
+        {
+            if(callsProcedures(arg))
+            {
+                return false;
+            }
+        }
+        for(String name: freeNames(callee))
+        {
+            if(name.equals(caller.getName()) || caller.getLocalVariables().contains(name))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Finds the largest procedure that may be inlined at a call.
+     * @param call the call.
+     * @return the budget, which depends on how often the call ran if there is
+     * a profile.
+     */
+    private int budgetFor(ProcedureCall call)
+    {
+        if(profile == null)
+        {
+            return budget;
+        }
+        long calls = profile.getCalls((ProcedureCall) origins.getOrDefault(call, call));
+        if(calls < 0)
+        {
+            return 0;
+        }
+        return calls >= HOT_CALLS ? budget * HOT_FACTOR : budget;
+    }
+
+    /**
+     * Replaces a call by the body of the procedure.
+     * @param call the call.
+     * @param line the line of the statement with the call.
+     * @param use creates the statement that uses the value of the call.
+     * @return a block that sets the parameters, runs the body and uses the value.
+     */
+    private Statement inline(ProcedureCall call, int line, ResultUse use)
+    {
+        ProcedureDeclaration callee = program.getProcedure(call.getName());
+        sites++;
+        String prefix = callee.getName() + "_" + sites + "_";
+        ProcedureDeclaration caller = getProcedureContext();
+        inlinedSites.add("line " + line + ": " + callee.getName() + " into "
+                + (caller == null ? "main" : caller.getName()));
+
+        Map<String, String> names = new HashMap<String, String>();
+        names.put(callee.getName(), prefix + callee.getName());
+        for(String var: callee.getLocalVariables())
+        {
+            names.put(var, prefix + var);
+        }
+        declare(names.values());
+
+        List<Statement> stmts = new ArrayList<Statement>();
+        List<String> parms = callee.getParms();
+        for(int i = 0; i < parms.size(); i++)
+        {
+            stmts.add(at(new Assignment(names.get(parms.get(i)),
+                    rewriteExpression(call.getArgs().get(i))), line));
+        }
+        for(String var: callee.getLocalVariables())
+        {
+            if(!parms.contains(var))
+            {
+                stmts.add(at(new Assignment(names.get(var), new ast.Number(0)), line));
+            }
+        }
+        stmts.add(at(new Assignment(names.get(callee.getName()), new ast.Number(0)), line));
+
+        Statement body = new Renamer(names).rewriteStatement(callee.getStatement());
+        if(body instanceof Block)
+        {
+            stmts.addAll(((Block) body).getStatements());
+        }
+        else
+        {
+            stmts.add(body);
+        }
+        stmts.add(at(use.apply(new Variable(names.get(callee.getName()))), line));
+        return at(new Block(stmts), line);
+    }
+
+    /**
+     * Sets the line of a new statement.
+     * @param st the statement.
+     * @param line the line.
+     * @return the statement.
+     */
+    private static Statement at(Statement st, int line)
+    {
+        st.setLine(line);
+        return st;
+    }
+
+    /**
+     * Determines whether a statement calls any procedure.
+     * @param st the statement.
+     * @return true if an expression in the statement is a procedure call.
+     */
+    private static boolean callsProcedures(Statement st)
+    {
+        CallFinder finder = new CallFinder();
+        finder.visitStatement(st);
+        return finder.found;
+    }
+
+    /**
+     * Determines whether an expression calls any procedure.
+     * @param exp the expression.
+     * @return true if exp is or contains a procedure call.
+     */
+    private static boolean callsProcedures(Expression exp)
+    {
+        CallFinder finder = new CallFinder();
+        finder.visitExpression(exp);
+        return finder.found;
+    }
+
+    /**
+     * Finds the names a procedure uses that are not its own parameters, local
+     * variables or return variable.
+     * @param dec the procedure.
+     * @return the free names of the procedure.
+     */
+    private static Set<String> freeNames(ProcedureDeclaration dec)
+    {
+        Set<String> free = new HashSet<String>();
+        new AstWalker()
+        {
+            public void visitStatement(Statement st)
+            {
+                if(st instanceof Assignment)
+                {
+                    free.add(((Assignment) st).getVarName());
+                }
+                else if(st instanceof Readln)
+                {
+                    free.add(((Readln) st).getVarName());
+                }
+                super.visitStatement(st);
+            }
+
+            public void visitExpression(Expression exp)
+            {
+                if(exp instanceof Variable)
+                {
+                    free.add(((Variable) exp).getName());
+                }
+                super.visitExpression(exp);
+            }
+        }.visitStatement(dec.getStatement());
+        free.remove(dec.getName());
+        free.removeAll(dec.getLocalVariables());
+        return free;
+    }
+
+    /**
+     * Looks for a procedure call.
+     */
+    private static class CallFinder extends AstWalker
+    {
+        private boolean found;
+
+        /**
+         * Notes whether an expression is a call.
+         * @param exp the expression.
+         */
+        public void visitExpression(Expression exp)
+        {
+            found |= exp instanceof ProcedureCall;
+            super.visitExpression(exp);
+        }
+    }
+
+    /**
+     * Creates the statement that uses the value of an inlined call.
+     */
+    private interface ResultUse
+    {
+        /**
+         * Creates the statement.
+         * @param result the variable holding the value of the call.
+         * @return the statement that uses it.
+         */
+        Statement apply(Expression result);
+    }
+
+    /**
+     * Copies a statement, giving some of its variables new names.
+     */
+    private static class Renamer extends AstRewriter
+    {
+        private final Map<String, String> names;
+
+        /**
+         * Creates a renamer.
+         * @param names the new name of each renamed variable.
+         */
+        Renamer(Map<String, String> names)
+        {
+            this.names = names;
+        }
+
+        /**
+         * Renames the variable of an assignment or READLN.
+         * @param st the statement.
+         * @return the renamed copy.
+         */
+        public Statement rewriteStatement(Statement st)
+        {
+            Statement copy;
+            if(st instanceof Assignment)
+            {
+                copy = new Assignment(rename(((Assignment) st).getVarName()),
+                        rewriteExpression(((Assignment) st).getExpression()));
+            }
+            else if(st instanceof Readln)
+            {
+                copy = new Readln(rename(((Readln) st).getVarName()));
+            }
+            else
+            {
+                return super.rewriteStatement(st);
+            }
+            copy.setLine(st.getLine());
+            return copy;
+        }
+
+        /**
+         * Renames a variable.
+         * @param exp the expression.
+         * @return the renamed copy.
+         */
+        public Expression rewriteExpression(Expression exp)
+        {
+            if(exp instanceof Variable)
+            {
+                return new Variable(rename(((Variable) exp).getName()));
+            }
+            return super.rewriteExpression(exp);
+        }
+
+        /**
+         * Finds the new name of a variable.
+         * @param name the name.
+         * @return the new name, or the name itself if it is not renamed.
+         */
+        private String rename(String name)
+        {
+            return names.containsKey(name) ? names.get(name) : name;
+        }
+    }
+}
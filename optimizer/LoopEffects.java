@@ -0,0 +1,173 @@
+package optimizer;
+import ast.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * LoopEffects finds which variables may change while a WHILE loop runs, for
+ * the loop optimizations. A variable may change if the loop assigns it or
+ * reads it with READLN, or if the loop calls a procedure that assigns it,
+ * directly or through the procedures it calls. Since the interpreter looks
+ * names up through the environments of the active calls, a procedure may
+ * assign a variable of its caller with the same name, so any name a procedure
+ * assigns counts, except its parameters and its return variable.
+ * @author Aditya Ramanathan
+ * @version 10/19/26
+ */
+class LoopEffects
+{
+    private final Map<String, Set<String>> procedureWrites;
+    private final Map<String, Set<String>> procedureCalls;
+
+    /**
+     * Finds what every procedure of a program may assign and call.
+     * @param program the program.
+     */
+    LoopEffects(Program program)
+    {
+        procedureWrites = new HashMap<String, Set<String>>();
+        procedureCalls = new HashMap<String, Set<String>>();
+        for(ProcedureDeclaration dec: program.getProcedureDeclarations())
+        {
+            Set<String> writes = assignedNames(dec.getStatement());
+            writes.removeAll(dec.getParms());
+            writes.remove(dec.getName());
+            procedureWrites.put(dec.getName(), writes);
+            CallFinder finder = new CallFinder();
+            finder.visitStatement(dec.getStatement());
+            procedureCalls.put(dec.getName(), finder.names);
+        }
+        boolean changed = true;
+        while(changed)
+        {
+            changed = false;
+            for(String name: procedureCalls.keySet())
+            {
+                for(String callee: new ArrayList<String>(procedureCalls.get(name)))
+                {
+                    if(procedureCalls.containsKey(callee))
+                    {
+                        changed |= procedureCalls.get(name).addAll(procedureCalls.get(callee));
+                        changed |= procedureWrites.get(name).addAll(procedureWrites.get(callee));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Finds the procedures a loop may call, directly or through other procedures.
+     * @param loop the loop.
+     * @return the names of the procedures.
+     */
+    Set<String> callees(While loop)
+    {
+        CallFinder finder = new CallFinder();
+        finder.visitStatement(loop.getStatement());
+        finder.visitExpression(loop.getCondition().getLeft());
+        finder.visitExpression(loop.getCondition().getRight());
+        Set<String> calls = new HashSet<String>(finder.names);
+        for(String callee: finder.names)
+        {
+            if(procedureCalls.containsKey(callee))
+            {
+                calls.addAll(procedureCalls.get(callee));
+            }
+        }
+        return calls;
+    }
+
+    /**
+     * Finds the variables that procedures called in a loop may assign.
+     * @param loop the loop.
+     * @return the names of the variables.
+     */
+    Set<String> callWrites(While loop)
+    {
+        Set<String> names = new HashSet<String>();
+        for(String callee: callees(loop))
+        {
+            if(procedureWrites.containsKey(callee))
+            {
+                names.addAll(procedureWrites.get(callee));
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Finds the variables that may change while a loop runs.
+     * @param loop the loop.
+     * @return the names of the variables.
+     */
+    Set<String> variant(While loop)
+    {
+        Set<String> names = assignedNames(loop.getStatement());
+        names.addAll(callWrites(loop));
+        return names;
+    }
+
+    /**
+     * Determines whether a loop in a procedure may call the procedure again. The
+     * loop optimizations leave such loops alone, since the inner call would
+     * assign the same new variables in the interpreter.
+     * @param loop the loop.
+     * @param proc the procedure the loop is in, or null for the main block of code.
+     * @return true if the loop may call proc.
+     */
+    boolean reenters(While loop, ProcedureDeclaration proc)
+    {
+        return proc != null && callees(loop).contains(proc.getName());
+    }
+
+    /**
+     * Finds the variables a statement assigns or reads with READLN.
+     * @param st the statement.
+     * @return the names of the variables.
+     */
+    static Set<String> assignedNames(Statement st)
+    {
+        Set<String> names = new HashSet<String>();
+        new AstWalker()
+        {
+            public void visitStatement(Statement st)
+            {
+                if(st instanceof Assignment)
+                {
+                    names.add(((Assignment) st).getVarName());
+                }
+                else if(st instanceof Readln)
+                {
+                    names.add(((Readln) st).getVarName());
+                }
+                super.visitStatement(st);
+            }
+        }.visitStatement(st);
+        return names;
+    }
+
+    /**
+     * Collects the names of the procedures called by what it visits.
+     */
+    private static class CallFinder extends AstWalker
+    {
+        private final Set<String> names = new HashSet<String>();
+
+        /**
+         * Records a call.
+         * @param exp the expression.
+         */
+        public void visitExpression(Expression exp)
+        {
+            if(exp instanceof ProcedureCall)
+            {
+                names.add(((ProcedureCall) exp).getName());
+            }
+            super.visitExpression(exp);
+        }
+    }
+}
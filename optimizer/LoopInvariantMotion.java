@@ -0,0 +1,229 @@
+package optimizer;
+import ast.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * LoopInvariantMotion moves computations that give the same value on every
+ * iteration of a WHILE loop out of the loop, so that they are done once:
+ *     WHILE i < n * n DO i := i + k * 2;
+ * becomes
+ *     invariant_1 := n * n; invariant_2 := k * 2;
+ *     WHILE i < invariant_1 DO i := i + invariant_2;
+ * An operation is invariant when none of the variables it uses may change
+ * while the loop runs, as found by LoopEffects, which takes into account the
+ * variables that procedures called in the loop may assign.
+ * Only operations that cannot fail or call a procedure are moved: divisions
+ * are moved only when they divide by a constant other than 0. Moving such an
+ * operation in front of a loop that runs no times, or out of an IF statement
+ * in the loop, therefore changes nothing but the time taken.
+ *
+ * The new variables are named invariant_1, invariant_2 and so on, which
+ * cannot clash with names in the source since the scanner does not allow
+ * underscores. They become global variables for loops in the main block of
+ * code and local variables for loops in procedures. Loops in a procedure that
+ * might call that procedure again are left alone, since the inner call would
+ * assign the same variables. Inner loops are done first, so an operation can
+ * move out of several loops.
+ *
+ * Usage:
+ * LoopInvariantMotion motion = new LoopInvariantMotion();
+ * Program hoisted = motion.hoist(program);
+ *
+ * @author Aditya Ramanathan
+ * @version 10/19/26
+ */
+public class LoopInvariantMotion extends DeclaringRewriter
+{
+    private LoopEffects effects;
+    private int hoisted;
+    private int loops;
+
+    /**
+     * Moves the invariant operations out of every loop of a program.
+     * @param program the program.
+     * @return the program with the operations moved; the original is not changed.
+     */
+    public Program hoist(Program program)
+    {
+        effects = new LoopEffects(program);
+        return rewriteProgram(program);
+    }
+
+    /**
+     * Retrieves the number of operations moved out of loops.
+     * @return the number of operations moved.
+     */
+    public int getHoisted()
+    {
+        return hoisted;
+    }
+
+    /**
+     * Retrieves the number of loops that operations were moved out of.
+     * @return the number of loops changed.
+     */
+    public int getLoops()
+    {
+        return loops;
+    }
+
+    /**
+     * Moves the invariant operations out of a WHILE loop, after those of the
+     * loops inside it.
+     * @param st the statement.
+     * @return the rewritten statement, which for a loop with invariant
+     * operations is a block that computes them and then runs the loop.
+     */
+    public Statement rewriteStatement(Statement st)
+    {
+        Statement copy = super.rewriteStatement(st);
+        if(!(copy instanceof While))
+        {
+            return copy;
+        }
+        While loop = (While) copy;
+        if(effects.reenters(loop, getProcedureContext()))
+        {
+            return copy;
+        }
+
+        Hoister hoister = new Hoister(effects.variant(loop));
+        Condition cond = hoister.rewriteCondition(loop.getCondition());
+        Statement body = hoister.rewriteStatement(loop.getStatement());
+        if(hoister.temps.isEmpty())
+        {
+            return copy;
+        }
+        loops++;
+        List<Statement> stmts = new ArrayList<Statement>();
+        for(Map.Entry<String, Expression> entry: hoister.values.entrySet())
+        {
+            Assignment assignment = new Assignment(hoister.temps.get(entry.getKey()), entry.getValue());
+            assignment.setLine(st.getLine());
+            stmts.add(assignment);
+        }
+        While moved = new While(cond, body);
+        moved.setLine(st.getLine());
+        stmts.add(moved);
+        Block block = new Block(stmts);
+        block.setLine(st.getLine());
+        return block;
+    }
+
+    /**
+     * Writes an expression so that equal expressions are written the same.
+     * @param exp the expression.
+     * @return the expression with every operation in parentheses.
+     */
+    private static String key(Expression exp)
+    {
+        if(exp instanceof BinOp)
+        {
+            BinOp binOp = (BinOp) exp;
+            return "(" + key(binOp.getExp1()) + " " + binOp.getOp() + " " + key(binOp.getExp2()) + ")";
+        }
+        if(exp instanceof ast.Number)
+        {
+            return String.valueOf(((ast.Number) exp).getValue());
+        }
+        return ((Variable) exp).getName();
+    }
+
+    /**
+     * Replaces the invariant operations of one loop by new variables.
+     */
+    private class Hoister extends AstRewriter
+    {
+        private final Set<String> variant;
+        private final Map<String, String> temps;
+        private final Map<String, Expression> values;
+
+        /**
+         * Creates a hoister.
+         * @param variant the variables that may change in the loop.
+         */
+        Hoister(Set<String> variant)
+        {
+            this.variant = variant;
+            temps = new HashMap<String, String>();
+            values = new LinkedHashMap<String, Expression>();
+        }
+
+        /**
+         * Replaces an invariant operation by a variable that holds its value,
+         * using the same variable for equal operations.
+         * @param exp the expression.
+         * @return the rewritten expression.
+         */
+        public Expression rewriteExpression(Expression exp)
+        {
+            if(!(exp instanceof BinOp) || !isInvariant(exp) || !usesVariable(exp))
+            {
+                return super.rewriteExpression(exp);
+            }
+            String key = key(exp);
+            String temp = temps.get(key);
+            if(temp == null)
+            {
+                hoisted++;
+                temp = "invariant_" + hoisted;
+                temps.put(key, temp);
+                values.put(key, exp);
+                declare(temp);
+            }
+            return new Variable(temp);
+        }
+
+        /**
+         * Determines whether an expression uses a variable. Operations on
+         * constants alone are left for the ConstantFolder.
+         * @param exp the expression.
+         * @return true if a variable appears in exp.
+         */
+        private boolean usesVariable(Expression exp)
+        {
+            if(exp instanceof BinOp)
+            {
+                return usesVariable(((BinOp) exp).getExp1()) || usesVariable(((BinOp) exp).getExp2());
+            }
+            return exp instanceof Variable;
+        }
+
+        /**
+         * Determines whether an expression has the same value on every
+         * iteration and can be computed before the loop.
+         * @param exp the expression.
+         * @return true if exp calls no procedure, uses no variable that may
+         * change in the loop, and only divides by constants other than 0.
+         */
+        private boolean isInvariant(Expression exp)
+        {
+            if(exp instanceof ast.Number)
+            {
+                return true;
+            }
+            if(exp instanceof Variable)
+            {
+                return !variant.contains(((Variable) exp).getName());
+            }
+            if(exp instanceof BinOp)
+            {
+                BinOp binOp = (BinOp) exp;
+                if((binOp.getOp().equals("/") || binOp.getOp().equals("%"))
+                        && !(binOp.getExp2() instanceof ast.Number
+                        && ((ast.Number) binOp.getExp2()).getValue() != 0))
+                {
+                    return false;
+                }
+                return isInvariant(binOp.getExp1()) && isInvariant(binOp.getExp2());
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package optimizer;
+import ast.*;
+
+import java.io.Writer;
+
+/**
+ * Metrics measures the size of a program, so that the effect of an
+ * optimization can be reported. The size of the tree is the number of
+ * procedures, statements, conditions and expressions in it; the size of the
+ * compiled program is the number of MIPS instructions that the Emitter
+ * produces for it.
+ *
+ * Usage:
+ * System.out.println(Metrics.report("constant folding", program, folded));
+ *
+ * @author Aditya Ramanathan
+ * @version 10/19/26
+ */
+public class Metrics
+{
+    /**
+     * Counts the nodes of a program.
+     * @param program the program to measure.
+     * @return the number of procedures, statements, conditions and expressions.
+     */
+    public static int countNodes(Program program)
+    {
+        NodeCounter counter = new NodeCounter();
+        counter.walkProgram(program);
+        return counter.count;
+    }
+
+    /**
+     * Counts the nodes of a statement.
+     * @param st the statement to measure.
+     * @return the number of statements, conditions and expressions in it.
+     */
+    public static int countNodes(Statement st)
+    {
+        NodeCounter counter = new NodeCounter();
+        counter.visitStatement(st);
+        return counter.count;
+    }
+
+    /**
+     * Compiles a program, without writing the code anywhere, and counts the
+     * instructions.
+     * @param program the program to measure.
+     * @return the number of MIPS instructions emitted for the program.
+     */
+    public static int countInstructions(Program program)
+    {
+        Emitter e = new Emitter(Writer.nullWriter());
+        program.compile(e);
+        return e.getInstructionCount();
+    }
+
+    /**
+     * Describes how much smaller an optimization made a program.
+     * @param pass the name of the optimization.
+     * @param before the program before the optimization.
+     * @param after the program after the optimization.
+     * @return a line such as "folding: nodes 120 -> 98 (-18.3%), instructions 277 -> 240 (-13.4%)".
+     */
+    public static String report(String pass, Program before, Program after)
+    {
+        return pass + ": nodes " + change(countNodes(before), countNodes(after))
+                + ", instructions " + change(countInstructions(before), countInstructions(after));
+    }
+
+    /**
+     * Describes the change between two sizes.
+     * @param before the size before.
+     * @param after the size after.
+     * @return the two sizes and the change as a percentage of the first.
+     */
+    private static String change(int before, int after)
+    {
+        double percent = before == 0 ? 0 : 100.0 * (after - before) / before;
+        return before + " -> " + after + " (" + String.format("%+.1f", percent) + "%)";
+    }
+
+    /**
+     * Counts every node it visits.
+     */
+    private static class NodeCounter extends AstWalker
+    {
+        private int count;
+
+        /**
+         * Counts a procedure and visits its statement(s).
+         * @param dec the procedure.
+         */
+        public void visitProcedure(ProcedureDeclaration dec)
+        {
+            count++;
+            super.visitProcedure(dec);
+        }
+
+        /**
+         * Counts a statement and visits its children.
+         * @param st the statement.
+         */
+        public void visitStatement(Statement st)
+        {
+            count++;
+            super.visitStatement(st);
+        }
+
+        /**
+         * Counts a condition and visits its expressions.
+         * @param cond the condition.
+         */
+        public void visitCondition(Condition cond)
+        {
+            count++;
+            super.visitCondition(cond);
+        }
+
+        /**
+         * Counts an expression and visits its operands.
+         * @param exp the expression.
+         */
+        public void visitExpression(Expression exp)
+        {
+            count++;
+            super.visitExpression(exp);
+        }
+    }
+}
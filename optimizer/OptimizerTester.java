@@ -0,0 +1,126 @@
+package optimizer;
+import scanner.*;
+import parser.*;
+import environment.*;
+import ast.*;
+import runtime.*;
+
+import java.io.*;
+
+/**
+ * Tests the optimizations on the test programs. For each program, this prints
+ * what every optimization changed, then runs the optimized program, whose
+ * output should be the same as that of the original. The optimized programs
+ * are also compiled into asm files which should print the same in MARS, and
+ * so are the residual programs left by partial evaluation.
+ *
+ * The optimizations are guided by profiles from the Profiler: the folded
+ * program is profiled once, and the profile is saved to a .profile file and
+ * read back for the inliner, and the run of the optimized program is profiled
+ * to lay out and unroll its compiled code.
+ * @author Aditya Ramanathan
+ * @version 10/19/26
+ */
+public class OptimizerTester
+{
+    /**
+     * Main Tester Method for the optimizations.
+     * @param str the arguments passed to the main method.
+     * @throws IOException if a test file is not found or a profile cannot be
+     * written.
+     */
+    public static void main(String[] str) throws IOException
+    {
+        test("ParserTest.txt", "optimized.asm");
+        test("ParserTestAdvanced.txt", "optimizedAdvanced.asm");
+        test("OptimizerTest.txt", "optimizedTest.asm");
+    }
+
+    /**
+     * Optimizes one test program, then runs and compiles it.
+     * @param fileName the name of the file with the program.
+     * @param asmFileName the name of the asm file to write.
+     * @throws IOException if the test file is not found or the profile cannot
+     * be written.
+     */
+    private static void test(String fileName, String asmFileName) throws IOException
+    {
+        System.out.println(fileName);
+        Parser parser = new Parser(new Scanner(new FileInputStream(new File(fileName))));
+        Program program = parser.parseProgram();
+
+        ConstantFolder folder = new ConstantFolder();
+        Program folded = folder.fold(program);
+        System.out.println(Metrics.report("constant folding", program, folded)
+                + ", " + folder.getFoldedExpressions() + " expressions and "
+                + folder.getFoldedBranches() + " branches folded");
+        program = folded;
+
+        ExecutionProfile profile = record(program, fileName.replace(".txt", ".profile"));
+        Inliner inliner = new Inliner(Inliner.DEFAULT_BUDGET, profile);
+        Program inlined = inliner.inline(program);
+        System.out.println(Metrics.report("inlining", program, inlined)
+                + ", inlined " + inliner.getInlinedSites());
+        program = inlined;
+
+        Specializer specializer = new Specializer(Specializer.DEFAULT_BUDGET);
+        Program specialized = specializer.specialize(program);
+        System.out.println(Metrics.report("specialization", program, specialized)
+                + ", cloned " + specializer.getClones());
+        program = specialized;
+
+        DeadCodeEliminator eliminator = new DeadCodeEliminator();
+        Program live = eliminator.eliminate(program);
+        System.out.println(Metrics.report("dead code elimination", program, live)
+                + ", " + eliminator.getRemovedProcedures() + " procedures, "
+                + eliminator.getRemovedAssignments() + " assignments and "
+                + eliminator.getRemovedVariables() + " variables removed");
+        program = live;
+
+        LoopInvariantMotion motion = new LoopInvariantMotion();
+        Program hoisted = motion.hoist(program);
+        System.out.println(Metrics.report("loop-invariant code motion", program, hoisted)
+                + ", " + motion.getHoisted() + " operations moved out of "
+                + motion.getLoops() + " loops");
+        program = hoisted;
+
+        InductionVariables induction = new InductionVariables();
+        Program reduced = induction.reduce(program);
+        System.out.println(Metrics.report("induction variables", program, reduced)
+                + ", " + induction.getReduced() + " products replaced");
+        program = reduced;
+
+        PartialEvaluator evaluator = new PartialEvaluator(PartialEvaluator.DEFAULT_BUDGET);
+        Program residual = evaluator.evaluate(program);
+        System.out.println(Metrics.report("partial evaluation", program, residual)
+                + ", " + evaluator.getEvaluatedStatements() + " statements run in "
+                + evaluator.getSteps() + " steps, " + evaluator.getPrintedValues()
+                + " values printed");
+
+        Profiler profiler = new Profiler();
+        profiler.instrument(program).exec(new Environment(null));
+        Emitter e = new Emitter(asmFileName);
+        program.compile(e, profiler.getExecutionProfile());
+        System.out.println(e.getPeepholeOptimizer().getReport());
+        residual.compile(new Emitter(asmFileName.replace(".asm", "Evaluated.asm")));
+        System.out.println();
+    }
+
+    /**
+     * Runs a program without printing anything, to record a profile of it.
+     * @param program the program to profile.
+     * @param profileFileName the name of the file the profile is saved to.
+     * @return the profile, as read back from the file.
+     * @throws IOException if the profile cannot be written or read.
+     */
+    private static ExecutionProfile record(Program program, String profileFileName)
+            throws IOException
+    {
+        Profiler profiler = new Profiler();
+        Environment env = new Environment(null);
+        env.setOutput(new OutputSink(OutputStream.nullOutputStream()));
+        profiler.instrument(program).exec(env);
+        profiler.getExecutionProfile().save(new File(profileFileName));
+        return ExecutionProfile.load(new File(profileFileName));
+    }
+}
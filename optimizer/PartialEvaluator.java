@@ -0,0 +1,291 @@
+package optimizer;
+import ast.*;
+import environment.*;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The PartialEvaluator runs the part of a program that does not depend on its
+ * input at compile time, using the interpreter, and replaces it by what it
+ * printed. A program that never reads input, such as every test program, then
+ * compiles to a sequence of WRITELNs of constants.
+ *
+ * The statements of the main block of code are run one at a time, in order.
+ * Each one runs in a fresh global environment that holds the values the
+ * statements before it left behind, so a statement that cannot be finished
+ * leaves no trace. Evaluation stops at the first statement that reads input,
+ * fails (as a division by zero does), or would take the total number of steps
+ * past the budget; a step is a loop iteration or a procedure call, the same
+ * ticks a Safepoint counts. That statement and the ones after it are kept, and
+ * are preceded by assignments that give the global variables the values the
+ * evaluated statements left in them.
+ *
+ * The values are those the interpreter computes, which looks names up through
+ * the environments of the active calls. Procedures are kept; the
+ * DeadCodeEliminator removes the ones that are no longer called.
+ *
+ * Usage:
+ * PartialEvaluator evaluator = new PartialEvaluator(PartialEvaluator.DEFAULT_BUDGET);
+ * Program residual = evaluator.evaluate(program);
+ *
+ * @author Aditya Ramanathan
+ * @version 10/19/26
+ */
+public class PartialEvaluator
+{
+    public static final long DEFAULT_BUDGET = 1000000;
+
+    private final long budget;
+    private long steps;
+    private int evaluatedStatements;
+    private int printedValues;
+
+    /**
+     * Creates a partial evaluator.
+     * @param budget the largest number of steps that may be spent running the
+     * program at compile time.
+     */
+    public PartialEvaluator(long budget)
+    {
+        this.budget = budget;
+    }
+
+    /**
+     * Runs the statements of the main block of code that can be run at compile
+     * time, and replaces them by their output.
+     * @param program the program.
+     * @return the residual program; the original is not changed.
+     */
+    public Program evaluate(Program program)
+    {
+        List<Statement> stmts = new ArrayList<Statement>();
+        flatten(program.getStatement(), stmts);
+        Set<String> globals = LoopEffects.assignedNames(program.getStatement());
+        globals.addAll(program.getVariables());
+
+        Map<String, Integer> values = new LinkedHashMap<String, Integer>();
+        List<Integer> printed = new ArrayList<Integer>();
+        int next = 0;
+        while(next < stmts.size() && run(program, stmts.get(next), globals, values, printed))
+        {
+            next++;
+        }
+        if(next == 0)
+        {
+            return program;
+        }
+        evaluatedStatements += next;
+        printedValues += printed.size();
+
+        int line = stmts.get(next - 1).getLine();
+        List<Statement> residual = new ArrayList<Statement>();
+        for(int value: printed)
+        {
+            residual.add(at(new Writeln(new ast.Number(value)), line));
+        }
+        if(next < stmts.size())
+        {
+            for(Map.Entry<String, Integer> entry: values.entrySet())
+            {
+                residual.add(at(new Assignment(entry.getKey(),
+                        new ast.Number(entry.getValue())), line));
+            }
+            residual.addAll(stmts.subList(next, stmts.size()));
+        }
+        Block block = new Block(residual);
+        block.setLine(program.getStatement().getLine());
+        return new Program(program.getProcedureDeclarations(), block, program.getVariables());
+    }
+
+    /**
+     * Retrieves the number of steps spent running the program, including those
+     * of the statement that could not be finished.
+     * @return the number of loop iterations and procedure calls run.
+     */
+    public long getSteps()
+    {
+        return steps;
+    }
+
+    /**
+     * Retrieves the number of statements of the main block of code that were
+     * replaced by their output.
+     * @return the number of statements evaluated.
+     */
+    public int getEvaluatedStatements()
+    {
+        return evaluatedStatements;
+    }
+
+    /**
+     * Retrieves the number of values the evaluated statements printed.
+     * @return the number of WRITELNs of constants in the residual program.
+     */
+    public int getPrintedValues()
+    {
+        return printedValues;
+    }
+
+    /**
+     * Runs one statement of the main block of code.
+     * @param program the program.
+     * @param st the statement.
+     * @param globals the names that may be global variables.
+     * @param values the global variables that have values, and their values.
+     * @param printed the values printed so far.
+     * @return true if the statement finished, in which case values and printed
+     * have been updated, or false if it could not be run at compile time.
+     */
+    private boolean run(Program program, Statement st, Set<String> globals,
+                        Map<String, Integer> values, List<Integer> printed)
+    {
+        Environment env = new Environment(null);
+        for(ProcedureDeclaration dec: program.getProcedureDeclarations())
+        {
+            env.setProcedure(dec.getName(), dec);
+        }
+        for(Map.Entry<String, Integer> entry: values.entrySet())
+        {
+            env.declareVariable(entry.getKey(), entry.getValue());
+        }
+        Recorder output = new Recorder();
+        env.setOutput(output);
+        env.setInput(new NoInput());
+        StepCounter counter = new StepCounter();
+        counter.setOwner(Thread.currentThread());
+        env.setSafepoint(counter);
+        try
+        {
+            st.exec(env);
+        }
+        catch(RuntimeException | StackOverflowError e)
+        {
+            return false;
+        }
+        printed.addAll(output.values);
+        for(String name: globals)
+        {
+            if(env.hasVariable(name))
+            {
+                values.put(name, env.getVariable(name));
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Lists the statements of a block, and of the blocks nested directly in it.
+     * @param st the statement.
+     * @param stmts the list the statements are added to.
+     */
+    private static void flatten(Statement st, List<Statement> stmts)
+    {
+        if(st instanceof Block)
+        {
+            for(Statement child: ((Block) st).getStatements())
+            {
+                flatten(child, stmts);
+            }
+        }
+        else
+        {
+            stmts.add(st);
+        }
+    }
+
+    /**
+     * Sets the line of a new statement.
+     * @param st the statement.
+     * @param line the line.
+     * @return the statement.
+     */
+    private static Statement at(Statement st, int line)
+    {
+        st.setLine(line);
+        return st;
+    }
+
+    /**
+     * Counts the steps of the program against the budget, one poll at a time.
+     */
+    private class StepCounter extends Safepoint
+    {
+        /**
+         * Creates a counter that is called back on every poll.
+         */
+        StepCounter()
+        {
+            super(1);
+        }
+
+        /**
+         * Counts a step.
+         * @return 1, so that the next poll is counted too.
+         * @throws IllegalStateException if the budget has been used up.
+         */
+        protected int expired()
+        {
+            if(++steps > budget)
+            {
+                throw new IllegalStateException("Used up the budget of " + budget + " steps");
+            }
+            return 1;
+        }
+    }
+
+    /**
+     * An output sink that keeps the printed values instead of writing them.
+     */
+    private static class Recorder extends OutputSink
+    {
+        private final List<Integer> values;
+
+        /**
+         * Creates a recorder.
+         */
+        Recorder()
+        {
+            super(OutputStream.nullOutputStream(), 0, OutputSink.FlushPolicy.EXIT, false);
+            values = new ArrayList<Integer>();
+        }
+
+        /**
+         * Keeps a printed value.
+         * @param value the value.
+         */
+        public void println(int value)
+        {
+            values.add(value);
+        }
+    }
+
+    /**
+     * An input reader for input that is not known at compile time.
+     */
+    private static class NoInput extends InputReader
+    {
+        /**
+         * Creates a reader with nothing to read.
+         */
+        NoInput()
+        {
+            super(InputStream.nullInputStream());
+        }
+
+        /**
+         * Refuses to read.
+         * @return nothing.
+         * @throws IllegalStateException always.
+         */
+        public int readInt()
+        {
+            throw new IllegalStateException("Input is not known at compile time");
+        }
+    }
+}
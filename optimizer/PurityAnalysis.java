@@ -0,0 +1,146 @@
+package optimizer;
+import ast.*;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * The PurityAnalysis finds the procedures of a program that have no side
+ * effects. A procedure is pure when its statement(s), and every procedure they
+ * call, never print, never read input, and only assign to the procedure's own
+ * parameters and return variable. Those are the only names the interpreter
+ * declares in the environment of a call, so assignments to them can never
+ * reach an enclosing environment. Such procedures can be evaluated in any order,
+ * or at the same time, without changing what the program does.
+ *
+ * Recursive procedures are handled by assuming every procedure is pure and
+ * then repeatedly removing procedures that are not, until nothing changes.
+ *
+ * Usage:
+ * PurityAnalysis purity = new PurityAnalysis(program);
+ * boolean canRunInParallel = purity.isPure(exp);
+ *
+ * @author Aditya Ramanathan
+ * @version 10/19/26
+ */
+public class PurityAnalysis
+{
+    private Set<String> pure;
+
+    /**
+     * Analyzes every procedure of the program.
+     * @param program the program to analyze.
+     */
+    public PurityAnalysis(Program program)
+    {
+        pure = new HashSet<String>();
+        for(ProcedureDeclaration dec: program.getProcedureDeclarations())
+        {
+            pure.add(dec.getName());
+        }
+
+        boolean changed = true;
+        while(changed)
+        {
+            changed = false;
+            for(ProcedureDeclaration dec: program.getProcedureDeclarations())
+            {
+                if(pure.contains(dec.getName()) && !new BodyCheck(dec).isPure())
+                {
+                    pure.remove(dec.getName());
+                    changed = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * Determines whether the procedure with the given name is pure.
+     * @param name the name of the procedure.
+     * @return true if the procedure exists and has no side effects.
+     */
+    public boolean isPure(String name)
+    {
+        return pure.contains(name);
+    }
+
+    /**
+     * Determines whether evaluating the expression can have side effects.
+     * @param exp the expression to check.
+     * @return true if every procedure called in the expression is pure.
+     */
+    public boolean isPure(Expression exp)
+    {
+        BodyCheck check = new BodyCheck(null);
+        check.visitExpression(exp);
+        return check.isPure();
+    }
+
+    /**
+     * Looks through the statement(s) of one procedure for anything that would
+     * make it impure, given what is currently believed about the others.
+     */
+    private class BodyCheck extends AstWalker
+    {
+        private ProcedureDeclaration dec;
+        private boolean ok;
+
+        /**
+         * Creates a check for the procedure.
+         * @param dec the procedure to check, or null to check a lone expression.
+         */
+        BodyCheck(ProcedureDeclaration dec)
+        {
+            this.dec = dec;
+            ok = true;
+        }
+
+        /**
+         * Visits the procedure's statement(s) and reports whether they are pure.
+         * @return true if nothing impure was found.
+         */
+        boolean isPure()
+        {
+            if(dec != null)
+            {
+                visitStatement(dec.getStatement());
+            }
+            return ok;
+        }
+
+        /**
+         * Rejects printing, reading and assignments to names that do not belong
+         * to the procedure's own environment.
+         * @param st the statement to check.
+         */
+        public void visitStatement(Statement st)
+        {
+            if(st instanceof Writeln || st instanceof Readln)
+            {
+                ok = false;
+            }
+            else if(st instanceof Assignment)
+            {
+                String var = ((Assignment) st).getVarName();
+                if(!var.equals(dec.getName()) && !dec.getParms().contains(var))
+                {
+                    ok = false;
+                }
+            }
+            super.visitStatement(st);
+        }
+
+        /**
+         * Rejects calls to procedures that are not known to be pure.
+         * @param exp the expression to check.
+         */
+        public void visitExpression(Expression exp)
+        {
+            if(exp instanceof ProcedureCall && !pure.contains(((ProcedureCall) exp).getName()))
+            {
+                ok = false;
+            }
+            super.visitExpression(exp);
+        }
+    }
+}
@@ -0,0 +1,424 @@
+package optimizer;
+import ast.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The Specializer propagates constant arguments into the procedures they are
+ * passed to. A call such as
+ *     x := countUp(2, 4);
+ * becomes
+ *     x := countUp__max4(2);
+ * where countUp__max4 is a copy of countUp without the parameter max, in which
+ * every use of max is replaced by 4 and the body is folded again. The caller no
+ * longer pushes the argument, and the clone can fold conditions and operations
+ * that use it. Calls in the clones are specialized too, so a recursive call that
+ * passes the parameter on, like countUp(count + 1, max), calls the clone itself.
+ * The names of clones cannot clash with any name in the source because the
+ * scanner does not allow underscores.
+ *
+ * A parameter is only specialized if the procedure reads it and never assigns
+ * it, every call the procedure makes to itself passes it on unchanged, and no
+ * procedure that it calls, directly or through others, uses a variable by that
+ * name: the interpreter looks names up through the environments of the active
+ * calls, so such a procedure could see the parameter. The total number of nodes in the clones is limited by a budget;
+ * calls that would go over it are left alone. Procedures that are no longer
+ * called are not removed; the DeadCodeEliminator does that.
+ *
+ * Usage:
+ * Specializer specializer = new Specializer(Specializer.DEFAULT_BUDGET);
+ * Program specialized = specializer.specialize(program);
+ * System.out.println(specializer.getClones());
+ *
+ * @author Aditya Ramanathan
+ * @version 10/19/26
+ */
+public class Specializer extends AstRewriter
+{
+    public static final int DEFAULT_BUDGET = 64;
+
+    private final int budget;
+    private final List<String> clones;
+    private Program program;
+    private Map<String, Set<String>> calleeNames;
+    private Map<String, ProcedureDeclaration> specialized; // keyed by procedure and constant arguments
+    private Set<String> usedNames;
+    private LinkedList<ProcedureDeclaration> pending;
+    private int growth;
+    private int line;
+
+    /**
+     * Creates a specializer.
+     * @param budget the largest total number of nodes in the clones.
+     */
+    public Specializer(int budget)
+    {
+        this.budget = budget;
+        clones = new ArrayList<String>();
+    }
+
+    /**
+     * Specializes the calls that pass constant arguments.
+     * @param program the program.
+     * @return the program with the clones added after the other procedures; the
+     * original is not changed.
+     */
+    public Program specialize(Program program)
+    {
+        this.program = program;
+        calleeNames = findCalleeNames(program);
+        specialized = new HashMap<String, ProcedureDeclaration>();
+        usedNames = new HashSet<String>();
+        for(ProcedureDeclaration dec: program.getProcedureDeclarations())
+        {
+            usedNames.add(dec.getName());
+        }
+        pending = new LinkedList<ProcedureDeclaration>();
+        return rewriteProgram(program);
+    }
+
+    /**
+     * Retrieves a description of every clone that was created, such as
+     * "line 39: countUp__max4".
+     * @return the clones, in the order they were created.
+     */
+    public List<String> getClones()
+    {
+        return clones;
+    }
+
+    /**
+     * Rewrites the program, then the clones it needs, which may need more clones.
+     * @param program the program.
+     * @return the rewritten program.
+     */
+    public Program rewriteProgram(Program program)
+    {
+        List<ProcedureDeclaration> decs = new ArrayList<ProcedureDeclaration>();
+        for(ProcedureDeclaration dec: program.getProcedureDeclarations())
+        {
+            decs.add(rewriteProcedure(dec));
+        }
+        Statement st = rewriteStatement(program.getStatement());
+        while(!pending.isEmpty())
+        {
+            decs.add(rewriteProcedure(pending.removeFirst()));
+        }
+        return new Program(decs, st, new ArrayList<String>(program.getVariables()));
+    }
+
+    /**
+     * Rewrites a statement, remembering its line for the description of clones.
+     * @param st the statement.
+     * @return the rewritten statement.
+     */
+    public Statement rewriteStatement(Statement st)
+    {
+        int outer = line;
+        line = st.getLine();
+        try
+        {
+            return super.rewriteStatement(st);
+        }
+        finally
+        {
+            line = outer;
+        }
+    }
+
+    /**
+     * Replaces a call that passes constants by a call to a clone, if it can.
+     * @param exp the expression.
+     * @return the rewritten expression.
+     */
+    public Expression rewriteExpression(Expression exp)
+    {
+        Expression copy = super.rewriteExpression(exp);
+        if(!(copy instanceof ProcedureCall))
+        {
+            return copy;
+        }
+        ProcedureCall call = (ProcedureCall) copy;
+        ProcedureDeclaration callee = program.getProcedure(call.getName());
+        if(callee == null || callee.getParms().size() != call.getArgs().size())
+        {
+            return call;
+        }
+
+        Map<String, Integer> constants = new HashMap<String, Integer>();
+        List<Expression> args = new ArrayList<Expression>();
+        String key = callee.getName();
+        String name = callee.getName();
+        for(int i = 0; i < call.getArgs().size(); i++)
+        {
+            Expression arg = call.getArgs().get(i);
+            String parm = callee.getParms().get(i);
+            if(arg instanceof ast.Number && canSpecialize(callee, parm))
+            {
+                int value = ((ast.Number) arg).getValue();
+                constants.put(parm, value);
+                key += " " + i + "=" + value;
+                name += "__" + parm + Integer.toString(value).replace('-', 'm');
+            }
+            else
+            {
+                args.add(arg);
+            }
+        }
+        if(constants.isEmpty())
+        {
+            return call;
+        }
+
+        ProcedureDeclaration clone = specialized.get(key);
+        if(clone == null)
+        {
+            clone = createClone(callee, constants, name);
+            if(clone == null)
+            {
+                return call;
+            }
+            specialized.put(key, clone);
+        }
+        return new ProcedureCall(clone.getName(), args);
+    }
+
+    /**
+     * Creates a clone of a procedure with some of its parameters replaced by
+     * constants, unless it would go over the budget.
+     * @param callee the procedure.
+     * @param constants the value of each parameter that is replaced.
+     * @param name the name for the clone.
+     * @return the clone, which has been queued to be rewritten, or null if it
+     * would go over the budget.
+     */
+    private ProcedureDeclaration createClone(ProcedureDeclaration callee,
+                                             Map<String, Integer> constants, String name)
+    {
+        String unique = name;
+        for(int n = 2; usedNames.contains(unique); n++)
+        {
+            unique = name + "_" + n;
+        }
+        // the clone returns its value through a variable named after the clone
+        String result = callee.getParms().contains(callee.getName()) ? null : callee.getName();
+        Statement body = new ConstantFolder().rewriteStatement(
+                new Substituter(constants, result, unique)
+                        .rewriteStatement(callee.getStatement()));
+        int size = Metrics.countNodes(body);
+        if(growth + size > budget)
+        {
+            return null;
+        }
+        growth += size;
+        usedNames.add(unique);
+
+        List<String> parms = new ArrayList<String>(callee.getParms());
+        parms.removeAll(constants.keySet());
+        List<String> locals = new ArrayList<String>();
+        for(String local: callee.getLocalVariables())
+        {
+            if(!constants.containsKey(local))
+            {
+                locals.add(local.equals(result) ? unique : local);
+            }
+        }
+        ProcedureDeclaration clone = new ProcedureDeclaration(unique, body, parms, locals);
+        clone.setLine(callee.getLine());
+        pending.add(clone);
+        clones.add("line " + line + ": " + unique);
+        return clone;
+    }
+
+    /**
+     * Determines whether a parameter of a procedure may be replaced by a constant.
+     * @param callee the procedure.
+     * @param parm the name of the parameter.
+     * @return true if the procedure reads the parameter, never assigns it, and
+     * calls no procedure that uses its name.
+     */
+    private boolean canSpecialize(ProcedureDeclaration callee, String parm)
+    {
+        return !parm.equals(callee.getName())
+                && readNames(callee.getStatement()).contains(parm)
+                && !LoopEffects.assignedNames(callee.getStatement()).contains(parm)
+                && !calleeNames.get(callee.getName()).contains(parm)
+                && passesOn(callee, callee.getParms().indexOf(parm));
+    }
+
+    /**
+     * Determines whether every call a procedure makes to itself passes one of
+     * its parameters on unchanged. Other parameters of recursive procedures
+     * are not specialized, since each constant they are called with would need
+     * a clone of its own.
+     * @param callee the procedure.
+     * @param index the index of the parameter.
+     * @return true if the argument of every recursive call at the index is the
+     * parameter itself.
+     */
+    private static boolean passesOn(ProcedureDeclaration callee, int index)
+    {
+        String parm = callee.getParms().get(index);
+        boolean[] passed = {true};
+        new AstWalker()
+        {
+            public void visitExpression(Expression exp)
+            {
+                if(exp instanceof ProcedureCall && ((ProcedureCall) exp).getName().equals(callee.getName()))
+                {
+                    List<Expression> args = ((ProcedureCall) exp).getArgs();
+                    passed[0] &= index < args.size() && args.get(index) instanceof Variable
+                            && ((Variable) args.get(index)).getName().equals(parm);
+                }
+                super.visitExpression(exp);
+            }
+        }.visitStatement(callee.getStatement());
+        return passed[0];
+    }
+
+    /**
+     * Finds, for every procedure, the variable names used by the procedures it
+     * calls, directly or through others. A procedure's own parameters and return
+     * variable are not counted for it, since each call gives them new values.
+     * @param program the program.
+     * @return the names, keyed by the name of the calling procedure.
+     */
+    private static Map<String, Set<String>> findCalleeNames(Program program)
+    {
+        Map<String, Set<String>> own = new HashMap<String, Set<String>>();
+        Map<String, Set<String>> calls = new HashMap<String, Set<String>>();
+        for(ProcedureDeclaration dec: program.getProcedureDeclarations())
+        {
+            Set<String> names = readNames(dec.getStatement());
+            names.addAll(LoopEffects.assignedNames(dec.getStatement()));
+            names.removeAll(dec.getParms());
+            names.remove(dec.getName());
+            own.put(dec.getName(), names);
+            calls.put(dec.getName(), new HashSet<String>());
+        }
+        for(ProcedureDeclaration dec: program.getProcedureDeclarations())
+        {
+            new AstWalker()
+            {
+                public void visitExpression(Expression exp)
+                {
+                    if(exp instanceof ProcedureCall && own.containsKey(((ProcedureCall) exp).getName()))
+                    {
+                        calls.get(dec.getName()).add(((ProcedureCall) exp).getName());
+                    }
+                    super.visitExpression(exp);
+                }
+            }.visitStatement(dec.getStatement());
+        }
+
+        Map<String, Set<String>> names = new HashMap<String, Set<String>>();
+        for(String caller: calls.keySet())
+        {
+            Set<String> reached = new HashSet<String>();
+            LinkedList<String> work = new LinkedList<String>(calls.get(caller));
+            Set<String> used = new HashSet<String>();
+            while(!work.isEmpty())
+            {
+                String callee = work.removeFirst();
+                if(reached.add(callee))
+                {
+                    used.addAll(own.get(callee));
+                    work.addAll(calls.get(callee));
+                }
+            }
+            names.put(caller, used);
+        }
+        return names;
+    }
+
+    /**
+     * Finds the names of the variables a statement reads.
+     * @param st the statement.
+     * @return the names used by its expressions.
+     */
+    private static Set<String> readNames(Statement st)
+    {
+        Set<String> names = new HashSet<String>();
+        new AstWalker()
+        {
+            public void visitExpression(Expression exp)
+            {
+                if(exp instanceof Variable)
+                {
+                    names.add(((Variable) exp).getName());
+                }
+                super.visitExpression(exp);
+            }
+        }.visitStatement(st);
+        return names;
+    }
+
+    /**
+     * Copies a statement, replacing some variables by constants and renaming
+     * the variable that holds the return value.
+     */
+    private static class Substituter extends AstRewriter
+    {
+        private final Map<String, Integer> constants;
+        private final String from;
+        private final String to;
+
+        /**
+         * Creates a substituter.
+         * @param constants the value of each variable that is replaced.
+         * @param from the name of the return variable, or null to keep it.
+         * @param to the new name of the return variable.
+         */
+        Substituter(Map<String, Integer> constants, String from, String to)
+        {
+            this.constants = constants;
+            this.from = from;
+            this.to = to;
+        }
+
+        /**
+         * Copies a statement, renaming assignments to the return variable.
+         * @param st the statement.
+         * @return the copy.
+         */
+        public Statement rewriteStatement(Statement st)
+        {
+            Statement copy = super.rewriteStatement(st);
+            Statement renamed = copy;
+            if(copy instanceof Assignment && ((Assignment) copy).getVarName().equals(from))
+            {
+                renamed = new Assignment(to, ((Assignment) copy).getExpression());
+            }
+            else if(copy instanceof Readln && ((Readln) copy).getVarName().equals(from))
+            {
+                renamed = new Readln(to);
+            }
+            renamed.setLine(copy.getLine());
+            return renamed;
+        }
+
+        /**
+         * Replaces a variable by its constant, or renames the return variable.
+         * @param exp the expression.
+         * @return the copy.
+         */
+        public Expression rewriteExpression(Expression exp)
+        {
+            if(exp instanceof Variable && constants.containsKey(((Variable) exp).getName()))
+            {
+                return new ast.Number(constants.get(((Variable) exp).getName()));
+            }
+            if(exp instanceof Variable && ((Variable) exp).getName().equals(from))
+            {
+                return new Variable(to);
+            }
+            return super.rewriteExpression(exp);
+        }
+    }
+}
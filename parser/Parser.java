@@ -30,7 +30,8 @@ import java.util.ArrayList;
  * parser.parseProgram().exec(env);
  *
  * @author Aditya Ramanathan
- * @version 4/12/24, variables functionality in parseProgram() added 5/24/24
+ * @version 4/12/24, variables functionality in parseProgram() added 5/24/24,
+ * line numbers added, intrinsics resolved 10/19/26
  */
 public class Parser
 {
@@ -201,6 +202,23 @@ public class Parser
         return exp;
     }
 
+    /**
+     * Parses an expression that makes up the rest of the input, such as a
+     * formula that is given on its own rather than in a program.
+     * @return an Expression object representing the parsed expression.
+     * @throws IllegalArgumentException if currToken is not what is expected, or
+     * if a token is left over after the expression.
+     */
+    public Expression parseWholeExpression() throws IllegalArgumentException
+    {
+        Expression exp = parseExpression();
+        if(!currToken.equals("EOF"))
+        {
+            throw new IllegalArgumentException("Unexpected token after expression: " + currToken);
+        }
+        return exp;
+    }
+
     /**
      * Parses a condition which exists after an "IF" or a "WHILE" token
      * in a pascal program in order to check whether the statements within
@@ -213,11 +231,14 @@ public class Parser
      */
     public Condition parseCondition() throws IllegalArgumentException
     {
+        int line = sc.getLineNumber();
         Expression exp1 = parseExpression();
         String relop = currToken;
         eat(currToken);
         Expression exp2 = parseExpression();
-        return new Condition(exp1, relop, exp2);
+        Condition cond = new Condition(exp1, relop, exp2);
+        cond.setLine(line);
+        return cond;
     }
 
     /**
@@ -234,10 +255,25 @@ public class Parser
      * Otherwise, it will add the variable symbol and its initialization value to the
      * map if the symbol is not yet defined, and if the symbol is defined, it will
      * update the value.
+     * The statement remembers the line of the source on which it starts.
      * @return a Statement object representing the parsed statement.
      * @throws IllegalArgumentException if currToken is not what is expected.
      */
     public Statement parseStatement() throws IllegalArgumentException
+    {
+        int line = sc.getLineNumber();
+        Statement st = parseStatementNode();
+        st.setLine(line);
+        return st;
+    }
+
+    /**
+     * Parses the statement starting at the current token, as described in
+     * parseStatement().
+     * @return a Statement object representing the parsed statement.
+     * @throws IllegalArgumentException if currToken is not what is expected.
+     */
+    private Statement parseStatementNode() throws IllegalArgumentException
     {
         if(currToken.equals("BEGIN"))
         {
@@ -349,6 +385,7 @@ public class Parser
      */
     public ProcedureDeclaration parseProcedure() throws IllegalArgumentException
     {
+        int line = sc.getLineNumber();
         eat("PROCEDURE");
         String name = currToken;
         eat(name);
@@ -372,7 +409,9 @@ public class Parser
         }
 
         Statement st = parseStatement();
-        return new ProcedureDeclaration(name, st, parms, localVariables);
+        ProcedureDeclaration dec = new ProcedureDeclaration(name, st, parms, localVariables);
+        dec.setLine(line);
+        return dec;
     }
 
     /**
@@ -383,7 +422,9 @@ public class Parser
      * it will parse all variables first. Next it parses the statement.
      * It adds both the list of variables, rocedure declarations and the statement to
      * a Program object and returns this. This Program object stores all the
-     * information needed to execute the program.
+     * information needed to execute the program. Calls to intrinsics such as
+     * ABS and MAX are resolved once every procedure has been parsed, so that
+     * procedures declared by the program take precedence.
      * @return the Program object containing all the information needed to execute
      * the program.
      * @throws IllegalArgumentException if currToken is not what is expected.
@@ -411,12 +452,14 @@ public class Parser
 
         if(stmts.size() == 0)
         {
-            return new Program(procedureDecs, st, vars);
+            return Intrinsic.resolve(new Program(procedureDecs, st, vars));
         }
         else
         {
             stmts.add(0, st); // put the first statement in
-            return new Program(procedureDecs, new Block(stmts), vars);
+            Block main = new Block(stmts);
+            main.setLine(st.getLine());
+            return Intrinsic.resolve(new Program(procedureDecs, main, vars));
         }
     }
 }
@@ -0,0 +1,478 @@
+package runtime;
+import ast.*;
+
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An ExecutionCache remembers the output of programs so that running the same
+ * program on the same input again replays the output instead of executing it.
+ * Programs are deterministic, so the output only depends on the program and
+ * on its input.
+ *
+ * The key of a run is the SHA-256 hash of the program, taken over its syntax
+ * tree so that spacing and comments do not matter, together with the hash of
+ * the whole input. The input is read before the program runs, because what
+ * READLN will consume is not known until then; equal input always leads READLN
+ * to consume the same values, so the key is never too coarse.
+ *
+ * Outputs are stored as one file per key in the cache directory. New entries
+ * are written to a temporary file and then moved into place, so other processes
+ * sharing the directory either see a whole entry or none. Every entry starts
+ * with the hash of the output it holds, and an entry whose output does not
+ * match its hash is treated as missing, so the program runs again and the
+ * entry is replaced. Reading an entry
+ * touches its modification time, and when the directory grows past its size
+ * limit the least recently used entries are deleted while holding a lock on
+ * the directory.
+ *
+ * Usage:
+ * ExecutionCache cache = new ExecutionCache(new File("cache"), 64 << 20);
+ * boolean hit = cache.run(program, System.in, System.out);
+ *
+ * @author Aditya Ramanathan
+ * @version 10/19/26
+ */
+public class ExecutionCache
+{
+    private static final String SUFFIX = ".out";
+    private static final int CHECKSUM_LENGTH = 32; // the bytes of a SHA-256 hash
+    private static final Object EVICTION = new Object();
+
+    private final Path dir;
+    private final long maxBytes;
+    private final AtomicLong hits;
+    private final AtomicLong misses;
+    private final AtomicLong evictions;
+
+    /**
+     * Creates a cache stored in the given directory.
+     * @param dir the directory of the cache, which is created if needed.
+     * @param maxBytes the size the entries of the cache may use in total.
+     * @throws IOException if the directory cannot be created.
+     */
+    public ExecutionCache(File dir, long maxBytes) throws IOException
+    {
+        if(maxBytes <= 0)
+        {
+            throw new IllegalArgumentException("The cache must be allowed some space");
+        }
+        this.dir = dir.toPath();
+        this.maxBytes = maxBytes;
+        Files.createDirectories(this.dir);
+        hits = new AtomicLong();
+        misses = new AtomicLong();
+        evictions = new AtomicLong();
+    }
+
+    /**
+     * Runs a program, or replays its output if it has already been run on the
+     * same input. Runs that fail are not cached.
+     * @param program the program to run.
+     * @param in the input of the program, which is read to the end.
+     * @param out receives the output of the program.
+     * @return true if the output was replayed from the cache.
+     * @throws IOException if the input cannot be read or the output written.
+     */
+    public boolean run(Program program, InputStream in, OutputStream out) throws IOException
+    {
+        byte[] input = in.readAllBytes();
+        Path entry = dir.resolve(key(program, input) + SUFFIX);
+
+        byte[] output = read(entry);
+        if(output != null)
+        {
+            hits.incrementAndGet();
+            out.write(output);
+            out.flush();
+            return true;
+        }
+
+        misses.incrementAndGet();
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try
+        {
+            new ExecutionContext(program, new ByteArrayInputStream(input), buffer).run();
+        }
+        catch(RuntimeException e)
+        {
+            buffer.writeTo(out);
+            out.flush();
+            throw e;
+        }
+        output = buffer.toByteArray();
+        out.write(output);
+        out.flush();
+        store(entry, output);
+        return false;
+    }
+
+    /**
+     * Computes the hash of a program. Programs that only differ in spacing,
+     * comments or line breaks have the same hash.
+     * @param program the program to hash.
+     * @return the SHA-256 hash of the program's syntax tree, in hexadecimal.
+     */
+    public static String fingerprint(Program program)
+    {
+        return hex(digest().digest(programBytes(program)));
+    }
+
+    /**
+     * Retrieves the number of runs that were replayed from the cache.
+     * @return the number of hits.
+     */
+    public long getHits()
+    {
+        return hits.get();
+    }
+
+    /**
+     * Retrieves the number of runs that had to execute the program.
+     * @return the number of misses.
+     */
+    public long getMisses()
+    {
+        return misses.get();
+    }
+
+    /**
+     * Retrieves the number of entries this cache has deleted to stay within
+     * its size limit.
+     * @return the number of evictions.
+     */
+    public long getEvictions()
+    {
+        return evictions.get();
+    }
+
+    /**
+     * Retrieves the fraction of runs that were replayed from the cache.
+     * @return the hit rate, or 0 if nothing has been run.
+     */
+    public double getHitRate()
+    {
+        long h = hits.get();
+        long total = h + misses.get();
+        return total == 0 ? 0 : (double) h / total;
+    }
+
+    /**
+     * Computes the key of a run.
+     * @param program the program being run.
+     * @param input the whole input of the run.
+     * @return the hash of the program and the input, in hexadecimal.
+     */
+    private static String key(Program program, byte[] input)
+    {
+        MessageDigest md = digest();
+        byte[] programHash = md.digest(programBytes(program));
+        byte[] inputHash = md.digest(input);
+        md.update(programHash);
+        md.update(inputHash);
+        return hex(md.digest());
+    }
+
+    /**
+     * Reads a cache entry and marks it as recently used.
+     * @param entry the file of the entry.
+     * @return the cached output, or null if there is no such entry or it is
+     * damaged.
+     */
+    private byte[] read(Path entry)
+    {
+        try
+        {
+            byte[] bytes = Files.readAllBytes(entry);
+            if(bytes.length < CHECKSUM_LENGTH)
+            {
+                return null;
+            }
+            byte[] output = Arrays.copyOfRange(bytes, CHECKSUM_LENGTH, bytes.length);
+            if(!Arrays.equals(digest().digest(output), Arrays.copyOf(bytes, CHECKSUM_LENGTH)))
+            {
+                return null;
+            }
+            Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+            return output;
+        }
+        catch(IOException e)
+        {
+            // missing, or evicted by another process since it was found
+            return null;
+        }
+    }
+
+    /**
+     * Adds an entry to the cache, then evicts entries if the cache has grown
+     * past its size limit. Failing to store an entry only costs a later miss,
+     * so I/O errors are ignored.
+     * @param entry the file of the entry.
+     * @param output the output to store.
+     */
+    private void store(Path entry, byte[] output)
+    {
+        if(CHECKSUM_LENGTH + output.length > maxBytes)
+        {
+            return;
+        }
+        try
+        {
+            Path temp = Files.createTempFile(dir, "entry", ".tmp");
+            try
+            {
+                try(OutputStream file = Files.newOutputStream(temp))
+                {
+                    file.write(digest().digest(output));
+                    file.write(output);
+                }
+                Files.move(temp, entry, StandardCopyOption.ATOMIC_MOVE,
+                        StandardCopyOption.REPLACE_EXISTING);
+            }
+            finally
+            {
+                Files.deleteIfExists(temp);
+            }
+            evict();
+        }
+        catch(IOException e)
+        {
+            // the entry is simply not cached
+        }
+    }
+
+    /**
+     * Deletes the least recently used entries until the cache fits within its
+     * size limit. Only one thread of this process and one process at a time
+     * evicts from a directory.
+     * @throws IOException if the directory cannot be listed or locked.
+     */
+    private void evict() throws IOException
+    {
+        synchronized(EVICTION)
+        {
+            try(FileChannel channel = FileChannel.open(dir.resolve(".lock"),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE))
+            {
+                FileLock lock = channel.lock();
+                try
+                {
+                    deleteLeastRecentlyUsed();
+                }
+                finally
+                {
+                    lock.release();
+                }
+            }
+        }
+    }
+
+    /**
+     * Deletes the entries that were used longest ago until the entries that
+     * remain fit within the size limit.
+     * @precondition the caller holds the lock on the directory.
+     * @throws IOException if the directory cannot be listed.
+     */
+    private void deleteLeastRecentlyUsed() throws IOException
+    {
+        List<Path> entries = new ArrayList<Path>();
+        List<Long> times = new ArrayList<Long>();
+        List<Long> sizes = new ArrayList<Long>();
+        long total = 0;
+        try(DirectoryStream<Path> files = Files.newDirectoryStream(dir, "*" + SUFFIX))
+        {
+            for(Path file: files)
+            {
+                try
+                {
+                    long size = Files.size(file);
+                    entries.add(file);
+                    times.add(Files.getLastModifiedTime(file).toMillis());
+                    sizes.add(size);
+                    total += size;
+                }
+                catch(NoSuchFileException e)
+                {
+                    // deleted while listing
+                }
+            }
+        }
+        if(total <= maxBytes)
+        {
+            return;
+        }
+
+        Integer[] order = new Integer[entries.size()];
+        for(int i = 0; i < order.length; i++)
+        {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Long.compare(times.get(a), times.get(b)));
+        for(int i = 0; i < order.length && total > maxBytes; i++)
+        {
+            if(Files.deleteIfExists(entries.get(order[i])))
+            {
+                evictions.incrementAndGet();
+            }
+            total -= sizes.get(order[i]);
+        }
+    }
+
+    /**
+     * Creates a SHA-256 digest.
+     * @return a new digest.
+     */
+    private static MessageDigest digest()
+    {
+        try
+        {
+            return MessageDigest.getInstance("SHA-256");
+        }
+        catch(NoSuchAlgorithmException e)
+        {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Writes a hash in hexadecimal.
+     * @param hash the hash.
+     * @return the hash as lowercase hexadecimal digits.
+     */
+    private static String hex(byte[] hash)
+    {
+        StringBuilder sb = new StringBuilder(hash.length * 2);
+        for(byte b: hash)
+        {
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16));
+            sb.append(Character.forDigit(b & 0xF, 16));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Writes a program in a canonical form that only depends on its syntax tree.
+     * @param program the program.
+     * @return the canonical form, as bytes.
+     */
+    private static byte[] programBytes(Program program)
+    {
+        Canonicalizer canon = new Canonicalizer();
+        canon.sb.append("VAR ").append(program.getVariables()).append('\n');
+        canon.walkProgram(program);
+        return canon.sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Writes every node of a program, in the order they are visited, with the
+     * names, operators and values that distinguish it from other nodes.
+     */
+    private static class Canonicalizer extends AstWalker
+    {
+        private final StringBuilder sb = new StringBuilder();
+
+        /**
+         * Writes the header of a procedure, then its statement(s).
+         * @param dec the procedure.
+         */
+        public void visitProcedure(ProcedureDeclaration dec)
+        {
+            sb.append("PROCEDURE ").append(dec.getName()).append(dec.getParms())
+                    .append(dec.getLocalVariables()).append('\n');
+            super.visitProcedure(dec);
+            sb.append("END\n");
+        }
+
+        /**
+         * Writes a statement and everything below it.
+         * @param st the statement.
+         */
+        public void visitStatement(Statement st)
+        {
+            if(st instanceof Block)
+            {
+                sb.append("BEGIN\n");
+                super.visitStatement(st);
+                sb.append("END\n");
+                return;
+            }
+            if(st instanceof Assignment)
+            {
+                sb.append(((Assignment) st).getVarName()).append(" :=");
+            }
+            else if(st instanceof Readln)
+            {
+                sb.append("READLN ").append(((Readln) st).getVarName());
+            }
+            else if(st instanceof Writeln)
+            {
+                sb.append("WRITELN");
+            }
+            else if(st instanceof If)
+            {
+                sb.append(((If) st).getElseStatement() == null ? "IF" : "IFELSE");
+            }
+            else if(st instanceof While)
+            {
+                sb.append("WHILE");
+            }
+            super.visitStatement(st);
+            sb.append('\n');
+        }
+
+        /**
+         * Writes a condition.
+         * @param cond the condition.
+         */
+        public void visitCondition(Condition cond)
+        {
+            sb.append(" (").append(cond.getRelop());
+            super.visitCondition(cond);
+            sb.append(')');
+        }
+
+        /**
+         * Writes an expression in prefix form.
+         * @param exp the expression.
+         */
+        public void visitExpression(Expression exp)
+        {
+            if(exp instanceof ast.Number)
+            {
+                sb.append(' ').append(((ast.Number) exp).getValue());
+            }
+            else if(exp instanceof Variable)
+            {
+                sb.append(' ').append(((Variable) exp).getName());
+            }
+            else if(exp instanceof BinOp)
+            {
+                sb.append(" (").append(((BinOp) exp).getOp());
+                super.visitExpression(exp);
+                sb.append(')');
+            }
+            else if(exp instanceof ProcedureCall)
+            {
+                sb.append(" (").append(((ProcedureCall) exp).getName()).append("()");
+                super.visitExpression(exp);
+                sb.append(')');
+            }
+            else if(exp instanceof Intrinsic)
+            {
+                sb.append(" (").append(((Intrinsic) exp).getName()).append("!");
+                super.visitExpression(exp);
+                sb.append(')');
+            }
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package runtime;
+import ast.*;
+import environment.*;
+
+import java.io.*;
+
+/**
+ * An ExecutionContext is one run of a Program. It owns everything that the run
+ * changes: the global Environment (and through it every procedure frame), and
+ * the input and output streams of READLN and WRITELN. The Program itself is
+ * shared and never changed, so any number of contexts for the same Program can
+ * run at the same time.
+ *
+ * Usage:
+ * ExecutionContext ctx = new ExecutionContext(program, in, out);
+ * ctx.run();
+ *
+ * @author Aditya Ramanathan
+ * @version 10/19/26
+ */
+public class ExecutionContext implements Runnable
+{
+    public static final int OUTPUT_CAPACITY = 1 << 12;
+
+    private final Program program;
+    private final InputStream in;
+    private final OutputStream out;
+    private Safepoint safepoint;
+    private Environment globals;
+    private long startTime;
+    private long endTime;
+
+    /**
+     * Creates a context that runs the program with its own input and output.
+     * @param program the program to run.
+     * @param in the stream that READLN reads from.
+     * @param out the stream that WRITELN prints to.
+     */
+    public ExecutionContext(Program program, InputStream in, OutputStream out)
+    {
+        this.program = program;
+        this.in = in;
+        this.out = out;
+    }
+
+    /**
+     * Runs the program in a fresh global environment. A small output buffer
+     * is used because many contexts are usually alive at the same time.
+     * @postcondition the program has been executed and its output flushed.
+     */
+    public void run()
+    {
+        startTime = System.nanoTime();
+        try
+        {
+            globals = new Environment(null);
+            globals.setInput(new InputReader(in));
+            globals.setOutput(new OutputSink(out, OUTPUT_CAPACITY,
+                    OutputSink.FlushPolicy.SIZE, false));
+            if(safepoint != null)
+            {
+                safepoint.setOwner(Thread.currentThread());
+                globals.setSafepoint(safepoint);
+            }
+            program.exec(globals);
+        }
+        finally
+        {
+            endTime = System.nanoTime();
+        }
+    }
+
+    /**
+     * Sets the safepoint that the run polls in loops and procedure calls.
+     * @param safepoint the safepoint, or null to run without one.
+     * @precondition the run has not started.
+     */
+    public void setSafepoint(Safepoint safepoint)
+    {
+        this.safepoint = safepoint;
+    }
+
+    /**
+     * Retrieves the global environment of this run.
+     * @return the global environment, or null if the run has not started.
+     */
+    public Environment getGlobals()
+    {
+        return globals;
+    }
+
+    /**
+     * Retrieves how long the run took.
+     * @return the run time in nanoseconds.
+     */
+    public long getLatency()
+    {
+        return endTime - startTime;
+    }
+}
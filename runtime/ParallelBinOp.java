@@ -0,0 +1,94 @@
+package runtime;
+import ast.*;
+import environment.*;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * A ParallelBinOp is a BinOp whose two expressions only call pure procedures,
+ * so they can be evaluated at the same time. The second expression is forked
+ * as a ForkJoin subtask while the current thread evaluates the first. Forking
+ * stops below a cutoff depth of procedure calls, where the remaining work is
+ * too small to be worth a task, and the BinOp is then evaluated sequentially.
+ * @author Aditya Ramanathan
+ * @version 10/19/26
+ */
+class ParallelBinOp extends BinOp
+{
+    private ForkJoinPool pool;
+    private int cutoff;
+
+    /**
+     * Creates a parallel version of the BinOp.
+     * @param binOp the BinOp whose expressions are independent.
+     * @param pool the pool that runs the subtasks.
+     * @param cutoff the call depth at or below which no more tasks are forked.
+     */
+    ParallelBinOp(BinOp binOp, ForkJoinPool pool, int cutoff)
+    {
+        super(binOp.getOp(), binOp.getExp1(), binOp.getExp2());
+        this.pool = pool;
+        this.cutoff = cutoff;
+    }
+
+    /**
+     * Evaluates both expressions, in parallel if the call depth is still above
+     * the cutoff. The forked expression gets its own environment and shadow
+     * stack, since those may only be written by one thread. A thread outside
+     * the pool hands the subtask to the pool instead of forking it, and then
+     * evaluates the first expression itself like a worker would.
+     * @param env the environment containing the variables needed to perform the
+     * operation and evaulate the expressions.
+     * @return the value obtained after the operation is performed.
+     */
+    public int eval(Environment env)
+    {
+        if(env.getDepth() >= cutoff)
+        {
+            return super.eval(env);
+        }
+        Operand right = new Operand(getExp2(), new Environment(env, new ShadowStack()));
+        if(ForkJoinTask.inForkJoinPool())
+        {
+            right.fork();
+        }
+        else
+        {
+            pool.execute(right);
+        }
+        int value1 = getExp1().eval(env);
+        return apply(value1, right.join());
+    }
+
+    /**
+     * A subtask that evaluates one expression.
+     */
+    private static class Operand extends RecursiveTask<Integer>
+    {
+        private static final long serialVersionUID = 1L;
+        private transient Expression exp;
+        private transient Environment env;
+
+        /**
+         * Creates a subtask for the expression.
+         * @param exp the expression to evaluate.
+         * @param env the environment to evaluate it in.
+         */
+        Operand(Expression exp, Environment env)
+        {
+            this.exp = exp;
+            this.env = env;
+        }
+
+        /**
+         * Evaluates the expression.
+         * @return the value of the expression.
+         */
+        protected Integer compute()
+        {
+            return exp.eval(env);
+        }
+    }
+}
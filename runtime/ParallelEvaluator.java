@@ -0,0 +1,141 @@
+package runtime;
+import ast.*;
+import optimizer.*;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * The ParallelEvaluator turns on parallel evaluation for an interpreted
+ * program. It uses the PurityAnalysis to find every BinOp whose two
+ * expressions both call procedures and have no side effects, such as
+ * fib(n - 1) + fib(n - 2), and replaces it with a ParallelBinOp that evaluates
+ * the expressions as ForkJoin subtasks. Everything else, including any
+ * expression that calls a procedure which prints, reads input or assigns to
+ * variables outside its own call, still runs sequentially.
+ *
+ * Usage:
+ * ParallelEvaluator parallel = new ParallelEvaluator();
+ * parallel.parallelize(parser.parseProgram()).exec(new Environment(null));
+ *
+ * @author Aditya Ramanathan
+ * @version 10/19/26
+ */
+public class ParallelEvaluator
+{
+    private ForkJoinPool pool;
+    private int cutoff;
+    private int parallelSites;
+
+    /**
+     * Creates an evaluator that uses the common ForkJoin pool. The default
+     * cutoff lets divide and conquer procedures that split in two create
+     * about sixteen tasks per thread before falling back to sequential code.
+     */
+    public ParallelEvaluator()
+    {
+        this(ForkJoinPool.commonPool(), defaultCutoff(ForkJoinPool.commonPool()));
+    }
+
+    /**
+     * Creates an evaluator with the given pool and cutoff.
+     * @param pool the pool that runs the subtasks.
+     * @param cutoff the depth of procedure calls at or below which
+     * no more subtasks are forked.
+     */
+    public ParallelEvaluator(ForkJoinPool pool, int cutoff)
+    {
+        this.pool = pool;
+        this.cutoff = cutoff;
+    }
+
+    /**
+     * Computes the default cutoff for a pool, which is log2 of its parallelism
+     * plus four.
+     * @param pool the pool that runs the subtasks.
+     * @return the default cutoff depth.
+     */
+    private static int defaultCutoff(ForkJoinPool pool)
+    {
+        return 32 - Integer.numberOfLeadingZeros(pool.getParallelism()) + 4;
+    }
+
+    /**
+     * Creates a copy of the program in which independent pure procedure calls
+     * are evaluated in parallel.
+     * @param program the program to parallelize.
+     * @return the parallel copy of the program.
+     */
+    public Program parallelize(Program program)
+    {
+        return new Parallelizer(new PurityAnalysis(program)).rewriteProgram(program);
+    }
+
+    /**
+     * Retrieves the number of BinOps that were made parallel by parallelize().
+     * @return the number of parallel BinOps.
+     */
+    public int getParallelSites()
+    {
+        return parallelSites;
+    }
+
+    /**
+     * Determines whether an expression calls a procedure anywhere, which
+     * makes it worth evaluating as a separate task.
+     * @param exp the expression to check.
+     * @return true if the expression contains a procedure call.
+     */
+    private static boolean callsProcedure(Expression exp)
+    {
+        if(exp instanceof ProcedureCall)
+        {
+            return true;
+        }
+        if(exp instanceof BinOp)
+        {
+            return callsProcedure(((BinOp) exp).getExp1())
+                    || callsProcedure(((BinOp) exp).getExp2());
+        }
+        return false;
+    }
+
+    /**
+     * Replaces BinOps whose expressions both call pure procedures with
+     * ParallelBinOps.
+     */
+    private class Parallelizer extends AstRewriter
+    {
+        private PurityAnalysis purity;
+
+        /**
+         * Creates a rewriter that uses the given analysis of the program.
+         * @param purity which procedures of the program are pure.
+         */
+        Parallelizer(PurityAnalysis purity)
+        {
+            this.purity = purity;
+        }
+
+        /**
+         * Rewrites the expression, making it parallel if both of its
+         * expressions call procedures and it is pure.
+         * @param exp the expression to rewrite.
+         * @return the rewritten expression.
+         */
+        public Expression rewriteExpression(Expression exp)
+        {
+            Expression copy = super.rewriteExpression(exp);
+            if(copy instanceof BinOp)
+            {
+                BinOp binOp = (BinOp) copy;
+                if(callsProcedure(binOp.getExp1()) && callsProcedure(binOp.getExp2())
+                        && purity.isPure(binOp))
+                {
+                    parallelSites++;
+                    return new ParallelBinOp(binOp, pool, cutoff);
+                }
+            }
+            return copy;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package runtime;
+
+/**
+ * A ProfileEntry holds the counters the Profiler keeps for one statement of the
+ * program. For an If or a While, it also counts how often the condition was
+ * true and false, which gives the branch outcomes of the If and the number of
+ * iterations of the While.
+ * @author Aditya Ramanathan
+ * @version 10/19/26
+ */
+public class ProfileEntry
+{
+    private String kind;
+    private String procedure;
+    private int line;
+    long count;
+    long trueCount;
+    long falseCount;
+
+    /**
+     * Creates an entry with all counters at zero.
+     * @param kind the kind of statement, such as "While" or "Assignment".
+     * @param procedure the procedure containing the statement, or null for the
+     * main block of code.
+     * @param line the line of the source on which the statement starts.
+     */
+    public ProfileEntry(String kind, String procedure, int line)
+    {
+        this.kind = kind;
+        this.procedure = procedure;
+        this.line = line;
+    }
+
+    /**
+     * Retrieves the kind of statement this entry belongs to.
+     * @return the kind of statement.
+     */
+    public String getKind()
+    {
+        return kind;
+    }
+
+    /**
+     * Retrieves the procedure containing the statement.
+     * @return the name of the procedure, or null for the main block of code.
+     */
+    public String getProcedure()
+    {
+        return procedure;
+    }
+
+    /**
+     * Retrieves the line of the source on which the statement starts.
+     * @return the line number.
+     */
+    public int getLine()
+    {
+        return line;
+    }
+
+    /**
+     * Retrieves how many times the statement was executed.
+     * @return the execution count.
+     */
+    public long getCount()
+    {
+        return count;
+    }
+
+    /**
+     * Retrieves how many times the condition of the statement was true.
+     * @return the number of true outcomes.
+     */
+    public long getTrueCount()
+    {
+        return trueCount;
+    }
+
+    /**
+     * Retrieves how many times the condition of the statement was false.
+     * @return the number of false outcomes.
+     */
+    public long getFalseCount()
+    {
+        return falseCount;
+    }
+}
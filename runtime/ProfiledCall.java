@@ -0,0 +1,39 @@
+package runtime;
+import ast.*;
+import environment.*;
+
+/**
+ * A ProfiledCall is a procedure call that counts how many times it runs. It
+ * is still a ProcedureCall, so the rest of the interpreter treats it like
+ * the call it replaces.
+ * @author Aditya Ramanathan
+ * @version 10/19/26
+ */
+class ProfiledCall extends ProcedureCall
+{
+    private ProfileEntry entry;
+
+    /**
+     * Creates a call of the same procedure with the same arguments as the
+     * given one that counts its runs in the entry.
+     * @param call the call being profiled.
+     * @param entry the entry that counts the calls.
+     */
+    ProfiledCall(ProcedureCall call, ProfileEntry entry)
+    {
+        super(call.getName(), call.getArgs());
+        this.entry = entry;
+    }
+
+    /**
+     * Counts the call and evaluates it.
+     * @param env the environment containing the variables needed to perform the
+     * operation and evaulate the expressions.
+     * @return the value obtained after the code within the procedure is executed.
+     */
+    public int eval(Environment env)
+    {
+        entry.count++;
+        return super.eval(env);
+    }
+}
@@ -0,0 +1,44 @@
+package runtime;
+import ast.*;
+import environment.*;
+
+/**
+ * A ProfiledCondition is the condition of an If or a While that counts how
+ * often it was true and how often it was false.
+ * @author Aditya Ramanathan
+ * @version 10/19/26
+ */
+class ProfiledCondition extends Condition
+{
+    private ProfileEntry entry;
+
+    /**
+     * Creates a condition that compares the same expressions as the given one
+     * and counts its outcomes in the entry.
+     * @param cond the condition being profiled.
+     * @param entry the entry of the If or While that owns the condition.
+     */
+    ProfiledCondition(Condition cond, ProfileEntry entry)
+    {
+        super(cond.getLeft(), cond.getRelop(), cond.getRight());
+        this.entry = entry;
+        setLine(cond.getLine());
+    }
+
+    /**
+     * Evaluates the condition and counts the outcome.
+     * @param env the environment containing all the variables needed to
+     * evaluate the expression.
+     * @return true if the condition is true, false if the condition is false.
+     */
+    public boolean eval(Environment env)
+    {
+        if(super.eval(env))
+        {
+            entry.trueCount++;
+            return true;
+        }
+        entry.falseCount++;
+        return false;
+    }
+}
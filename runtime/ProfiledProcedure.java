@@ -0,0 +1,82 @@
+package runtime;
+import ast.*;
+import environment.*;
+
+/**
+ * A ProfiledProcedure wraps the statement(s) of a procedure and measures how
+ * long each call takes. The inclusive time of a procedure covers everything
+ * that happens during its calls, while the exclusive time leaves out the time
+ * spent in other profiled procedures that it calls. Time spent in a recursive
+ * call is only counted once in the inclusive time.
+ * @author Aditya Ramanathan
+ * @version 10/19/26
+ */
+class ProfiledProcedure extends Statement
+{
+    private String name;
+    private Statement st;
+    private Profiler profiler;
+    private int active;
+    long calls;
+    long inclusive;
+    long exclusive;
+
+    /**
+     * Wraps the statement(s) of a procedure.
+     * @param name the name of the procedure.
+     * @param st the statement(s) of the procedure.
+     * @param profiler the profiler that keeps track of nested calls.
+     */
+    ProfiledProcedure(String name, Statement st, Profiler profiler)
+    {
+        this.name = name;
+        this.st = st;
+        this.profiler = profiler;
+        setLine(st.getLine());
+    }
+
+    /**
+     * Retrieves the name of the procedure.
+     * @return the name of the procedure.
+     */
+    String getName()
+    {
+        return name;
+    }
+
+    /**
+     * Executes the statement(s) of the procedure and records its times.
+     * @param env the environment of the call.
+     * @postcondition the procedure has been executed and its times updated.
+     */
+    public void exec(Environment env)
+    {
+        calls++;
+        active++;
+        profiler.enter();
+        long start = System.nanoTime();
+        try
+        {
+            st.exec(env);
+        }
+        finally
+        {
+            long elapsed = System.nanoTime() - start;
+            exclusive += elapsed - profiler.exit(elapsed);
+            active--;
+            if(active == 0)
+            {
+                inclusive += elapsed;
+            }
+        }
+    }
+
+    /**
+     * Compiles the wrapped statement(s). Profiling has no effect on the compiler.
+     * @param e the emitter used to emit the MIPS instructions.
+     */
+    public void compile(Emitter e)
+    {
+        st.compile(e);
+    }
+}
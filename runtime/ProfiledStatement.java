@@ -0,0 +1,49 @@
+package runtime;
+import ast.*;
+import environment.*;
+
+/**
+ * A ProfiledStatement wraps a statement and counts how many times it is
+ * executed. The Profiler only puts these wrappers into a program when
+ * profiling is turned on, so programs that are not profiled pay nothing.
+ * @author Aditya Ramanathan
+ * @version 10/19/26
+ */
+class ProfiledStatement extends Statement
+{
+    private Statement st;
+    private ProfileEntry entry;
+
+    /**
+     * Wraps the statement so that its executions are counted in the entry.
+     * @param st the statement being profiled.
+     * @param entry the entry that counts the executions.
+     */
+    ProfiledStatement(Statement st, ProfileEntry entry)
+    {
+        this.st = st;
+        this.entry = entry;
+        setLine(st.getLine());
+    }
+
+    /**
+     * Counts the execution and executes the wrapped statement.
+     * @param env the environment containing all the variables
+     * needed to execute the statement.
+     * @postcondition the statement has been executed and counted.
+     */
+    public void exec(Environment env)
+    {
+        entry.count++;
+        st.exec(env);
+    }
+
+    /**
+     * Compiles the wrapped statement. Profiling has no effect on the compiler.
+     * @param e the emitter used to emit the MIPS instructions.
+     */
+    public void compile(Emitter e)
+    {
+        st.compile(e);
+    }
+}
@@ -0,0 +1,254 @@
+package runtime;
+import ast.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A Profiler shows where an interpreted program spends its time. It counts how
+ * many times every statement runs, how often the condition of every If and
+ * While is true or false, and how long every procedure takes, both inclusive
+ * and exclusive of the procedures it calls. The report maps all of this back
+ * to the lines of the source program.
+ *
+ * Profiling is opt in: instrument() returns a copy of the program in which the
+ * statements, conditions and procedure bodies are wrapped in counting nodes.
+ * The original program is not touched, so running it costs exactly what it did
+ * before. One Profiler should be used for one execution at a time.
+ *
+ * The counts of the If and While statements and of the procedure calls can
+ * also be handed to the compiler as an ExecutionProfile of the original
+ * program, to guide its optimizations.
+ *
+ * Usage:
+ * Profiler profiler = new Profiler();
+ * profiler.instrument(parser.parseProgram()).exec(new Environment(null));
+ * System.out.print(profiler.report());
+ * ExecutionProfile profile = profiler.getExecutionProfile();
+ *
+ * @author Aditya Ramanathan
+ * @version 10/19/26
+ */
+public class Profiler
+{
+    private List<ProfileEntry> entries;
+    private List<ProfiledProcedure> procedures;
+    private Program original; // the program last instrumented
+    private Map<Object, ProfileEntry> origins; // its If, While and call nodes
+    private long[] childTimes; // time spent in callees, per active profiled call
+    private int depth;
+
+    /**
+     * Creates a profiler with no counters.
+     */
+    public Profiler()
+    {
+        entries = new ArrayList<ProfileEntry>();
+        procedures = new ArrayList<ProfiledProcedure>();
+        origins = new IdentityHashMap<Object, ProfileEntry>();
+        childTimes = new long[16];
+    }
+
+    /**
+     * Creates a copy of the program that reports to this profiler when executed.
+     * @param program the program to profile.
+     * @return the instrumented copy of the program.
+     */
+    public Program instrument(Program program)
+    {
+        original = program;
+        origins.clear();
+        return new Instrumenter().rewriteProgram(program);
+    }
+
+    /**
+     * Creates an ExecutionProfile of the program last instrumented from the
+     * counts of its If and While statements and of its procedure calls.
+     * @return the profile, attached to the original program.
+     */
+    public ExecutionProfile getExecutionProfile()
+    {
+        ExecutionProfile profile = new ExecutionProfile();
+        profile.attach(original);
+        for(Map.Entry<Object, ProfileEntry> origin: origins.entrySet())
+        {
+            Object node = origin.getKey();
+            ProfileEntry entry = origin.getValue();
+            if(node instanceof If)
+            {
+                profile.record((If) node, entry.trueCount, entry.falseCount);
+            }
+            else if(node instanceof While)
+            {
+                profile.record((While) node, entry.count, entry.trueCount);
+            }
+            else
+            {
+                profile.record((ProcedureCall) node, entry.count);
+            }
+        }
+        return profile;
+    }
+
+    /**
+     * Retrieves the counters of every statement, in the order of the source.
+     * @return the profile entries.
+     */
+    public List<ProfileEntry> getEntries()
+    {
+        List<ProfileEntry> sorted = new ArrayList<ProfileEntry>(entries);
+        Collections.sort(sorted, Comparator.comparingInt(ProfileEntry::getLine));
+        return sorted;
+    }
+
+    /**
+     * Called when a profiled procedure starts.
+     * @postcondition a new nested call is being timed.
+     */
+    void enter()
+    {
+        depth++;
+        if(depth == childTimes.length)
+        {
+            long[] bigger = new long[childTimes.length * 2];
+            System.arraycopy(childTimes, 0, bigger, 0, childTimes.length);
+            childTimes = bigger;
+        }
+        childTimes[depth] = 0;
+    }
+
+    /**
+     * Called when a profiled procedure finishes.
+     * @param elapsed the inclusive time of the call that finished.
+     * @return the time that the call spent inside other profiled procedures.
+     * @postcondition the elapsed time has been added to the caller's callee time.
+     */
+    long exit(long elapsed)
+    {
+        long inCallees = childTimes[depth];
+        depth--;
+        childTimes[depth] += elapsed;
+        return inCallees;
+    }
+
+    /**
+     * Produces a report with a table of procedure times followed by the
+     * counters of every statement, ordered by source line.
+     * @return the report as text.
+     */
+    public String report()
+    {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-16s %12s %14s %14s%n", "Procedure", "Calls",
+                "Inclusive ms", "Exclusive ms"));
+        for(ProfiledProcedure proc: procedures)
+        {
+            sb.append(String.format("%-16s %12d %14.3f %14.3f%n", proc.getName(), proc.calls,
+                    proc.inclusive / 1e6, proc.exclusive / 1e6));
+        }
+        sb.append(String.format("%n%6s  %-14s %-16s %12s  %s%n", "Line", "Statement",
+                "Procedure", "Count", "Outcomes"));
+        for(ProfileEntry entry: getEntries())
+        {
+            String outcomes = "";
+            if(entry.getKind().equals("If"))
+            {
+                outcomes = "then " + entry.getTrueCount() + ", else " + entry.getFalseCount();
+            }
+            else if(entry.getKind().equals("While"))
+            {
+                outcomes = "iterations " + entry.getTrueCount();
+            }
+            String proc = entry.getProcedure() == null ? "(main)" : entry.getProcedure();
+            sb.append(String.format("%6d  %-14s %-16s %12d", entry.getLine(),
+                    entry.getKind(), proc, entry.getCount()));
+            if(!outcomes.isEmpty())
+            {
+                sb.append("  ").append(outcomes);
+            }
+            sb.append(System.lineSeparator());
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Wraps the statements, conditions, procedure calls and procedure bodies
+     * of a program in profiling nodes that report to this profiler.
+     */
+    private class Instrumenter extends AstRewriter
+    {
+        private ProfileEntry condOwner; // the statement whose condition or expressions are next
+
+        /**
+         * Wraps the statement(s) of the procedure so that calls are timed.
+         * @param dec the procedure to instrument.
+         * @return the instrumented procedure.
+         */
+        public ProcedureDeclaration rewriteProcedure(ProcedureDeclaration dec)
+        {
+            ProcedureDeclaration copy = super.rewriteProcedure(dec);
+            ProfiledProcedure body = new ProfiledProcedure(dec.getName(), copy.getStatement(),
+                    Profiler.this);
+            procedures.add(body);
+            ProcedureDeclaration timed = new ProcedureDeclaration(dec.getName(), body,
+                    copy.getParms(), copy.getLocalVariables());
+            timed.setLine(dec.getLine());
+            return timed;
+        }
+
+        /**
+         * Wraps the statement so that its executions are counted. The condition
+         * of an If or While is always rewritten first, so it picks up the entry
+         * of its statement through condOwner.
+         * @param st the statement to instrument.
+         * @return the instrumented statement.
+         */
+        public Statement rewriteStatement(Statement st)
+        {
+            ProcedureDeclaration proc = getProcedureContext();
+            ProfileEntry entry = new ProfileEntry(st.getClass().getSimpleName(),
+                    proc == null ? null : proc.getName(), st.getLine());
+            entries.add(entry);
+            if(st instanceof If || st instanceof While)
+            {
+                origins.put(st, entry);
+            }
+            condOwner = entry;
+            return new ProfiledStatement(super.rewriteStatement(st), entry);
+        }
+
+        /**
+         * Replaces the condition with one that counts its outcomes.
+         * @param cond the condition to instrument.
+         * @return the instrumented condition.
+         */
+        public Condition rewriteCondition(Condition cond)
+        {
+            return new ProfiledCondition(super.rewriteCondition(cond), condOwner);
+        }
+
+        /**
+         * Replaces a procedure call with one that counts its runs. Calls are
+         * not statements, so their entries are left out of the report.
+         * @param exp the expression to instrument.
+         * @return the instrumented expression.
+         */
+        public Expression rewriteExpression(Expression exp)
+        {
+            Expression copy = super.rewriteExpression(exp);
+            if(!(exp instanceof ProcedureCall))
+            {
+                return copy;
+            }
+            ProcedureDeclaration proc = getProcedureContext();
+            ProfileEntry entry = new ProfileEntry(((ProcedureCall) exp).getName() + "()",
+                    proc == null ? null : proc.getName(), condOwner.getLine());
+            origins.put(exp, entry);
+            return new ProfiledCall((ProcedureCall) copy, entry);
+        }
+    }
+}
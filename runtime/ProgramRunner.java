@@ -0,0 +1,204 @@
+package runtime;
+import ast.*;
+
+import java.io.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A ProgramRunner executes one parsed Program for many independent requests at
+ * the same time. Every request gets its own ExecutionContext, so requests never
+ * see each other's variables or streams. When the JVM supports virtual threads,
+ * each request runs on its own virtual thread; otherwise a fixed pool with one
+ * platform thread per core is used.
+ *
+ * The runner keeps throughput and latency metrics for all completed requests.
+ * Latencies are recorded in a histogram with one bucket per power of two
+ * nanoseconds, which is enough to report percentiles.
+ *
+ * Usage:
+ * ProgramRunner runner = new ProgramRunner(parser.parseProgram());
+ * Future<ExecutionContext> result = runner.submit(in, out);
+ * result.get();
+ * runner.shutdown();
+ *
+ * @author Aditya Ramanathan
+ * @version 10/19/26
+ */
+public class ProgramRunner
+{
+    private static final int BUCKETS = 64;
+
+    private final Program program;
+    private final ExecutorService executor;
+    private final long createdTime;
+    private final AtomicLong completed;
+    private final AtomicLong failed;
+    private final AtomicLong totalLatency;
+    private final AtomicLong maxLatency;
+    private final AtomicLongArray histogram;
+
+    /**
+     * Creates a runner that uses virtual threads when they are available.
+     * @param program the program that every request runs.
+     */
+    public ProgramRunner(Program program)
+    {
+        this(program, defaultExecutor());
+    }
+
+    /**
+     * Creates a runner that runs requests on the given executor.
+     * @param program the program that every request runs.
+     * @param executor the executor the requests are submitted to.
+     */
+    public ProgramRunner(Program program, ExecutorService executor)
+    {
+        this.program = program;
+        this.executor = executor;
+        createdTime = System.nanoTime();
+        completed = new AtomicLong();
+        failed = new AtomicLong();
+        totalLatency = new AtomicLong();
+        maxLatency = new AtomicLong();
+        histogram = new AtomicLongArray(BUCKETS);
+    }
+
+    /**
+     * Creates an executor with one virtual thread per task if the JVM has
+     * virtual threads, or a fixed pool with one thread per core if it does not.
+     * Reflection is used so that this class still compiles for older JVMs.
+     * @return the executor to use.
+     */
+    private static ExecutorService defaultExecutor()
+    {
+        try
+        {
+            return (ExecutorService) Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        }
+        catch(ReflectiveOperationException e)
+        {
+            return Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        }
+    }
+
+    /**
+     * Runs the program for one request.
+     * @param in the stream that READLN reads from for this request.
+     * @param out the stream that WRITELN prints to for this request.
+     * @return a future that completes with the context of the finished run.
+     */
+    public Future<ExecutionContext> submit(InputStream in, OutputStream out)
+    {
+        ExecutionContext ctx = new ExecutionContext(program, in, out);
+        return executor.submit(() ->
+        {
+            try
+            {
+                ctx.run();
+            }
+            catch(RuntimeException e)
+            {
+                failed.incrementAndGet();
+                throw e;
+            }
+            record(ctx.getLatency());
+            return ctx;
+        });
+    }
+
+    /**
+     * Adds the latency of a completed run to the metrics.
+     * @param latency the run time in nanoseconds.
+     */
+    private void record(long latency)
+    {
+        completed.incrementAndGet();
+        totalLatency.addAndGet(latency);
+        maxLatency.accumulateAndGet(latency, Math::max);
+        histogram.incrementAndGet(BUCKETS - 1 - Long.numberOfLeadingZeros(Math.max(latency, 1)));
+    }
+
+    /**
+     * Retrieves the number of runs that finished normally.
+     * @return the number of completed runs.
+     */
+    public long getCompleted()
+    {
+        return completed.get();
+    }
+
+    /**
+     * Retrieves the number of runs that threw an exception.
+     * @return the number of failed runs.
+     */
+    public long getFailed()
+    {
+        return failed.get();
+    }
+
+    /**
+     * Retrieves the number of completed runs per second since the runner
+     * was created.
+     * @return the throughput in runs per second.
+     */
+    public double getThroughput()
+    {
+        double seconds = (System.nanoTime() - createdTime) / 1e9;
+        return seconds == 0 ? 0 : completed.get() / seconds;
+    }
+
+    /**
+     * Retrieves the mean latency of the completed runs.
+     * @return the mean latency in nanoseconds.
+     */
+    public double getMeanLatency()
+    {
+        long n = completed.get();
+        return n == 0 ? 0 : (double) totalLatency.get() / n;
+    }
+
+    /**
+     * Retrieves the largest latency of any completed run.
+     * @return the maximum latency in nanoseconds.
+     */
+    public long getMaxLatency()
+    {
+        return maxLatency.get();
+    }
+
+    /**
+     * Estimates a latency percentile from the histogram. The result is the
+     * upper bound of the bucket that contains the percentile, so it is at most
+     * twice the true value.
+     * @param percentile the percentile wanted, between 0 and 100.
+     * @return the estimated latency in nanoseconds.
+     */
+    public long getLatencyPercentile(double percentile)
+    {
+        long n = completed.get();
+        long rank = (long) Math.ceil(n * percentile / 100);
+        long seen = 0;
+        for(int i = 0; i < BUCKETS; i++)
+        {
+            seen += histogram.get(i);
+            if(seen >= rank && seen > 0)
+            {
+                return i >= BUCKETS - 2 ? Long.MAX_VALUE : (1L << (i + 1)) - 1;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Stops accepting requests and waits for the running ones to finish.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    public void shutdown() throws InterruptedException
+    {
+        executor.shutdown();
+        executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,266 @@
+package runtime;
+import scanner.*;
+import parser.*;
+import environment.*;
+import ast.*;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Tests the runtime on "RuntimeTest.txt", which reads a number n and prints n
+ * lines. The program is parsed once and run for many requests at the same
+ * time, each with its own input and output, and the output of every run is
+ * checked against the values the program should print for its input.
+ *
+ * "ParallelTest.txt" is run sequentially and with parallel evaluation, which
+ * should print the same. Only the sum in the pure procedure fib may be made
+ * parallel; the procedure counted writes a global, so its calls stay sequential.
+ *
+ * "RuntimeTest.txt" is also run through an ExecutionCache in a new directory:
+ * a second run on the same input should be replayed, an entry that is damaged
+ * or deleted should make the program run again, and a small cache should
+ * evict entries. Every run should print the same as running the program.
+ *
+ * "LoopTest.txt" never ends. A Scheduler with one worker runs it twice, once
+ * with a budget and once without, together with "RuntimeTest.txt" at a higher
+ * priority. The loops have to yield their worker so that the other program can
+ * finish, the loop with a budget has to be stopped by it, and the other loop
+ * has to stop when it is cancelled.
+ * @author Aditya Ramanathan
+ * @version 10/19/26
+ */
+public class RuntimeTester
+{
+    public static final int RUNS = 64;
+
+    /**
+     * Main Tester Method for the runtime.
+     * @param str the arguments passed to the main method.
+     * @throws IOException if the test file is not found.
+     * @throws InterruptedException if interrupted while waiting for a run.
+     * @throws ExecutionException if a run fails.
+     */
+    public static void main(String[] str)
+            throws IOException, InterruptedException, ExecutionException
+    {
+        Program program = parse("RuntimeTest.txt");
+        testConcurrentRuns(program);
+        testParallelEvaluation(parse("ParallelTest.txt"));
+        testCache(program);
+        testScheduler(program, parse("LoopTest.txt"));
+    }
+
+    /**
+     * Parses a test program.
+     * @param fileName the name of the file with the program.
+     * @return the program.
+     * @throws IOException if the file is not found.
+     */
+    private static Program parse(String fileName) throws IOException
+    {
+        return new Parser(new Scanner(new FileInputStream(new File(fileName)))).parseProgram();
+    }
+
+    /**
+     * Runs the program for RUNS requests at once through a ProgramRunner, with
+     * the input 1 to RUNS, and checks the output of every request.
+     * @param program the program to run.
+     * @throws InterruptedException if interrupted while waiting for a run.
+     * @throws ExecutionException if a run fails.
+     */
+    private static void testConcurrentRuns(Program program)
+            throws InterruptedException, ExecutionException
+    {
+        ProgramRunner runner = new ProgramRunner(program);
+        List<ByteArrayOutputStream> outputs = new ArrayList<ByteArrayOutputStream>();
+        List<Future<ExecutionContext>> results = new ArrayList<Future<ExecutionContext>>();
+        for(int n = 1; n <= RUNS; n++)
+        {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            outputs.add(out);
+            results.add(runner.submit(new ByteArrayInputStream((n + "\n").getBytes()), out));
+        }
+        for(Future<ExecutionContext> result: results)
+        {
+            result.get();
+        }
+        runner.shutdown();
+
+        int correct = 0;
+        for(int n = 1; n <= RUNS; n++)
+        {
+            if(outputs.get(n - 1).toString().equals(expected(n)))
+            {
+                correct++;
+            }
+        }
+        System.out.println("concurrent runs: " + correct + " of " + RUNS
+                + " outputs correct, " + runner.getFailed() + " failed");
+    }
+
+    /**
+     * Runs a program sequentially and with parallel evaluation, and checks that
+     * both print the same.
+     * @param program the program to run.
+     */
+    private static void testParallelEvaluation(Program program)
+    {
+        String sequential = run(program);
+        ParallelEvaluator parallel = new ParallelEvaluator();
+        String forked = run(parallel.parallelize(program));
+        System.out.print(sequential);
+        System.out.println("parallel evaluation: " + parallel.getParallelSites()
+                + " parallel sites, output "
+                + (forked.equals(sequential) ? "matches" : "differs from") + " sequential");
+    }
+
+    /**
+     * Runs a program through an ExecutionCache: twice on the same input, again
+     * after damaging and after deleting the entry, and then on many inputs
+     * with a cache too small to keep them all.
+     * @param program the program to run, which reads one number.
+     * @throws IOException if the cache directory cannot be used.
+     */
+    private static void testCache(Program program) throws IOException
+    {
+        Path dir = Files.createTempDirectory("cache");
+        ExecutionCache cache = new ExecutionCache(dir.toFile(), 1 << 20);
+        String first = runCached(cache, program, 5);
+        String replayed = runCached(cache, program, 5);
+        System.out.println("execution cache: " + cache.getHits() + " hit, "
+                + cache.getMisses() + " miss, replayed output "
+                + (replayed.equals(first) && first.equals(expected(5)) ? "identical" : "differs"));
+
+        try(DirectoryStream<Path> entries = Files.newDirectoryStream(dir, "*.out"))
+        {
+            for(Path entry: entries)
+            {
+                Files.write(entry, "damaged".getBytes());
+            }
+        }
+        String afterDamage = runCached(cache, program, 5);
+        try(DirectoryStream<Path> entries = Files.newDirectoryStream(dir, "*.out"))
+        {
+            for(Path entry: entries)
+            {
+                Files.delete(entry);
+            }
+        }
+        String afterDelete = runCached(cache, program, 5);
+        System.out.println("damaged and deleted entries: " + cache.getHits() + " hit, "
+                + cache.getMisses() + " misses, output "
+                + (afterDamage.equals(first) && afterDelete.equals(first) ? "identical" : "differs"));
+
+        ExecutionCache small = new ExecutionCache(Files.createTempDirectory("cache").toFile(), 256);
+        int correct = 0;
+        for(int n = 1; n <= 10; n++)
+        {
+            if(runCached(small, program, n).equals(expected(n)))
+            {
+                correct++;
+            }
+        }
+        System.out.println("small cache: " + correct + " of 10 outputs correct, "
+                + (small.getEvictions() > 0 ? "entries evicted" : "nothing evicted"));
+    }
+
+    /**
+     * Runs a program that reads one number through a cache.
+     * @param cache the cache.
+     * @param program the program.
+     * @param n the number to give the program.
+     * @return everything the program printed.
+     * @throws IOException if the cache directory cannot be used.
+     */
+    private static String runCached(ExecutionCache cache, Program program, int n)
+            throws IOException
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        cache.run(program, new ByteArrayInputStream((n + "\n").getBytes()), out);
+        return out.toString();
+    }
+
+    /**
+     * Runs two copies of a program that never ends and one that does on a
+     * scheduler with one worker, then cancels the copy that has no budget.
+     * @param program a program that reads one number and ends.
+     * @param loop a program that never ends.
+     * @throws InterruptedException if interrupted while waiting for a program.
+     */
+    private static void testScheduler(Program program, Program loop)
+            throws InterruptedException
+    {
+        Scheduler scheduler = new Scheduler(1, 1000);
+        InputStream none = new ByteArrayInputStream(new byte[0]);
+        ScheduledTask limited = scheduler.submit(loop, none, OutputStream.nullOutputStream(), 1, 100000);
+        ScheduledTask endless = scheduler.submit(loop, none, OutputStream.nullOutputStream(), 1, 0);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ScheduledTask finite = scheduler.submit(program,
+                new ByteArrayInputStream("5\n".getBytes()), out, 2, 0);
+
+        String finished = stopReason(finite);
+        endless.cancel();
+        System.out.println("scheduler: program beside the loops " + finished + ", output "
+                + (out.toString().equals(expected(5)) ? "correct" : "wrong"));
+        System.out.println("loop with a budget: " + stopReason(limited));
+        System.out.println("loop without a budget: "
+                + (stopReason(endless).startsWith("Cancelled") ? "cancelled" : "not cancelled")
+                + ", " + (scheduler.getSwitches() > 0 ? "workers switched" : "no switches"));
+        scheduler.shutdown();
+    }
+
+    /**
+     * Waits for a scheduled program to end.
+     * @param task the program.
+     * @return "finished" if it ended normally, or the message of the
+     * CancellationException that stopped it.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    private static String stopReason(ScheduledTask task) throws InterruptedException
+    {
+        try
+        {
+            task.await();
+            return "finished";
+        }
+        catch(CancellationException e)
+        {
+            return e.getMessage();
+        }
+    }
+
+    /**
+     * Runs a program in a new global environment.
+     * @param program the program to run.
+     * @return everything the program printed.
+     */
+    private static String run(Program program)
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Environment env = new Environment(null);
+        env.setOutput(new OutputSink(out));
+        program.exec(env);
+        return out.toString();
+    }
+
+    /**
+     * Computes what the test program prints for an input.
+     * @param n the number the program reads.
+     * @return the output, one line per value.
+     */
+    private static String expected(int n)
+    {
+        StringBuilder sb = new StringBuilder();
+        for(int i = 1; i <= n; i++)
+        {
+            sb.append(i * (i + 1) / 2 * n).append('\n');
+        }
+        return sb.toString();
+    }
+}
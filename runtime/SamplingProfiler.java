@@ -0,0 +1,144 @@
+package runtime;
+import environment.*;
+
+import java.io.*;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A SamplingProfiler periodically looks at the shadow stack of a running
+ * program from a background thread and counts how often each stack of procedure
+ * calls was seen. Unlike the Profiler, it needs no changes to the program, so
+ * it can be attached to an execution that is already running, and it costs the
+ * interpreter nothing beyond keeping the shadow stack up to date.
+ *
+ * The samples are written in the collapsed stack format read by standard flame
+ * graph tools: one line per distinct stack, with the frames from the main block
+ * inward separated by semicolons, followed by the number of samples. Every
+ * frame is labelled with the procedure name and the line it was executing.
+ *
+ * Usage:
+ * SamplingProfiler sampler = new SamplingProfiler(env, 1000);
+ * sampler.start();
+ * program.exec(env);
+ * sampler.stop();
+ * sampler.writeCollapsed(new FileWriter("profile.folded"));
+ *
+ * @author Aditya Ramanathan
+ * @version 10/19/26
+ */
+public class SamplingProfiler
+{
+    private static final int MAX_FRAMES = 1024;
+
+    private ShadowStack stack;
+    private long interval;
+    private Map<String, Long> samples;
+    private long sampleCount;
+    private volatile boolean running;
+    private Thread thread;
+
+    /**
+     * Creates a sampler for the execution that the environment belongs to.
+     * @param env any environment of the execution to sample.
+     * @param intervalMicros the time between two samples in microseconds.
+     */
+    public SamplingProfiler(Environment env, long intervalMicros)
+    {
+        this(env.getShadowStack(), intervalMicros);
+    }
+
+    /**
+     * Creates a sampler for the given shadow stack.
+     * @param stack the shadow stack to sample.
+     * @param intervalMicros the time between two samples in microseconds.
+     */
+    public SamplingProfiler(ShadowStack stack, long intervalMicros)
+    {
+        this.stack = stack;
+        interval = intervalMicros * 1000;
+        samples = new HashMap<String, Long>();
+    }
+
+    /**
+     * Starts taking samples on a background daemon thread.
+     * @postcondition the sampler is running.
+     */
+    public void start()
+    {
+        running = true;
+        thread = new Thread(this::sampleLoop, "SamplingProfiler");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stops taking samples and waits for the background thread to finish.
+     * @throws InterruptedException if interrupted while waiting.
+     * @postcondition no more samples are taken.
+     */
+    public void stop() throws InterruptedException
+    {
+        running = false;
+        if(thread != null)
+        {
+            thread.join();
+            thread = null;
+        }
+    }
+
+    /**
+     * Retrieves the number of samples taken so far.
+     * @return the number of samples.
+     */
+    public synchronized long getSampleCount()
+    {
+        return sampleCount;
+    }
+
+    /**
+     * Writes the samples in collapsed stack format.
+     * @param out where the samples are written. It is flushed but not closed.
+     * @throws IOException if the samples cannot be written.
+     */
+    public synchronized void writeCollapsed(Writer out) throws IOException
+    {
+        for(Map.Entry<String, Long> entry: samples.entrySet())
+        {
+            out.write(entry.getKey() + " " + entry.getValue() + "\n");
+        }
+        out.flush();
+    }
+
+    /**
+     * The body of the background thread, which takes one sample per interval
+     * until stop() is called.
+     */
+    private void sampleLoop()
+    {
+        String[] names = new String[MAX_FRAMES];
+        int[] lines = new int[MAX_FRAMES];
+        StringBuilder sb = new StringBuilder();
+        while(running)
+        {
+            LockSupport.parkNanos(interval);
+            int frames = stack.snapshot(names, lines);
+            sb.setLength(0);
+            for(int i = 0; i < frames; i++)
+            {
+                if(i > 0)
+                {
+                    sb.append(';');
+                }
+                sb.append(names[i] == null ? "main" : names[i]).append(':').append(lines[i]);
+            }
+            String key = sb.toString();
+            synchronized(this)
+            {
+                samples.merge(key, 1L, Long::sum);
+                sampleCount++;
+            }
+        }
+    }
+}
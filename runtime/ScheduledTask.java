@@ -0,0 +1,253 @@
+package runtime;
+import environment.*;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A ScheduledTask is one program run by a Scheduler. It is the safepoint of the
+ * run: whenever the run has used up a quantum, the task charges the quantum to
+ * the budget, stops the run if it has been cancelled or is over budget, and
+ * otherwise lets the scheduler hand its worker to a waiting program.
+ *
+ * @author Aditya Ramanathan
+ * @version 10/19/26
+ */
+public class ScheduledTask extends Safepoint implements Runnable, Comparable<ScheduledTask>
+{
+    private final Scheduler scheduler;
+    private final ExecutionContext ctx;
+    private final int priority;
+    private final long budget;
+    private final int quantum;
+    private final CountDownLatch done;
+    private volatile boolean cancelled;
+    private volatile boolean waiting;
+    private boolean holdsWorker; // only read and written while holding the scheduler's lock
+    private volatile long ticks;
+    private long turn;
+    private Condition wakeup;
+    private RuntimeException failure;
+
+    /**
+     * Creates a task.
+     * @param scheduler the scheduler that runs the task.
+     * @param ctx the run of the program.
+     * @param priority the priority of the task; higher runs first.
+     * @param budget the number of ticks the task may use, or 0 for no limit.
+     * @param quantum the number of ticks between safepoint checks.
+     */
+    ScheduledTask(Scheduler scheduler, ExecutionContext ctx, int priority, long budget, int quantum)
+    {
+        super(quantum);
+        this.scheduler = scheduler;
+        this.ctx = ctx;
+        this.priority = priority;
+        this.budget = budget;
+        this.quantum = quantum;
+        done = new CountDownLatch(1);
+        ctx.setSafepoint(this);
+    }
+
+    /**
+     * Runs the program whenever the scheduler gives it a worker.
+     * @postcondition the program has finished, failed or been stopped.
+     */
+    public void run()
+    {
+        try
+        {
+            if(cancelled)
+            {
+                throw new CancellationException("Cancelled before it started");
+            }
+            scheduler.acquire(this);
+            try
+            {
+                ctx.run();
+            }
+            finally
+            {
+                scheduler.release(this);
+            }
+        }
+        catch(RuntimeException e)
+        {
+            failure = e;
+        }
+        finally
+        {
+            done.countDown();
+        }
+    }
+
+    /**
+     * Charges a used up quantum to the budget, then stops the program or lets
+     * another one run.
+     * @return the number of ticks in the next quantum.
+     * @throws CancellationException if the task has been cancelled or has used
+     * up its budget.
+     */
+    protected int expired()
+    {
+        ticks += quantum;
+        if(cancelled)
+        {
+            throw new CancellationException("Cancelled after " + ticks + " ticks");
+        }
+        if(budget > 0 && ticks >= budget)
+        {
+            throw new CancellationException("Used up its budget of " + budget + " ticks");
+        }
+        scheduler.yield(this);
+        return quantum;
+    }
+
+    /**
+     * Stops the program at its next safepoint, or before it starts if it has
+     * not started yet.
+     */
+    public void cancel()
+    {
+        cancelled = true;
+        if(waiting)
+        {
+            scheduler.wake(this);
+        }
+    }
+
+    /**
+     * Waits for the program to end.
+     * @return the finished run.
+     * @throws InterruptedException if the current thread is interrupted.
+     * @throws RuntimeException whatever stopped the program, such as a
+     * CancellationException if it was cancelled or went over budget.
+     */
+    public ExecutionContext await() throws InterruptedException
+    {
+        done.await();
+        if(failure != null)
+        {
+            throw failure;
+        }
+        return ctx;
+    }
+
+    /**
+     * Determines whether the program has ended.
+     * @return true if it finished, failed or was stopped.
+     */
+    public boolean isDone()
+    {
+        return done.getCount() == 0;
+    }
+
+    /**
+     * Retrieves the ticks the program has used, counted in whole quanta.
+     * @return the number of ticks used.
+     */
+    public long getTicks()
+    {
+        return ticks;
+    }
+
+    /**
+     * Retrieves the priority of the program.
+     * @return the priority.
+     */
+    public int getPriority()
+    {
+        return priority;
+    }
+
+    /**
+     * Orders tasks with a higher priority first, and tasks with the same
+     * priority by when they started waiting.
+     * @param other the task to compare to.
+     * @return a negative number if this task should get a worker first.
+     */
+    public int compareTo(ScheduledTask other)
+    {
+        if(priority != other.priority)
+        {
+            return Integer.compare(other.priority, priority);
+        }
+        return Long.compare(turn, other.turn);
+    }
+
+    /**
+     * Records when the task started waiting.
+     * @param turn a number that grows each time a task starts waiting.
+     */
+    void setTurn(long turn)
+    {
+        this.turn = turn;
+    }
+
+    /**
+     * Waits until the scheduler grants a worker or the task is cancelled.
+     * @param lock the lock of the scheduler, which the caller holds.
+     * @return true if the task was granted a worker, or false if it was cancelled.
+     */
+    boolean awaitWorker(ReentrantLock lock)
+    {
+        wakeup = lock.newCondition();
+        waiting = true;
+        try
+        {
+            while(waiting && !cancelled)
+            {
+                wakeup.awaitUninterruptibly();
+            }
+            return holdsWorker;
+        }
+        finally
+        {
+            waiting = false;
+        }
+    }
+
+    /**
+     * Records whether the task holds a worker.
+     * @param holdsWorker true if the task holds a worker.
+     * @precondition the caller holds the lock of the scheduler.
+     */
+    void setHoldsWorker(boolean holdsWorker)
+    {
+        this.holdsWorker = holdsWorker;
+    }
+
+    /**
+     * Determines whether the task holds a worker.
+     * @return true if the task holds a worker.
+     * @precondition the caller holds the lock of the scheduler.
+     */
+    boolean holdsWorker()
+    {
+        return holdsWorker;
+    }
+
+    /**
+     * Gives the task a worker.
+     * @precondition the caller holds the lock of the scheduler and has removed
+     * the task from the queue.
+     */
+    void grantWorker()
+    {
+        holdsWorker = true;
+        waiting = false;
+        wakeup.signal();
+    }
+
+    /**
+     * Wakes the task without giving it a worker.
+     * @precondition the caller holds the lock of the scheduler and has removed
+     * the task from the queue.
+     */
+    void signal()
+    {
+        wakeup.signal();
+    }
+}
@@ -0,0 +1,277 @@
+package runtime;
+import ast.*;
+
+import java.io.*;
+import java.util.PriorityQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A Scheduler shares a fixed number of workers between many running programs.
+ * Only that many programs make progress at any moment; the others wait at a
+ * safepoint. A program gives up its worker once it has used a quantum of ticks
+ * (loop iterations and procedure calls) while another program is waiting, so
+ * a program that never ends cannot keep a worker to itself.
+ *
+ * Waiting programs get a worker in order of priority, and programs of equal
+ * priority take turns. Each program may also have a budget of ticks, after which
+ * it is stopped, and can be cancelled at any time; both take effect at its next
+ * safepoint after the current quantum.
+ *
+ * The JVM cannot suspend an interpreter in the middle of a program and resume
+ * it on another thread, so every program has its own thread (a virtual thread
+ * when the JVM has them) and the workers are permits to run.
+ *
+ * Usage:
+ * Scheduler scheduler = new Scheduler(4, 10000);
+ * ScheduledTask task = scheduler.submit(program, in, out, 1, 1000000);
+ * task.await();
+ * scheduler.shutdown();
+ *
+ * @author Aditya Ramanathan
+ * @version 10/19/26
+ */
+public class Scheduler
+{
+    private final int quantum;
+    private final ExecutorService threads;
+    private final ReentrantLock lock;
+    private final PriorityQueue<ScheduledTask> waiting;
+    private int freeWorkers;
+    private long turns; // orders tasks of equal priority by when they started waiting
+    private long switches;
+
+    /**
+     * Creates a scheduler.
+     * @param workers the number of programs that may run at the same time.
+     * @param quantum the number of ticks a program may run before it gives up
+     * its worker to a waiting program.
+     */
+    public Scheduler(int workers, int quantum)
+    {
+        if(workers <= 0 || quantum <= 0)
+        {
+            throw new IllegalArgumentException("Workers and quantum must be positive");
+        }
+        this.quantum = quantum;
+        freeWorkers = workers;
+        lock = new ReentrantLock();
+        waiting = new PriorityQueue<ScheduledTask>();
+        threads = threadPerTask();
+    }
+
+    /**
+     * Creates an executor that starts a new thread for every task, virtual if
+     * the JVM has virtual threads. Reflection is used so that this class still
+     * compiles for older JVMs.
+     * @return the executor to use.
+     */
+    private static ExecutorService threadPerTask()
+    {
+        try
+        {
+            return (ExecutorService) Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        }
+        catch(ReflectiveOperationException e)
+        {
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    /**
+     * Starts a program. It runs as soon as a worker is free and no waiting
+     * program has a higher priority.
+     * @param program the program to run.
+     * @param in the stream that READLN reads from.
+     * @param out the stream that WRITELN prints to.
+     * @param priority the priority of the program; higher runs first.
+     * @param budget the number of ticks the program may use, or 0 for no limit.
+     * @return the task, which can be waited for or cancelled.
+     */
+    public ScheduledTask submit(Program program, InputStream in, OutputStream out,
+                                int priority, long budget)
+    {
+        ScheduledTask task = new ScheduledTask(this, new ExecutionContext(program, in, out),
+                priority, budget, quantum);
+        threads.execute(task);
+        return task;
+    }
+
+    /**
+     * Waits for a worker.
+     * @param task the task that needs a worker.
+     * @postcondition the task holds a worker.
+     * @throws CancellationException if the task is cancelled
+     * while it waits.
+     */
+    void acquire(ScheduledTask task)
+    {
+        lock.lock();
+        try
+        {
+            if(freeWorkers > 0 && waiting.isEmpty())
+            {
+                freeWorkers--;
+                task.setHoldsWorker(true);
+                return;
+            }
+            await(task);
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Puts a task in the queue and waits until it is granted a worker.
+     * @param task the task that needs a worker.
+     * @precondition the caller holds the lock.
+     * @throws CancellationException if the task is cancelled
+     * while it waits.
+     */
+    private void await(ScheduledTask task)
+    {
+        task.setTurn(turns++);
+        waiting.add(task);
+        if(!task.awaitWorker(lock))
+        {
+            waiting.remove(task);
+            throw new CancellationException("Cancelled while waiting");
+        }
+    }
+
+    /**
+     * Gives the worker of a task to the waiting task that should run next, or
+     * frees it.
+     * @param task the task that is done with its worker.
+     * @postcondition the task no longer holds a worker.
+     */
+    void release(ScheduledTask task)
+    {
+        lock.lock();
+        try
+        {
+            if(!task.holdsWorker())
+            {
+                return;
+            }
+            task.setHoldsWorker(false);
+            handOver();
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gives a worker that has just been given up to the waiting task that should
+     * run next, or frees it if no task is waiting.
+     * @precondition the caller holds the lock.
+     */
+    private void handOver()
+    {
+        ScheduledTask next = waiting.poll();
+        if(next == null)
+        {
+            freeWorkers++;
+        }
+        else
+        {
+            next.grantWorker();
+        }
+    }
+
+    /**
+     * Lets a waiting task run instead of the given one, if there is a waiting
+     * task that does not have a lower priority.
+     * @param task the task whose quantum has been used up.
+     * @postcondition the task holds a worker again.
+     */
+    void yield(ScheduledTask task)
+    {
+        lock.lock();
+        try
+        {
+            ScheduledTask next = waiting.peek();
+            if(next == null || next.getPriority() < task.getPriority())
+            {
+                return;
+            }
+            switches++;
+            task.setHoldsWorker(false);
+            handOver();
+            await(task);
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Wakes a task that is cancelled while it waits for a worker.
+     * @param task the cancelled task.
+     */
+    void wake(ScheduledTask task)
+    {
+        lock.lock();
+        try
+        {
+            if(waiting.remove(task))
+            {
+                task.signal();
+            }
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Retrieves how many programs are waiting for a worker.
+     * @return the number of waiting programs.
+     */
+    public int getWaiting()
+    {
+        lock.lock();
+        try
+        {
+            return waiting.size();
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Retrieves how many times a program gave up its worker to another.
+     * @return the number of context switches.
+     */
+    public long getSwitches()
+    {
+        lock.lock();
+        try
+        {
+            return switches;
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stops accepting programs. Programs that have been submitted still run.
+     */
+    public void shutdown()
+    {
+        threads.shutdown();
+    }
+}
@@ -16,13 +16,15 @@ import java.io.*;
  * Now using the nextToken() method, you can scan through the file token by token.
  *
  * @author Aditya Ramanathan
- * @version 2/1/24, comma ',' functionality added 4/16/24
+ * @version 2/1/24, comma ',' functionality added 4/16/24, line numbers added, tokens ended by the end of input 10/19/26
  */
 public class Scanner
 {
     private BufferedReader in;
     private char currentChar;
     private boolean eof;
+    private int lineNumber = 1;
+    private int tokenLine = 1;
 
     /**
      * Scanner constructor for construction of a scanner that uses an InputStream
@@ -72,6 +74,8 @@ public class Scanner
                 eof = true;
             else
                 currentChar = (char) inp;
+            if(inp == '\n')
+                lineNumber++;
         }
         catch (IOException e)
         {
@@ -109,6 +113,16 @@ public class Scanner
         return !eof;
     }
 
+    /**
+     * Retrieves the line of the input on which the last token returned by
+     * nextToken() started. Lines are numbered from 1.
+     * @return the line number of the last token.
+     */
+    public int getLineNumber()
+    {
+        return tokenLine;
+    }
+
     /**
      * Determines whether the character given is a digit.
      * @param chr the character to determine whether it is a digit.
@@ -174,13 +188,13 @@ public class Scanner
 
         String number = "";
 
-        while(isDigit(currentChar))
+        while(hasNext() && isDigit(currentChar))
         {
             number += currentChar;
             eat(currentChar);
         }
 
-        if (isWhiteSpace(currentChar) || isOperand(currentChar))
+        if (!hasNext() || isWhiteSpace(currentChar) || isOperand(currentChar))
         {
             return number;
         }
@@ -203,13 +217,13 @@ public class Scanner
             throw new ScanErrorException("Not an identifier");
         }
 
-        while (isDigit(currentChar) || isLetter(currentChar))
+        while (hasNext() && (isDigit(currentChar) || isLetter(currentChar)))
         {
             identifier += currentChar;
             eat(currentChar);
         }
 
-        if (isWhiteSpace(currentChar) || isOperand(currentChar))
+        if (!hasNext() || isWhiteSpace(currentChar) || isOperand(currentChar))
         {
             return identifier;
         }
@@ -256,12 +270,13 @@ public class Scanner
 
             if(currentChar == '/')
             {
+                tokenLine = lineNumber;
                 char prev = currentChar;
                 eat(currentChar);
                 // handle comments
                 if(currentChar == '/')
                 {
-                    while(currentChar != '\n')
+                    while(hasNext() && currentChar != '\n')
                     {
                         eat(currentChar);
                     }
@@ -277,6 +292,7 @@ public class Scanner
             {
                 eat(currentChar);
             }
+            tokenLine = lineNumber;
             if (eof)
             {
                 return "EOF";